@@ -0,0 +1,74 @@
+package dev.sc.apm.benchmark;
+
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.service.ApplicationColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ./gradlew jmh -Pjmh.includes=ApplicationColumnsBenchmark
+ *
+ * Group-by scans of the in-process column store: approval rate by requested amount bucket over every row,
+ * and the term distribution of a 30 day window. 50M rows take about 1.9 GB of heap.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ApplicationColumnsBenchmark {
+
+    private static final int DAYS = 3 * 365;
+
+    @Param({"1000000", "50000000"})
+    private int rows;
+
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private ApplicationColumns columns;
+    private ForkJoinPool pool;
+    private ApplicationColumns.Filter window;
+
+    @Setup
+    public void setUp() {
+        columns = new ApplicationColumns();
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 1; i <= rows; i++) {
+            long requestedCents = 1_000_00L + random.nextLong(1_000_000_00L);
+            boolean approved = random.nextInt(3) != 0;
+            columns.append(
+                    i,
+                    requestedCents,
+                    approved ? CreditApplicationStatus.APPROVED : CreditApplicationStatus.REJECTED,
+                    approved ? requestedCents * 9 / 10 : 0,
+                    approved ? 30 + random.nextInt(336) : 0,
+                    i / (rows / DAYS + 1),
+                    random.nextInt(20 * 365),
+                    i / 3
+            );
+        }
+
+        window = new ApplicationColumns.Filter(DAYS - 30, DAYS, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public ApplicationColumns.Slices approvalRateByAmount() {
+        return columns.slice(ApplicationColumns.Filter.ALL, ApplicationColumns.Dimension.REQUESTED_AMOUNT,
+                0, 50_000, 20, pool);
+    }
+
+    @Benchmark
+    public ApplicationColumns.Slices termDistributionOfWindow() {
+        return columns.slice(window, ApplicationColumns.Dimension.APPROVED_TERM, 0, 30, 13, pool);
+    }
+}
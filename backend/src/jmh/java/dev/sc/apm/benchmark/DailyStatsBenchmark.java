@@ -0,0 +1,138 @@
+package dev.sc.apm.benchmark;
+
+import dev.sc.apm.repository.DailyStatsRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ./gradlew jmh -Pjmh.includes=DailyStatsBenchmark
+ *
+ * Needs a PostgreSQL migrated by the service (docker-compose up master_postgres, start the service once);
+ * -Dapm.bench.url, -Dapm.bench.user and -Dapm.bench.password override the local defaults. The rows are
+ * generated into a scratch schema shaped like the service tables, indexes included, and dropped on tear down.
+ *
+ * live         - DailyStatsRepository.LIVE over the tables, what every analytics request used to cost;
+ * materialized - DailyStatsRepository.MATERIALIZED, the same days read from the view;
+ * refresh      - REFRESH MATERIALIZED VIEW CONCURRENTLY, paid once per refresh interval with changes.
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DailyStatsBenchmark {
+
+    private static final String SCHEMA = "apm_bench";
+    private static final int HISTORY_DAYS = 365;
+
+    @Param({"100000", "1000000"})
+    private int applications;
+
+    @Param({"30"})
+    private int days;
+
+    private Connection connection;
+    private PreparedStatement live;
+    private PreparedStatement materialized;
+    private PreparedStatement refresh;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("apm.bench.url", "jdbc:postgresql://localhost:5432/apm_db"),
+                System.getProperty("apm.bench.user", "user"),
+                System.getProperty("apm.bench.password", "pswd")
+        );
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+
+            statement.execute("CREATE TABLE credit_application (LIKE public.credit_application INCLUDING ALL)");
+            statement.execute("CREATE TABLE credit_agreement (LIKE public.credit_agreement INCLUDING ALL)");
+
+            // one in ten pending, a third of the decided ones rejected, created in time order over the history
+            statement.execute("""
+                    INSERT INTO credit_application (client_id, requested_amount, status, approved_amount, approved_term, created_at)
+                    SELECT i,
+                           10000,
+                           CASE WHEN i %% 10 = 0 THEN 'PENDING' WHEN i %% 3 = 0 THEN 'REJECTED' ELSE 'APPROVED' END,
+                           CASE WHEN i %% 10 <> 0 AND i %% 3 <> 0 THEN 9000 END,
+                           CASE WHEN i %% 10 <> 0 AND i %% 3 <> 0 THEN 30 + i %% 336 END,
+                           now() - interval '%d days' + (i * interval '%d days') / %d
+                    FROM generate_series(1, %d) AS i
+                    """.formatted(HISTORY_DAYS, HISTORY_DAYS, applications, applications));
+
+            statement.execute("""
+                    INSERT INTO credit_agreement (credit_application_id, signed_at, signing_status)
+                    SELECT id, created_at, CASE WHEN id %% 2 = 0 THEN 'SIGNED' ELSE 'NOT_SIGNED' END
+                    FROM credit_application
+                    WHERE status = 'APPROVED'
+                    """);
+
+            statement.execute("CREATE MATERIALIZED VIEW daily_credit_stats AS " + DailyStatsRepository.DAILY_AGGREGATE + " GROUP BY 1");
+            statement.execute("CREATE UNIQUE INDEX ON daily_credit_stats (day)");
+            statement.execute("ANALYZE");
+        }
+
+        LocalDate to = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        LocalDate from = to.minusDays(days);
+
+        live = connection.prepareStatement(jdbc(DailyStatsRepository.LIVE));
+        live.setObject(1, from.atStartOfDay().atOffset(ZoneOffset.UTC));
+        live.setObject(2, to.atStartOfDay().atOffset(ZoneOffset.UTC));
+
+        materialized = connection.prepareStatement(jdbc(DailyStatsRepository.MATERIALIZED));
+        materialized.setObject(1, from);
+        materialized.setObject(2, to);
+
+        refresh = connection.prepareStatement("REFRESH MATERIALIZED VIEW CONCURRENTLY daily_credit_stats");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void live(Blackhole blackhole) throws SQLException {
+        consume(live, blackhole);
+    }
+
+    @Benchmark
+    public void materialized(Blackhole blackhole) throws SQLException {
+        consume(materialized, blackhole);
+    }
+
+    @Benchmark
+    public void refresh() throws SQLException {
+        refresh.execute();
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getObject(1));
+                blackhole.consume(rows.getLong(2));
+                blackhole.consume(rows.getBigDecimal(5));
+            }
+        }
+    }
+
+    // the repository queries use named parameters, :from before :to
+    private static String jdbc(String sql) {
+        return sql.replace(":from", "?").replace(":to", "?");
+    }
+}
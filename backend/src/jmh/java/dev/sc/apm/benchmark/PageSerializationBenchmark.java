@@ -0,0 +1,116 @@
+package dev.sc.apm.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import dev.sc.apm.dto.ClientDto;
+import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.PageResponseDto;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.MaritalStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ./gradlew jmh
+ *
+ * baseline*  - the application ObjectMapper as it was, reflective accessors;
+ * blackbird* - the same mapper with the Blackbird module JacksonConfig registers.
+ * Both are called the way MappingJackson2HttpMessageConverter calls them and write into a reused stream
+ * standing in for the servlet output.
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper baselineMapper;
+    private ObjectMapper blackbirdMapper;
+
+    private PageResponseDto<CreditApplicationDto> applicationPage;
+    private PageResponseDto<ClientDto> clientPage;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    @Setup
+    public void setUp() {
+        baselineMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        blackbirdMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new BlackbirdModule())
+                .build();
+
+        List<CreditApplicationDto> applications = new ArrayList<>(pageSize);
+        List<ClientDto> clients = new ArrayList<>(pageSize);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < pageSize; i++) {
+            applications.add(CreditApplicationDto.builder()
+                    .id(i)
+                    .applicantId(i / 3)
+                    .requestedAmount(BigDecimal.valueOf(10_000 + i, 2))
+                    .status(i % 2 == 0 ? CreditApplicationStatus.APPROVED : CreditApplicationStatus.REJECTED)
+                    .approvedAmount(i % 2 == 0 ? BigDecimal.valueOf(9_000 + i, 2) : null)
+                    .approvedTerm(i % 2 == 0 ? 30 + i % 300 : null)
+                    .createdAt(now.minusMinutes(i))
+                    .creditAgreementId(i % 2 == 0 ? (long) i : null)
+                    .build());
+
+            clients.add(ClientDto.builder()
+                    .id(i)
+                    .firstName("Ivan")
+                    .lastName("Ivanov")
+                    .middleName("Ivanovich")
+                    .passport(String.format("%010d", i))
+                    .maritalStatus(MaritalStatus.MARRIED)
+                    .address("Address " + i)
+                    .phone("+7999" + String.format("%07d", i))
+                    .organizationName("Organization")
+                    .position("Position")
+                    .employmentPeriod(Duration.ofDays(100 + i))
+                    .build());
+        }
+
+        applicationPage = new PageResponseDto<>(1, pageSize, pageSize, applications);
+        clientPage = new PageResponseDto<>(1, pageSize, pageSize, clients);
+    }
+
+    @Benchmark
+    public int baselineApplications() throws IOException {
+        out.reset();
+        baselineMapper.writeValue(out, applicationPage);
+        return out.size();
+    }
+
+    @Benchmark
+    public int blackbirdApplications() throws IOException {
+        out.reset();
+        blackbirdMapper.writeValue(out, applicationPage);
+        return out.size();
+    }
+
+    @Benchmark
+    public int baselineClients() throws IOException {
+        out.reset();
+        baselineMapper.writeValue(out, clientPage);
+        return out.size();
+    }
+
+    @Benchmark
+    public int blackbirdClients() throws IOException {
+        out.reset();
+        blackbirdMapper.writeValue(out, clientPage);
+        return out.size();
+    }
+}
@@ -0,0 +1,43 @@
+package dev.sc.apm.benchmark;
+
+import dev.sc.apm.util.stats.RollingRecorder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ./gradlew jmh -Pjmh.includes=RollingRecorderBenchmark
+ *
+ * The hot path of the live stats: 8 threads counting and recording latencies into the same slot,
+ * one thread reading the merged window meanwhile. Under the gc profiler recording allocates nothing.
+ * */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class RollingRecorderBenchmark {
+
+    private RollingRecorder recorder;
+
+    @Setup
+    public void setUp() {
+        recorder = new RollingRecorder(1_000, 60, 3, 2);
+    }
+
+    @Benchmark
+    @Group("live")
+    @GroupThreads(8)
+    public void record() {
+        long now = System.currentTimeMillis();
+        recorder.increment(1, now);
+        recorder.record(0, ThreadLocalRandom.current().nextLong(1_000_000), now);
+    }
+
+    @Benchmark
+    @Group("live")
+    @GroupThreads(1)
+    public RollingRecorder.Snapshot read() {
+        return recorder.snapshot(System.currentTimeMillis());
+    }
+}
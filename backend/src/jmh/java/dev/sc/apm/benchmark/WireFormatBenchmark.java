@@ -0,0 +1,104 @@
+package dev.sc.apm.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.PageResponseDto;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ./gradlew jmh -Pjmh.includes=WireFormatBenchmark
+ *
+ * Encode and decode time of an application page per wire format; the encoded sizes are printed on setup
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+
+    private PageResponseDto<CreditApplicationDto> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> configured(new CBORMapper());
+            case "smile" -> configured(new SmileMapper());
+            case "protobuf" -> configured(new ProtobufMapper());
+            default -> throw new IllegalArgumentException(format);
+        };
+
+        JavaType pageType = mapper.getTypeFactory()
+                .constructParametricType(PageResponseDto.class, CreditApplicationDto.class);
+
+        writer = mapper.writerFor(pageType);
+        reader = mapper.readerFor(pageType);
+
+        if (mapper instanceof ProtobufMapper protobufMapper) {
+            ProtobufSchema schema = protobufMapper.generateSchemaFor(pageType);
+            writer = writer.with(schema);
+            reader = reader.with(schema);
+        }
+
+        List<CreditApplicationDto> applications = new ArrayList<>(pageSize);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < pageSize; i++) {
+            applications.add(CreditApplicationDto.builder()
+                    .id(i)
+                    .applicantId(i / 3)
+                    .requestedAmount(BigDecimal.valueOf(10_000 + i, 2))
+                    .status(i % 2 == 0 ? CreditApplicationStatus.APPROVED : CreditApplicationStatus.REJECTED)
+                    .approvedAmount(i % 2 == 0 ? BigDecimal.valueOf(9_000 + i, 2) : null)
+                    .approvedTerm(i % 2 == 0 ? 30 + i % 300 : null)
+                    .createdAt(now.minusMinutes(i))
+                    .creditAgreementId(i % 2 == 0 ? (long) i : null)
+                    .build());
+        }
+
+        page = new PageResponseDto<>(1, pageSize, pageSize, applications);
+        encoded = writer.writeValueAsBytes(page);
+
+        System.out.printf("%n%s, page of %d: %d bytes%n", format, pageSize, encoded.length);
+    }
+
+    private static <T extends ObjectMapper> T configured(T mapper) {
+        Jackson2ObjectMapperBuilder.json().configure(mapper);
+        return mapper;
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -45,6 +45,24 @@ public class AMPServiceConfig {
         return "^\\d{10}$";
     }
 
+    /*
+     * Search terms of non exact matches: any case, partial phones and passports
+     * */
+    @Bean
+    public String nameSearchPattern() {
+        return "^[A-Za-z][A-Za-z '-]*$";
+    }
+
+    @Bean
+    public String phoneSearchPattern() {
+        return "^\\+?\\d{1,11}$";
+    }
+
+    @Bean
+    public String passportSearchPattern() {
+        return "^\\d{1,10}$";
+    }
+
     @Bean
     public int organizationNameLength() {
         return 96;
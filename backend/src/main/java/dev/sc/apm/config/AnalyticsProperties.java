@@ -0,0 +1,21 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.analytics")
+public class AnalyticsProperties {
+
+    /*
+     * How often the change log is checked, the daily figures are recomputed only if it has moved
+     * */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    // days served without explicit range, up to today
+    private int defaultDays = 30;
+
+    private int maxDays = 366;
+}
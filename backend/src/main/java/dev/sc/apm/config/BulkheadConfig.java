@@ -0,0 +1,50 @@
+package dev.sc.apm.config;
+
+import dev.sc.apm.util.concurrent.Bulkhead;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+public class BulkheadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkheads bulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+        for (Workload workload : Workload.values()) {
+            BulkheadProperties.Partition partition = properties.get(workload);
+            Bulkhead bulkhead = new Bulkhead(
+                    workload,
+                    partition.getThreads(),
+                    partition.getQueueCapacity(),
+                    partition.getRejectionPolicy()
+            );
+            registerMeters(meterRegistry, bulkhead);
+            bulkheads.put(workload, bulkhead);
+        }
+
+        return new Bulkheads(bulkheads);
+    }
+
+    private void registerMeters(MeterRegistry meterRegistry, Bulkhead bulkhead) {
+        String workload = bulkhead.workload().name().toLowerCase();
+
+        Gauge.builder("apm.bulkhead.active", bulkhead, Bulkhead::activeCount)
+                .tag("workload", workload)
+                .register(meterRegistry);
+        Gauge.builder("apm.bulkhead.queued", bulkhead, Bulkhead::queueSize)
+                .tag("workload", workload)
+                .register(meterRegistry);
+        FunctionCounter.builder("apm.bulkhead.rejected", bulkhead, Bulkhead::rejectedCount)
+                .tag("workload", workload)
+                .register(meterRegistry);
+    }
+}
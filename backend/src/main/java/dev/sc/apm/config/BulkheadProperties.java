@@ -0,0 +1,49 @@
+package dev.sc.apm.config;
+
+import dev.sc.apm.util.concurrent.Bulkhead;
+import dev.sc.apm.util.concurrent.Workload;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.bulkhead")
+public class BulkheadProperties {
+    private Partition read = new Partition(16, 64, 16, Bulkhead.RejectionPolicy.ABORT);
+
+    /*
+     * the write pool also serves everything that runs outside of a bulkhead: schedulers and migrations
+     * */
+    private Partition write = new Partition(16, 32, 20, Bulkhead.RejectionPolicy.ABORT);
+
+    /*
+     * dropped evaluations stay PENDING and are picked up again by the deferred evaluation sweep
+     * */
+    private Partition evaluation = new Partition(4, 1000, 4, Bulkhead.RejectionPolicy.DISCARD);
+
+    /*
+     * how long a bulkhead thread waits for a connection of its own partition
+     * */
+    private Duration connectionTimeout = Duration.ofSeconds(5);
+
+    public Partition get(Workload workload) {
+        return switch (workload) {
+            case READ -> read;
+            case WRITE -> write;
+            case EVALUATION -> evaluation;
+        };
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Partition {
+        private int threads;
+        private int queueCapacity;
+        private int connectionPoolSize;
+        private Bulkhead.RejectionPolicy rejectionPolicy;
+    }
+}
@@ -0,0 +1,101 @@
+package dev.sc.apm.config;
+
+import dev.sc.apm.util.concurrent.Deadline;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+ * Hands out connections whose statements register themselves as the canceller of the current deadline
+ * while they execute. The side waiting for the request cancels exactly the statement in flight with
+ * Statement.cancel(): the driver sends the cancel request only while that statement is still running,
+ * on a socket of its own, so no pooled connection is borrowed and none handed on meanwhile is hit.
+ * */
+public class CancellableStatementDataSource extends DelegatingDataSource implements DisposableBean {
+
+    public CancellableStatementDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (getTargetDataSource() instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    private static Connection connection(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(proxy, target, method, args);
+            return result instanceof Statement statement ? statement(method.getReturnType(), statement) : result;
+        });
+    }
+
+    private static Object statement(Class<?> type, Statement target) {
+        Class<?> statementType = type == CallableStatement.class || type == PreparedStatement.class ?
+                type : Statement.class;
+
+        return proxy(statementType, target, (proxy, method, args) -> {
+            Deadline deadline = DeadlineContext.current();
+
+            if (deadline == null || !method.getName().startsWith("execute")) {
+                return invoke(proxy, target, method, args);
+            }
+
+            Runnable canceller = () -> cancel(target);
+            deadline.onCancel(canceller);
+            try {
+                return invoke(proxy, target, method, args);
+            } finally {
+                deadline.clearCanceller(canceller);
+            }
+        });
+    }
+
+    private static void cancel(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException ignored) {
+            // the statement already ended, the statement timeout still bounds it otherwise
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(
+                CancellableStatementDataSource.class.getClassLoader(), new Class<?>[]{type}, handler
+        ));
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // identity of the proxy: Hibernate keys the statements it tracks by them
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "apm.changes")
+public class ChangeFeedProperties {
+
+    private int defaultLimit = 500;
+
+    /*
+     * Change log entries read by one request, larger limits are clamped
+     * */
+    private int maxLimit = 5_000;
+}
@@ -0,0 +1,28 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.columns")
+public class ColumnStoreProperties {
+
+    /*
+     * Decided applications read per query of the bulk load
+     * */
+    private int batchSize = 10_000;
+
+    // how often applications decided since are appended
+    private Duration appendInterval = Duration.ofSeconds(1);
+
+    /*
+     * Threads of the scans, the available processors if not positive
+     * */
+    private int parallelism = 0;
+
+    private int defaultBuckets = 20;
+
+    private int maxBuckets = 1_000;
+}
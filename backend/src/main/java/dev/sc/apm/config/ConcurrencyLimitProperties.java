@@ -0,0 +1,36 @@
+package dev.sc.apm.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+
+    private Limit read = new Limit(40, 8, 200);
+
+    private Limit write = new Limit(20, 4, 100);
+
+    /*
+     * Latency may grow by this factor over the observed minimum before the limit starts shrinking
+     * */
+    private double rttTolerance = 1.5;
+
+    private double smoothing = 0.2;
+
+    private Duration minRttWindow = Duration.ofSeconds(30);
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Limit {
+        private int initial;
+        private int min;
+        private int max;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.conflict-retry")
+public class ConflictRetryProperties {
+    /*
+     * Including the first attempt
+     * */
+    private int maxAttempts = 5;
+
+    private Duration initialBackoff = Duration.ofMillis(20);
+
+    private double multiplier = 2.0;
+
+    private Duration maxBackoff = Duration.ofMillis(500);
+}
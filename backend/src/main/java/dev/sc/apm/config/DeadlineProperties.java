@@ -0,0 +1,29 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "apm.deadline")
+public class DeadlineProperties {
+    private boolean enabled = true;
+
+    /*
+     * Callers may pass a shorter budget than the endpoint's, in milliseconds
+     * */
+    private String header = "X-Request-Timeout";
+
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+
+    // caps the budgets configured per endpoint
+    private Duration maxTimeout = Duration.ofSeconds(60);
+
+    /*
+     * Ant-style path pattern -> timeout, first match wins
+     * */
+    private Map<String, Duration> endpoints = new LinkedHashMap<>();
+}
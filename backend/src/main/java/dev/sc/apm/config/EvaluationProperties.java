@@ -0,0 +1,39 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.evaluation")
+public class EvaluationProperties {
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Deferred deferred = new Deferred();
+
+    @Data
+    public static class CircuitBreaker {
+        private int windowSize = 50;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = 0.5;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenPermits = 3;
+    }
+
+    @Data
+    public static class Deferred {
+        private Duration sweepInterval = Duration.ofSeconds(10);
+
+        /*
+         * PENDING applications older than this are evaluated even if nobody deferred them,
+         * e.g. after a restart or when the evaluation bulkhead dropped them
+         * */
+        private Duration staleAfter = Duration.ofMinutes(5);
+
+        private int batchSize = 100;
+    }
+}
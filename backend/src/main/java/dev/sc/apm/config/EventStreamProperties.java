@@ -0,0 +1,40 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.events")
+public class EventStreamProperties {
+
+    private int maxSubscribers = 10_000;
+
+    /*
+     * Events queued for one subscriber, a subscriber that falls further behind is disconnected
+     * */
+    private int bufferSize = 256;
+
+    /*
+     * Recent events kept for subscribers reconnecting with Last-Event-ID
+     * */
+    private int replaySize = 1_024;
+
+    /*
+     * Threads writing to the subscribers' connections
+     * */
+    private int senderThreads = 4;
+
+    /*
+     * A write blocked for longer, on a client that stopped reading, disconnects the subscriber
+     * */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /*
+     * Clients are expected to reconnect after it
+     * */
+    private Duration timeout = Duration.ofMinutes(30);
+}
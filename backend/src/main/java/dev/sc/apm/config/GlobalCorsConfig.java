@@ -19,7 +19,7 @@ public class GlobalCorsConfig {
                         .allowedOrigins("*")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
                         .allowedHeaders("*")
-                        .exposedHeaders("Authorization", "Content-Length")
+                        .exposedHeaders("Authorization", "Content-Length", "Retry-After", "ETag", "Last-Modified")
                         .allowCredentials(false);
             }
         };
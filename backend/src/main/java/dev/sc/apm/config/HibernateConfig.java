@@ -1,13 +1,19 @@
 package dev.sc.apm.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import dev.sc.apm.util.concurrent.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 @Configuration
@@ -30,13 +36,31 @@ public class HibernateConfig {
     private String entityPackageToScan;
 
     @Bean
-    public DataSource dataSource(){
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(driverClassName);
-        dataSource.setUrl(dbUrl);
-        dataSource.setUsername(dbUsername);
-        dataSource.setPassword(dbPassword);
-        return dataSource;
+    public DataSource dataSource(BulkheadProperties bulkheadProperties, MeterRegistry meterRegistry) {
+        Map<Object, Object> partitions = new HashMap<>();
+
+        for (Workload workload : Workload.values()) {
+            partitions.put(workload, partition(workload, bulkheadProperties, meterRegistry));
+        }
+
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource();
+        dataSource.setTargetDataSources(partitions);
+        dataSource.setDefaultTargetDataSource(partitions.get(Workload.WRITE));
+        dataSource.afterPropertiesSet();
+        return new CancellableStatementDataSource(dataSource);
+    }
+
+    private DataSource partition(Workload workload, BulkheadProperties bulkheadProperties, MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("apm-" + workload.name().toLowerCase());
+        config.setDriverClassName(driverClassName);
+        config.setJdbcUrl(dbUrl);
+        config.setUsername(dbUsername);
+        config.setPassword(dbPassword);
+        config.setMaximumPoolSize(bulkheadProperties.get(workload).getConnectionPoolSize());
+        config.setConnectionTimeout(bulkheadProperties.getConnectionTimeout().toMillis());
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(config);
     }
 
     @Bean
@@ -50,7 +74,7 @@ public class HibernateConfig {
 
     private Properties hibernateProperties() {
         Properties properties = new Properties();
-        properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        properties.put("hibernate.dialect", SearchPostgreSQLDialect.class.getName());
         properties.put("hibernate.show_sql", "true");
         properties.put("hibernate.format_sql", "true");
         properties.put("hibernate.hbm2ddl.auto", "validate");
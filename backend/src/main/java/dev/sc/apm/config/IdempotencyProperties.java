@@ -0,0 +1,29 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.idempotency")
+public class IdempotencyProperties {
+    /*
+     * How long a stored response is replayed for a given Idempotency-Key
+     * */
+    private Duration keyTtl = Duration.ofHours(24);
+
+    private int maxKeyLength = 64;
+
+    /*
+     * Size of the in-memory LRU in front of idempotency_record
+     * */
+    private int cacheSize = 10_000;
+
+    /*
+     * Identical payloads for the same passport inside this window are collapsed even without a key
+     * */
+    private Duration duplicateWindow = Duration.ofSeconds(10);
+
+    private Duration purgeInterval = Duration.ofMinutes(1);
+}
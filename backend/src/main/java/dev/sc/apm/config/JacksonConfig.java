@@ -0,0 +1,32 @@
+package dev.sc.apm.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import dev.sc.apm.util.converter.ProtobufSchemas;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class JacksonConfig {
+
+    /*
+     * Replaces reflective getter calls with LambdaMetafactory-generated accessors;
+     * Spring Boot registers every Module bean with the application ObjectMapper
+     * */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /*
+     * Not an ObjectMapper bean on purpose, that would replace the one Spring Boot configures for JSON
+     * */
+    @Bean
+    public ProtobufSchemas protobufSchemas(Jackson2ObjectMapperBuilder jacksonBuilder) {
+        ProtobufMapper mapper = new ProtobufMapper();
+        jacksonBuilder.configure(mapper);
+        return new ProtobufSchemas(mapper);
+    }
+}
@@ -0,0 +1,19 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "apm.lookup")
+public class LookupProperties {
+
+    /*
+     * Ids or passports accepted by one lookup request
+     * */
+    private int maxKeys = 1_000;
+
+    /*
+     * Keys bound to one IN query
+     * */
+    private int batchSize = 200;
+}
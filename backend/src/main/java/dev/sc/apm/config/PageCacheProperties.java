@@ -0,0 +1,21 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "apm.page-cache")
+public class PageCacheProperties {
+
+    private boolean enabled = true;
+
+    /*
+     * Pages kept across all endpoints and filters
+     * */
+    private int capacity = 1_000;
+
+    /*
+     * Load page N + 1 on the read bulkhead when page N is served
+     * */
+    private boolean prefetch = true;
+}
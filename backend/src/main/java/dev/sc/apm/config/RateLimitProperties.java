@@ -0,0 +1,46 @@
+package dev.sc.apm.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "apm.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /*
+     * Partners identify themselves with this header. Only the keys issued to them count as an identity,
+     * any other value is ignored and the caller is limited by its remote address.
+     * */
+    private String apiKeyHeader = "X-Api-Key";
+
+    private Set<String> apiKeys = new HashSet<>();
+
+    /*
+     * Callers and passports tracked per scope, callers beyond that share one bucket of the scope
+     * until the idle buckets are evicted
+     * */
+    private int maxTrackedKeys = 100_000;
+
+    private Limit global = new Limit(200, 400);
+
+    private Limit perApiKey = new Limit(50, 100);
+
+    private Limit perPassport = new Limit(1, 5);
+
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Limit {
+        private double permitsPerSecond;
+        private int burst;
+    }
+}
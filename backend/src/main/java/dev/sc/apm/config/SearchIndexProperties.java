@@ -0,0 +1,40 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "apm.search")
+public class SearchIndexProperties {
+
+    /*
+     * Local directory of the client index, one per instance. A missing index is rebuilt at startup
+     * */
+    private String directory = "data/search-index";
+
+    /*
+     * Rebuild the index from the database at startup even if it exists
+     * */
+    private boolean rebuildOnStartup = false;
+
+    /*
+     * How often committed client changes are applied and become searchable
+     * */
+    private Duration refreshInterval = Duration.ofSeconds(1);
+
+    /*
+     * How often the index is committed to disk with its position in the change log,
+     * after a restart the changes since the last commit are applied again
+     * */
+    private Duration commitInterval = Duration.ofSeconds(30);
+
+    private int defaultLimit = 20;
+    private int maxLimit = 100;
+
+    /*
+     * Change log entries, and clients of a rebuild, read per statement
+     * */
+    private int batchSize = 1_000;
+}
@@ -0,0 +1,39 @@
+package dev.sc.apm.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.jdbc.dialect.spi.DialectResolutionInfo;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/*
+ * PostgreSQL dialect with the pg_trgm functions used by the client search.
+ * trgm_match renders the % operator, which unlike similarity(...) > x can use the trigram indexes.
+ * */
+public class SearchPostgreSQLDialect extends PostgreSQLDialect {
+
+    public SearchPostgreSQLDialect() {
+    }
+
+    // picked by Hibernate when the dialect is named, keeps the detection of the server version
+    public SearchPostgreSQLDialect(DialectResolutionInfo info) {
+        super(info);
+    }
+
+    @Override
+    public void initializeFunctionRegistry(FunctionContributions functionContributions) {
+        super.initializeFunctionRegistry(functionContributions);
+
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                "trgm_match",
+                "(?1 % ?2)",
+                types.resolve(StandardBasicTypes.BOOLEAN)
+        );
+        functionContributions.getFunctionRegistry().registerNamed(
+                "similarity",
+                types.resolve(StandardBasicTypes.DOUBLE)
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package dev.sc.apm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "apm.serialized-cache")
+public class SerializedCacheProperties {
+
+    private boolean enabled = true;
+
+    /*
+     * Direct memory, counts against -XX:MaxDirectMemorySize
+     * */
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+}
@@ -0,0 +1,71 @@
+package dev.sc.apm.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import dev.sc.apm.controller.interceptor.ConcurrencyLimitInterceptor;
+import dev.sc.apm.controller.interceptor.DeadlineInterceptor;
+import dev.sc.apm.controller.interceptor.RateLimitInterceptor;
+import dev.sc.apm.util.converter.JacksonProtobufHttpMessageConverter;
+import dev.sc.apm.util.converter.ProtobufSchemas;
+import dev.sc.apm.util.converter.SerializedJsonHttpMessageConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private static final String EVENT_STREAMS = "/api/v1/credit-application/events";
+
+    private final Jackson2ObjectMapperBuilder jacksonBuilder;
+    private final ProtobufSchemas protobufSchemas;
+    private final DeadlineInterceptor deadlineInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // ahead of the generic Jackson converter, only takes its own body type
+        converters.add(0, new SerializedJsonHttpMessageConverter());
+
+        /*
+         * Binary formats go last: when any type is accepted the first converter able to write wins,
+         * and that has to stay JSON. Spring's defaults for CBOR and Smile are replaced by ones configured
+         * like the JSON mapper.
+         * */
+        converters.removeIf(converter ->
+                converter instanceof MappingJackson2CborHttpMessageConverter ||
+                        converter instanceof MappingJackson2SmileHttpMessageConverter
+        );
+        converters.add(new MappingJackson2CborHttpMessageConverter(configured(new CBORMapper())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(configured(new SmileMapper())));
+        converters.add(new JacksonProtobufHttpMessageConverter(protobufSchemas));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // long-lived event streams would hold a concurrency permit and outlive any deadline
+        registry.addInterceptor(deadlineInterceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns(EVENT_STREAMS);
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/api/**");
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns("/api/v1/credit-application/**", "/api/v1/client/**")
+                .excludePathPatterns(EVENT_STREAMS);
+    }
+
+    private <T extends ObjectMapper> T configured(T mapper) {
+        jacksonBuilder.configure(mapper);
+        return mapper;
+    }
+}
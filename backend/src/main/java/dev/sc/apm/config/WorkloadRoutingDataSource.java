@@ -0,0 +1,26 @@
+package dev.sc.apm.config;
+
+import dev.sc.apm.util.concurrent.WorkloadContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/*
+ * Routes every connection request to the pool partition of the current workload,
+ * so a saturated read pool can not starve writes of connections
+ * */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (var dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
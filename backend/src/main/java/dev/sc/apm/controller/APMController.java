@@ -1,37 +1,270 @@
 package dev.sc.apm.controller;
 
 import dev.sc.apm.dto.CreditAgreementDto;
+import dev.sc.apm.dto.CreditAgreementFilterDto;
 import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.CreditApplicationFilterDto;
 import dev.sc.apm.dto.CreditApplicationRequestDto;
+import dev.sc.apm.dto.LookupResponseDto;
 import dev.sc.apm.dto.PageResponseDto;
+import dev.sc.apm.entity.CreditAgreement;
+import dev.sc.apm.entity.CreditApplication;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import dev.sc.apm.controller.interceptor.RateLimitInterceptor;
 import dev.sc.apm.service.APMService;
+import dev.sc.apm.service.IdempotencyService;
+import dev.sc.apm.service.RateLimitService;
+import dev.sc.apm.service.SerializedResponseCache;
+import dev.sc.apm.service.StatusEventHub;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
+import dev.sc.apm.util.converter.SerializedJson;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("api/v1/credit-application")
 @RequiredArgsConstructor
 public class APMController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private final APMService apmService;
+    private final IdempotencyService idempotencyService;
+    private final RateLimitService rateLimitService;
+    private final Bulkheads bulkheads;
+    private final ConditionalRequests conditionalRequests;
+    private final SerializedResponseCache serializedResponseCache;
+    private final StatusEventHub statusEventHub;
 
     @PostMapping
-    public CreditApplicationDto createCreditApplication(@RequestBody CreditApplicationRequestDto creditRequestDto) {
-        return apmService.createCreditApplication(creditRequestDto);
+    public CreditApplicationDto createCreditApplication(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestAttribute(value = RateLimitInterceptor.CALLER_ATTRIBUTE, required = false) String caller,
+            @RequestBody CreditApplicationRequestDto creditRequestDto) {
+        if (creditRequestDto.getApplicant() != null) {
+            rateLimitService.acquireForPassport(creditRequestDto.getApplicant().getPassport());
+        }
+
+        return bulkheads.execute(Workload.WRITE, () -> idempotencyService.execute(
+                caller,
+                idempotencyKey,
+                creditRequestDto,
+                () -> apmService.createCreditApplication(creditRequestDto)
+        ));
+    }
+
+    /*
+     * Multi-get for reconciliation, ids=1,2,3 or repeated ids parameters
+     * */
+    @GetMapping(params = "ids")
+    public LookupResponseDto<CreditApplicationDto> getCreditApplications(@RequestParam List<Long> ids, WebRequest request) {
+        return conditionalRequests.getIfModified(
+                request,
+                () -> bulkheads.execute(Workload.READ, () -> apmService.getCreditApplications(ids)),
+                CreditApplication.class, CreditAgreement.class
+        );
+    }
+
+    /*
+     * Server-Sent Events of decisions and signings, optionally for one application or client.
+     * Excluded from the deadline and concurrency limit: the stream outlives any request budget.
+     * */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatusEvents(
+            @RequestParam(required = false) Long applicationId,
+            @RequestParam(required = false) Long clientId,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        return statusEventHub.subscribe(applicationId, clientId, lastEventId);
     }
 
     @PatchMapping("/{creditApplicationId}/signing")
-    public CreditAgreementDto signCreditAgreement(@PathVariable long creditApplicationId) {
-        return apmService.signCreditAgreement(creditApplicationId);
+    public ResponseEntity<?> signCreditAgreement(
+            @PathVariable long creditApplicationId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // signing is idempotent, a repeated signing is answered from memory
+        if (SerializedJson.isAcceptedBy(accept)) {
+            Optional<SerializedJson> signed = serializedResponseCache.getSignedAgreement(creditApplicationId);
+            if (signed.isPresent()) {
+                return ResponseEntity.ok(signed.get());
+            }
+        }
+
+        long mark = serializedResponseCache.mark();
+        CreditAgreementDto agreement = bulkheads.execute(
+                Workload.WRITE,
+                () -> apmService.signCreditAgreement(creditApplicationId)
+        );
+        serializedResponseCache.putAgreement(agreement, mark);
+
+        return ResponseEntity.ok(agreement);
     }
 
+    @GetMapping("/{creditApplicationId}")
+    public ResponseEntity<?> getCreditApplication(
+            @PathVariable long creditApplicationId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        return conditionalRequests.<ResponseEntity<?>>getIfModified(
+                request,
+                () -> {
+                    if (SerializedJson.isAcceptedBy(accept)) {
+                        Optional<SerializedJson> decided = serializedResponseCache.getDecidedApplication(creditApplicationId);
+                        if (decided.isPresent()) {
+                            return ResponseEntity.ok(decided.get());
+                        }
+                    }
+
+                    long mark = serializedResponseCache.mark();
+                    CreditApplicationDto application = bulkheads.execute(
+                            Workload.READ,
+                            () -> apmService.getCreditApplication(creditApplicationId)
+                    );
+                    serializedResponseCache.putApplication(application, mark);
+
+                    return ResponseEntity.ok(application);
+                },
+                CreditApplication.class, CreditAgreement.class
+        );
+    }
+
+    /*
+     * Filters are optional and combined with AND, sort is "key[,asc|desc]" over APMService.APPLICATION_SORTS.
+     * With a cursor, the nextCursor of the previous response, the page number is ignored.
+     * */
     @GetMapping("/list")
-    public PageResponseDto<CreditApplicationDto> getCreditApplications(@RequestParam int page) {
-        return apmService.getPageCreditApplications(page);
+    public PageResponseDto<CreditApplicationDto> getCreditApplications(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(required = false) CreditApplicationStatus status,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+
+        CreditApplicationFilterDto filter = filter(status, clientId, createdFrom, createdTo, minAmount, maxAmount);
+
+        return conditionalRequests.getIfModified(
+                request,
+                () -> bulkheads.execute(Workload.READ, () -> apmService.getPageCreditApplications(page, filter, sort, cursor)),
+                CreditApplication.class, CreditAgreement.class
+        );
+    }
+
+    /*
+     * Sparse fieldsets: fields=id,status,... selects the listed columns, view=summary a predefined set.
+     * Without either parameter, or with view=detail, the full DTOs are served by getCreditApplications.
+     * Filters and sort apply as there; cursors do not, sparse lists are paged by number.
+     * */
+    @GetMapping(value = "/list", params = "fields")
+    public PageResponseDto<Map<String, Object>> getCreditApplicationFields(
+            @RequestParam int page,
+            @RequestParam String fields,
+            @RequestParam(required = false) CreditApplicationStatus status,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String sort,
+            WebRequest request) {
+
+        CreditApplicationFilterDto filter = filter(status, clientId, createdFrom, createdTo, minAmount, maxAmount);
+
+        return getSparseCreditApplications(page, filter, sort, null, fields, request);
+    }
+
+    @GetMapping(value = "/list", params = {"view=summary", "!fields"})
+    public PageResponseDto<Map<String, Object>> getCreditApplicationSummaries(
+            @RequestParam int page,
+            @RequestParam(required = false) CreditApplicationStatus status,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String sort,
+            WebRequest request) {
+
+        CreditApplicationFilterDto filter = filter(status, clientId, createdFrom, createdTo, minAmount, maxAmount);
+
+        return getSparseCreditApplications(page, filter, sort, "summary", null, request);
+    }
+
+    private PageResponseDto<Map<String, Object>> getSparseCreditApplications(
+            int page,
+            CreditApplicationFilterDto filter,
+            String sort,
+            String view,
+            String fields,
+            WebRequest request) {
+        return conditionalRequests.getIfModified(
+                request,
+                () -> bulkheads.execute(Workload.READ, () -> apmService.getPageCreditApplications(page, filter, sort, view, fields)),
+                CreditApplication.class, CreditAgreement.class
+        );
+    }
+
+    private static CreditApplicationFilterDto filter(
+            CreditApplicationStatus status,
+            Long clientId,
+            LocalDateTime createdFrom,
+            LocalDateTime createdTo,
+            BigDecimal minAmount,
+            BigDecimal maxAmount) {
+        return CreditApplicationFilterDto.builder()
+                .status(status)
+                .clientId(clientId)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .build();
     }
 
     @GetMapping("/list-agreement")
-    public PageResponseDto<CreditAgreementDto> getCreditAgreements(@RequestParam int page) {
-        return apmService.getPageCreditAgreements(page);
+    public PageResponseDto<CreditAgreementDto> getCreditAgreements(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(required = false) SigningStatus signingStatus,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime signedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime signedTo,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+
+        CreditAgreementFilterDto filter = CreditAgreementFilterDto.builder()
+                .signingStatus(signingStatus)
+                .clientId(clientId)
+                .signedFrom(signedFrom)
+                .signedTo(signedTo)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .build();
+
+        return conditionalRequests.getIfModified(
+                request,
+                () -> bulkheads.execute(Workload.READ, () -> apmService.getPageCreditAgreements(page, filter, sort, cursor)),
+                CreditAgreement.class
+        );
     }
 }
@@ -0,0 +1,70 @@
+package dev.sc.apm.controller;
+
+import dev.sc.apm.dto.ApplicationSlicesDto;
+import dev.sc.apm.dto.DailyStatsDto;
+import dev.sc.apm.service.ApplicationColumns;
+import dev.sc.apm.service.ApplicationSliceService;
+import dev.sc.apm.service.DailyStatsService;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("api/v1/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final DailyStatsService dailyStatsService;
+    private final ApplicationSliceService applicationSliceService;
+    private final Bulkheads bulkheads;
+
+    /*
+     * Figures per UTC day, from inclusive and to exclusive, as of the last refresh of the materialized view.
+     * Not served conditionally: the view lags the tables, an ETag of the tables would pin stale figures.
+     * */
+    @GetMapping("/daily")
+    public List<DailyStatsDto> getDaily(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return bulkheads.execute(Workload.READ, () -> dailyStatsService.getDaily(from, to));
+    }
+
+    /*
+     * Decided applications by buckets of width units of a dimension (currency units or days) from origin,
+     * scanned in process; from and to bound the creation day, the amounts the requested amount
+     * */
+    @GetMapping("/slices")
+    public ApplicationSlicesDto getSlices(
+            @RequestParam ApplicationColumns.Dimension by,
+            @RequestParam long width,
+            @RequestParam(defaultValue = "0") long origin,
+            @RequestParam(required = false) Integer buckets,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount) {
+        return bulkheads.execute(Workload.READ, () ->
+                applicationSliceService.slice(by, origin, width, buckets, from, to, minAmount, maxAmount));
+    }
+
+    /*
+     * Reloads the column store from the database in the background, slices keep the old store meanwhile
+     * */
+    @PostMapping("/slices/reload")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void reloadSlices() {
+        applicationSliceService.reload();
+    }
+}
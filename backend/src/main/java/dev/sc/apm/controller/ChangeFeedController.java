@@ -0,0 +1,40 @@
+package dev.sc.apm.controller;
+
+import dev.sc.apm.config.ChangeFeedProperties;
+import dev.sc.apm.dto.ChangeFeedDto;
+import dev.sc.apm.service.ChangeFeedService;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("api/v1/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+    private final ChangeFeedProperties properties;
+    private final Bulkheads bulkheads;
+
+    /*
+     * Rows changed after since=, in commit-safe order; follow nextToken while hasMore is set
+     * */
+    @GetMapping
+    public ChangeFeedDto getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) @Positive Integer limit) {
+        int maxEntries = limit == null ? properties.getDefaultLimit() : limit;
+
+        return bulkheads.execute(Workload.READ, () -> changeFeedService.getChanges(since, maxEntries));
+    }
+
+    @GetMapping("/head")
+    public ChangeFeedDto getHead() {
+        return bulkheads.execute(Workload.READ, changeFeedService::getHead);
+    }
+}
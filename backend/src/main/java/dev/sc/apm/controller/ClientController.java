@@ -1,15 +1,29 @@
 package dev.sc.apm.controller;
 
+import dev.sc.apm.config.SearchIndexProperties;
 import dev.sc.apm.dto.ClientDto;
+import dev.sc.apm.dto.ClientLookupRequestDto;
 import dev.sc.apm.dto.FindClientsRequestDto;
+import dev.sc.apm.dto.LookupResponseDto;
 import dev.sc.apm.dto.PageResponseDto;
+import dev.sc.apm.entity.Client;
+import dev.sc.apm.service.ClientSearchService;
 import dev.sc.apm.service.ClientService;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("api/v1/client")
@@ -17,7 +31,14 @@ import org.springframework.web.bind.annotation.RestController;
 public class ClientController {
 
     private final ClientService clientService;
+    private final ClientSearchService clientSearchService;
+    private final SearchIndexProperties searchIndexProperties;
+    private final Bulkheads bulkheads;
+    private final ConditionalRequests conditionalRequests;
 
+    /*
+     * match=IGNORE_CASE|PREFIX|FUZZY loosens the matching of the filter, FUZZY lists the most similar names first
+     * */
     @GetMapping("/list")
     public PageResponseDto<ClientDto> findClients(
             @RequestParam @Positive int page,
@@ -25,16 +46,112 @@ public class ClientController {
             @RequestParam(required = false) String lastName,
             @RequestParam(required = false) String middleName,
             @RequestParam(required = false) String phone,
-            @RequestParam(required = false) String passport) {
+            @RequestParam(required = false) String passport,
+            @RequestParam(required = false) FindClientsRequestDto.Match match,
+            WebRequest request) {
+
+        FindClientsRequestDto requestDto = filter(firstName, lastName, middleName, phone, passport, match);
+
+        return conditionalRequests.getIfModified(
+                request,
+                () -> bulkheads.execute(Workload.READ, () -> clientService.findClients(page, requestDto)),
+                Client.class
+        );
+    }
+
+    /*
+     * Sparse fieldsets: fields=id,phone,... selects the listed columns, view=summary a predefined set.
+     * Without either parameter, or with view=detail, the full DTOs are served by findClients.
+     * */
+    @GetMapping(value = "/list", params = "fields")
+    public PageResponseDto<Map<String, Object>> findClientFields(
+            @RequestParam @Positive int page,
+            @RequestParam String fields,
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String middleName,
+            @RequestParam(required = false) String phone,
+            @RequestParam(required = false) String passport,
+            @RequestParam(required = false) FindClientsRequestDto.Match match,
+            WebRequest request) {
+
+        FindClientsRequestDto requestDto = filter(firstName, lastName, middleName, phone, passport, match);
+
+        return findSparseClients(page, requestDto, null, fields, request);
+    }
+
+    @GetMapping(value = "/list", params = {"view=summary", "!fields"})
+    public PageResponseDto<Map<String, Object>> findClientSummaries(
+            @RequestParam @Positive int page,
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String middleName,
+            @RequestParam(required = false) String phone,
+            @RequestParam(required = false) String passport,
+            @RequestParam(required = false) FindClientsRequestDto.Match match,
+            WebRequest request) {
+
+        FindClientsRequestDto requestDto = filter(firstName, lastName, middleName, phone, passport, match);
+
+        return findSparseClients(page, requestDto, "summary", null, request);
+    }
+
+    private PageResponseDto<Map<String, Object>> findSparseClients(
+            int page,
+            FindClientsRequestDto requestDto,
+            String view,
+            String fields,
+            WebRequest request) {
+        return conditionalRequests.getIfModified(
+                request,
+                () -> bulkheads.execute(Workload.READ, () -> clientService.findClients(page, requestDto, view, fields)),
+                Client.class
+        );
+    }
 
-        FindClientsRequestDto requestDto = FindClientsRequestDto.builder()
+    /*
+     * Multi-get by ids and passports, a POST so that thousands of passports stay out of the URL
+     * */
+    @PostMapping("/lookup")
+    public LookupResponseDto<ClientDto> lookupClients(@RequestBody ClientLookupRequestDto lookupRequest) {
+        return bulkheads.execute(Workload.READ, () -> clientService.lookupClients(lookupRequest));
+    }
+
+    /*
+     * Global search box over names, organization, passport and phone, served from the local search index
+     * */
+    @GetMapping("/search")
+    public PageResponseDto<ClientDto> searchClients(
+            @RequestParam String q,
+            @RequestParam(required = false) @Positive Integer limit) {
+        int maxResults = limit == null ? searchIndexProperties.getDefaultLimit() : limit;
+
+        return bulkheads.execute(Workload.READ, () -> clientSearchService.search(q, maxResults));
+    }
+
+    /*
+     * Rebuilds the search index from the database in the background, searches keep the old index meanwhile
+     * */
+    @PostMapping("/search/rebuild")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void rebuildSearchIndex() {
+        clientSearchService.rebuild();
+    }
+
+    private static FindClientsRequestDto filter(
+            String firstName,
+            String lastName,
+            String middleName,
+            String phone,
+            String passport,
+            FindClientsRequestDto.Match match) {
+        return FindClientsRequestDto.builder()
                 .firstName(firstName)
                 .lastName(lastName)
                 .middleName(middleName)
                 .phone(phone)
                 .passport(passport)
+                .match(match)
                 .build();
-
-        return clientService.findClients(page, requestDto);
     }
 }
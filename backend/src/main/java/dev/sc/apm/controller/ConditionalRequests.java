@@ -0,0 +1,54 @@
+package dev.sc.apm.controller;
+
+import dev.sc.apm.repository.ChangeTracker;
+import dev.sc.apm.util.converter.SerializedJson;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/*
+ * Conditional GET on top of ChangeTracker: the validators are computed before reading,
+ * so a response is never newer than its ETag claims, and an unchanged resource is answered with 304
+ * without touching the database
+ * */
+@Component
+@RequiredArgsConstructor
+public class ConditionalRequests {
+
+    private final ChangeTracker changeTracker;
+
+    /*
+     * Returns null if the client copy is still valid, the status is then already set to 304
+     * */
+    public <T> T getIfModified(WebRequest request, Supplier<T> read, Class<?>... entityTypes) {
+        ChangeTracker.Snapshot snapshot = changeTracker.snapshot(entityTypes);
+        String etag = representationTag(snapshot.etag(), request.getHeader(HttpHeaders.ACCEPT));
+
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            // cache, but revalidate every time, browsers would otherwise reuse the page heuristically
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+
+        if (request.checkNotModified(etag, snapshot.lastModified())) {
+            return null;
+        }
+
+        return read.get();
+    }
+
+    /*
+     * A strong ETag must differ between representations; JSON keeps the plain tag,
+     * anything else is told apart by its Accept header
+     * */
+    private static String representationTag(String etag, String accept) {
+        if (SerializedJson.isAcceptedBy(accept)) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + Integer.toString(accept.hashCode(), 36) + "\"";
+    }
+}
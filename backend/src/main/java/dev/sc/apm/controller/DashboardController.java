@@ -0,0 +1,32 @@
+package dev.sc.apm.controller;
+
+import dev.sc.apm.dto.DashboardSummaryDto;
+import dev.sc.apm.entity.CreditAgreement;
+import dev.sc.apm.entity.CreditApplication;
+import dev.sc.apm.service.DashboardService;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("api/v1/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final Bulkheads bulkheads;
+    private final ConditionalRequests conditionalRequests;
+
+    @GetMapping("/summary")
+    public DashboardSummaryDto getSummary(WebRequest request) {
+        return conditionalRequests.getIfModified(
+                request,
+                () -> bulkheads.execute(Workload.READ, dashboardService::getSummary),
+                CreditApplication.class, CreditAgreement.class
+        );
+    }
+}
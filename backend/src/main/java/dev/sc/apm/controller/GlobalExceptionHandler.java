@@ -1,8 +1,22 @@
 package dev.sc.apm.controller;
 
+import dev.sc.apm.exception.BulkheadFullException;
 import dev.sc.apm.exception.CreditApplicationNotFound;
+import dev.sc.apm.exception.DeadlineExceededException;
 import dev.sc.apm.exception.GroupValidationException;
+import dev.sc.apm.exception.IdempotencyKeyReuseException;
+import dev.sc.apm.exception.InvalidChangeTokenException;
+import dev.sc.apm.exception.InvalidCursorException;
+import dev.sc.apm.exception.InvalidDateRangeException;
+import dev.sc.apm.exception.InvalidFieldSelectionException;
+import dev.sc.apm.exception.InvalidIdempotencyKeyException;
+import dev.sc.apm.exception.InvalidSortException;
+import dev.sc.apm.exception.RateLimitExceededException;
+import dev.sc.apm.exception.TooManyLookupKeysException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.web.ErrorResponseException;
@@ -42,6 +56,143 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseException handleInvalidIdempotencyKey(InvalidIdempotencyKeyException e) {
+        return buildErrorResponseException(
+                HttpStatus.BAD_REQUEST,
+                "invalid_idempotency_key",
+                e,
+                "invalid_property",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+    }
+
+    @ExceptionHandler(InvalidFieldSelectionException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseException handleInvalidFieldSelection(InvalidFieldSelectionException e) {
+        return buildErrorResponseException(
+                HttpStatus.BAD_REQUEST,
+                "invalid_field_selection",
+                e,
+                "invalid_property",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+    }
+
+    @ExceptionHandler(TooManyLookupKeysException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseException handleTooManyLookupKeys(TooManyLookupKeysException e) {
+        return buildErrorResponseException(
+                HttpStatus.BAD_REQUEST,
+                "too_many_lookup_keys",
+                e,
+                "invalid_property",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+    }
+
+    @ExceptionHandler(InvalidChangeTokenException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseException handleInvalidChangeToken(InvalidChangeTokenException e) {
+        return buildErrorResponseException(
+                HttpStatus.BAD_REQUEST,
+                "invalid_change_token",
+                e,
+                "invalid_property",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+    }
+
+    @ExceptionHandler(InvalidSortException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseException handleInvalidSort(InvalidSortException e) {
+        return buildErrorResponseException(
+                HttpStatus.BAD_REQUEST,
+                "invalid_sort",
+                e,
+                "invalid_property",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseException handleInvalidCursor(InvalidCursorException e) {
+        return buildErrorResponseException(
+                HttpStatus.BAD_REQUEST,
+                "invalid_cursor",
+                e,
+                "invalid_property",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+    }
+
+    @ExceptionHandler(InvalidDateRangeException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponseException handleInvalidDateRange(InvalidDateRangeException e) {
+        return buildErrorResponseException(
+                HttpStatus.BAD_REQUEST,
+                "invalid_date_range",
+                e,
+                "invalid_property",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public ErrorResponseException handleIdempotencyKeyReuse(IdempotencyKeyReuseException e) {
+        return buildErrorResponseException(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                "idempotency_key_reused",
+                e,
+                "conflict",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ErrorResponseException handleRateLimitExceeded(RateLimitExceededException e) {
+        ErrorResponseException response = buildErrorResponseException(
+                e.isOverloaded() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS,
+                e.isOverloaded() ? "service_overloaded" : "rate_limit_exceeded",
+                e,
+                "limit",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(e.retryAfter().toSeconds()));
+        return response;
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ErrorResponseException handleBulkheadFull(BulkheadFullException e) {
+        ErrorResponseException response = buildErrorResponseException(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "bulkhead_full",
+                e,
+                "limit",
+                Map.of(e.getExpName().name(), e.reason())
+        );
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response;
+    }
+
+    /*
+     * statement_timeout and lock_timeout are derived from the request deadline, so both mean the deadline is gone
+     * */
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class, CannotAcquireLockException.class})
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ErrorResponseException handleDeadlineExceeded(RuntimeException e) {
+        return buildErrorResponseException(
+                HttpStatus.GATEWAY_TIMEOUT,
+                "deadline_exceeded",
+                e,
+                null,
+                null
+        );
+    }
+
     private ErrorResponseException buildErrorResponseException(
             HttpStatus status,
             String reason,
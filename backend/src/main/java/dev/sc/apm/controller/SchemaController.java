@@ -0,0 +1,47 @@
+package dev.sc.apm.controller;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import dev.sc.apm.dto.*;
+import dev.sc.apm.util.converter.ProtobufSchemas;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("api/v1/schema")
+@RequiredArgsConstructor
+public class SchemaController {
+
+    private final ProtobufSchemas protobufSchemas;
+
+    /*
+     * One schema per request and response type, in the order they are listed
+     * */
+    @GetMapping(value = "/protobuf", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String getProtobufSchemas() {
+        TypeFactory types = protobufSchemas.mapper().getTypeFactory();
+
+        List<JavaType> messages = List.of(
+                types.constructType(CreditApplicationRequestDto.class),
+                types.constructType(CreditApplicationDto.class),
+                types.constructType(CreditAgreementDto.class),
+                types.constructType(ClientDto.class),
+                types.constructParametricType(PageResponseDto.class, CreditApplicationDto.class),
+                types.constructParametricType(PageResponseDto.class, CreditAgreementDto.class),
+                types.constructParametricType(PageResponseDto.class, ClientDto.class)
+        );
+
+        StringBuilder schemas = new StringBuilder();
+        for (JavaType message : messages) {
+            schemas.append("// ").append(message.toCanonical()).append('\n')
+                    .append(protobufSchemas.schemaFor(message).getSource())
+                    .append('\n');
+        }
+        return schemas.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package dev.sc.apm.controller;
+
+import dev.sc.apm.dto.LiveStatsDto;
+import dev.sc.apm.service.LiveStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("api/v1/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final LiveStatsService liveStatsService;
+
+    // in memory, no bulkhead: reading merges a few hundred slots
+    @GetMapping("/live")
+    public LiveStatsDto getLiveStats() {
+        return liveStatsService.getLiveStats();
+    }
+}
@@ -0,0 +1,122 @@
+package dev.sc.apm.controller.interceptor;
+
+import dev.sc.apm.config.ConcurrencyLimitProperties;
+import dev.sc.apm.exception.RateLimitExceededException;
+import dev.sc.apm.util.concurrent.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+@Component
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final ConcurrencyLimitProperties properties;
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.readLimiter = newLimiter(properties.getRead());
+        this.writeLimiter = newLimiter(properties.getWrite());
+        this.rejectedReads = registerMeters(meterRegistry, "read", readLimiter);
+        this.rejectedWrites = registerMeters(meterRegistry, "write", writeLimiter);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // async re-dispatches already gave their slot back in afterConcurrentHandlingStarted
+        if (!properties.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        boolean read = isRead(request);
+        AdaptiveConcurrencyLimiter limiter = read ? readLimiter : writeLimiter;
+
+        if (!limiter.tryAcquire()) {
+            (read ? rejectedReads : rejectedWrites).increment();
+            throw new RateLimitExceededException("service", Duration.ofSeconds(1), true);
+        }
+
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(LIMITER_ATTRIBUTE) instanceof AdaptiveConcurrencyLimiter limiter) {
+            request.removeAttribute(LIMITER_ATTRIBUTE);
+            limiter.release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(LIMITER_ATTRIBUTE) instanceof AdaptiveConcurrencyLimiter limiter)) {
+            return;
+        }
+        request.removeAttribute(LIMITER_ATTRIBUTE);
+
+        /*
+         * Only handler executions that did the work are latency samples: 304s, errors and rejections
+         * answer in next to no time and would drag minRtt, and with it the limit, down
+         * */
+        if (ex == null && HttpStatus.valueOf(response.getStatus()).is2xxSuccessful()) {
+            limiter.release(System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE));
+        } else {
+            limiter.release();
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(ConcurrencyLimitProperties.Limit limit) {
+        return new AdaptiveConcurrencyLimiter(
+                limit.getInitial(),
+                limit.getMin(),
+                limit.getMax(),
+                properties.getRttTolerance(),
+                properties.getSmoothing(),
+                properties.getMinRttWindow().toNanos()
+        );
+    }
+
+    private static Counter registerMeters(MeterRegistry meterRegistry, String workload, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("apm.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("workload", workload)
+                .register(meterRegistry);
+        Gauge.builder("apm.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Requests currently holding a concurrency slot")
+                .tag("workload", workload)
+                .register(meterRegistry);
+        Gauge.builder("apm.concurrency.min_rtt", limiter, AdaptiveConcurrencyLimiter::minRttMillis)
+                .description("Minimum observed latency in the current window, ms")
+                .tag("workload", workload)
+                .register(meterRegistry);
+        return Counter.builder("apm.concurrency.rejected")
+                .description("Requests shed by the adaptive concurrency limit")
+                .tag("workload", workload)
+                .register(meterRegistry);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return method == HttpMethod.GET || method == HttpMethod.HEAD;
+    }
+}
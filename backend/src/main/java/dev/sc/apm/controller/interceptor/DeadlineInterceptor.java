@@ -0,0 +1,73 @@
+package dev.sc.apm.controller.interceptor;
+
+import dev.sc.apm.config.DeadlineProperties;
+import dev.sc.apm.util.concurrent.Deadline;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+
+/*
+ * Puts the deadline of the endpoint on the request thread. A REST request is cancelled once its deadline
+ * lapses, not when the client disconnects: the blocking servlet stack never tells a waiting request thread
+ * that the socket closed, only gRPC calls are cancelled on the client going away.
+ * */
+@Component
+@RequiredArgsConstructor
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    private final DeadlineProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (properties.isEnabled()) {
+            DeadlineContext.set(Deadline.after(timeout(request)));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        DeadlineContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        DeadlineContext.clear();
+    }
+
+    /*
+     * The budget of the endpoint; a client may ask for less with the header, never for more
+     * */
+    private Duration timeout(HttpServletRequest request) {
+        Duration timeout = endpointTimeout(request.getRequestURI());
+
+        String requested = request.getHeader(properties.getHeader());
+        if (requested != null) {
+            try {
+                Duration asked = Duration.ofMillis(Math.max(1, Long.parseLong(requested.trim())));
+                timeout = asked.compareTo(timeout) < 0 ? asked : timeout;
+            } catch (NumberFormatException ignored) {
+                // a malformed header falls back to the endpoint budget
+            }
+        }
+
+        return timeout.compareTo(properties.getMaxTimeout()) > 0 ? properties.getMaxTimeout() : timeout;
+    }
+
+    private Duration endpointTimeout(String path) {
+        for (Map.Entry<String, Duration> endpoint : properties.getEndpoints().entrySet()) {
+            if (pathMatcher.match(endpoint.getKey(), path)) {
+                return endpoint.getValue();
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+}
@@ -0,0 +1,39 @@
+package dev.sc.apm.controller.interceptor;
+
+import dev.sc.apm.config.RateLimitProperties;
+import dev.sc.apm.service.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    // the identity of the caller, see RateLimitService.callerOf, for the handlers scoping state per caller
+    public static final String CALLER_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".caller";
+
+    private final RateLimitService rateLimitService;
+    private final RateLimitProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String caller = rateLimitService.callerOf(request.getHeader(properties.getApiKeyHeader()), request.getRemoteAddr());
+        request.setAttribute(CALLER_ATTRIBUTE, caller);
+
+        if (isWrite(request)) {
+            rateLimitService.acquireForApiKey(caller);
+        }
+
+        return true;
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return method == HttpMethod.POST || method == HttpMethod.PUT ||
+                method == HttpMethod.PATCH || method == HttpMethod.DELETE;
+    }
+}
@@ -0,0 +1,45 @@
+package dev.sc.apm.dto;
+
+import dev.sc.apm.service.ApplicationColumns;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/*
+ * Decided applications by bucket of a dimension, as loaded in the column store
+ * */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class ApplicationSlicesDto {
+    private ApplicationColumns.Dimension dimension;
+    // rows scanned, matching the filter or not
+    private long scanned;
+    private long matched;
+    private long scanMicros;
+    private List<Slice> slices;
+
+    /*
+     * Values in [from, to) of the dimension; the first and the last slice also hold the values beyond them
+     * */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder(toBuilder = true)
+    public static class Slice {
+        private long from;
+        private long to;
+        private long applications;
+        private long approved;
+        // approved / applications, null for an empty slice
+        private Double approvalRate;
+        private BigDecimal approvedAmount;
+        // days, null without approved applications
+        private Double averageTerm;
+    }
+}
@@ -0,0 +1,37 @@
+package dev.sc.apm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class ChangeDto {
+    private Table table;
+    private long id;
+    // the last operation on the row within the page
+    private Operation operation;
+    private LocalDateTime changedAt;
+
+    // current state of the row, none for deleted rows
+    private ClientDto client;
+    private CreditApplicationDto application;
+    private CreditAgreementDto agreement;
+
+    public enum Table {
+        CLIENT,
+        CREDIT_APPLICATION,
+        CREDIT_AGREEMENT
+    }
+
+    public enum Operation {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+}
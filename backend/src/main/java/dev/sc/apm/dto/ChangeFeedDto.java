@@ -0,0 +1,19 @@
+package dev.sc.apm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class ChangeFeedDto {
+    private List<ChangeDto> changes;
+    // resume token, passed as since= of the next request
+    private String nextToken;
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package dev.sc.apm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class ClientLookupRequestDto {
+    private List<Long> ids;
+    private List<String> passports;
+}
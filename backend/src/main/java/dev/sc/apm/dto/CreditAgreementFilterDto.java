@@ -0,0 +1,27 @@
+package dev.sc.apm.dto;
+
+import dev.sc.apm.entity.SigningStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/*
+ * Every given field narrows the list; ranges include their lower bound, signed before excludes its bound
+ * */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class CreditAgreementFilterDto {
+    private SigningStatus signingStatus;
+    private Long clientId;
+    private LocalDateTime signedFrom;
+    private LocalDateTime signedTo;
+    // approved amount of the application
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+}
@@ -0,0 +1,27 @@
+package dev.sc.apm.dto;
+
+import dev.sc.apm.entity.CreditApplicationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/*
+ * Every given field narrows the list; ranges include their lower bound, created before excludes its bound
+ * */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class CreditApplicationFilterDto {
+    private CreditApplicationStatus status;
+    private Long clientId;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    // requested amount
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+}
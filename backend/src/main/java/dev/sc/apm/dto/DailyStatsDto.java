@@ -0,0 +1,32 @@
+package dev.sc.apm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/*
+ * Applications created on a UTC day. Rates and the average term are null when nothing was decided or approved.
+ * */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class DailyStatsDto {
+    private LocalDate day;
+    private long applications;
+    private long approved;
+    private long rejected;
+    private long pending;
+    // approved / (approved + rejected)
+    private Double approvalRate;
+    private BigDecimal approvedAmount;
+    // days
+    private Double averageTerm;
+    private long signed;
+    // signed / approved
+    private Double signingConversion;
+}
@@ -0,0 +1,34 @@
+package dev.sc.apm.dto;
+
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/*
+ * Every status is present, with zero counts if no row has it
+ * */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class DashboardSummaryDto {
+    private long applications;
+    private BigDecimal approvedAmount;
+    private Map<CreditApplicationStatus, StatusTotal> applicationsByStatus;
+    private long agreements;
+    private Map<SigningStatus, Long> agreementsBySigningStatus;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class StatusTotal {
+        private long count;
+        private BigDecimal approvedAmount;
+    }
+}
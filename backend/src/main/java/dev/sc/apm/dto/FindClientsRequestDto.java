@@ -15,6 +15,8 @@ public class FindClientsRequestDto {
     private String middleName;
     private String phone;
     private String passport;
+    // how the fields are matched, EXACT when not given
+    private Match match;
 
     public boolean isEmpty() {
         return firstName == null &&
@@ -23,4 +25,15 @@ public class FindClientsRequestDto {
                 phone == null &&
                 passport == null;
     }
+
+    /*
+     * Names are matched as given, case-insensitively, by prefix or by trigram similarity.
+     * Phone and passport are matched exactly, by prefix for PREFIX and FUZZY.
+     * */
+    public enum Match {
+        EXACT,
+        IGNORE_CASE,
+        PREFIX,
+        FUZZY
+    }
 }
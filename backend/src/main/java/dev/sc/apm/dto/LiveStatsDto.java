@@ -0,0 +1,44 @@
+package dev.sc.apm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Latencies are bucket upper bounds, within 1/16 of the exact value; null without samples in the window
+ * */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class LiveStatsDto {
+    private Window lastMinute;
+    private Window lastHour;
+    private Window lastDay;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder(toBuilder = true)
+    public static class Window {
+        // the time the counts cover, shorter than the window until the service has run that long
+        private long spanSeconds;
+        private long applications;
+        private double applicationsPerSecond;
+        private long decisions;
+        private long approved;
+        private Double approvalRatio;
+        private Latency decisionLatency;
+        private Latency signingLatency;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Latency {
+        private long count;
+        private Double p50Millis;
+        private Double p99Millis;
+    }
+}
@@ -0,0 +1,18 @@
+package dev.sc.apm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class LookupResponseDto<V> {
+    List<V> content;
+    // requested ids or passports without a match, as they were requested
+    List<String> missing;
+}
@@ -12,8 +12,15 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 public class PageResponseDto<V> {
+    // 0 and -1 for pages read after a cursor, they are neither numbered nor counted
     int page;
     int pageSize;
     long total;
     List<V> content;
+    // cursor= of the following page on sorted lists, none after the last page
+    String nextCursor;
+
+    public PageResponseDto(int page, int pageSize, long total, List<V> content) {
+        this(page, pageSize, total, content, null);
+    }
 }
@@ -0,0 +1,29 @@
+package dev.sc.apm.dto;
+
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class StatusEventDto {
+    private long sequence;
+    private Type type;
+    private long applicationId;
+    private long clientId;
+    private CreditApplicationStatus status;
+    private SigningStatus signingStatus;
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        APPLICATION_DECIDED,
+        AGREEMENT_SIGNED
+    }
+}
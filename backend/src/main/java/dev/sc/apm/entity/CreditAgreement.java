@@ -35,6 +35,10 @@ public class CreditAgreement {
     @Column(name = "signing_status", nullable = false, length = 20)
     private SigningStatus signingStatus;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
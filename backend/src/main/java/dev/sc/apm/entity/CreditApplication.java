@@ -46,6 +46,10 @@ public class CreditApplication {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToOne(mappedBy = "application")
     @ToString.Exclude
     private CreditAgreement creditAgreement;
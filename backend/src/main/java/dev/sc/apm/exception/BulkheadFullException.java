@@ -0,0 +1,12 @@
+package dev.sc.apm.exception;
+
+import dev.sc.apm.util.concurrent.Workload;
+
+public class BulkheadFullException extends BaseException {
+    public BulkheadFullException(Workload workload) {
+        super(
+                "No capacity left for " + workload.name().toLowerCase() + " requests, retry later.",
+                ExceptionName.BULKHEAD_FULL
+        );
+    }
+}
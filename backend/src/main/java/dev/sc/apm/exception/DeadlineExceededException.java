@@ -0,0 +1,10 @@
+package dev.sc.apm.exception;
+
+public class DeadlineExceededException extends BaseException {
+    public DeadlineExceededException() {
+        super(
+                "The request deadline has been exceeded.",
+                ExceptionName.DEADLINE_EXCEEDED
+        );
+    }
+}
@@ -10,4 +10,16 @@ public enum ExceptionName {
     REJECTED_STATUS_DURING_SIGNING,
     PENDING_STATUS_DURING_SIGNING,
     CREDIT_APPLICATION_NOT_FOUND,
+    INVALID_IDEMPOTENCY_KEY,
+    IDEMPOTENCY_KEY_REUSED,
+    RATE_LIMIT_EXCEEDED,
+    SERVICE_OVERLOADED,
+    BULKHEAD_FULL,
+    DEADLINE_EXCEEDED,
+    INVALID_FIELDS,
+    TOO_MANY_LOOKUP_KEYS,
+    INVALID_CHANGE_TOKEN,
+    INVALID_SORT,
+    INVALID_CURSOR,
+    INVALID_DATE_RANGE,
 }
@@ -0,0 +1,10 @@
+package dev.sc.apm.exception;
+
+public class IdempotencyKeyReuseException extends ValidationException {
+    public IdempotencyKeyReuseException(String idempotencyKey) {
+        super(
+                "Idempotency key " + idempotencyKey + " has already been used with a different request.",
+                ExceptionName.IDEMPOTENCY_KEY_REUSED
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package dev.sc.apm.exception;
+
+public class InvalidChangeTokenException extends ValidationException {
+    public InvalidChangeTokenException(String token) {
+        super(
+                "Change token '" + token + "' is malformed, use a nextToken returned by the feed.",
+                ExceptionName.INVALID_CHANGE_TOKEN
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package dev.sc.apm.exception;
+
+public class InvalidCursorException extends ValidationException {
+    public InvalidCursorException(String cursor) {
+        super(
+                "Cursor '" + cursor + "' is malformed or was issued for another sort, use a nextCursor of the same sort.",
+                ExceptionName.INVALID_CURSOR
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package dev.sc.apm.exception;
+
+import java.time.LocalDate;
+
+public class InvalidDateRangeException extends ValidationException {
+    public InvalidDateRangeException(LocalDate from, LocalDate to, int maxDays) {
+        super(
+                "Invalid range from " + from + " to " + to + ", 'to' must be after 'from' and at most " + maxDays + " days later.",
+                ExceptionName.INVALID_DATE_RANGE
+        );
+    }
+}
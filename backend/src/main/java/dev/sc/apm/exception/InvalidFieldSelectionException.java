@@ -0,0 +1,19 @@
+package dev.sc.apm.exception;
+
+import java.util.Collection;
+
+public class InvalidFieldSelectionException extends ValidationException {
+    public InvalidFieldSelectionException(Collection<String> unknown, Collection<String> known) {
+        super(
+                "Unknown fields " + String.join(", ", unknown) + ", expected any of " + String.join(", ", known) + ".",
+                ExceptionName.INVALID_FIELDS
+        );
+    }
+
+    public InvalidFieldSelectionException(String view, Collection<String> known) {
+        super(
+                "Unknown view " + view + ", expected one of " + String.join(", ", known) + ".",
+                ExceptionName.INVALID_FIELDS
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package dev.sc.apm.exception;
+
+public class InvalidIdempotencyKeyException extends ValidationException {
+    public InvalidIdempotencyKeyException(int maxKeyLength) {
+        super(
+                "Idempotency key must not be blank and must not be longer than " + maxKeyLength + " characters.",
+                ExceptionName.INVALID_IDEMPOTENCY_KEY
+        );
+    }
+}
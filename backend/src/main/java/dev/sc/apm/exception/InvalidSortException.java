@@ -0,0 +1,12 @@
+package dev.sc.apm.exception;
+
+import java.util.Collection;
+
+public class InvalidSortException extends ValidationException {
+    public InvalidSortException(String sort, Collection<String> keys) {
+        super(
+                "Unknown sort '" + sort + "', sort by one of " + keys + ", optionally followed by ',asc' or ',desc'.",
+                ExceptionName.INVALID_SORT
+        );
+    }
+}
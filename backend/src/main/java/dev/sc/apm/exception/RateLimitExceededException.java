@@ -0,0 +1,26 @@
+package dev.sc.apm.exception;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends BaseException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String scope, Duration retryAfter, boolean overloaded) {
+        super(
+                overloaded ?
+                        "The service is overloaded, retry in " + retryAfter.toSeconds() + " seconds." :
+                        "Rate limit per " + scope + " exceeded, retry in " + retryAfter.toSeconds() + " seconds.",
+                overloaded ? ExceptionName.SERVICE_OVERLOADED : ExceptionName.RATE_LIMIT_EXCEEDED
+        );
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    public boolean isOverloaded() {
+        return expName == ExceptionName.SERVICE_OVERLOADED;
+    }
+}
@@ -0,0 +1,10 @@
+package dev.sc.apm.exception;
+
+public class TooManyLookupKeysException extends ValidationException {
+    public TooManyLookupKeysException(int keys, int maxKeys) {
+        super(
+                "A lookup accepts at most " + maxKeys + " keys, got " + keys + ".",
+                ExceptionName.TOO_MANY_LOOKUP_KEYS
+        );
+    }
+}
@@ -0,0 +1,33 @@
+package dev.sc.apm.grpc;
+
+import dev.sc.apm.dto.FindClientsRequestDto;
+import dev.sc.apm.grpc.proto.Client;
+import dev.sc.apm.grpc.proto.ClientsGrpc;
+import dev.sc.apm.grpc.proto.FindClientsRequest;
+import dev.sc.apm.service.ClientService;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+@GrpcService
+@RequiredArgsConstructor
+public class ClientsGrpcService extends ClientsGrpc.ClientsImplBase {
+
+    private final ClientService clientService;
+    private final Bulkheads bulkheads;
+    private final GrpcMapper mapper;
+
+    @Override
+    public void findClients(FindClientsRequest request, StreamObserver<Client> responseObserver) {
+        FindClientsRequestDto filter = mapper.fromFindClientsRequest(request);
+
+        PageStreams.stream(
+                request.getPages(),
+                page -> bulkheads.execute(Workload.READ, () -> clientService.findClients(page, filter)),
+                mapper::toClient,
+                responseObserver
+        );
+    }
+}
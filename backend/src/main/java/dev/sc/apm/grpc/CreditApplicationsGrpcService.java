@@ -0,0 +1,147 @@
+package dev.sc.apm.grpc;
+
+import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.CreditApplicationRequestDto;
+import dev.sc.apm.grpc.interceptor.ApiKeyServerInterceptor;
+import dev.sc.apm.grpc.proto.BulkSubmissionResponse;
+import dev.sc.apm.grpc.proto.CreditAgreement;
+import dev.sc.apm.grpc.proto.CreditApplication;
+import dev.sc.apm.grpc.proto.CreditApplicationRequest;
+import dev.sc.apm.grpc.proto.CreditApplicationsGrpc;
+import dev.sc.apm.grpc.proto.ListRequest;
+import dev.sc.apm.grpc.proto.SignCreditAgreementRequest;
+import dev.sc.apm.grpc.proto.SubmissionError;
+import dev.sc.apm.grpc.proto.SubmissionResult;
+import dev.sc.apm.service.APMService;
+import dev.sc.apm.service.IdempotencyService;
+import dev.sc.apm.service.RateLimitService;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+/*
+ * gRPC endpoint of the same operations as APMController, it runs next to the REST controllers
+ * and goes through the same rate limits, bulkheads, idempotency and deadlines
+ * */
+@Slf4j
+@GrpcService
+@RequiredArgsConstructor
+public class CreditApplicationsGrpcService extends CreditApplicationsGrpc.CreditApplicationsImplBase {
+
+    private final APMService apmService;
+    private final IdempotencyService idempotencyService;
+    private final RateLimitService rateLimitService;
+    private final Bulkheads bulkheads;
+    private final GrpcMapper mapper;
+
+    @Override
+    public void createCreditApplication(CreditApplicationRequest request, StreamObserver<CreditApplication> responseObserver) {
+        responseObserver.onNext(mapper.toCreditApplication(create(request)));
+        responseObserver.onCompleted();
+    }
+
+    /*
+     * Each request is created as soon as it arrives, a failed request is reported in its result
+     * and does not end the stream
+     * */
+    @Override
+    public StreamObserver<CreditApplicationRequest> submitCreditApplications(StreamObserver<BulkSubmissionResponse> responseObserver) {
+        return new StreamObserver<>() {
+            private final BulkSubmissionResponse.Builder response = BulkSubmissionResponse.newBuilder();
+            private int index;
+
+            @Override
+            public void onNext(CreditApplicationRequest request) {
+                SubmissionResult.Builder result = SubmissionResult.newBuilder().setIndex(index++);
+
+                try {
+                    result.setApplication(mapper.toCreditApplication(create(request)));
+                    response.setAccepted(response.getAccepted() + 1);
+                } catch (RuntimeException e) {
+                    result.setError(toError(e));
+                    response.setFailed(response.getFailed() + 1);
+                }
+
+                response.addResults(result);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("Bulk submission aborted by the client after {} requests", index, t);
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    @Override
+    public void signCreditAgreement(SignCreditAgreementRequest request, StreamObserver<CreditAgreement> responseObserver) {
+        rateLimitService.acquireForApiKey(ApiKeyServerInterceptor.CALLER.get());
+
+        responseObserver.onNext(mapper.toCreditAgreement(bulkheads.execute(
+                Workload.WRITE,
+                () -> apmService.signCreditAgreement(request.getApplicationId())
+        )));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void listCreditApplications(ListRequest request, StreamObserver<CreditApplication> responseObserver) {
+        PageStreams.stream(
+                request,
+                page -> bulkheads.execute(Workload.READ, () -> apmService.getPageCreditApplications(page)),
+                mapper::toCreditApplication,
+                responseObserver
+        );
+    }
+
+    @Override
+    public void listCreditAgreements(ListRequest request, StreamObserver<CreditAgreement> responseObserver) {
+        PageStreams.stream(
+                request,
+                page -> bulkheads.execute(Workload.READ, () -> apmService.getPageCreditAgreements(page)),
+                mapper::toCreditAgreement,
+                responseObserver
+        );
+    }
+
+    private CreditApplicationDto create(CreditApplicationRequest request) {
+        String caller = ApiKeyServerInterceptor.CALLER.get();
+        rateLimitService.acquireForApiKey(caller);
+
+        CreditApplicationRequestDto creditRequestDto = mapper.fromCreditApplicationRequest(request);
+
+        if (creditRequestDto.getApplicant() != null) {
+            rateLimitService.acquireForPassport(creditRequestDto.getApplicant().getPassport());
+        }
+
+        return bulkheads.execute(Workload.WRITE, () -> idempotencyService.execute(
+                caller,
+                request.hasIdempotencyKey() ? request.getIdempotencyKey() : null,
+                creditRequestDto,
+                () -> apmService.createCreditApplication(creditRequestDto)
+        ));
+    }
+
+    private static SubmissionError toError(RuntimeException e) {
+        Status status = GrpcExceptionAdvice.statusOf(e);
+
+        if (status.getCode() == Status.Code.INTERNAL) {
+            log.error(e.getMessage(), e);
+        }
+
+        return SubmissionError.newBuilder()
+                .setCode(status.getCode().name())
+                .setMessage(status.getDescription() != null ? status.getDescription() : "")
+                .putAllDetails(GrpcExceptionAdvice.detailsOf(e))
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package dev.sc.apm.grpc;
+
+import dev.sc.apm.exception.BaseException;
+import dev.sc.apm.exception.BulkheadFullException;
+import dev.sc.apm.exception.ClientInfoMismatchException;
+import dev.sc.apm.exception.CreditApplicationNotFound;
+import dev.sc.apm.exception.DeadlineExceededException;
+import dev.sc.apm.exception.GroupValidationException;
+import dev.sc.apm.exception.IdempotencyKeyReuseException;
+import dev.sc.apm.exception.InvalidFieldSelectionException;
+import dev.sc.apm.exception.InvalidIdempotencyKeyException;
+import dev.sc.apm.exception.PendingStatusDuringSigningException;
+import dev.sc.apm.exception.RateLimitExceededException;
+import dev.sc.apm.exception.RejectedStatusDuringSigningException;
+import dev.sc.apm.exception.TooManyLookupKeysException;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusException;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.advice.GrpcAdvice;
+import net.devh.boot.grpc.server.advice.GrpcExceptionHandler;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/*
+ * gRPC counterpart of GlobalExceptionHandler, the same exceptions map to the closest status code
+ * */
+@Slf4j
+@GrpcAdvice
+public class GrpcExceptionAdvice {
+
+    public static final Metadata.Key<String> RETRY_AFTER =
+            Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+
+    @GrpcExceptionHandler(Exception.class)
+    public StatusException handleException(Exception e) {
+        return toStatusException(e);
+    }
+
+    /*
+     * Also used where a call is answered outside the service method, e.g. from an onReady handler
+     * */
+    public static StatusException toStatusException(Exception e) {
+        Status status = statusOf(e);
+
+        if (status.getCode() == Status.Code.INTERNAL) {
+            log.error(e.getMessage(), e);
+        }
+
+        Metadata trailers = new Metadata();
+        if (e instanceof RateLimitExceededException rateLimit) {
+            trailers.put(RETRY_AFTER, String.valueOf(rateLimit.retryAfter().toSeconds()));
+        } else if (e instanceof BulkheadFullException) {
+            trailers.put(RETRY_AFTER, "1");
+        }
+
+        return status.asException(trailers);
+    }
+
+    public static Status statusOf(Throwable e) {
+        if (e instanceof CreditApplicationNotFound) {
+            return Status.NOT_FOUND.withDescription("credit_application_not_found").withCause(e);
+        }
+        if (e instanceof GroupValidationException) {
+            return Status.INVALID_ARGUMENT.withDescription("group_validation_exception").withCause(e);
+        }
+        if (e instanceof InvalidIdempotencyKeyException) {
+            return Status.INVALID_ARGUMENT.withDescription("invalid_idempotency_key").withCause(e);
+        }
+        if (e instanceof InvalidFieldSelectionException) {
+            return Status.INVALID_ARGUMENT.withDescription("invalid_field_selection").withCause(e);
+        }
+        if (e instanceof TooManyLookupKeysException) {
+            return Status.INVALID_ARGUMENT.withDescription("too_many_lookup_keys").withCause(e);
+        }
+        if (
+                e instanceof ConstraintViolationException ||
+                        e instanceof NumberFormatException ||
+                        e instanceof DateTimeParseException
+        ) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage()).withCause(e);
+        }
+        if (e instanceof IdempotencyKeyReuseException) {
+            return Status.FAILED_PRECONDITION.withDescription("idempotency_key_reused").withCause(e);
+        }
+        if (
+                e instanceof ClientInfoMismatchException ||
+                        e instanceof PendingStatusDuringSigningException ||
+                        e instanceof RejectedStatusDuringSigningException
+        ) {
+            return Status.FAILED_PRECONDITION.withDescription(((BaseException) e).reason()).withCause(e);
+        }
+        if (e instanceof RateLimitExceededException rateLimit) {
+            return rateLimit.isOverloaded() ?
+                    Status.UNAVAILABLE.withDescription("service_overloaded").withCause(e) :
+                    Status.RESOURCE_EXHAUSTED.withDescription("rate_limit_exceeded").withCause(e);
+        }
+        if (e instanceof BulkheadFullException) {
+            return Status.UNAVAILABLE.withDescription("bulkhead_full").withCause(e);
+        }
+        /*
+         * statement_timeout and lock_timeout are derived from the call deadline, so both mean the deadline is gone
+         * */
+        if (
+                e instanceof DeadlineExceededException ||
+                        e instanceof QueryTimeoutException ||
+                        e instanceof CannotAcquireLockException
+        ) {
+            return Status.DEADLINE_EXCEEDED.withDescription("deadline_exceeded").withCause(e);
+        }
+        return Status.INTERNAL.withDescription(e.getMessage()).withCause(e);
+    }
+
+    public static Map<String, String> detailsOf(Throwable e) {
+        if (e instanceof GroupValidationException validation) {
+            return validation.toMap();
+        }
+        if (e instanceof BaseException base && base.getExpName() != null) {
+            return Map.of(base.getExpName().name(), base.reason());
+        }
+        return Map.of();
+    }
+}
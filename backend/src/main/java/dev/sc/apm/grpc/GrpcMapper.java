@@ -0,0 +1,142 @@
+package dev.sc.apm.grpc;
+
+import dev.sc.apm.dto.ClientDto;
+import dev.sc.apm.dto.CreditAgreementDto;
+import dev.sc.apm.dto.CreditApplicantDto;
+import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.CreditApplicationRequestDto;
+import dev.sc.apm.dto.FindClientsRequestDto;
+import dev.sc.apm.grpc.proto.Client;
+import dev.sc.apm.grpc.proto.ClientMatch;
+import dev.sc.apm.grpc.proto.CreditAgreement;
+import dev.sc.apm.grpc.proto.CreditApplicant;
+import dev.sc.apm.grpc.proto.CreditApplication;
+import dev.sc.apm.grpc.proto.CreditApplicationRequest;
+import dev.sc.apm.grpc.proto.CreditApplicationStatus;
+import dev.sc.apm.grpc.proto.FindClientsRequest;
+import dev.sc.apm.grpc.proto.MaritalStatus;
+import dev.sc.apm.grpc.proto.SigningStatus;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/*
+ * Maps the protobuf messages to the DTOs served by the REST controllers and back.
+ * Proto3 has no null for scalars: an empty string or an UNSPECIFIED enum is mapped to null
+ * and left to the validation of the service, like a missing JSON property
+ * */
+@Component
+public class GrpcMapper {
+
+    public CreditApplicationRequestDto fromCreditApplicationRequest(CreditApplicationRequest request) {
+        return CreditApplicationRequestDto.builder()
+                .applicant(request.hasApplicant() ? fromCreditApplicant(request.getApplicant()) : null)
+                .amount(request.getAmount().isEmpty() ? null : new BigDecimal(request.getAmount()))
+                .build();
+    }
+
+    public CreditApplicantDto fromCreditApplicant(CreditApplicant applicant) {
+        return CreditApplicantDto.builder()
+                .firstName(emptyToNull(applicant.getFirstName()))
+                .lastName(emptyToNull(applicant.getLastName()))
+                .middleName(applicant.hasMiddleName() ? applicant.getMiddleName() : null)
+                .passport(emptyToNull(applicant.getPassport()))
+                .maritalStatus(fromMaritalStatus(applicant.getMaritalStatus()))
+                .address(applicant.hasAddress() ? applicant.getAddress() : null)
+                .phone(emptyToNull(applicant.getPhone()))
+                .organizationName(emptyToNull(applicant.getOrganizationName()))
+                .position(emptyToNull(applicant.getPosition()))
+                .employmentPeriod(applicant.getEmploymentPeriod().isEmpty() ? null : Duration.parse(applicant.getEmploymentPeriod()))
+                .build();
+    }
+
+    public FindClientsRequestDto fromFindClientsRequest(FindClientsRequest request) {
+        return FindClientsRequestDto.builder()
+                .firstName(request.hasFirstName() ? request.getFirstName() : null)
+                .lastName(request.hasLastName() ? request.getLastName() : null)
+                .middleName(request.hasMiddleName() ? request.getMiddleName() : null)
+                .phone(request.hasPhone() ? request.getPhone() : null)
+                .passport(request.hasPassport() ? request.getPassport() : null)
+                .match(fromClientMatch(request.getMatch()))
+                .build();
+    }
+
+    public CreditApplication toCreditApplication(CreditApplicationDto dto) {
+        CreditApplication.Builder builder = CreditApplication.newBuilder()
+                .setId(dto.getId())
+                .setApplicantId(dto.getApplicantId())
+                .setRequestedAmount(dto.getRequestedAmount().toPlainString())
+                .setStatus(CreditApplicationStatus.valueOf(dto.getStatus().name()))
+                .setCreatedAt(dto.getCreatedAt().toString());
+
+        if (dto.getApprovedAmount() != null) {
+            builder.setApprovedAmount(dto.getApprovedAmount().toPlainString());
+        }
+        if (dto.getApprovedTerm() != null) {
+            builder.setApprovedTerm(dto.getApprovedTerm());
+        }
+        if (dto.getCreditAgreementId() != null) {
+            builder.setCreditAgreementId(dto.getCreditAgreementId());
+        }
+
+        return builder.build();
+    }
+
+    public CreditAgreement toCreditAgreement(CreditAgreementDto dto) {
+        CreditAgreement.Builder builder = CreditAgreement.newBuilder()
+                .setId(dto.getId())
+                .setApplicationId(dto.getApplicationId())
+                .setSigningStatus(SigningStatus.valueOf(dto.getSigningStatus().name()));
+
+        if (dto.getSignedAt() != null) {
+            builder.setSignedAt(dto.getSignedAt().toString());
+        }
+
+        return builder.build();
+    }
+
+    public Client toClient(ClientDto dto) {
+        Client.Builder builder = Client.newBuilder()
+                .setId(dto.getId())
+                .setFirstName(dto.getFirstName())
+                .setLastName(dto.getLastName())
+                .setPassport(dto.getPassport())
+                .setPhone(dto.getPhone())
+                .setOrganizationName(dto.getOrganizationName())
+                .setPosition(dto.getPosition());
+
+        if (dto.getMiddleName() != null) {
+            builder.setMiddleName(dto.getMiddleName());
+        }
+        if (dto.getMaritalStatus() != null) {
+            builder.setMaritalStatus(MaritalStatus.valueOf(dto.getMaritalStatus().name()));
+        }
+        if (dto.getAddress() != null) {
+            builder.setAddress(dto.getAddress());
+        }
+        if (dto.getEmploymentPeriod() != null) {
+            builder.setEmploymentPeriod(dto.getEmploymentPeriod().toString());
+        }
+
+        return builder.build();
+    }
+
+    private static dev.sc.apm.entity.MaritalStatus fromMaritalStatus(MaritalStatus status) {
+        if (status == MaritalStatus.MARITAL_STATUS_UNSPECIFIED || status == MaritalStatus.UNRECOGNIZED) {
+            return null;
+        }
+        return dev.sc.apm.entity.MaritalStatus.valueOf(status.name());
+    }
+
+    private static FindClientsRequestDto.Match fromClientMatch(ClientMatch match) {
+        if (match == ClientMatch.CLIENT_MATCH_UNSPECIFIED || match == ClientMatch.UNRECOGNIZED) {
+            return null;
+        }
+        return FindClientsRequestDto.Match.valueOf(match.name());
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,108 @@
+package dev.sc.apm.grpc;
+
+import dev.sc.apm.dto.PageResponseDto;
+import dev.sc.apm.grpc.interceptor.DeadlineServerInterceptor;
+import dev.sc.apm.grpc.proto.ListRequest;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/*
+ * Streams the pages served by the REST list endpoints one after another, so every page still goes
+ * through the page cache and its own READ bulkhead permit instead of one long transaction.
+ * Messages are only sent while the transport is ready and the next page is only loaded once the client
+ * takes more, so a slow reader leaves nothing buffered but the page it is on.
+ * */
+final class PageStreams<D, M> implements Runnable {
+
+    private final IntFunction<PageResponseDto<D>> loader;
+    private final Function<D, M> mapper;
+    private final ServerCallStreamObserver<M> observer;
+    private final long lastPage;
+
+    private int page;
+    private Iterator<D> items = Collections.emptyIterator();
+    private boolean lastLoaded;
+    private boolean done;
+
+    private PageStreams(
+            ListRequest request,
+            IntFunction<PageResponseDto<D>> loader,
+            Function<D, M> mapper,
+            ServerCallStreamObserver<M> observer
+    ) {
+        this.loader = loader;
+        this.mapper = mapper;
+        this.observer = observer;
+        this.page = Math.max(1, request.getFromPage()) - 1;
+        this.lastPage = request.getMaxPages() > 0 ? (long) page + request.getMaxPages() : Long.MAX_VALUE;
+    }
+
+    static <D, M> void stream(
+            ListRequest request,
+            IntFunction<PageResponseDto<D>> loader,
+            Function<D, M> mapper,
+            StreamObserver<M> responseObserver
+    ) {
+        ServerCallStreamObserver<M> observer = (ServerCallStreamObserver<M>) responseObserver;
+        // a cancelled call stops the stream at the next message instead of failing the current one
+        observer.setOnCancelHandler(() -> {
+        });
+        // also called once the method returns when the call is ready by then
+        observer.setOnReadyHandler(new PageStreams<>(request, loader, mapper, observer));
+    }
+
+    /*
+     * Runs on every onReady of the call, those are serialized, and sends until the transport pushes back
+     * */
+    @Override
+    public void run() {
+        if (done) {
+            return;
+        }
+
+        try {
+            while (!observer.isCancelled()) {
+                if (items.hasNext()) {
+                    if (!observer.isReady()) {
+                        return;
+                    }
+                    observer.onNext(mapper.apply(items.next()));
+                } else if (lastLoaded) {
+                    done = true;
+                    observer.onCompleted();
+                    return;
+                } else if (observer.isReady()) {
+                    loadNextPage();
+                } else {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            done = true;
+            observer.onError(GrpcExceptionAdvice.toStatusException(e));
+        }
+    }
+
+    /*
+     * Every page is a unit of work with its own deadline
+     * */
+    private void loadNextPage() {
+        int next = page + 1;
+        PageResponseDto<D> response = DeadlineServerInterceptor.withinUnit(() -> loader.apply(next));
+
+        // the repository clamps a page past the end to the last one
+        if (response.getPage() != next || response.getContent().isEmpty()) {
+            lastLoaded = true;
+            return;
+        }
+
+        page = next;
+        items = response.getContent().iterator();
+        lastLoaded = page >= lastPage || (long) page * response.getPageSize() >= response.getTotal();
+    }
+}
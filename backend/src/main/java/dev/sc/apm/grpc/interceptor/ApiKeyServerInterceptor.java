@@ -0,0 +1,56 @@
+package dev.sc.apm.grpc.interceptor;
+
+import dev.sc.apm.config.RateLimitProperties;
+import dev.sc.apm.service.RateLimitService;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.core.annotation.Order;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/*
+ * Binds the rate limit bucket of the caller to the call: an issued api key, or the remote address
+ * like RateLimitInterceptor. The token is taken per submitted request by the service, so a request of a
+ * bulk submission stream that exceeds the limit fails alone instead of ending the stream.
+ * */
+@Order(1)
+@GrpcGlobalServerInterceptor
+public class ApiKeyServerInterceptor implements ServerInterceptor {
+
+    public static final Context.Key<String> CALLER = Context.key("apm-caller");
+
+    private final RateLimitService rateLimitService;
+    private final Metadata.Key<String> apiKeyHeader;
+
+    public ApiKeyServerInterceptor(RateLimitService rateLimitService, RateLimitProperties properties) {
+        this.rateLimitService = rateLimitService;
+        this.apiKeyHeader = Metadata.Key.of(properties.getApiKeyHeader(), Metadata.ASCII_STRING_MARSHALLER);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next
+    ) {
+        String caller = rateLimitService.callerOf(headers.get(apiKeyHeader), remoteAddress(call));
+        Context context = Context.current().withValue(CALLER, caller);
+
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+
+    private static String remoteAddress(ServerCall<?, ?> call) {
+        SocketAddress address = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (address instanceof InetSocketAddress inet && inet.getAddress() != null) {
+            return inet.getAddress().getHostAddress();
+        }
+        return String.valueOf(address);
+    }
+}
@@ -0,0 +1,228 @@
+package dev.sc.apm.grpc.interceptor;
+
+import dev.sc.apm.config.DeadlineProperties;
+import dev.sc.apm.util.concurrent.Deadline;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import lombok.RequiredArgsConstructor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/*
+ * gRPC counterpart of DeadlineInterceptor. The budget is the endpoint timeout matched against
+ * "/" + full method name, capped by maxTimeout; the deadline sent by the caller can only shorten it.
+ * Listener callbacks may run on any thread of the call executor, so the deadline is bound around each
+ * of them, and a cancelled call (including an expired gRPC deadline) cancels the statement in flight.
+ *
+ * A stream may run far longer than any single statement should, so streaming calls get no deadline
+ * for the whole call: every streamed request and every page sent by withinUnit gets the budget anew.
+ * The caller's own deadline still ends the stream as a whole.
+ * */
+@Order(0)
+@GrpcGlobalServerInterceptor
+@RequiredArgsConstructor
+public class DeadlineServerInterceptor implements ServerInterceptor {
+
+    private static final Context.Key<UnitDeadlines> UNIT_DEADLINES = Context.key("apm-unit-deadlines");
+
+    private final DeadlineProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next
+    ) {
+        if (!properties.isEnabled()) {
+            return next.startCall(call, headers);
+        }
+
+        MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+        Duration timeout = endpointTimeout("/" + method.getFullMethodName());
+
+        if (method.getType() != MethodDescriptor.MethodType.UNARY) {
+            return streaming(call, headers, next, new UnitDeadlines(timeout, Context.current()));
+        }
+
+        Context context = Context.current();
+        Deadline deadline = Deadline.after(shortenedByCaller(timeout, context));
+        Context.CancellationListener cancellation = cancelled -> deadline.cancel();
+        context.addListener(cancellation, Runnable::run);
+
+        ServerCall.Listener<ReqT> delegate;
+        DeadlineContext.set(deadline);
+        try {
+            delegate = next.startCall(call, headers);
+        } finally {
+            DeadlineContext.clear();
+        }
+
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+            @Override
+            public void onMessage(ReqT message) {
+                within(deadline, () -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                within(deadline, super::onHalfClose);
+            }
+
+            @Override
+            public void onReady() {
+                within(deadline, super::onReady);
+            }
+
+            @Override
+            public void onCancel() {
+                context.removeListener(cancellation);
+                super.onCancel();
+            }
+
+            @Override
+            public void onComplete() {
+                context.removeListener(cancellation);
+                super.onComplete();
+            }
+        };
+    }
+
+    /*
+     * Runs one unit of work of a streaming call, e.g. loading the next page, within a budget of its own.
+     * Outside a streaming call the work runs under whatever deadline is already bound.
+     * */
+    public static <T> T withinUnit(Supplier<T> work) {
+        UnitDeadlines units = UNIT_DEADLINES.get();
+        if (units == null) {
+            return work.get();
+        }
+
+        Deadline previous = DeadlineContext.current();
+        DeadlineContext.set(units.next());
+        try {
+            return work.get();
+        } finally {
+            DeadlineContext.set(previous);
+        }
+    }
+
+    /*
+     * A streamed request is a unit, so is the single response of a client-streaming call; the pages of
+     * a server-streaming response are units taken by the service through withinUnit
+     * */
+    private <ReqT, RespT> ServerCall.Listener<ReqT> streaming(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next,
+            UnitDeadlines units
+    ) {
+        Context context = Context.current().withValue(UNIT_DEADLINES, units);
+        Context.CancellationListener cancellation = cancelled -> units.cancel();
+        context.addListener(cancellation, Runnable::run);
+
+        boolean singleResponse = call.getMethodDescriptor().getType().serverSendsOneMessage();
+        ServerCall.Listener<ReqT> delegate = Contexts.interceptCall(context, call, headers, next);
+
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+            @Override
+            public void onMessage(ReqT message) {
+                within(units.next(), () -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                if (singleResponse) {
+                    within(units.next(), super::onHalfClose);
+                } else {
+                    super.onHalfClose();
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                context.removeListener(cancellation);
+                super.onCancel();
+            }
+
+            @Override
+            public void onComplete() {
+                context.removeListener(cancellation);
+                super.onComplete();
+            }
+        };
+    }
+
+    private Duration shortenedByCaller(Duration timeout, Context context) {
+        io.grpc.Deadline requested = context.getDeadline();
+        if (requested == null) {
+            return timeout;
+        }
+
+        Duration remaining = Duration.ofNanos(Math.max(1, requested.timeRemaining(TimeUnit.NANOSECONDS)));
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    private Duration endpointTimeout(String path) {
+        Duration timeout = properties.getDefaultTimeout();
+        for (Map.Entry<String, Duration> endpoint : properties.getEndpoints().entrySet()) {
+            if (pathMatcher.match(endpoint.getKey(), path)) {
+                timeout = endpoint.getValue();
+                break;
+            }
+        }
+        return timeout.compareTo(properties.getMaxTimeout()) > 0 ? properties.getMaxTimeout() : timeout;
+    }
+
+    private static void within(Deadline deadline, Runnable callback) {
+        DeadlineContext.set(deadline);
+        try {
+            callback.run();
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+
+    /*
+     * Hands out the deadline of each unit of a streaming call and keeps the latest, which is the one
+     * a cancelled call has to cancel
+     * */
+    private final class UnitDeadlines {
+
+        private final Duration timeout;
+        private final Context context;
+        private final AtomicReference<Deadline> current = new AtomicReference<>();
+
+        private UnitDeadlines(Duration timeout, Context context) {
+            this.timeout = timeout;
+            this.context = context;
+        }
+
+        Deadline next() {
+            Deadline deadline = Deadline.after(shortenedByCaller(timeout, context));
+            current.set(deadline);
+            return deadline;
+        }
+
+        void cancel() {
+            Deadline deadline = current.get();
+            if (deadline != null) {
+                deadline.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package dev.sc.apm.repository;
+
+import dev.sc.apm.entity.CreditApplicationStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/*
+ * The columns of an application and its client that analytics slice by
+ * */
+public record ApplicationFacts(
+        Long id,
+        Long clientId,
+        BigDecimal requestedAmount,
+        CreditApplicationStatus status,
+        BigDecimal approvedAmount,
+        Integer approvedTerm,
+        LocalDateTime createdAt,
+        Duration employmentPeriod
+) {
+}
@@ -1,41 +1,78 @@
 package dev.sc.apm.repository;
 
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Root;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Selection;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiFunction;
 
-public abstract class CRUDRepository<E, ID extends Serializable> {
+public abstract class CRUDRepository<E, ID extends Serializable> extends SessionRepository {
     protected final Class<E> entityType;
-    protected final SessionFactory sessionFactory;
+    protected ChangeTracker changeTracker;
 
     protected CRUDRepository(Class<E> entityType, SessionFactory sessionFactory) {
+        super(sessionFactory);
         this.entityType = entityType;
-        this.sessionFactory = sessionFactory;
+    }
+
+    // setter injection keeps the constructors of the concrete repositories unchanged
+    @Autowired
+    public void setChangeTracker(ChangeTracker changeTracker) {
+        this.changeTracker = changeTracker;
     }
 
     @Transactional
     public E save(E entity) {
         Session session = sessionFactory.getCurrentSession();
-        return session.merge(entity);
+        return withDeadline(session, () -> session.merge(entity));
     }
 
     @Transactional
     public Optional<E> findById(ID id) {
         Session session = sessionFactory.getCurrentSession();
-        E entity = session.get(entityType, id);
+        E entity = withDeadline(session, () -> session.get(entityType, id));
         return entity == null ? Optional.empty() : Optional.of(entity);
     }
 
+    /*
+     * Loads the entities of the given ids with one IN query per batch of ids.
+     * Missing ids are skipped, the order of the result is not defined.
+     * */
+    @Transactional
+    public List<E> findAllByIds(Collection<ID> ids, int batchSize) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Session session = sessionFactory.getCurrentSession();
+        List<E> entities = withDeadline(session, () -> session.byMultipleIds(entityType)
+                .withBatchSize(batchSize)
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(ids))
+        );
+
+        return entities.stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Transactional
     public List<E> findAll() {
         Session session = sessionFactory.getCurrentSession();
@@ -45,7 +82,7 @@ public abstract class CRUDRepository<E, ID extends Serializable> {
         Root<E> root = query.from(entityType);
         query.select(root);
 
-        return session.createQuery(query).getResultList();
+        return withDeadline(session, () -> session.createQuery(query).getResultList());
     }
 
     @Transactional
@@ -55,10 +92,14 @@ public abstract class CRUDRepository<E, ID extends Serializable> {
 
     @Transactional
     public List<E> findAllBy(BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder) {
-        return getQueryFindAllBy(predicateBuilder).getResultList();
+        Query<E> query = getQueryFindAllBy(predicateBuilder, unordered());
+        return withDeadline(sessionFactory.getCurrentSession(), query::getResultList);
     }
 
-    private Query<E> getQueryFindAllBy(BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder) {
+    private Query<E> getQueryFindAllBy(
+            BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder,
+            BiFunction<CriteriaBuilder, Root<E>, List<Order>> orderBuilder
+    ) {
         Session session = sessionFactory.getCurrentSession();
         CriteriaBuilder builder = session.getCriteriaBuilder();
 
@@ -67,27 +108,105 @@ public abstract class CRUDRepository<E, ID extends Serializable> {
 
         Predicate[] predicates = predicateBuilder.apply(builder, root);
 
-        query.select(root).where(predicates);
+        query.select(root).where(predicates).orderBy(orderBuilder.apply(builder, root));
 
         return session.createQuery(query);
     }
 
+    /*
+     * The first rows in the given order, without counting: a page of keyset paging
+     * */
+    @Transactional
+    public List<E> findAllBy(
+            BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder,
+            BiFunction<CriteriaBuilder, Root<E>, List<Order>> orderBuilder,
+            int limit
+    ) {
+        Query<E> query = getQueryFindAllBy(predicateBuilder, orderBuilder).setMaxResults(limit);
+        return withDeadline(sessionFactory.getCurrentSession(), query::getResultList);
+    }
+
     @Transactional
     public Page<E> findAllBy(Pageable pageable, BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder) {
+        return findAllBy(pageable, predicateBuilder, unordered());
+    }
+
+    @Transactional
+    public Page<E> findAllBy(
+            Pageable pageable,
+            BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder,
+            BiFunction<CriteriaBuilder, Root<E>, List<Order>> orderBuilder
+    ) {
 
         long total = countBy(predicateBuilder);
 
-        // Calc max page
         int pageSize = pageable.size();
-        int maxPage = (int) Math.ceil((double) total / pageSize);
-        int currentPage = Math.min(pageable.page(), Math.max(maxPage, 1));
+        int currentPage = currentPage(pageable, total);
 
         int offset = (currentPage - 1) * pageSize;
 
-        List<E> content = getQueryFindAllBy(predicateBuilder)
+        Query<E> query = getQueryFindAllBy(predicateBuilder, orderBuilder)
                 .setFirstResult(offset)
-                .setMaxResults(pageSize)
-                .getResultList();
+                .setMaxResults(pageSize);
+
+        List<E> content = withDeadline(sessionFactory.getCurrentSession(), query::getResultList);
+
+        return new Page<>(
+                currentPage,
+                content.size(),
+                total,
+                content
+        );
+    }
+
+    /*
+     * Like findAllBy, but only the columns of the projection are selected, one map per row keyed by column name
+     * */
+    @Transactional
+    public Page<Map<String, Object>> findAllBy(
+            Pageable pageable,
+            Projection<E> projection,
+            BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder
+    ) {
+        return findAllBy(pageable, projection, predicateBuilder, unordered());
+    }
+
+    @Transactional
+    public Page<Map<String, Object>> findAllBy(
+            Pageable pageable,
+            Projection<E> projection,
+            BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder,
+            BiFunction<CriteriaBuilder, Root<E>, List<Order>> orderBuilder
+    ) {
+        long total = countBy(predicateBuilder);
+
+        int pageSize = pageable.size();
+        int currentPage = currentPage(pageable, total);
+
+        Session session = sessionFactory.getCurrentSession();
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<E> root = query.from(entityType);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        projection.columns().forEach((name, column) -> selections.add(column.apply(root).alias(name)));
+
+        query.multiselect(selections)
+                .where(predicateBuilder.apply(builder, root))
+                .orderBy(orderBuilder.apply(builder, root));
+
+        Query<Tuple> rows = session.createQuery(query)
+                .setFirstResult((currentPage - 1) * pageSize)
+                .setMaxResults(pageSize);
+
+        List<Map<String, Object>> content = withDeadline(session, rows::getResultList).stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    projection.names().forEach(name -> row.put(name, tuple.get(name)));
+                    return row;
+                })
+                .toList();
 
         return new Page<>(
                 currentPage,
@@ -97,6 +216,16 @@ public abstract class CRUDRepository<E, ID extends Serializable> {
         );
     }
 
+    private static <E> BiFunction<CriteriaBuilder, Root<E>, List<Order>> unordered() {
+        return (builder, root) -> List.of();
+    }
+
+    private static int currentPage(Pageable pageable, long total) {
+        // Calc max page
+        int maxPage = (int) Math.ceil((double) total / pageable.size());
+        return Math.min(pageable.page(), Math.max(maxPage, 1));
+    }
+
     @Transactional
     public long countBy(BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder) {
         Session session = sessionFactory.getCurrentSession();
@@ -109,7 +238,7 @@ public abstract class CRUDRepository<E, ID extends Serializable> {
 
         countQuery.select(builder.count(root)).where(predicates);
 
-        return session.createQuery(countQuery).getSingleResult();
+        return withDeadline(session, () -> session.createQuery(countQuery).getSingleResult());
     }
 
     @Transactional
@@ -130,5 +259,8 @@ public abstract class CRUDRepository<E, ID extends Serializable> {
                         "DELETE FROM " + entityType.getSimpleName()
                 )
                 .executeUpdate();
+
+        // bulk statements do not fire entity events
+        changeTracker.bumpAllAfterCommit();
     }
 }
@@ -0,0 +1,16 @@
+package dev.sc.apm.repository;
+
+import java.time.LocalDateTime;
+
+public record ChangeLogEntry(
+        long id,
+        long txid,
+        String tableName,
+        long rowId,
+        String operation,
+        LocalDateTime changedAt
+) {
+    public ChangePosition position() {
+        return new ChangePosition(txid, id);
+    }
+}
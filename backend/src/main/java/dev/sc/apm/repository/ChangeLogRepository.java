@@ -0,0 +1,87 @@
+package dev.sc.apm.repository;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+ * The change_log table is written by triggers on client, credit_application and credit_agreement.
+ *
+ * Entries are read in (txid, id) order and only up to the oldest transaction still running:
+ * a transaction that commits later can not add entries before a position that was already served,
+ * so a reader resuming after its last position misses nothing. A long running transaction
+ * holds the feed back until it ends.
+ * */
+@Repository
+public class ChangeLogRepository extends SessionRepository {
+
+    private static final String VISIBLE = "txid < pg_snapshot_xmin(pg_current_snapshot())";
+
+    public ChangeLogRepository(SessionFactory sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<ChangeLogEntry> findAfter(ChangePosition after, int limit) {
+        Session session = sessionFactory.getCurrentSession();
+
+        NativeQuery<Object[]> query = session.createNativeQuery("""
+                        SELECT id, CAST(txid AS TEXT) AS txid, table_name, row_id, operation, changed_at
+                        FROM change_log
+                        WHERE (txid, id) > (CAST(:txid AS xid8), :id)
+                          AND %s
+                        ORDER BY txid, id
+                        LIMIT :limit
+                        """.formatted(VISIBLE))
+                .addScalar("id", Long.class)
+                .addScalar("txid", String.class)
+                .addScalar("table_name", String.class)
+                .addScalar("row_id", Long.class)
+                .addScalar("operation", String.class)
+                .addScalar("changed_at", LocalDateTime.class)
+                .setParameter("txid", Long.toUnsignedString(after.txid()))
+                .setParameter("id", after.id())
+                .setParameter("limit", limit);
+
+        return withDeadline(session, query::getResultList).stream()
+                .map(row -> new ChangeLogEntry(
+                        (Long) row[0],
+                        Long.parseUnsignedLong((String) row[1]),
+                        (String) row[2],
+                        (Long) row[3],
+                        (String) row[4],
+                        (LocalDateTime) row[5]
+                ))
+                .toList();
+    }
+
+    /*
+     * Position of the last entry a reader can be served now, START if there is none
+     * */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public ChangePosition findHead() {
+        Session session = sessionFactory.getCurrentSession();
+
+        NativeQuery<Object[]> query = session.createNativeQuery("""
+                        SELECT CAST(txid AS TEXT) AS txid, id
+                        FROM change_log
+                        WHERE %s
+                        ORDER BY txid DESC, id DESC
+                        LIMIT 1
+                        """.formatted(VISIBLE))
+                .addScalar("txid", String.class)
+                .addScalar("id", Long.class);
+
+        return withDeadline(session, query::getResultList).stream()
+                .findFirst()
+                .map(row -> new ChangePosition(Long.parseUnsignedLong((String) row[0]), (Long) row[1]))
+                .orElse(ChangePosition.START);
+    }
+}
@@ -0,0 +1,27 @@
+package dev.sc.apm.repository;
+
+/*
+ * Position in the change log: the writing transaction, then the entry within it
+ * */
+public record ChangePosition(long txid, long id) {
+    public static final ChangePosition START = new ChangePosition(0, 0);
+
+    /*
+     * "txid:id", read back by parse
+     * */
+    public String format() {
+        return Long.toUnsignedString(txid) + ":" + id;
+    }
+
+    public static ChangePosition parse(String value) {
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Not a change log position: " + value);
+        }
+
+        return new ChangePosition(
+                Long.parseUnsignedLong(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1))
+        );
+    }
+}
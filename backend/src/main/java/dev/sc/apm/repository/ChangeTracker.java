@@ -0,0 +1,141 @@
+package dev.sc.apm.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Per-entity change counters, bumped after commit. A snapshot of the counters is a cheap validator
+ * for everything read from those tables: it changes whenever a committed write might have changed the result.
+ * Counters live in memory and restart with the epoch, so validators from a previous run never match.
+ * */
+@Component
+public class ChangeTracker implements
+        PostCommitInsertEventListener,
+        PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    public record Snapshot(String etag, long lastModified) {
+    }
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Class<?>, TableVersion> versions = new ConcurrentHashMap<>();
+    private final AtomicLong deletions = new AtomicLong();
+
+    public ChangeTracker(SessionFactory sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    public Snapshot snapshot(Class<?>... entityTypes) {
+        StringJoiner etag = new StringJoiner("-", "\"", "\"");
+        etag.add(Long.toString(epoch, 36));
+
+        long lastModified = epoch;
+        for (Class<?> entityType : entityTypes) {
+            TableVersion version = version(entityType);
+            etag.add(Long.toString(version.counter.get(), 36));
+            lastModified = Math.max(lastModified, version.lastModified);
+        }
+
+        return new Snapshot(etag.toString(), lastModified);
+    }
+
+    /*
+     * Number of committed deletes, for caches of rows that are otherwise immutable
+     * */
+    public long deletions() {
+        return deletions.get();
+    }
+
+    /*
+     * For bulk statements, which bypass the entity events. Deletes cascade in the database,
+     * so every table is considered changed.
+     * */
+    public void bumpAllAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpAll();
+                }
+            });
+        } else {
+            bumpAll();
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        bump(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        bump(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        bumpAll();
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private void bump(Class<?> entityType) {
+        version(entityType).bump();
+    }
+
+    private void bumpAll() {
+        deletions.incrementAndGet();
+        versions.values().forEach(TableVersion::bump);
+    }
+
+    private TableVersion version(Class<?> entityType) {
+        return versions.computeIfAbsent(entityType, type -> new TableVersion(epoch));
+    }
+
+    private static class TableVersion {
+        private final AtomicLong counter = new AtomicLong();
+        private volatile long lastModified;
+
+        private TableVersion(long lastModified) {
+            this.lastModified = lastModified;
+        }
+
+        private void bump() {
+            lastModified = System.currentTimeMillis();
+            counter.incrementAndGet();
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package dev.sc.apm.repository;
 
 import dev.sc.apm.entity.Client;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -22,6 +29,41 @@ public class ClientRepository extends CRUDRepository<Client, Long> implements Cl
         ).stream().findFirst();
     }
 
+    /*
+     * One IN query per batch of passports, keeping each statement's parameter list bounded
+     * */
+    @Transactional
+    public List<Client> findAllByPassports(Collection<String> passports, int batchSize) {
+        List<String> keys = List.copyOf(passports);
+        List<Client> clients = new ArrayList<>();
+
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<String> batch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+            clients.addAll(findAllBy((builder, root) ->
+                    new Predicate[]{root.get("passport").in(batch)}
+            ));
+        }
+
+        return clients;
+    }
+
+    /*
+     * Keyset page of clients in id order, for full scans that must not slow down with the offset
+     * */
+    @Transactional
+    public List<Client> findAllAfterId(long afterId, int limit) {
+        Session session = sessionFactory.getCurrentSession();
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+
+        CriteriaQuery<Client> query = builder.createQuery(Client.class);
+        Root<Client> root = query.from(Client.class);
+        query.select(root)
+                .where(builder.greaterThan(root.get("id"), afterId))
+                .orderBy(builder.asc(root.get("id")));
+
+        return withDeadline(session, () -> session.createQuery(query).setMaxResults(limit).getResultList());
+    }
+
     @Override
     @Transactional
     public void clearAll() {
@@ -1,16 +1,70 @@
 package dev.sc.apm.repository;
 
 import dev.sc.apm.entity.CreditApplication;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public class CreditApplicationRepository extends CRUDRepository<CreditApplication, Long> implements ClearableRepository {
+    private static final String FACTS = """
+            SELECT new dev.sc.apm.repository.ApplicationFacts(
+                a.id, c.id, a.requestedAmount, a.status, a.approvedAmount, a.approvedTerm, a.createdAt, c.employmentPeriod
+            )
+            FROM CreditApplication a JOIN a.client c""";
+
     public CreditApplicationRepository(SessionFactory sessionFactory) {
         super(CreditApplication.class, sessionFactory);
     }
 
+    @Transactional(readOnly = true)
+    public List<Long> findPendingIdsCreatedBefore(LocalDateTime createdBefore, int limit) {
+        Session session = sessionFactory.getCurrentSession();
+        return withDeadline(session, () -> session
+                .createSelectionQuery(
+                        "SELECT a.id FROM CreditApplication a WHERE a.status = :status AND a.createdAt < :before ORDER BY a.id",
+                        Long.class
+                )
+                .setParameter("status", CreditApplicationStatus.PENDING)
+                .setParameter("before", createdBefore)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    /*
+     * Keyset page of decided applications in id order, for bulk loads that must not slow down with the offset
+     * */
+    @Transactional(readOnly = true)
+    public List<ApplicationFacts> findDecidedFactsAfterId(long afterId, int limit) {
+        Session session = sessionFactory.getCurrentSession();
+        return withDeadline(session, () -> session
+                .createSelectionQuery(FACTS + " WHERE a.id > :after AND a.status <> :status ORDER BY a.id", ApplicationFacts.class)
+                .setParameter("after", afterId)
+                .setParameter("status", CreditApplicationStatus.PENDING)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ApplicationFacts> findDecidedFactsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Session session = sessionFactory.getCurrentSession();
+        return withDeadline(session, () -> session
+                .createSelectionQuery(FACTS + " WHERE a.id IN :ids AND a.status <> :status", ApplicationFacts.class)
+                .setParameter("ids", ids)
+                .setParameter("status", CreditApplicationStatus.PENDING)
+                .getResultList());
+    }
+
     @Override
     @Transactional
     public void clearAll() {
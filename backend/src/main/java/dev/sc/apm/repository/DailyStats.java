@@ -0,0 +1,19 @@
+package dev.sc.apm.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/*
+ * Applications created on a UTC day; amount and term are sums over the approved ones,
+ * signed counts the approved ones whose agreement is signed
+ * */
+public record DailyStats(
+        LocalDate day,
+        long applications,
+        long approved,
+        long rejected,
+        BigDecimal approvedAmount,
+        long approvedTerm,
+        long signed
+) {
+}
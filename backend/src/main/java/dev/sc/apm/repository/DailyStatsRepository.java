@@ -0,0 +1,100 @@
+package dev.sc.apm.repository;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/*
+ * Daily figures from the daily_credit_stats materialized view, or computed over the tables.
+ * The view is as fresh as its last refresh; refreshing it concurrently recomputes every day
+ * but keeps it readable meanwhile.
+ * */
+@Repository
+public class DailyStatsRepository extends SessionRepository {
+
+    // public for the benchmark comparing both
+    public static final String MATERIALIZED = """
+            SELECT day, applications, approved, rejected, approved_amount, approved_term, signed
+            FROM daily_credit_stats
+            WHERE day >= :from AND day < :to
+            ORDER BY day
+            """;
+
+    // the select of the daily_credit_stats view (V007), without grouping
+    public static final String DAILY_AGGREGATE = """
+            SELECT CAST(a.created_at AT TIME ZONE 'UTC' AS date)                           AS day,
+                   count(*)                                                                 AS applications,
+                   count(*) FILTER (WHERE a.status = 'APPROVED')                            AS approved,
+                   count(*) FILTER (WHERE a.status = 'REJECTED')                            AS rejected,
+                   coalesce(sum(a.approved_amount) FILTER (WHERE a.status = 'APPROVED'), 0) AS approved_amount,
+                   coalesce(sum(a.approved_term) FILTER (WHERE a.status = 'APPROVED'), 0)   AS approved_term,
+                   count(g.id) FILTER (WHERE g.signing_status = 'SIGNED')                   AS signed
+            FROM credit_application a
+                     LEFT JOIN credit_agreement g ON g.credit_application_id = a.id
+            """;
+
+    public static final String LIVE = DAILY_AGGREGATE + """
+            WHERE a.created_at >= :from AND a.created_at < :to
+            GROUP BY 1
+            ORDER BY 1
+            """;
+
+    public DailyStatsRepository(SessionFactory sessionFactory) {
+        super(sessionFactory);
+    }
+
+    /*
+     * Days from inclusive, to exclusive, days without applications are missing
+     * */
+    @Transactional
+    public List<DailyStats> findBetween(LocalDate from, LocalDate to) {
+        return find(MATERIALIZED, from, to);
+    }
+
+    @Transactional
+    public List<DailyStats> computeBetween(LocalDate from, LocalDate to) {
+        return find(LIVE, from.atStartOfDay().atOffset(ZoneOffset.UTC), to.atStartOfDay().atOffset(ZoneOffset.UTC));
+    }
+
+    @Transactional
+    public void refresh() {
+        Session session = sessionFactory.getCurrentSession();
+        session.createNativeMutationQuery("REFRESH MATERIALIZED VIEW CONCURRENTLY daily_credit_stats")
+                .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DailyStats> find(String sql, Object from, Object to) {
+        Session session = sessionFactory.getCurrentSession();
+
+        NativeQuery<Object[]> query = session.createNativeQuery(sql)
+                .addScalar("day", LocalDate.class)
+                .addScalar("applications", Long.class)
+                .addScalar("approved", Long.class)
+                .addScalar("rejected", Long.class)
+                .addScalar("approved_amount", BigDecimal.class)
+                .addScalar("approved_term", Long.class)
+                .addScalar("signed", Long.class)
+                .setParameter("from", from)
+                .setParameter("to", to);
+
+        return withDeadline(session, query::getResultList).stream()
+                .map(row -> new DailyStats(
+                        (LocalDate) row[0],
+                        (Long) row[1],
+                        (Long) row[2],
+                        (Long) row[3],
+                        (BigDecimal) row[4],
+                        (Long) row[5],
+                        (Long) row[6]
+                ))
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package dev.sc.apm.repository;
+
+import dev.sc.apm.entity.IdempotencyRecord;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public class IdempotencyRecordRepository extends CRUDRepository<IdempotencyRecord, String> implements ClearableRepository {
+    public IdempotencyRecordRepository(SessionFactory sessionFactory) {
+        super(IdempotencyRecord.class, sessionFactory);
+    }
+
+    /*
+     * merge() would select first and fail on flush at commit; ON CONFLICT lets the first writer win
+     * without poisoning the transaction of the others
+     * */
+    @Transactional
+    public boolean insertIfAbsent(IdempotencyRecord record) {
+        return sessionFactory.getCurrentSession()
+                .createNativeMutationQuery("""
+                        INSERT INTO idempotency_record (idempotency_key, request_hash, response_body, expires_at)
+                        VALUES (:key, :hash, :body, :expiresAt)
+                        ON CONFLICT (idempotency_key) DO NOTHING
+                        """)
+                .setParameter("key", record.getIdempotencyKey())
+                .setParameter("hash", record.getRequestHash())
+                .setParameter("body", record.getResponseBody())
+                .setParameter("expiresAt", record.getExpiresAt())
+                .executeUpdate() == 1;
+    }
+
+    @Transactional
+    public int deleteExpired(LocalDateTime now) {
+        return sessionFactory.getCurrentSession()
+                .createMutationQuery("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void clearAll() {
+        super.clearAll();
+    }
+}
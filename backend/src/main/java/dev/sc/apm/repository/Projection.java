@@ -0,0 +1,87 @@
+package dev.sc.apm.repository;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/*
+ * Named columns of an entity that can be selected instead of the whole entity, in response order.
+ * Associations are only joined when one of their columns is selected.
+ * */
+public final class Projection<E> {
+
+    private final Map<String, Function<Root<E>, Expression<?>>> columns;
+    private final Map<String, List<String>> views;
+
+    private Projection(Map<String, Function<Root<E>, Expression<?>>> columns, Map<String, List<String>> views) {
+        this.columns = Collections.unmodifiableMap(columns);
+        this.views = views;
+    }
+
+    public static <E> Builder<E> builder() {
+        return new Builder<>();
+    }
+
+    public Collection<String> names() {
+        return columns.keySet();
+    }
+
+    public boolean has(String name) {
+        return columns.containsKey(name);
+    }
+
+    public Collection<String> views() {
+        return views.keySet();
+    }
+
+    public Optional<List<String>> view(String view) {
+        return Optional.ofNullable(views.get(view));
+    }
+
+    /*
+     * The selected columns in declaration order, whatever the order of names
+     * */
+    public Projection<E> select(Collection<String> names) {
+        Map<String, Function<Root<E>, Expression<?>>> selected = new LinkedHashMap<>();
+        columns.forEach((name, column) -> {
+            if (names.contains(name)) {
+                selected.put(name, column);
+            }
+        });
+        return new Projection<>(selected, views);
+    }
+
+    Map<String, Function<Root<E>, Expression<?>>> columns() {
+        return columns;
+    }
+
+    public static final class Builder<E> {
+        private final Map<String, Function<Root<E>, Expression<?>>> columns = new LinkedHashMap<>();
+        private final Map<String, List<String>> views = new LinkedHashMap<>();
+
+        public Builder<E> column(String name, Function<Root<E>, Expression<?>> column) {
+            columns.put(name, column);
+            return this;
+        }
+
+        public Builder<E> attribute(String name) {
+            return column(name, root -> root.get(name));
+        }
+
+        public Builder<E> view(String view, String... names) {
+            views.put(view, List.of(names));
+            return this;
+        }
+
+        public Projection<E> build() {
+            return new Projection<>(columns, Map.copyOf(views));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.sc.apm.repository;
+
+import dev.sc.apm.util.concurrent.Deadline;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/*
+ * Base of the repositories working on the current session, entity mapped or not
+ * */
+public abstract class SessionRepository {
+    protected final SessionFactory sessionFactory;
+
+    protected SessionRepository(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /*
+     * Runs a statement within the deadline of the current request, if any: the remaining budget becomes
+     * the statement and lock timeout of the transaction. While in flight the statement can also be
+     * cancelled by the side waiting for the request, see CancellableStatementDataSource.
+     * */
+    protected <T> T withDeadline(Session session, Supplier<T> statement) {
+        Deadline deadline = DeadlineContext.current();
+
+        if (deadline == null) {
+            return statement.get();
+        }
+
+        deadline.checkNotExpired();
+        timeouts(session, deadline);
+
+        return statement.get();
+    }
+
+    /*
+     * The timeouts are SET LOCAL, they hold for the rest of the transaction: set by its first statement
+     * under a deadline, and set again only once the remaining budget is below half of the timeout set.
+     * The statements in between cost no extra round trip, and none outlives twice the remaining budget;
+     * the canceller of the deadline ends it on time. Keyed by the session, a transaction of its own
+     * started meanwhile has another one.
+     * */
+    private void timeouts(Session session, Deadline deadline) {
+        long remaining = deadline.remainingMillis();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            session.doWork(connection -> applyTimeouts(connection, remaining));
+            return;
+        }
+
+        AppliedTimeouts applied = (AppliedTimeouts) TransactionSynchronizationManager.getResource(session);
+        if (applied != null && remaining >= applied.timeoutMillis() / 2) {
+            return;
+        }
+
+        session.doWork(connection -> applyTimeouts(connection, remaining));
+
+        if (applied == null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(session);
+                }
+            });
+        } else {
+            TransactionSynchronizationManager.unbindResource(session);
+        }
+        TransactionSynchronizationManager.bindResource(session, new AppliedTimeouts(remaining));
+    }
+
+    private static void applyTimeouts(Connection connection, long timeoutMillis) throws SQLException {
+        // set_config(..., true) is SET LOCAL: the timeouts end with the transaction
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT set_config('statement_timeout', ?, true), set_config('lock_timeout', ?, true)"
+        )) {
+            String timeout = Math.max(1, timeoutMillis) + "ms";
+            statement.setString(1, timeout);
+            statement.setString(2, timeout);
+
+            statement.execute();
+        }
+    }
+
+    private record AppliedTimeouts(long timeoutMillis) {
+    }
+}
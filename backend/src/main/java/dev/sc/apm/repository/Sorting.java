@@ -0,0 +1,191 @@
+package dev.sc.apm.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/*
+ * Whitelisted sort keys of an entity. Every sort ends with the id in the same direction, which makes the order
+ * total: a page can then be read after the last row of the previous one (keyset paging) instead of by offset.
+ * */
+public final class Sorting<E> {
+
+    public enum Direction {
+        ASC,
+        DESC
+    }
+
+    private record Key<E>(String name, Function<String, Comparable<?>> parser, Function<E, Comparable<?>> value) {
+    }
+
+    public record Cursor(Comparable<?> value, Long id) {
+    }
+
+    private static final String ID = "id";
+
+    private final Map<String, Key<E>> keys;
+
+    private Sorting(Map<String, Key<E>> keys) {
+        this.keys = keys;
+    }
+
+    public static <E> Builder<E> builder(Function<E, Long> id) {
+        return new Builder<>(id);
+    }
+
+    public Collection<String> names() {
+        return keys.keySet();
+    }
+
+    /*
+     * "key", "key,asc" or "key,desc"; without a sort the id ascending
+     * */
+    public Optional<Sort<E>> sort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Optional.of(new Sort<>(keys.get(ID), Direction.ASC, keys.get(ID)));
+        }
+
+        String[] parts = sort.split(",", -1);
+        if (parts.length > 2) {
+            return Optional.empty();
+        }
+
+        Key<E> key = keys.get(parts[0].trim());
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        Direction direction = Direction.ASC;
+        if (parts.length == 2) {
+            try {
+                direction = Direction.valueOf(parts[1].trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(new Sort<>(key, direction, keys.get(ID)));
+    }
+
+    public static final class Sort<E> {
+        private final Key<E> key;
+        private final Direction direction;
+        private final Key<E> id;
+
+        private Sort(Key<E> key, Direction direction, Key<E> id) {
+            this.key = key;
+            this.direction = direction;
+            this.id = id;
+        }
+
+        public String name() {
+            return key.name() + "," + direction.name().toLowerCase(Locale.ROOT);
+        }
+
+        public List<Order> order(CriteriaBuilder builder, Root<E> root) {
+            if (key == id) {
+                return List.of(order(builder, root.get(ID)));
+            }
+            return List.of(order(builder, root.get(key.name())), order(builder, root.get(ID)));
+        }
+
+        /*
+         * Reads a cursor made by cursorOf, throws IllegalArgumentException for a cursor of another sort or a malformed one
+         * */
+        public Cursor cursor(String cursor) {
+            String[] parts;
+            try {
+                parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+
+            if (parts.length != 3 || !name().equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor of another sort");
+            }
+
+            // parse errors are IllegalArgumentExceptions too, NumberFormatException or DateTimeParseException aside
+            try {
+                return new Cursor(key.parser().apply(parts[1]), (Long) id.parser().apply(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+        }
+
+        /*
+         * Rows after the one the cursor was made of, in this order. The OR alone gives Postgres no start bound
+         * on the key; the redundant key >= value (<= descending) ANDed to it lets the index scan begin at the cursor.
+         * */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Predicate after(CriteriaBuilder builder, Root<E> root, Cursor cursor) {
+            Predicate afterId = beyond(builder, root.get(ID), cursor.id());
+
+            if (key == id) {
+                return afterId;
+            }
+
+            Expression path = root.get(key.name());
+            Comparable value = cursor.value();
+
+            return builder.and(
+                    reached(builder, path, value),
+                    builder.or(
+                            beyond(builder, path, value),
+                            builder.and(builder.equal(path, value), afterId)
+                    )
+            );
+        }
+
+        public String cursorOf(E entity) {
+            String cursor = name() + "|" + key.value().apply(entity) + "|" + id.value().apply(entity);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private Order order(CriteriaBuilder builder, Expression<?> path) {
+            return direction == Direction.ASC ? builder.asc(path) : builder.desc(path);
+        }
+
+        private <Y extends Comparable<? super Y>> Predicate beyond(CriteriaBuilder builder, Expression<? extends Y> path, Y value) {
+            return direction == Direction.ASC ? builder.greaterThan(path, value) : builder.lessThan(path, value);
+        }
+
+        private <Y extends Comparable<? super Y>> Predicate reached(CriteriaBuilder builder, Expression<? extends Y> path, Y value) {
+            return direction == Direction.ASC ?
+                    builder.greaterThanOrEqualTo(path, value) :
+                    builder.lessThanOrEqualTo(path, value);
+        }
+    }
+
+    public static final class Builder<E> {
+        private final Map<String, Key<E>> keys = new LinkedHashMap<>();
+
+        private Builder(Function<E, Long> id) {
+            keys.put(ID, new Key<>(ID, Long::valueOf, id::apply));
+        }
+
+        /*
+         * A non null attribute, its values are written to cursors with toString and read back with the parser
+         * */
+        public Builder<E> key(String name, Function<String, Comparable<?>> parser, Function<E, Comparable<?>> value) {
+            keys.put(name, new Key<>(name, parser, value));
+            return this;
+        }
+
+        public Sorting<E> build() {
+            return new Sorting<>(Collections.unmodifiableMap(new LinkedHashMap<>(keys)));
+        }
+    }
+}
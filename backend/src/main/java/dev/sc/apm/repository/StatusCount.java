@@ -0,0 +1,9 @@
+package dev.sc.apm.repository;
+
+import java.math.BigDecimal;
+
+/*
+ * Rows of a table with the given status, and the sum of their approved amounts (zero for agreements)
+ * */
+public record StatusCount(String tableName, String status, long rows, BigDecimal approvedAmount) {
+}
@@ -0,0 +1,48 @@
+package dev.sc.apm.repository;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/*
+ * The status_count table is written by triggers on credit_application and credit_agreement,
+ * in the transaction that inserts, deletes or changes the status of a row: the counts are exact
+ * at every snapshot. Reads sum the stripes of each status, a fixed number of rows.
+ * */
+@Repository
+public class StatusCountRepository extends SessionRepository {
+
+    public StatusCountRepository(SessionFactory sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<StatusCount> findAll() {
+        Session session = sessionFactory.getCurrentSession();
+
+        NativeQuery<Object[]> query = session.createNativeQuery("""
+                        SELECT table_name, status, SUM(row_count) AS row_count, SUM(approved_amount) AS approved_amount
+                        FROM status_count
+                        GROUP BY table_name, status
+                        """)
+                .addScalar("table_name", String.class)
+                .addScalar("status", String.class)
+                .addScalar("row_count", Long.class)
+                .addScalar("approved_amount", BigDecimal.class);
+
+        return withDeadline(session, query::getResultList).stream()
+                .map(row -> new StatusCount(
+                        (String) row[0],
+                        (String) row[1],
+                        (Long) row[2],
+                        (BigDecimal) row[3]
+                ))
+                .toList();
+    }
+}
@@ -1,34 +1,80 @@
 package dev.sc.apm.service;
 
 
+import dev.sc.apm.config.LookupProperties;
 import dev.sc.apm.dto.*;
 import dev.sc.apm.entity.*;
 import dev.sc.apm.exception.ClientInfoMismatchException;
 import dev.sc.apm.exception.CreditApplicationNotFound;
 import dev.sc.apm.exception.PendingStatusDuringSigningException;
 import dev.sc.apm.exception.RejectedStatusDuringSigningException;
+import dev.sc.apm.exception.TooManyLookupKeysException;
 import dev.sc.apm.mapper.ClientMapper;
 import dev.sc.apm.mapper.CreditApplicationMapper;
 import dev.sc.apm.repository.*;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import static dev.sc.apm.service.ServiceUtil.getPageResponse;
+import static dev.sc.apm.service.ServiceUtil.getPageResponseAfter;
+import static dev.sc.apm.service.ServiceUtil.getSortedPageResponse;
+import static dev.sc.apm.service.ServiceUtil.selectFields;
+import static dev.sc.apm.service.ServiceUtil.selectSort;
 
 @Service
 @Validated
 public class APMService {
 
-    private final AnalyticService analyticService;
+    public static final Projection<CreditApplication> APPLICATION_FIELDS = Projection.<CreditApplication>builder()
+            .attribute("id")
+            // the foreign key column, the client is not joined
+            .column("applicantId", root -> root.get("client").get("id"))
+            .attribute("requestedAmount")
+            .attribute("status")
+            .attribute("approvedAmount")
+            .attribute("approvedTerm")
+            .attribute("createdAt")
+            .column("creditAgreementId", root -> root.join("creditAgreement", JoinType.LEFT).get("id"))
+            .view("summary", "id", "applicantId", "requestedAmount", "status", "createdAt")
+            .build();
+
+    public static final Sorting<CreditApplication> APPLICATION_SORTS = Sorting.<CreditApplication>builder(CreditApplication::getId)
+            .key("createdAt", LocalDateTime::parse, CreditApplication::getCreatedAt)
+            .key("requestedAmount", BigDecimal::new, CreditApplication::getRequestedAmount)
+            .build();
+
+    public static final Sorting<CreditAgreement> AGREEMENT_SORTS = Sorting.<CreditAgreement>builder(CreditAgreement::getId)
+            .key("signedAt", LocalDateTime::parse, CreditAgreement::getSignedAt)
+            .build();
+
+    private final EvaluationService evaluationService;
+    private final ClientService clientService;
+    private final ConflictRetryService conflictRetryService;
 
     private final ClientRepository clientRepository;
     private final CreditApplicationRepository creditApplicationRepository;
@@ -37,42 +83,79 @@ public class APMService {
     private final ClientMapper clientMapper;
     private final CreditApplicationMapper creditApplicationMapper;
 
+    private final PageCacheService pageCacheService;
+    private final SerializedResponseCache serializedResponseCache;
+    private final LiveStatsService liveStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LookupProperties lookupProperties;
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
     private final int APPLICATION_PAGE_SIZE;
 
     public APMService(
-            AnalyticService analyticService,
+            EvaluationService evaluationService,
+            ClientService clientService,
+            ConflictRetryService conflictRetryService,
             ClientRepository clientRepository,
             CreditApplicationRepository creditApplicationRepository,
             CreditAgreementRepository creditAgreementRepository,
             ClientMapper clientMapper,
             CreditApplicationMapper creditApplicationMapper,
+            PageCacheService pageCacheService,
+            SerializedResponseCache serializedResponseCache,
+            LiveStatsService liveStatsService,
+            ApplicationEventPublisher eventPublisher,
+            LookupProperties lookupProperties,
+            PlatformTransactionManager transactionManager,
             @Qualifier("defaultPageSize") int applicationPageSize
     ) {
-        this.analyticService = analyticService;
+        this.evaluationService = evaluationService;
+        this.clientService = clientService;
+        this.conflictRetryService = conflictRetryService;
         this.clientRepository = clientRepository;
         this.creditApplicationRepository = creditApplicationRepository;
         this.creditAgreementRepository = creditAgreementRepository;
         this.clientMapper = clientMapper;
         this.creditApplicationMapper = creditApplicationMapper;
+        this.pageCacheService = pageCacheService;
+        this.serializedResponseCache = serializedResponseCache;
+        this.liveStatsService = liveStatsService;
+        this.eventPublisher = eventPublisher;
+        this.lookupProperties = lookupProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
         APPLICATION_PAGE_SIZE = applicationPageSize;
     }
 
-    @Transactional
     public CreditApplicationDto createCreditApplication(@Valid CreditApplicationRequestDto creditRequestDto) {
+        /*
+         * Client resolution is coalesced per passport and commits on its own,
+         * so concurrent applications of a new client do not race on client_passport_key
+         * */
+        long clientId = clientService.resolveClientId(creditRequestDto.getApplicant());
+
+        DeadlineContext.checkNotExpired();
+
+        Long applicationId = transactionTemplate.execute(status -> saveCreditApplication(clientId, creditRequestDto));
+        liveStatsService.applicationCreated();
 
-        Optional<Client> clientOptional = clientRepository.findByPassport(
-                creditRequestDto.getApplicant().getPassport()
-        );
         /*
-         * The logic of creating a client can also be moved to the ClientService.Then get the jpa entity from the L1 cache
+         * Evaluated after the insert committed so a slow analytics call holds no locks;
+         * if it fails or the breaker is open the application is returned PENDING and evaluated later
          * */
-        Client client;
-        if (clientOptional.isEmpty()) {
-            Client creatable = clientMapper.fromCreditApplicantDto(creditRequestDto.getApplicant());
-            client = trySaveClient(creatable);
-        } else {
-            client = clientOptional.get();
-        }
+        evaluationService.evaluate(applicationId);
+
+        return transactionTemplate.execute(status -> creditApplicationRepository.findById(applicationId)
+                .map(creditApplicationMapper::fromCreditApplication)
+                .orElseThrow(() -> new IllegalStateException("Credit application not found")));
+    }
+
+    private Long saveCreditApplication(long clientId, CreditApplicationRequestDto creditRequestDto) {
+        Client client = clientRepository.findById(clientId)
+                .orElseThrow(() -> new IllegalStateException("Client " + clientId + " not found"));
 
         CreditApplicantDto storedClient = clientMapper.toCreditApplicantDto(client);
 
@@ -86,39 +169,15 @@ public class APMService {
                 .requestedAmount(creditRequestDto.getAmount())
                 .build();
 
-        CreditApplication savedCreditApplication = creditApplicationRepository.save(creditApplication);
-
-        // would be possible to send an async event to MQ instead it
-        analyticService.evaluateCreditApplication(savedCreditApplication.getId());
-
-        CreditApplication processedApplication = creditApplicationRepository.findById(savedCreditApplication.getId())
-                .orElseThrow(() -> new IllegalStateException("Credit application not found"));
-
-        CreditApplicationDto applicationDto = creditApplicationMapper.fromCreditApplication(processedApplication);
-
-        return applicationDto;
+        return creditApplicationRepository.save(creditApplication).getId();
     }
 
-    private Client trySaveClient(Client client) {
-        /*
-         * in case of creating clients from several simultaneous threads/requests
-         * */
-        try {
-            return clientRepository.save(client);
-        } catch (DataIntegrityViolationException e) {
-            if (
-                    e.getCause() != null &&
-                            e.getCause() instanceof ConstraintViolationException cause &&
-                            cause.getConstraintName().equals("client_passport_key")
-            ) {
-                return clientRepository.findByPassport(client.getPassport()).get();
-            }
-            throw e;
-        }
+    public CreditAgreementDto signCreditAgreement(@Valid @Positive long applicationId) {
+        // a concurrent signing fails on the agreement version, the retry then finds it SIGNED
+        return conflictRetryService.inNewTransaction("signing", () -> sign(applicationId));
     }
 
-    @Transactional
-    public CreditAgreementDto signCreditAgreement(@Valid @Positive long applicationId) {
+    private CreditAgreementDto sign(long applicationId) {
         CreditApplication creditApplication = creditApplicationRepository.findById(applicationId)
                 .orElseThrow(() -> new CreditApplicationNotFound(applicationId));
 
@@ -137,27 +196,258 @@ public class APMService {
             return creditApplicationMapper.fromCreditAgreement(creditAgreement);
         }
 
+        // the agreement is stamped when the application is approved, until it is signed
+        LocalDateTime decidedAt = creditAgreement.getSignedAt();
+
         creditAgreement.setSigningStatus(SigningStatus.SIGNED);
         creditAgreement.setSignedAt(LocalDateTime.now());
 
+        eventPublisher.publishEvent(new StatusChangedEvent(
+                applicationId,
+                creditApplication.getClient().getId(),
+                creditApplication.getStatus(),
+                SigningStatus.SIGNED,
+                creditAgreement.getSignedAt(),
+                decidedAt
+        ));
+
         CreditAgreementDto agreementDto = creditApplicationMapper.fromCreditAgreement(creditAgreement);
 
         return agreementDto;
     }
 
     @Transactional(readOnly = true)
+    public CreditApplicationDto getCreditApplication(@Valid @Positive long applicationId) {
+        return creditApplicationRepository.findById(applicationId)
+                .map(creditApplicationMapper::fromCreditApplication)
+                .orElseThrow(() -> new CreditApplicationNotFound(applicationId));
+    }
+
+    /*
+     * Decided applications are served from the serialized response cache, the rest is loaded with one query
+     * per batch of ids.
+     * The content follows the order of the ids, duplicates are served once.
+     * */
+    public LookupResponseDto<CreditApplicationDto> getCreditApplications(@Valid @NotNull List<@NotNull @Positive Long> ids) {
+        DeadlineContext.checkNotExpired();
+
+        Set<Long> keys = new LinkedHashSet<>(ids);
+
+        if (keys.size() > lookupProperties.getMaxKeys()) {
+            throw new TooManyLookupKeysException(keys.size(), lookupProperties.getMaxKeys());
+        }
+
+        Map<Long, CreditApplicationDto> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+
+        for (Long id : keys) {
+            serializedResponseCache.getDecidedApplicationDto(id).ifPresentOrElse(
+                    application -> found.put(id, application),
+                    () -> uncached.add(id)
+            );
+        }
+
+        if (!uncached.isEmpty()) {
+            long mark = serializedResponseCache.mark();
+
+            List<CreditApplicationDto> loaded = readOnlyTransactionTemplate.execute(status ->
+                    creditApplicationRepository.findAllByIds(uncached, lookupProperties.getBatchSize()).stream()
+                            .map(creditApplicationMapper::fromCreditApplication)
+                            .toList()
+            );
+
+            for (CreditApplicationDto application : loaded) {
+                found.put(application.getId(), application);
+                serializedResponseCache.putApplication(application, mark);
+            }
+        }
+
+        return new LookupResponseDto<>(
+                keys.stream().map(found::get).filter(Objects::nonNull).toList(),
+                keys.stream().filter(id -> !found.containsKey(id)).map(String::valueOf).toList()
+        );
+    }
+
+    /*
+     * Not transactional itself: a cached page is served without a connection,
+     * the loaders open a read-only transaction only on a miss or prefetch
+     * */
     public PageResponseDto<CreditApplicationDto> getPageCreditApplications(@Valid @Positive int page) {
-        return getPageResponse(
-                () -> creditApplicationRepository.findAll(new Pageable(page, APPLICATION_PAGE_SIZE)),
-                creditApplicationMapper::fromCreditApplication
+        return getPageCreditApplications(page, new CreditApplicationFilterDto(), null, null);
+    }
+
+    /*
+     * Filtered and sorted applications, by page number or, with a cursor, after the last row of a previous page.
+     * Cursor pages are not cached, their keys would hardly repeat.
+     * */
+    public PageResponseDto<CreditApplicationDto> getPageCreditApplications(
+            @Valid @Positive int page,
+            @Valid @NotNull CreditApplicationFilterDto filterRequest,
+            String sort,
+            String cursor
+    ) {
+        Sorting.Sort<CreditApplication> order = selectSort(APPLICATION_SORTS, sort);
+        CreditApplicationFilterDto filter = filterRequest.toBuilder().build();
+
+        if (cursor != null) {
+            return readOnlyTransactionTemplate.execute(status -> getPageResponseAfter(
+                    creditApplicationRepository,
+                    byFilter(filter),
+                    order,
+                    cursor,
+                    APPLICATION_PAGE_SIZE,
+                    creditApplicationMapper::fromCreditApplication
+            ));
+        }
+
+        return pageCacheService.getPage(
+                "credit-application",
+                filter + "|" + order.name(),
+                page,
+                APPLICATION_PAGE_SIZE,
+                p -> readOnlyTransactionTemplate.execute(status -> getSortedPageResponse(
+                        () -> creditApplicationRepository.findAllBy(new Pageable(p, APPLICATION_PAGE_SIZE), byFilter(filter), order::order),
+                        creditApplicationMapper::fromCreditApplication,
+                        order,
+                        APPLICATION_PAGE_SIZE
+                )),
+                CreditApplication.class, CreditAgreement.class
         );
     }
 
-    @Transactional(readOnly = true)
     public PageResponseDto<CreditAgreementDto> getPageCreditAgreements(@Valid @Positive int page) {
-        return getPageResponse(
-                () -> creditAgreementRepository.findAll(new Pageable(page, APPLICATION_PAGE_SIZE)),
-                creditApplicationMapper::fromCreditAgreement
+        return getPageCreditAgreements(page, new CreditAgreementFilterDto(), null, null);
+    }
+
+    public PageResponseDto<CreditAgreementDto> getPageCreditAgreements(
+            @Valid @Positive int page,
+            @Valid @NotNull CreditAgreementFilterDto filterRequest,
+            String sort,
+            String cursor
+    ) {
+        Sorting.Sort<CreditAgreement> order = selectSort(AGREEMENT_SORTS, sort);
+        CreditAgreementFilterDto filter = filterRequest.toBuilder().build();
+
+        if (cursor != null) {
+            return readOnlyTransactionTemplate.execute(status -> getPageResponseAfter(
+                    creditAgreementRepository,
+                    byFilter(filter),
+                    order,
+                    cursor,
+                    APPLICATION_PAGE_SIZE,
+                    creditApplicationMapper::fromCreditAgreement
+            ));
+        }
+
+        return pageCacheService.getPage(
+                "credit-agreement",
+                filter + "|" + order.name(),
+                page,
+                APPLICATION_PAGE_SIZE,
+                p -> readOnlyTransactionTemplate.execute(status -> getSortedPageResponse(
+                        () -> creditAgreementRepository.findAllBy(new Pageable(p, APPLICATION_PAGE_SIZE), byFilter(filter), order::order),
+                        creditApplicationMapper::fromCreditAgreement,
+                        order,
+                        APPLICATION_PAGE_SIZE
+                )),
+                CreditAgreement.class
         );
     }
+
+    /*
+     * Sparse variant of getPageCreditApplications: the same filter and sort, but only the requested columns
+     * are selected, the rows are served as maps of those columns. Numbered pages only, a map row carries no cursor.
+     * */
+    public PageResponseDto<Map<String, Object>> getPageCreditApplications(
+            @Valid @Positive int page,
+            @Valid @NotNull CreditApplicationFilterDto filterRequest,
+            String sort,
+            String view,
+            String fields
+    ) {
+        Projection<CreditApplication> projection = selectFields(APPLICATION_FIELDS, view, fields);
+        Sorting.Sort<CreditApplication> order = selectSort(APPLICATION_SORTS, sort);
+        CreditApplicationFilterDto filter = filterRequest.toBuilder().build();
+
+        return pageCacheService.getPage(
+                "credit-application",
+                filter + "|" + order.name() + "|" + String.join(",", projection.names()),
+                page,
+                APPLICATION_PAGE_SIZE,
+                p -> readOnlyTransactionTemplate.execute(status -> getPageResponse(
+                        () -> creditApplicationRepository.findAllBy(
+                                new Pageable(p, APPLICATION_PAGE_SIZE),
+                                projection,
+                                byFilter(filter),
+                                order::order
+                        ),
+                        Function.identity()
+                )),
+                CreditApplication.class, CreditAgreement.class
+        );
+    }
+
+    private static BiFunction<CriteriaBuilder, Root<CreditApplication>, Predicate[]> byFilter(CreditApplicationFilterDto filter) {
+        return (builder, root) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getStatus() != null) {
+                predicates.add(builder.equal(root.get("status"), filter.getStatus()));
+            }
+
+            if (filter.getClientId() != null) {
+                predicates.add(builder.equal(root.get("client").get("id"), filter.getClientId()));
+            }
+
+            if (filter.getCreatedFrom() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("createdAt"), filter.getCreatedFrom()));
+            }
+
+            if (filter.getCreatedTo() != null) {
+                predicates.add(builder.lessThan(root.get("createdAt"), filter.getCreatedTo()));
+            }
+
+            if (filter.getMinAmount() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("requestedAmount"), filter.getMinAmount()));
+            }
+
+            if (filter.getMaxAmount() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("requestedAmount"), filter.getMaxAmount()));
+            }
+
+            return predicates.toArray(Predicate[]::new);
+        };
+    }
+
+    private static BiFunction<CriteriaBuilder, Root<CreditAgreement>, Predicate[]> byFilter(CreditAgreementFilterDto filter) {
+        return (builder, root) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getSigningStatus() != null) {
+                predicates.add(builder.equal(root.get("signingStatus"), filter.getSigningStatus()));
+            }
+
+            if (filter.getClientId() != null) {
+                predicates.add(builder.equal(root.get("application").get("client").get("id"), filter.getClientId()));
+            }
+
+            if (filter.getSignedFrom() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("signedAt"), filter.getSignedFrom()));
+            }
+
+            if (filter.getSignedTo() != null) {
+                predicates.add(builder.lessThan(root.get("signedAt"), filter.getSignedTo()));
+            }
+
+            if (filter.getMinAmount() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("application").get("approvedAmount"), filter.getMinAmount()));
+            }
+
+            if (filter.getMaxAmount() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("application").get("approvedAmount"), filter.getMaxAmount()));
+            }
+
+            return predicates.toArray(Predicate[]::new);
+        };
+    }
 }
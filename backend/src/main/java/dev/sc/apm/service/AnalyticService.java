@@ -10,12 +10,13 @@ import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.NoSuchElementException;
 import java.util.Random;
 
@@ -25,12 +26,14 @@ public class AnalyticService {
 
     private final CreditApplicationRepository creditApplicationRepository;
     private final CreditAgreementRepository creditAgreementRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final Random random = new Random(); // united for test
 
+    /*
+     * Conflicts surface as OptimisticLockException, callers retry them in a fresh transaction
+     * through ConflictRetryService
+     * */
     @Transactional
-    @Retryable(
-            retryFor = {OptimisticLockException.class}
-    )
     public void evaluateCreditApplication(@NotNull Long creditApplicationId) {
 
         CreditApplication application = creditApplicationRepository.findById(creditApplicationId).orElseThrow(
@@ -48,6 +51,7 @@ public class AnalyticService {
         application.setStatus(status);
 
         if (status == CreditApplicationStatus.REJECTED) {
+            publishDecision(application, null);
             return;
         }
 
@@ -80,7 +84,19 @@ public class AnalyticService {
 
         application.setCreditAgreement(saved);
 
-        // mb send event in MQ
+        publishDecision(application, saved.getSigningStatus());
+    }
+
+    // delivered to the status event subscribers only if this transaction commits
+    private void publishDecision(CreditApplication application, SigningStatus signingStatus) {
+        eventPublisher.publishEvent(new StatusChangedEvent(
+                application.getId(),
+                application.getClient().getId(),
+                application.getStatus(),
+                signingStatus,
+                LocalDateTime.now(),
+                application.getCreatedAt()
+        ));
     }
 
     private boolean isAnalyticsRequired(CreditApplication application) {
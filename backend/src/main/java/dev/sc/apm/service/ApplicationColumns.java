@@ -0,0 +1,251 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.entity.CreditApplicationStatus;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Decided credit applications as columns of primitives, 37 bytes a row, in chunks of 64K rows so that
+ * growing never copies rows. Decided applications do not change any more, the columns are append only.
+ *
+ * One writer appends under the monitor. Readers do not lock: they read the row count first, and the
+ * volatile write of the count by the writer publishes every row below it.
+ * */
+public final class ApplicationColumns {
+
+    public enum Dimension {
+        // whole currency units
+        REQUESTED_AMOUNT,
+        // days, zero for rejected applications
+        APPROVED_TERM,
+        // days the client is employed for
+        EMPLOYMENT_PERIOD
+    }
+
+    /*
+     * Rows created on days [fromDay, toDay) (epoch days, UTC) with requested amounts in [minCents, maxCents]
+     * */
+    public record Filter(int fromDay, int toDay, long minCents, long maxCents) {
+        public static final Filter ALL = new Filter(Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /*
+     * Per bucket sums, bucket i holds the values in [origin + i * width, origin + (i + 1) * width).
+     * The first and the last bucket are open ended, values beyond them are counted there.
+     * */
+    public record Slices(long origin, long width, long[] count, long[] approved, long[] approvedCents, long[] approvedTerm) {
+    }
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final byte APPROVED = (byte) CreditApplicationStatus.APPROVED.ordinal();
+
+    // sums per bucket in the partial results of the scan tasks
+    private static final int COUNT = 0;
+    private static final int APPROVED_COUNT = 1;
+    private static final int APPROVED_CENTS = 2;
+    private static final int APPROVED_TERM = 3;
+    private static final int SUMS = 4;
+
+    private static final class Chunk {
+        final long[] requestedCents = new long[CHUNK_SIZE];
+        final long[] approvedCents = new long[CHUNK_SIZE];
+        final long[] clientId = new long[CHUNK_SIZE];
+        final int[] term = new int[CHUNK_SIZE];
+        final int[] createdDay = new int[CHUNK_SIZE];
+        final int[] employmentDays = new int[CHUNK_SIZE];
+        final byte[] status = new byte[CHUNK_SIZE];
+    }
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+
+    // application ids present, appending the same application twice is a no-op
+    private final BitSet ids = new BitSet();
+
+    public int size() {
+        return size;
+    }
+
+    /*
+     * false if the application is present already
+     * */
+    public synchronized boolean append(
+            long id,
+            long requestedCents,
+            CreditApplicationStatus status,
+            long approvedCents,
+            int term,
+            int createdDay,
+            int employmentDays,
+            long clientId
+    ) {
+        int bit = Math.toIntExact(id);
+        if (ids.get(bit)) {
+            return false;
+        }
+
+        int row = size;
+        if (row >> CHUNK_BITS == chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = new Chunk();
+            chunks = grown;
+        }
+
+        Chunk chunk = chunks[row >> CHUNK_BITS];
+        int i = row & (CHUNK_SIZE - 1);
+
+        chunk.requestedCents[i] = requestedCents;
+        chunk.approvedCents[i] = approvedCents;
+        chunk.clientId[i] = clientId;
+        chunk.term[i] = term;
+        chunk.createdDay[i] = createdDay;
+        chunk.employmentDays[i] = employmentDays;
+        chunk.status[i] = (byte) status.ordinal();
+
+        ids.set(bit);
+        size = row + 1;
+        return true;
+    }
+
+    /*
+     * Group-by scan of the rows present when called: a fork-join task per chunk, each summing
+     * into its own arrays, merged on the way back
+     * */
+    public Slices slice(Filter filter, Dimension dimension, long origin, long width, int buckets, ForkJoinPool pool) {
+        if (width <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("Width and buckets must be positive: " + width + ", " + buckets);
+        }
+
+        int rows = size;
+        Chunk[] scanned = chunks;
+
+        long[] sums = pool.invoke(new Scan(scanned, rows, 0, (rows + CHUNK_SIZE - 1) >> CHUNK_BITS,
+                filter, dimension, origin, width, buckets));
+
+        long[] count = new long[buckets];
+        long[] approved = new long[buckets];
+        long[] approvedCents = new long[buckets];
+        long[] approvedTerm = new long[buckets];
+        for (int b = 0; b < buckets; b++) {
+            count[b] = sums[b * SUMS + COUNT];
+            approved[b] = sums[b * SUMS + APPROVED_COUNT];
+            approvedCents[b] = sums[b * SUMS + APPROVED_CENTS];
+            approvedTerm[b] = sums[b * SUMS + APPROVED_TERM];
+        }
+
+        return new Slices(origin, width, count, approved, approvedCents, approvedTerm);
+    }
+
+    private static final class Scan extends RecursiveTask<long[]> {
+        private final Chunk[] chunks;
+        private final int rows;
+        private final int fromChunk;
+        private final int toChunk;
+        private final Filter filter;
+        private final Dimension dimension;
+        private final long origin;
+        private final long width;
+        private final int buckets;
+
+        Scan(Chunk[] chunks, int rows, int fromChunk, int toChunk,
+             Filter filter, Dimension dimension, long origin, long width, int buckets) {
+            this.chunks = chunks;
+            this.rows = rows;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.filter = filter;
+            this.dimension = dimension;
+            this.origin = origin;
+            this.width = width;
+            this.buckets = buckets;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (toChunk - fromChunk <= 1) {
+                long[] sums = new long[buckets * SUMS];
+                if (fromChunk < toChunk) {
+                    int end = Math.min(CHUNK_SIZE, rows - (fromChunk << CHUNK_BITS));
+                    scan(chunks[fromChunk], end, sums);
+                }
+                return sums;
+            }
+
+            int middle = (fromChunk + toChunk) >>> 1;
+            Scan left = new Scan(chunks, rows, fromChunk, middle, filter, dimension, origin, width, buckets);
+            Scan right = new Scan(chunks, rows, middle, toChunk, filter, dimension, origin, width, buckets);
+
+            right.fork();
+            long[] sums = left.compute();
+            long[] other = right.join();
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += other[i];
+            }
+            return sums;
+        }
+
+        /*
+         * One pass over the rows of a chunk; the column of the dimension is chosen once, outside the loop.
+         * Amounts are bucketed in whole currency units, hence the cents of the width.
+         * */
+        private void scan(Chunk chunk, int end, long[] sums) {
+            switch (dimension) {
+                case REQUESTED_AMOUNT -> scan(chunk, end, chunk.requestedCents, origin * 100, width * 100, sums);
+                case APPROVED_TERM -> scan(chunk, end, chunk.term, sums);
+                case EMPLOYMENT_PERIOD -> scan(chunk, end, chunk.employmentDays, sums);
+            }
+        }
+
+        private void scan(Chunk chunk, int end, int[] values, long[] sums) {
+            int fromDay = filter.fromDay();
+            int toDay = filter.toDay();
+            long minCents = filter.minCents();
+            long maxCents = filter.maxCents();
+
+            for (int i = 0; i < end; i++) {
+                int day = chunk.createdDay[i];
+                long cents = chunk.requestedCents[i];
+                if (day < fromDay || day >= toDay || cents < minCents || cents > maxCents) {
+                    continue;
+                }
+                add(chunk, i, bucket(values[i], origin, width), sums);
+            }
+        }
+
+        private void scan(Chunk chunk, int end, long[] values, long valueOrigin, long valueWidth, long[] sums) {
+            int fromDay = filter.fromDay();
+            int toDay = filter.toDay();
+            long minCents = filter.minCents();
+            long maxCents = filter.maxCents();
+
+            for (int i = 0; i < end; i++) {
+                int day = chunk.createdDay[i];
+                long cents = chunk.requestedCents[i];
+                if (day < fromDay || day >= toDay || cents < minCents || cents > maxCents) {
+                    continue;
+                }
+                add(chunk, i, bucket(values[i], valueOrigin, valueWidth), sums);
+            }
+        }
+
+        private int bucket(long value, long valueOrigin, long valueWidth) {
+            long bucket = Math.floorDiv(value - valueOrigin, valueWidth);
+            return (int) Math.max(0, Math.min(bucket, buckets - 1));
+        }
+
+        private static void add(Chunk chunk, int i, int bucket, long[] sums) {
+            int at = bucket * SUMS;
+            // 0 or 1, multiplied in instead of branching
+            long approved = chunk.status[i] == APPROVED ? 1 : 0;
+
+            sums[at + COUNT]++;
+            sums[at + APPROVED_COUNT] += approved;
+            sums[at + APPROVED_CENTS] += approved * chunk.approvedCents[i];
+            sums[at + APPROVED_TERM] += approved * chunk.term[i];
+        }
+    }
+}
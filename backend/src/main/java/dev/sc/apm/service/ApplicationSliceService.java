@@ -0,0 +1,275 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.ColumnStoreProperties;
+import dev.sc.apm.dto.ApplicationSlicesDto;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import dev.sc.apm.repository.ApplicationFacts;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Interactive slicing of decided applications, approval rate by amount bucket, term or employment
+ * distribution, served from an in-process column store instead of Postgres.
+ *
+ * The store is loaded in bulk at startup, in id order, and then appended to with the applications decided
+ * since: their ids are queued once the deciding transaction commits and read in batches on a schedule.
+ * Applications decided while a load runs are queued as well and appended after it, the store ignores
+ * the ones the load has read already. Deleted applications stay in the store until the next reload.
+ * */
+@Slf4j
+@Service
+@Validated
+public class ApplicationSliceService {
+
+    private final CreditApplicationRepository creditApplicationRepository;
+    private final ColumnStoreProperties properties;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ForkJoinPool scanPool;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "application-columns-load");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // decided applications not appended yet
+    private final Queue<Long> decided = new ConcurrentLinkedQueue<>();
+
+    // the appender and the load never write at the same time
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // replaced by a complete store at the end of a load, queries keep scanning the previous one meanwhile
+    private volatile ApplicationColumns columns = new ApplicationColumns();
+    private volatile boolean loaded;
+    private volatile CompletableFuture<Void> load;
+
+    public ApplicationSliceService(
+            CreditApplicationRepository creditApplicationRepository,
+            ColumnStoreProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.creditApplicationRepository = creditApplicationRepository;
+        this.properties = properties;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+
+        int parallelism = properties.getParallelism() > 0 ?
+                properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        this.scanPool = new ForkJoinPool(parallelism);
+
+        Gauge.builder("apm.columns.rows", this, service -> service.columns.size())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        reload();
+    }
+
+    /*
+     * Starts loading a new store from the database, or returns the load in progress
+     * */
+    public synchronized CompletableFuture<Void> reload() {
+        if (load != null && !load.isDone()) {
+            return load;
+        }
+
+        load = CompletableFuture.runAsync(() -> {
+            writeLock.lock();
+            try {
+                loadColumns();
+            } catch (RuntimeException e) {
+                log.error("Load of the application column store failed", e);
+                throw e;
+            } finally {
+                writeLock.unlock();
+            }
+        }, loader);
+
+        return load;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(StatusChangedEvent change) {
+        // signing changes no column
+        if (change.status() != CreditApplicationStatus.PENDING && change.signingStatus() != SigningStatus.SIGNED) {
+            decided.add(change.applicationId());
+        }
+    }
+
+    /*
+     * Appends the applications decided since the last run
+     * */
+    @Scheduled(fixedDelayString = "${apm.columns.append-interval:PT1S}")
+    public void append() {
+        if (!loaded || decided.isEmpty() || !writeLock.tryLock()) {
+            return;
+        }
+
+        try {
+            while (!decided.isEmpty()) {
+                Set<Long> ids = new LinkedHashSet<>();
+                Long id;
+                while (ids.size() < properties.getBatchSize() && (id = decided.poll()) != null) {
+                    ids.add(id);
+                }
+
+                List<ApplicationFacts> facts = readOnlyTransactionTemplate.execute(status ->
+                        creditApplicationRepository.findDecidedFactsByIds(ids));
+                facts.forEach(this::append);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Append to the application column store failed, a reload catches up", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /*
+     * Decided applications created on days [from, to) with requested amounts in [minAmount, maxAmount],
+     * by buckets of width units of the dimension starting at origin
+     * */
+    public ApplicationSlicesDto slice(
+            @Valid @NotNull ApplicationColumns.Dimension dimension,
+            @Valid @PositiveOrZero long origin,
+            @Valid @Positive long width,
+            @Valid @Positive Integer buckets,
+            LocalDate from,
+            LocalDate to,
+            BigDecimal minAmount,
+            BigDecimal maxAmount
+    ) {
+        int bucketCount = Math.min(buckets == null ? properties.getDefaultBuckets() : buckets, properties.getMaxBuckets());
+
+        ApplicationColumns.Filter filter = new ApplicationColumns.Filter(
+                from == null ? Integer.MIN_VALUE : Math.toIntExact(from.toEpochDay()),
+                to == null ? Integer.MAX_VALUE : Math.toIntExact(to.toEpochDay()),
+                minAmount == null ? Long.MIN_VALUE : cents(minAmount),
+                maxAmount == null ? Long.MAX_VALUE : cents(maxAmount)
+        );
+
+        ApplicationColumns scanned = columns;
+        long start = System.nanoTime();
+        ApplicationColumns.Slices slices = scanned.slice(filter, dimension, origin, width, bucketCount, scanPool);
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        List<ApplicationSlicesDto.Slice> content = new ArrayList<>(bucketCount);
+        long matched = 0;
+        for (int b = 0; b < bucketCount; b++) {
+            long count = slices.count()[b];
+            long approved = slices.approved()[b];
+            matched += count;
+
+            content.add(ApplicationSlicesDto.Slice.builder()
+                    .from(origin + b * width)
+                    .to(origin + (b + 1) * width)
+                    .applications(count)
+                    .approved(approved)
+                    .approvalRate(count == 0 ? null : (double) approved / count)
+                    .approvedAmount(BigDecimal.valueOf(slices.approvedCents()[b], 2))
+                    .averageTerm(approved == 0 ? null : (double) slices.approvedTerm()[b] / approved)
+                    .build());
+        }
+
+        return ApplicationSlicesDto.builder()
+                .dimension(dimension)
+                .scanned(scanned.size())
+                .matched(matched)
+                .scanMicros(micros)
+                .slices(content)
+                .build();
+    }
+
+    private void loadColumns() {
+        long start = System.nanoTime();
+        ApplicationColumns next = new ApplicationColumns();
+
+        long lastId = 0;
+        List<ApplicationFacts> batch;
+        do {
+            long after = lastId;
+            batch = readOnlyTransactionTemplate.execute(status ->
+                    creditApplicationRepository.findDecidedFactsAfterId(after, properties.getBatchSize()));
+
+            for (ApplicationFacts facts : batch) {
+                append(next, facts);
+            }
+
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == properties.getBatchSize());
+
+        columns = next;
+        loaded = true;
+
+        log.info("Application column store loaded: {} applications in {} ms",
+                next.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void append(ApplicationFacts facts) {
+        append(columns, facts);
+    }
+
+    private static void append(ApplicationColumns columns, ApplicationFacts facts) {
+        Duration employment = facts.employmentPeriod();
+
+        columns.append(
+                facts.id(),
+                cents(facts.requestedAmount()),
+                facts.status(),
+                facts.approvedAmount() == null ? 0 : cents(facts.approvedAmount()),
+                facts.approvedTerm() == null ? 0 : facts.approvedTerm(),
+                // the day in UTC, as the daily figures count it
+                Math.toIntExact(facts.createdAt().atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC)
+                        .toLocalDate().toEpochDay()),
+                employment == null ? 0 : Math.toIntExact(employment.toDays()),
+                facts.clientId()
+        );
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    @PreDestroy
+    public void close() {
+        loader.shutdownNow();
+        scanPool.shutdownNow();
+    }
+}
@@ -0,0 +1,188 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.ChangeFeedProperties;
+import dev.sc.apm.config.LookupProperties;
+import dev.sc.apm.dto.ChangeDto;
+import dev.sc.apm.dto.ChangeFeedDto;
+import dev.sc.apm.entity.Client;
+import dev.sc.apm.entity.CreditAgreement;
+import dev.sc.apm.entity.CreditApplication;
+import dev.sc.apm.exception.InvalidChangeTokenException;
+import dev.sc.apm.mapper.ClientMapper;
+import dev.sc.apm.mapper.CreditApplicationMapper;
+import dev.sc.apm.repository.ChangeLogEntry;
+import dev.sc.apm.repository.ChangeLogRepository;
+import dev.sc.apm.repository.ChangePosition;
+import dev.sc.apm.repository.ClientRepository;
+import dev.sc.apm.repository.CreditAgreementRepository;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Changes of clients, credit applications and credit agreements since a resume token, for downstream sync.
+ * A page costs the change log entries after the token and the rows they name, whatever the size of the tables.
+ * */
+@Service
+@Validated
+public class ChangeFeedService {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ClientRepository clientRepository;
+    private final CreditApplicationRepository creditApplicationRepository;
+    private final CreditAgreementRepository creditAgreementRepository;
+
+    private final ClientMapper clientMapper;
+    private final CreditApplicationMapper creditApplicationMapper;
+
+    private final ChangeFeedProperties properties;
+    private final LookupProperties lookupProperties;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public ChangeFeedService(
+            ChangeLogRepository changeLogRepository,
+            ClientRepository clientRepository,
+            CreditApplicationRepository creditApplicationRepository,
+            CreditAgreementRepository creditAgreementRepository,
+            ClientMapper clientMapper,
+            CreditApplicationMapper creditApplicationMapper,
+            ChangeFeedProperties properties,
+            LookupProperties lookupProperties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.changeLogRepository = changeLogRepository;
+        this.clientRepository = clientRepository;
+        this.creditApplicationRepository = creditApplicationRepository;
+        this.creditAgreementRepository = creditAgreementRepository;
+        this.clientMapper = clientMapper;
+        this.creditApplicationMapper = creditApplicationMapper;
+        this.properties = properties;
+        this.lookupProperties = lookupProperties;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /*
+     * The rows changed after the token, without a token from the beginning of the log.
+     * A row changed several times within the page is served once, at its last change, with its current state.
+     * */
+    public ChangeFeedDto getChanges(String since, @Valid @Positive int limit) {
+        DeadlineContext.checkNotExpired();
+
+        ChangePosition after = since == null ? ChangePosition.START : parseToken(since);
+        int maxEntries = Math.min(limit, properties.getMaxLimit());
+
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<ChangeLogEntry> entries = changeLogRepository.findAfter(after, maxEntries + 1);
+
+            boolean hasMore = entries.size() > maxEntries;
+            if (hasMore) {
+                entries = entries.subList(0, maxEntries);
+            }
+
+            Map<String, ChangeDto> changes = new LinkedHashMap<>();
+            for (ChangeLogEntry entry : entries) {
+                ChangeDto change = ChangeDto.builder()
+                        .table(ChangeDto.Table.valueOf(entry.tableName().toUpperCase()))
+                        .id(entry.rowId())
+                        .operation(ChangeDto.Operation.valueOf(entry.operation()))
+                        .changedAt(entry.changedAt())
+                        .build();
+
+                String key = change.getTable() + ":" + change.getId();
+                changes.remove(key);
+                changes.put(key, change);
+            }
+
+            fillRows(changes.values());
+
+            ChangePosition next = entries.isEmpty() ? after : entries.get(entries.size() - 1).position();
+            return new ChangeFeedDto(List.copyOf(changes.values()), toToken(next), hasMore);
+        });
+    }
+
+    /*
+     * Token of the current end of the log: taken before a full export,
+     * the feed then serves what changed during and after the export
+     * */
+    public ChangeFeedDto getHead() {
+        DeadlineContext.checkNotExpired();
+
+        ChangePosition head = readOnlyTransactionTemplate.execute(status -> changeLogRepository.findHead());
+        return new ChangeFeedDto(List.of(), toToken(head), false);
+    }
+
+    private void fillRows(Collection<ChangeDto> changes) {
+        int batchSize = lookupProperties.getBatchSize();
+
+        Map<Long, Client> clients = byId(
+                clientRepository.findAllByIds(idsOf(changes, ChangeDto.Table.CLIENT), batchSize),
+                Client::getId
+        );
+        Map<Long, CreditApplication> applications = byId(
+                creditApplicationRepository.findAllByIds(idsOf(changes, ChangeDto.Table.CREDIT_APPLICATION), batchSize),
+                CreditApplication::getId
+        );
+        Map<Long, CreditAgreement> agreements = byId(
+                creditAgreementRepository.findAllByIds(idsOf(changes, ChangeDto.Table.CREDIT_AGREEMENT), batchSize),
+                CreditAgreement::getId
+        );
+
+        // a row deleted after the last entry of the page is served without state, its DELETE follows
+        for (ChangeDto change : changes) {
+            switch (change.getTable()) {
+                case CLIENT -> {
+                    Client client = clients.get(change.getId());
+                    change.setClient(client == null ? null : clientMapper.fromClient(client));
+                }
+                case CREDIT_APPLICATION -> {
+                    CreditApplication application = applications.get(change.getId());
+                    change.setApplication(application == null ? null : creditApplicationMapper.fromCreditApplication(application));
+                }
+                case CREDIT_AGREEMENT -> {
+                    CreditAgreement agreement = agreements.get(change.getId());
+                    change.setAgreement(agreement == null ? null : creditApplicationMapper.fromCreditAgreement(agreement));
+                }
+            }
+        }
+    }
+
+    private static Set<Long> idsOf(Collection<ChangeDto> changes, ChangeDto.Table table) {
+        return changes.stream()
+                .filter(change -> change.getTable() == table && change.getOperation() != ChangeDto.Operation.DELETE)
+                .map(ChangeDto::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static <E> Map<Long, E> byId(List<E> entities, Function<E, Long> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static String toToken(ChangePosition position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.format().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static ChangePosition parseToken(String token) {
+        try {
+            return ChangePosition.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidChangeTokenException(token);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.SearchIndexProperties;
+import dev.sc.apm.entity.Client;
+import dev.sc.apm.repository.ChangePosition;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Lucene index of the clients on local disk: names and organization as text, passport and phone digits as keywords.
+ * Writes become searchable on refresh (near real time, without a commit); a commit makes them durable
+ * together with the change log position they were applied up to.
+ * */
+@Component
+public class ClientSearchIndex {
+
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String ORGANIZATION = "organization";
+    private static final String PASSPORT = "passport";
+    private static final String PHONE = "phone";
+
+    private static final String POSITION = "changeLogPosition";
+
+    private static final int MAX_QUERY_TERMS = 8;
+    // shorter terms match too much at one edit
+    private static final int FUZZY_MIN_LENGTH = 4;
+
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public ClientSearchIndex(SearchIndexProperties properties) throws IOException {
+        this.directory = FSDirectory.open(Path.of(properties.getDirectory()));
+        this.writer = new IndexWriter(
+                directory,
+                new IndexWriterConfig(new StandardAnalyzer()).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+        );
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /*
+     * Change log position of the last commit, none for a new index
+     * */
+    public Optional<ChangePosition> committedPosition() {
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData == null) {
+            return Optional.empty();
+        }
+
+        for (Map.Entry<String, String> entry : commitData) {
+            if (POSITION.equals(entry.getKey())) {
+                return Optional.of(ChangePosition.parse(entry.getValue()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void upsert(Client client) {
+        try {
+            writer.updateDocument(new Term(ID, String.valueOf(client.getId())), document(client));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(long clientId) {
+        try {
+            writer.deleteDocuments(new Term(ID, String.valueOf(clientId)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void deleteAll() {
+        try {
+            writer.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void commit(ChangePosition position) {
+        try {
+            writer.setLiveCommitData(Map.of(POSITION, position.format()).entrySet());
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * The next commit, explicit or on close, is made without a position
+     * */
+    public void forgetPosition() {
+        writer.setLiveCommitData(Map.<String, String>of().entrySet());
+    }
+
+    public int documents() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /*
+     * Every term of the text has to match: a name exactly, by prefix or at one edit,
+     * the organization by prefix, or, for a number, the passport or phone by prefix.
+     * Exact name matches score highest.
+     * */
+    public Hits search(String text, int limit) {
+        Query query = query(text);
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, limit);
+                StoredFields storedFields = searcher.storedFields();
+
+                List<Long> ids = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc hit : top.scoreDocs) {
+                    ids.add(Long.parseLong(storedFields.document(hit.doc).get(ID)));
+                }
+
+                return new Hits(ids, top.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Query query(String text) {
+        BooleanQuery.Builder all = new BooleanQuery.Builder();
+
+        Arrays.stream(text.toLowerCase(Locale.ROOT).trim().split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_QUERY_TERMS)
+                .forEach(term -> {
+                    BooleanQuery.Builder any = new BooleanQuery.Builder();
+
+                    any.add(new BoostQuery(new TermQuery(new Term(NAME, term)), 4f), BooleanClause.Occur.SHOULD);
+                    any.add(new BoostQuery(new PrefixQuery(new Term(NAME, term)), 2f), BooleanClause.Occur.SHOULD);
+                    if (term.length() >= FUZZY_MIN_LENGTH) {
+                        any.add(new FuzzyQuery(new Term(NAME, term), 1), BooleanClause.Occur.SHOULD);
+                    }
+                    any.add(new PrefixQuery(new Term(ORGANIZATION, term)), BooleanClause.Occur.SHOULD);
+
+                    String digits = digits(term);
+                    if (!digits.isEmpty() && term.matches("\\+?[0-9()\\-]+")) {
+                        any.add(new BoostQuery(new PrefixQuery(new Term(PASSPORT, digits)), 3f), BooleanClause.Occur.SHOULD);
+                        any.add(new BoostQuery(new PrefixQuery(new Term(PHONE, digits)), 3f), BooleanClause.Occur.SHOULD);
+                    }
+
+                    all.add(any.build(), BooleanClause.Occur.MUST);
+                });
+
+        return all.build();
+    }
+
+    private static Document document(Client client) {
+        Document document = new Document();
+
+        document.add(new StringField(ID, String.valueOf(client.getId()), Field.Store.YES));
+        document.add(new TextField(
+                NAME,
+                Stream.of(client.getFirstName(), client.getLastName(), client.getMiddleName())
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.joining(" ")),
+                Field.Store.NO
+        ));
+        document.add(new TextField(ORGANIZATION, client.getOrganizationName(), Field.Store.NO));
+        document.add(new StringField(PASSPORT, client.getPassport(), Field.Store.NO));
+        document.add(new StringField(PHONE, digits(client.getPhone()), Field.Store.NO));
+
+        return document;
+    }
+
+    private static String digits(String value) {
+        return value.replaceAll("\\D", "");
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+}
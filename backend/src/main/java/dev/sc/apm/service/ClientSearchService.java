@@ -0,0 +1,293 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.LookupProperties;
+import dev.sc.apm.config.SearchIndexProperties;
+import dev.sc.apm.dto.ClientDto;
+import dev.sc.apm.dto.PageResponseDto;
+import dev.sc.apm.entity.Client;
+import dev.sc.apm.mapper.ClientMapper;
+import dev.sc.apm.repository.ChangeLogEntry;
+import dev.sc.apm.repository.ChangeLogRepository;
+import dev.sc.apm.repository.ChangePosition;
+import dev.sc.apm.repository.ClientRepository;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Keeps the client search index in step with the database by following the change log,
+ * and serves searches as clients loaded by id in batches.
+ *
+ * The index remembers the change log position it was committed at, so a restart only applies the changes
+ * since then. A rebuild re-indexes every client after taking the head of the log, and then follows from there:
+ * changes made during the scan are applied again, which is harmless as documents are replaced by id.
+ * */
+@Slf4j
+@Service
+@Validated
+public class ClientSearchService {
+
+    private static final String CLIENT_TABLE = "client";
+
+    // change log pages applied per tick, the rest waits for the next one
+    private static final int MAX_PAGES_PER_REFRESH = 16;
+
+    private final ClientSearchIndex index;
+    private final ChangeLogRepository changeLogRepository;
+    private final ClientRepository clientRepository;
+    private final ClientMapper clientMapper;
+    private final SearchIndexProperties properties;
+    private final LookupProperties lookupProperties;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    // the follower and the rebuild never write at the same time
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "client-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ChangePosition applied;
+    private volatile CompletableFuture<Void> rebuild;
+    private long lastCommit = System.nanoTime();
+
+    private final Counter appliedChanges;
+
+    public ClientSearchService(
+            ClientSearchIndex index,
+            ChangeLogRepository changeLogRepository,
+            ClientRepository clientRepository,
+            ClientMapper clientMapper,
+            SearchIndexProperties properties,
+            LookupProperties lookupProperties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.index = index;
+        this.changeLogRepository = changeLogRepository;
+        this.clientRepository = clientRepository;
+        this.clientMapper = clientMapper;
+        this.properties = properties;
+        this.lookupProperties = lookupProperties;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+
+        Gauge.builder("apm.search.index.documents", index, ClientSearchIndex::documents)
+                .register(meterRegistry);
+        this.appliedChanges = Counter.builder("apm.search.index.changes")
+                .description("Client changes applied to the search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        ChangePosition committed = index.committedPosition().orElse(null);
+
+        if (committed == null || properties.isRebuildOnStartup()) {
+            rebuild();
+        } else {
+            applied = committed;
+        }
+    }
+
+    /*
+     * Clients matching the text, best matches first. Clients deleted since the last refresh are skipped.
+     * */
+    public PageResponseDto<ClientDto> search(@Valid @NotBlank String text, @Valid @Positive int limit) {
+        DeadlineContext.checkNotExpired();
+
+        ClientSearchIndex.Hits hits = index.search(text, Math.min(limit, properties.getMaxLimit()));
+        if (hits.ids().isEmpty()) {
+            return new PageResponseDto<>(1, 0, hits.total(), List.of());
+        }
+
+        Map<Long, Client> clients = readOnlyTransactionTemplate.execute(status ->
+                clientRepository.findAllByIds(hits.ids(), lookupProperties.getBatchSize()).stream()
+                        .collect(Collectors.toMap(Client::getId, Function.identity()))
+        );
+
+        List<ClientDto> content = hits.ids().stream()
+                .map(clients::get)
+                .filter(Objects::nonNull)
+                .map(clientMapper::fromClient)
+                .toList();
+
+        return new PageResponseDto<>(1, content.size(), hits.total(), content);
+    }
+
+    /*
+     * Starts a rebuild from the database, or returns the one in progress
+     * */
+    public synchronized CompletableFuture<Void> rebuild() {
+        if (rebuild != null && !rebuild.isDone()) {
+            return rebuild;
+        }
+
+        rebuild = CompletableFuture.runAsync(() -> {
+            writeLock.lock();
+            try {
+                rebuildIndex();
+            } catch (RuntimeException e) {
+                log.error("Rebuild of the client search index failed", e);
+                throw e;
+            } finally {
+                writeLock.unlock();
+            }
+        }, rebuilder);
+
+        return rebuild;
+    }
+
+    public boolean isRebuilding() {
+        CompletableFuture<Void> current = rebuild;
+        return current != null && !current.isDone();
+    }
+
+    /*
+     * Applies the client changes committed since the last refresh and makes them searchable
+     * */
+    @Scheduled(fixedDelayString = "${apm.search.refresh-interval:PT1S}")
+    public void refresh() {
+        // a rebuild in progress follows on its own when done, the scheduler thread must not wait for it
+        if (applied == null || isRebuilding()) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            if (applied == null) {
+                return;
+            }
+
+            for (int page = 0; page < MAX_PAGES_PER_REFRESH; page++) {
+                if (!applyChanges()) {
+                    break;
+                }
+            }
+            index.refresh();
+
+            if (System.nanoTime() - lastCommit >= properties.getCommitInterval().toNanos()) {
+                commit();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Client search index refresh failed, retrying on the next tick", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // true while more changes are waiting
+    private boolean applyChanges() {
+        int batchSize = properties.getBatchSize();
+
+        return Boolean.TRUE.equals(readOnlyTransactionTemplate.execute(status -> {
+            List<ChangeLogEntry> entries = changeLogRepository.findAfter(applied, batchSize);
+            if (entries.isEmpty()) {
+                return false;
+            }
+
+            Set<Long> changedIds = entries.stream()
+                    .filter(entry -> CLIENT_TABLE.equals(entry.tableName()))
+                    .map(ChangeLogEntry::rowId)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+
+            if (!changedIds.isEmpty()) {
+                // the current state decides, whatever happened in between: present rows are indexed, gone ones removed
+                Map<Long, Client> current = clientRepository.findAllByIds(changedIds, lookupProperties.getBatchSize()).stream()
+                        .collect(Collectors.toMap(Client::getId, Function.identity()));
+
+                for (Long id : changedIds) {
+                    Client client = current.get(id);
+                    if (client != null) {
+                        index.upsert(client);
+                    } else {
+                        index.delete(id);
+                    }
+                }
+                appliedChanges.increment(changedIds.size());
+            }
+
+            applied = entries.get(entries.size() - 1).position();
+            return entries.size() == batchSize;
+        }));
+    }
+
+    private void rebuildIndex() {
+        long start = System.nanoTime();
+        ChangePosition head = readOnlyTransactionTemplate.execute(status -> changeLogRepository.findHead());
+
+        // until the rebuild completes there is no position to follow from or to commit:
+        // a crash keeps the last commit, a shutdown commits the partial index without position and it is rebuilt
+        applied = null;
+        index.forgetPosition();
+
+        // not visible to searches before the refresh at the end
+        index.deleteAll();
+
+        long lastId = 0;
+        int indexed = 0;
+        List<Client> batch;
+        do {
+            long after = lastId;
+            batch = readOnlyTransactionTemplate.execute(status -> clientRepository.findAllAfterId(after, properties.getBatchSize()));
+
+            batch.forEach(index::upsert);
+            indexed += batch.size();
+
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == properties.getBatchSize());
+
+        applied = head;
+        commit();
+        index.refresh();
+
+        log.info("Client search index rebuilt: {} clients in {} ms", indexed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void commit() {
+        index.commit(applied);
+        lastCommit = System.nanoTime();
+    }
+
+    @PreDestroy
+    public void close() {
+        rebuilder.shutdownNow();
+
+        writeLock.lock();
+        try {
+            if (applied != null) {
+                commit();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -1,56 +1,181 @@
 package dev.sc.apm.service;
 
+import dev.sc.apm.config.LookupProperties;
 import dev.sc.apm.dto.ClientDto;
+import dev.sc.apm.dto.ClientLookupRequestDto;
+import dev.sc.apm.dto.CreditApplicantDto;
 import dev.sc.apm.dto.FindClientsRequestDto;
+import dev.sc.apm.dto.LookupResponseDto;
 import dev.sc.apm.dto.PageResponseDto;
 import dev.sc.apm.entity.Client;
 import dev.sc.apm.exception.GroupValidationException;
+import dev.sc.apm.exception.TooManyLookupKeysException;
 import dev.sc.apm.mapper.ClientMapper;
 import dev.sc.apm.repository.Page;
 import dev.sc.apm.repository.Pageable;
+import dev.sc.apm.repository.Projection;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import dev.sc.apm.util.concurrent.SingleFlight;
 import dev.sc.apm.validator.AMPServiceValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import dev.sc.apm.repository.ClientRepository;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static dev.sc.apm.service.ServiceUtil.getPageResponse;
+import static dev.sc.apm.service.ServiceUtil.selectFields;
 
 @Service
 @Validated
 public class ClientService {
 
+    public static final Projection<Client> CLIENT_FIELDS = Projection.<Client>builder()
+            .attribute("id")
+            .attribute("firstName")
+            .attribute("lastName")
+            .attribute("middleName")
+            .attribute("passport")
+            .attribute("maritalStatus")
+            .attribute("address")
+            .attribute("phone")
+            .attribute("organizationName")
+            .attribute("position")
+            .attribute("employmentPeriod")
+            .view("summary", "id", "firstName", "lastName", "middleName", "passport", "phone")
+            .build();
+
     private final ClientRepository clientRepository;
 
     private final ClientMapper clientMapper;
 
     private final AMPServiceValidator validator;
 
+    private final PageCacheService pageCacheService;
+
+    private final LookupProperties lookupProperties;
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final SingleFlight<String, Long> clientResolutions = new SingleFlight<>();
+
+    private final Counter coalescedResolutions;
+    private final Counter passportConflicts;
+    private final Timer resolutionWait;
+
     private final int CLIENT_PAGE_SIZE;
 
     public ClientService(
             ClientRepository clientRepository,
             ClientMapper clientMapper,
             AMPServiceValidator validator,
+            PageCacheService pageCacheService,
+            LookupProperties lookupProperties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
             @Qualifier("defaultPageSize") int clientPageSize
     ) {
         this.clientRepository = clientRepository;
         this.clientMapper = clientMapper;
         this.validator = validator;
+        this.pageCacheService = pageCacheService;
+        this.lookupProperties = lookupProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.coalescedResolutions = Counter.builder("apm.client.resolution.conflicts")
+                .description("Client resolutions that joined a concurrent resolution of the same passport")
+                .tag("type", "coalesced")
+                .register(meterRegistry);
+        this.passportConflicts = Counter.builder("apm.client.resolution.conflicts")
+                .description("Client inserts that lost the race on client_passport_key")
+                .tag("type", "constraint")
+                .register(meterRegistry);
+        this.resolutionWait = Timer.builder("apm.client.resolution.wait")
+                .description("Time spent waiting for a concurrent resolution of the same passport")
+                .register(meterRegistry);
+        meterRegistry.gauge("apm.client.resolution.in_flight", clientResolutions, SingleFlight::inFlight);
         CLIENT_PAGE_SIZE = clientPageSize;
     }
 
-    @Transactional(readOnly = true)
+    /*
+     * Returns the id of the client with the applicant's passport, creating the client if needed.
+     * Concurrent calls for one passport share a single lookup/insert, which runs and commits in its own
+     * short transaction so that every caller can see the row as soon as the call returns.
+     * */
+    public long resolveClientId(CreditApplicantDto applicant) {
+        long start = System.nanoTime();
+
+        SingleFlight.Call<Long> call = clientResolutions.execute(
+                applicant.getPassport(),
+                () -> findOrCreateClientId(applicant)
+        );
+
+        if (call.shared()) {
+            coalescedResolutions.increment();
+            resolutionWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        return call.value();
+    }
+
+    private Long findOrCreateClientId(CreditApplicantDto applicant) {
+        try {
+            return transactionTemplate.execute(status -> clientRepository.findByPassport(applicant.getPassport())
+                    .orElseGet(() -> clientRepository.save(clientMapper.fromCreditApplicantDto(applicant)))
+                    .getId()
+            );
+        } catch (DataIntegrityViolationException e) {
+            /*
+             * another instance inserted the same passport, the failed transaction is already rolled back
+             * */
+            if (
+                    e.getCause() != null &&
+                            e.getCause() instanceof ConstraintViolationException cause &&
+                            "client_passport_key".equals(cause.getConstraintName())
+            ) {
+                passportConflicts.increment();
+                return transactionTemplate.execute(status -> clientRepository.findByPassport(applicant.getPassport())
+                        .orElseThrow(() -> e)
+                        .getId()
+                );
+            }
+            throw e;
+        }
+    }
+
     public PageResponseDto<ClientDto> findClients(@Valid @Positive int page,@Valid @NotNull FindClientsRequestDto findClientRequest) {
+        DeadlineContext.checkNotExpired();
 
         Optional<GroupValidationException> validation = validator.validateFindClientRequestDto(findClientRequest);
 
@@ -58,32 +183,211 @@ public class ClientService {
             throw validation.get();
         }
 
-        Page<Client> clients = clientRepository.findAllBy(new Pageable(page, CLIENT_PAGE_SIZE), (builder, root) -> {
+        // the filter is copied, the cache key and the prefetch must not see later changes of the request
+        FindClientsRequestDto filter = findClientRequest.toBuilder().build();
+
+        return pageCacheService.getPage(
+                "client",
+                filter.toString(),
+                page,
+                CLIENT_PAGE_SIZE,
+                p -> readOnlyTransactionTemplate.execute(status -> findClients(new Pageable(p, CLIENT_PAGE_SIZE), filter)),
+                Client.class
+        );
+    }
+
+    /*
+     * Sparse variant of findClients: only the requested columns are selected,
+     * the rows are served as maps of those columns
+     * */
+    public PageResponseDto<Map<String, Object>> findClients(
+            @Valid @Positive int page,
+            @Valid @NotNull FindClientsRequestDto findClientRequest,
+            String view,
+            String fields
+    ) {
+        DeadlineContext.checkNotExpired();
+
+        Optional<GroupValidationException> validation = validator.validateFindClientRequestDto(findClientRequest);
+
+        if (validation.isPresent()) {
+            throw validation.get();
+        }
+
+        Projection<Client> projection = selectFields(CLIENT_FIELDS, view, fields);
+        FindClientsRequestDto filter = findClientRequest.toBuilder().build();
+
+        return pageCacheService.getPage(
+                "client",
+                filter + "|" + String.join(",", projection.names()),
+                page,
+                CLIENT_PAGE_SIZE,
+                p -> readOnlyTransactionTemplate.execute(status -> getPageResponse(
+                        () -> clientRepository.findAllBy(
+                                new Pageable(p, CLIENT_PAGE_SIZE),
+                                projection,
+                                byFilter(filter),
+                                byRelevance(filter)
+                        ),
+                        Function.identity()
+                )),
+                Client.class
+        );
+    }
+
+    /*
+     * Clients by id and by passport, one query per batch of keys. The content follows the order of the ids,
+     * then of the passports, a client matched by both is served once.
+     * */
+    public LookupResponseDto<ClientDto> lookupClients(@Valid @NotNull ClientLookupRequestDto lookupRequest) {
+        DeadlineContext.checkNotExpired();
+
+        Set<Long> ids = keys(lookupRequest.getIds());
+        Set<String> passports = keys(lookupRequest.getPassports());
+
+        int keys = ids.size() + passports.size();
+        if (keys > lookupProperties.getMaxKeys()) {
+            throw new TooManyLookupKeysException(keys, lookupProperties.getMaxKeys());
+        }
+
+        return readOnlyTransactionTemplate.execute(status -> {
+            Map<Long, ClientDto> byId = new LinkedHashMap<>();
+            Map<String, ClientDto> byPassport = new LinkedHashMap<>();
+
+            clientRepository.findAllByIds(ids, lookupProperties.getBatchSize())
+                    .forEach(client -> byId.put(client.getId(), clientMapper.fromClient(client)));
+            clientRepository.findAllByPassports(passports, lookupProperties.getBatchSize())
+                    .forEach(client -> byPassport.put(client.getPassport(), clientMapper.fromClient(client)));
+
+            Map<Long, ClientDto> content = new LinkedHashMap<>();
+            List<String> missing = new ArrayList<>();
+
+            for (Long id : ids) {
+                ClientDto client = byId.get(id);
+                if (client != null) {
+                    content.put(id, client);
+                } else {
+                    missing.add(String.valueOf(id));
+                }
+            }
+
+            for (String passport : passports) {
+                ClientDto client = byPassport.get(passport);
+                if (client != null) {
+                    content.putIfAbsent(client.getId(), client);
+                } else {
+                    missing.add(passport);
+                }
+            }
+
+            return new LookupResponseDto<>(List.copyOf(content.values()), missing);
+        });
+    }
+
+    private static <K> Set<K> keys(List<K> requested) {
+        if (requested == null) {
+            return Set.of();
+        }
+        return requested.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private PageResponseDto<ClientDto> findClients(Pageable pageable, FindClientsRequestDto findClientRequest) {
+        Page<Client> clients = clientRepository.findAllBy(pageable, byFilter(findClientRequest), byRelevance(findClientRequest));
+
+        return getPageResponse(() -> clients, clientMapper::fromClient);
+    }
+
+    private static BiFunction<CriteriaBuilder, Root<Client>, Predicate[]> byFilter(FindClientsRequestDto findClientRequest) {
+        FindClientsRequestDto.Match match = matchOf(findClientRequest);
+
+        return (builder, root) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (findClientRequest.getFirstName() != null) {
-                predicates.add(builder.equal(root.get("firstName"), findClientRequest.getFirstName()));
+                predicates.add(nameMatches(builder, root.get("firstName"), findClientRequest.getFirstName(), match));
             }
 
             if (findClientRequest.getLastName() != null) {
-                predicates.add(builder.equal(root.get("lastName"), findClientRequest.getLastName()));
+                predicates.add(nameMatches(builder, root.get("lastName"), findClientRequest.getLastName(), match));
             }
 
             if (findClientRequest.getMiddleName() != null) {
-                predicates.add(builder.equal(root.get("middleName"), findClientRequest.getMiddleName()));
+                predicates.add(nameMatches(builder, root.get("middleName"), findClientRequest.getMiddleName(), match));
             }
 
             if (findClientRequest.getPhone() != null) {
-                predicates.add(builder.equal(root.get("phone"), findClientRequest.getPhone()));
+                predicates.add(numberMatches(builder, root.get("phone"), findClientRequest.getPhone(), match));
             }
 
             if (findClientRequest.getPassport() != null) {
-                predicates.add(builder.equal(root.get("passport"), findClientRequest.getPassport()));
+                predicates.add(numberMatches(builder, root.get("passport"), findClientRequest.getPassport(), match));
             }
 
             return predicates.toArray(Predicate[]::new);
-        });
+        };
+    }
 
-        return getPageResponse(() -> clients, clientMapper::fromClient);
+    /*
+     * Fuzzy matches come most similar first, summing the similarity of the requested names;
+     * the id keeps the order of equally relevant clients, and of the other matches, stable across pages
+     * */
+    private static BiFunction<CriteriaBuilder, Root<Client>, List<Order>> byRelevance(FindClientsRequestDto findClientRequest) {
+        FindClientsRequestDto.Match match = matchOf(findClientRequest);
+
+        return (builder, root) -> {
+            if (match == FindClientsRequestDto.Match.EXACT) {
+                return List.of();
+            }
+
+            List<Order> order = new ArrayList<>();
+
+            if (match == FindClientsRequestDto.Match.FUZZY) {
+                List<Expression<Double>> similarities = new ArrayList<>();
+
+                similarity(builder, root.get("firstName"), findClientRequest.getFirstName()).ifPresent(similarities::add);
+                similarity(builder, root.get("lastName"), findClientRequest.getLastName()).ifPresent(similarities::add);
+                similarity(builder, root.get("middleName"), findClientRequest.getMiddleName()).ifPresent(similarities::add);
+
+                similarities.stream()
+                        .reduce(builder::sum)
+                        .ifPresent(relevance -> order.add(builder.desc(relevance)));
+            }
+
+            order.add(builder.asc(root.get("id")));
+            return order;
+        };
+    }
+
+    private static Predicate nameMatches(CriteriaBuilder builder, Path<String> name, String value, FindClientsRequestDto.Match match) {
+        // lower(...) is what the expression indexes of the names are built on
+        Expression<String> lowerName = builder.lower(name);
+        String lowerValue = value.toLowerCase(Locale.ROOT);
+
+        return switch (match) {
+            case EXACT -> builder.equal(name, value);
+            case IGNORE_CASE -> builder.equal(lowerName, lowerValue);
+            case PREFIX -> builder.like(lowerName, lowerValue + "%");
+            case FUZZY -> builder.isTrue(builder.function("trgm_match", Boolean.class, lowerName, builder.literal(lowerValue)));
+        };
+    }
+
+    private static Optional<Expression<Double>> similarity(CriteriaBuilder builder, Path<String> name, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        return Optional.of(builder.function("similarity", Double.class, builder.lower(name), builder.literal(value.toLowerCase(Locale.ROOT))));
+    }
+
+    private static Predicate numberMatches(CriteriaBuilder builder, Path<String> number, String value, FindClientsRequestDto.Match match) {
+        return switch (match) {
+            case EXACT, IGNORE_CASE -> builder.equal(number, value);
+            case PREFIX, FUZZY -> builder.like(number, value + "%");
+        };
+    }
+
+    private static FindClientsRequestDto.Match matchOf(FindClientsRequestDto findClientRequest) {
+        return findClientRequest.getMatch() == null ? FindClientsRequestDto.Match.EXACT : findClientRequest.getMatch();
     }
 }
@@ -0,0 +1,93 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.ConflictRetryProperties;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/*
+ * Runs an action in a new transaction and repeats it on write conflicts (optimistic lock failures,
+ * lock timeouts, deadlocks, serialization failures) with exponential backoff and jitter.
+ * A failed attempt has its transaction rolled back, so every retry starts from a fresh snapshot.
+ * */
+@Slf4j
+@Service
+public class ConflictRetryService {
+
+    private static final List<Class<? extends Throwable>> CONFLICTS = List.of(
+            OptimisticLockException.class,
+            OptimisticLockingFailureException.class,
+            PessimisticLockingFailureException.class
+    );
+
+    private final RetryTemplate retryTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public ConflictRetryService(
+            PlatformTransactionManager transactionManager,
+            ConflictRetryProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // random exponential backoff spreads each sleep over [interval, interval * multiplier)
+        this.retryTemplate = RetryTemplate.builder()
+                .maxAttempts(properties.getMaxAttempts())
+                .exponentialBackoff(
+                        properties.getInitialBackoff().toMillis(),
+                        properties.getMultiplier(),
+                        properties.getMaxBackoff().toMillis(),
+                        true
+                )
+                .retryOn(CONFLICTS)
+                .traversingCauses()
+                .build();
+    }
+
+    public <T> T inNewTransaction(String operation, Supplier<T> action) {
+        try {
+            return retryTemplate.execute(context -> {
+                if (context.getRetryCount() > 0) {
+                    meterRegistry.counter("apm.conflict_retry.retries", "operation", operation).increment();
+                    log.debug("Retrying {} after conflict, attempt {}", operation, context.getRetryCount() + 1);
+                }
+
+                // no point in another attempt once the client stopped waiting
+                DeadlineContext.checkNotExpired();
+
+                return transactionTemplate.execute(status -> action.get());
+            });
+        } catch (RuntimeException e) {
+            if (isConflict(e)) {
+                meterRegistry.counter("apm.conflict_retry.exhausted", "operation", operation).increment();
+                log.warn("Giving up {} after repeated conflicts", operation, e);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Throwable> conflict : CONFLICTS) {
+                if (conflict.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.AnalyticsProperties;
+import dev.sc.apm.dto.DailyStatsDto;
+import dev.sc.apm.exception.InvalidDateRangeException;
+import dev.sc.apm.repository.ChangeLogRepository;
+import dev.sc.apm.repository.ChangePosition;
+import dev.sc.apm.repository.DailyStats;
+import dev.sc.apm.repository.DailyStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/*
+ * Daily credit figures for risk, read from the daily_credit_stats materialized view so that
+ * analytics do not aggregate over the OLTP tables on every request. The view is refreshed on a
+ * schedule, and only when the change log has moved since the previous refresh: an idle system
+ * costs one index lookup per interval.
+ * */
+@Slf4j
+@Service
+public class DailyStatsService {
+
+    private final DailyStatsRepository dailyStatsRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final AnalyticsProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    // change log head the view was last refreshed at, null until the first refresh
+    private volatile ChangePosition refreshedAt;
+
+    public DailyStatsService(
+            DailyStatsRepository dailyStatsRepository,
+            ChangeLogRepository changeLogRepository,
+            AnalyticsProperties properties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /*
+     * The head is read before refreshing: changes made meanwhile are either in this refresh
+     * or move the head, and the next run picks them up
+     * */
+    @Scheduled(fixedDelayString = "${apm.analytics.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        ChangePosition head = readOnlyTransactionTemplate.execute(status -> changeLogRepository.findHead());
+
+        if (head.equals(refreshedAt)) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> dailyStatsRepository.refresh());
+        refreshedAt = head;
+
+        log.debug("Daily credit stats refreshed in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /*
+     * Days from inclusive, to exclusive; without a range the last defaultDays days up to today (UTC)
+     * */
+    public List<DailyStatsDto> getDaily(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(properties.getDefaultDays());
+
+        if (!start.isBefore(end) || ChronoUnit.DAYS.between(start, end) > properties.getMaxDays()) {
+            throw new InvalidDateRangeException(start, end, properties.getMaxDays());
+        }
+
+        return readOnlyTransactionTemplate.execute(status -> dailyStatsRepository.findBetween(start, end)).stream()
+                .map(DailyStatsService::toDto)
+                .toList();
+    }
+
+    private static DailyStatsDto toDto(DailyStats stats) {
+        long decided = stats.approved() + stats.rejected();
+
+        return DailyStatsDto.builder()
+                .day(stats.day())
+                .applications(stats.applications())
+                .approved(stats.approved())
+                .rejected(stats.rejected())
+                .pending(stats.applications() - decided)
+                .approvalRate(ratio(stats.approved(), decided))
+                .approvedAmount(stats.approvedAmount())
+                .averageTerm(ratio(stats.approvedTerm(), stats.approved()))
+                .signed(stats.signed())
+                .signingConversion(ratio(stats.signed(), stats.approved()))
+                .build();
+    }
+
+    private static Double ratio(long part, long whole) {
+        return whole == 0 ? null : (double) part / whole;
+    }
+}
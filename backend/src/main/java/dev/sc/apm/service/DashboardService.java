@@ -0,0 +1,71 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.dto.DashboardSummaryDto;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import dev.sc.apm.repository.StatusCount;
+import dev.sc.apm.repository.StatusCountRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Totals for the dashboard, read from the trigger maintained status counts instead of COUNT / SUM over the tables
+ * */
+@Service
+public class DashboardService {
+
+    private static final String APPLICATION_TABLE = "credit_application";
+    private static final String AGREEMENT_TABLE = "credit_agreement";
+
+    private final StatusCountRepository statusCountRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public DashboardService(StatusCountRepository statusCountRepository, PlatformTransactionManager transactionManager) {
+        this.statusCountRepository = statusCountRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public DashboardSummaryDto getSummary() {
+        List<StatusCount> counts = readOnlyTransactionTemplate.execute(status -> statusCountRepository.findAll());
+
+        Map<CreditApplicationStatus, DashboardSummaryDto.StatusTotal> applications = new EnumMap<>(CreditApplicationStatus.class);
+        for (CreditApplicationStatus status : CreditApplicationStatus.values()) {
+            applications.put(status, new DashboardSummaryDto.StatusTotal(0, BigDecimal.ZERO));
+        }
+
+        Map<SigningStatus, Long> agreements = new EnumMap<>(SigningStatus.class);
+        for (SigningStatus status : SigningStatus.values()) {
+            agreements.put(status, 0L);
+        }
+
+        for (StatusCount count : counts) {
+            switch (count.tableName()) {
+                case APPLICATION_TABLE -> applications.put(
+                        CreditApplicationStatus.valueOf(count.status()),
+                        new DashboardSummaryDto.StatusTotal(count.rows(), count.approvedAmount())
+                );
+                case AGREEMENT_TABLE -> agreements.put(SigningStatus.valueOf(count.status()), count.rows());
+                default -> {
+                }
+            }
+        }
+
+        return DashboardSummaryDto.builder()
+                .applications(applications.values().stream().mapToLong(DashboardSummaryDto.StatusTotal::getCount).sum())
+                .approvedAmount(applications.values().stream()
+                        .map(DashboardSummaryDto.StatusTotal::getApprovedAmount)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add))
+                .applicationsByStatus(applications)
+                .agreements(agreements.values().stream().mapToLong(Long::longValue).sum())
+                .agreementsBySigningStatus(agreements)
+                .build();
+    }
+}
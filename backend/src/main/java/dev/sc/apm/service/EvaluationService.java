@@ -0,0 +1,188 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.EvaluationProperties;
+import dev.sc.apm.exception.DeadlineExceededException;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.CircuitBreaker;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import dev.sc.apm.util.concurrent.Workload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Guards AnalyticService with a circuit breaker. While it is open applications stay PENDING
+ * and are evaluated later on the evaluation bulkhead instead of holding the request.
+ * */
+@Slf4j
+@Service
+public class EvaluationService {
+
+    // query_canceled by statement_timeout or pg_cancel_backend, lock_not_available by lock_timeout
+    private static final Set<String> BUDGET_SQL_STATES = Set.of("57014", "55P03");
+
+    private final AnalyticService analyticService;
+    private final ConflictRetryService conflictRetryService;
+    private final CreditApplicationRepository creditApplicationRepository;
+    private final Bulkheads bulkheads;
+    private final EvaluationProperties.Deferred deferredProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Set<Long> deferred = ConcurrentHashMap.newKeySet();
+
+    private final Counter deferredCounter;
+    private final Counter failedCounter;
+
+    public EvaluationService(
+            AnalyticService analyticService,
+            ConflictRetryService conflictRetryService,
+            CreditApplicationRepository creditApplicationRepository,
+            Bulkheads bulkheads,
+            EvaluationProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.analyticService = analyticService;
+        this.conflictRetryService = conflictRetryService;
+        this.creditApplicationRepository = creditApplicationRepository;
+        this.bulkheads = bulkheads;
+        this.deferredProperties = properties.getDeferred();
+        this.meterRegistry = meterRegistry;
+
+        EvaluationProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        this.circuitBreaker = new CircuitBreaker(
+                breaker.getWindowSize(),
+                breaker.getMinimumCalls(),
+                breaker.getFailureRateThreshold(),
+                breaker.getSlowCallRateThreshold(),
+                breaker.getSlowCallDuration().toNanos(),
+                breaker.getOpenDuration().toNanos(),
+                breaker.getHalfOpenPermits(),
+                this::onTransition
+        );
+
+        Gauge.builder("apm.evaluation.circuit_breaker.state", circuitBreaker, cb -> cb.state().ordinal())
+                .description("0 - closed, 1 - open, 2 - half open")
+                .register(meterRegistry);
+        Gauge.builder("apm.evaluation.deferred.size", deferred, Set::size)
+                .register(meterRegistry);
+        this.deferredCounter = Counter.builder("apm.evaluation.deferred")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("apm.evaluation.failed")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Returns false if the application was left PENDING, either because the breaker is open
+     * or because the evaluation failed
+     * */
+    public boolean evaluate(long applicationId) {
+        if (!circuitBreaker.tryAcquire()) {
+            defer(applicationId);
+            return false;
+        }
+
+        long start = System.nanoTime();
+        // left null the call says nothing about the analytics and only gives its permit back, as on an Error
+        Boolean succeeded = null;
+        try {
+            conflictRetryService.inNewTransaction("evaluation", () -> {
+                analyticService.evaluateCreditApplication(applicationId);
+                return null;
+            });
+            succeeded = true;
+            return true;
+        } catch (NoSuchElementException e) {
+            // deleted in the meantime, nothing to evaluate and not the analytics' fault
+            succeeded = true;
+            return false;
+        } catch (RuntimeException e) {
+            if (!isOutOfBudget(e)) {
+                succeeded = false;
+                failedCounter.increment();
+            }
+            log.warn("Evaluation of credit application {} failed, deferring it", applicationId, e);
+            defer(applicationId);
+            return false;
+        } finally {
+            if (succeeded == null) {
+                circuitBreaker.onIgnored();
+            } else if (succeeded) {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+            } else {
+                circuitBreaker.onFailure();
+            }
+        }
+    }
+
+    /*
+     * The deadline of the request ran out, or a statement was ended by the timeouts or the cancel derived
+     * from it: a client sending a short X-Request-Timeout must not open the breaker for everyone
+     * */
+    private static boolean isOutOfBudget(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException) {
+                return DeadlineContext.current() != null && BUDGET_SQL_STATES.contains(sqlException.getSQLState());
+            }
+        }
+        return false;
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    @Scheduled(fixedDelayString = "${apm.evaluation.deferred.sweep-interval:PT10S}")
+    public void evaluateDeferred() {
+        if (circuitBreaker.isRejecting()) {
+            return;
+        }
+
+        // while half open only the probes get through, the rest is deferred again
+        int batch = deferredProperties.getBatchSize();
+        Iterator<Long> iterator = deferred.iterator();
+        while (batch > 0 && iterator.hasNext()) {
+            long applicationId = iterator.next();
+            iterator.remove();
+            submit(applicationId);
+            batch--;
+        }
+
+        if (batch > 0) {
+            LocalDateTime staleBefore = LocalDateTime.now().minus(deferredProperties.getStaleAfter());
+            creditApplicationRepository.findPendingIdsCreatedBefore(staleBefore, batch)
+                    .forEach(this::submit);
+        }
+    }
+
+    private void submit(long applicationId) {
+        // a dropped task keeps the application PENDING, the stale sweep picks it up again
+        bulkheads.submit(Workload.EVALUATION, () -> evaluate(applicationId));
+    }
+
+    private void defer(long applicationId) {
+        if (deferred.add(applicationId)) {
+            deferredCounter.increment();
+        }
+    }
+
+    private void onTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        log.warn("Evaluation circuit breaker {} -> {}", from, to);
+        meterRegistry.counter("apm.evaluation.circuit_breaker.transitions", "from", from.name(), "to", to.name())
+                .increment();
+    }
+}
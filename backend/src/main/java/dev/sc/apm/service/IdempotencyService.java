@@ -0,0 +1,209 @@
+package dev.sc.apm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sc.apm.config.IdempotencyProperties;
+import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.CreditApplicationRequestDto;
+import dev.sc.apm.entity.IdempotencyRecord;
+import dev.sc.apm.exception.IdempotencyKeyReuseException;
+import dev.sc.apm.exception.InvalidIdempotencyKeyException;
+import dev.sc.apm.repository.IdempotencyRecordRepository;
+import dev.sc.apm.util.cache.LruCache;
+import dev.sc.apm.util.concurrent.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "key:";
+    private static final String DUPLICATE_PREFIX = "dup:";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+
+    private final LruCache<String, StoredResponse> responses;
+    // concurrent requests of the same key wait for the first one and replay its response
+    private final SingleFlight<String, StoredResponse> inFlight = new SingleFlight<>();
+
+    public IdempotencyService(
+            IdempotencyRecordRepository idempotencyRecordRepository,
+            ObjectMapper objectMapper,
+            IdempotencyProperties properties
+    ) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.responses = new LruCache<>(properties.getCacheSize());
+    }
+
+    /*
+     * With a key the response is persisted for keyTtl and replayed to any retry of the same caller carrying
+     * the same key, keys of different callers never meet. Without a key only byte-identical payloads for
+     * the same passport are collapsed, in memory, for duplicateWindow.
+     * */
+    public CreditApplicationDto execute(
+            String caller,
+            String idempotencyKey,
+            CreditApplicationRequestDto request,
+            Supplier<CreditApplicationDto> action
+    ) {
+        String requestHash = hash(serialize(request));
+
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > properties.getMaxKeyLength()) {
+                throw new InvalidIdempotencyKeyException(properties.getMaxKeyLength());
+            }
+            // a digest keeps the stored key within 64 characters and the caller's api key out of the table
+            String storeKey = hash((caller + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+            return replayOrExecute(KEY_PREFIX + storeKey, storeKey, idempotencyKey, requestHash, properties.getKeyTtl(), action);
+        }
+
+        if (request.getApplicant() == null || request.getApplicant().getPassport() == null) {
+            return action.get();
+        }
+
+        String duplicateKey = DUPLICATE_PREFIX + request.getApplicant().getPassport() + ":" + requestHash;
+        return replayOrExecute(duplicateKey, null, null, requestHash, properties.getDuplicateWindow(), action);
+    }
+
+    private CreditApplicationDto replayOrExecute(
+            String cacheKey,
+            String storeKey,
+            String idempotencyKey,
+            String requestHash,
+            Duration ttl,
+            Supplier<CreditApplicationDto> action
+    ) {
+        Optional<StoredResponse> stored = lookup(cacheKey, storeKey);
+        if (stored.isPresent()) {
+            return replay(stored.get(), idempotencyKey, requestHash);
+        }
+
+        StoredResponse response = inFlight.execute(cacheKey, () -> {
+            // the previous call of the key may have finished between the lookup and this one
+            Optional<StoredResponse> done = lookup(cacheKey, storeKey);
+            if (done.isPresent()) {
+                return done.get();
+            }
+
+            String body = serialize(action.get());
+            return store(cacheKey, storeKey, requestHash, body, ttl);
+        }).value();
+
+        return replay(response, idempotencyKey, requestHash);
+    }
+
+    private Optional<StoredResponse> lookup(String cacheKey, String storeKey) {
+        LocalDateTime now = LocalDateTime.now();
+
+        Optional<StoredResponse> cached = responses.get(cacheKey).filter(r -> !r.isExpired(now));
+        if (cached.isPresent() || storeKey == null) {
+            return cached;
+        }
+
+        Optional<StoredResponse> persisted = idempotencyRecordRepository.findById(storeKey)
+                .map(StoredResponse::from)
+                .filter(r -> !r.isExpired(now));
+
+        persisted.ifPresent(r -> responses.put(cacheKey, r));
+
+        return persisted;
+    }
+
+    private StoredResponse store(String cacheKey, String storeKey, String requestHash, String body, Duration ttl) {
+        StoredResponse response = new StoredResponse(requestHash, body, LocalDateTime.now().plus(ttl));
+
+        if (storeKey != null) {
+            boolean inserted = idempotencyRecordRepository.insertIfAbsent(IdempotencyRecord.builder()
+                    .idempotencyKey(storeKey)
+                    .requestHash(requestHash)
+                    .responseBody(body)
+                    .expiresAt(response.expiresAt())
+                    .build());
+
+            if (!inserted) {
+                // another instance won the race for this key, its response is the one to replay
+                response = idempotencyRecordRepository.findById(storeKey)
+                        .map(StoredResponse::from)
+                        .orElse(response);
+            }
+        }
+
+        responses.put(cacheKey, response);
+
+        return response;
+    }
+
+    private CreditApplicationDto replay(StoredResponse stored, String idempotencyKey, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReuseException(idempotencyKey);
+        }
+
+        try {
+            return objectMapper.readValue(stored.body(), CreditApplicationDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response can not be read", e);
+        }
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private byte[] serialize(CreditApplicationRequestDto request) {
+        try {
+            return objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Request can not be hashed", e);
+        }
+    }
+
+    private String serialize(CreditApplicationDto response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response can not be serialized", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${apm.idempotency.purge-interval:PT1M}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+
+        responses.removeIf((key, response) -> response.isExpired(now));
+        int deleted = idempotencyRecordRepository.deleteExpired(now);
+
+        if (deleted > 0) {
+            log.debug("Purged {} expired idempotency records", deleted);
+        }
+    }
+
+    private record StoredResponse(String requestHash, String body, LocalDateTime expiresAt) {
+        static StoredResponse from(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getResponseBody(), record.getExpiresAt());
+        }
+
+        boolean isExpired(LocalDateTime now) {
+            return expiresAt.isBefore(now);
+        }
+    }
+}
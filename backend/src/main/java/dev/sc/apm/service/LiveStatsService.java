@@ -0,0 +1,125 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.dto.LiveStatsDto;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import dev.sc.apm.util.stats.LogLinearHistogram;
+import dev.sc.apm.util.stats.RollingRecorder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/*
+ * Live figures of the last minute, hour and day: applications per second, approval ratio and the latencies
+ * of decisions and signings. Kept in memory by this instance only, they start empty after a restart.
+ *
+ * Every event is recorded in the three windows; recording takes no lock and allocates nothing,
+ * reading merges the slots of a window.
+ * */
+@Service
+public class LiveStatsService {
+
+    // counters
+    private static final int APPLICATIONS = 0;
+    private static final int DECISIONS = 1;
+    private static final int APPROVED = 2;
+    private static final int COUNTERS = 3;
+
+    // histograms, in microseconds
+    private static final int DECISION_LATENCY = 0;
+    private static final int SIGNING_LATENCY = 1;
+    private static final int HISTOGRAMS = 2;
+
+    private final RollingRecorder lastMinute = new RollingRecorder(1_000, 60, COUNTERS, HISTOGRAMS);
+    private final RollingRecorder lastHour = new RollingRecorder(60_000, 60, COUNTERS, HISTOGRAMS);
+    private final RollingRecorder lastDay = new RollingRecorder(15 * 60_000, 96, COUNTERS, HISTOGRAMS);
+
+    // rates are over the time this instance has counted for, not the whole window
+    private final long startedAt = System.currentTimeMillis();
+
+    /*
+     * Counts an application whose insert has committed
+     * */
+    public void applicationCreated() {
+        increment(APPLICATIONS, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(StatusChangedEvent change) {
+        long now = System.currentTimeMillis();
+
+        if (change.signingStatus() == SigningStatus.SIGNED) {
+            record(SIGNING_LATENCY, change, now);
+        } else if (change.status() != CreditApplicationStatus.PENDING) {
+            increment(DECISIONS, now);
+            if (change.status() == CreditApplicationStatus.APPROVED) {
+                increment(APPROVED, now);
+            }
+            record(DECISION_LATENCY, change, now);
+        }
+    }
+
+    public LiveStatsDto getLiveStats() {
+        long now = System.currentTimeMillis();
+
+        return LiveStatsDto.builder()
+                .lastMinute(window(lastMinute.snapshot(now), now))
+                .lastHour(window(lastHour.snapshot(now), now))
+                .lastDay(window(lastDay.snapshot(now), now))
+                .build();
+    }
+
+    private void increment(int counter, long now) {
+        lastMinute.increment(counter, now);
+        lastHour.increment(counter, now);
+        lastDay.increment(counter, now);
+    }
+
+    private void record(int histogram, StatusChangedEvent change, long now) {
+        if (change.startedAt() == null || change.occurredAt() == null) {
+            return;
+        }
+
+        long micros = ChronoUnit.MICROS.between(change.startedAt(), change.occurredAt());
+        lastMinute.record(histogram, micros, now);
+        lastHour.record(histogram, micros, now);
+        lastDay.record(histogram, micros, now);
+    }
+
+    private LiveStatsDto.Window window(RollingRecorder.Snapshot snapshot, long now) {
+        long[] counters = snapshot.counters();
+        long decisions = counters[DECISIONS];
+        long span = Math.max(1, Math.min(snapshot.spanMillis(), now - startedAt));
+
+        return LiveStatsDto.Window.builder()
+                .spanSeconds(span / 1_000)
+                .applications(counters[APPLICATIONS])
+                .applicationsPerSecond(counters[APPLICATIONS] * 1_000.0 / span)
+                .decisions(decisions)
+                .approved(counters[APPROVED])
+                .approvalRatio(decisions == 0 ? null : (double) counters[APPROVED] / decisions)
+                .decisionLatency(latency(snapshot.histograms()[DECISION_LATENCY]))
+                .signingLatency(latency(snapshot.histograms()[SIGNING_LATENCY]))
+                .build();
+    }
+
+    private static LiveStatsDto.Latency latency(long[] counts) {
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+
+        if (count == 0) {
+            return new LiveStatsDto.Latency(0, null, null);
+        }
+
+        return new LiveStatsDto.Latency(
+                count,
+                LogLinearHistogram.valueAt(counts, 0.5) / 1_000.0,
+                LogLinearHistogram.valueAt(counts, 0.99) / 1_000.0
+        );
+    }
+}
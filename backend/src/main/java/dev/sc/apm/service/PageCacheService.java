@@ -0,0 +1,170 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.PageCacheProperties;
+import dev.sc.apm.dto.PageResponseDto;
+import dev.sc.apm.exception.BulkheadFullException;
+import dev.sc.apm.repository.ChangeTracker;
+import dev.sc.apm.util.cache.LruCache;
+import dev.sc.apm.util.concurrent.Bulkheads;
+import dev.sc.apm.util.concurrent.Workload;
+import io.micrometer.core.instrument.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/*
+ * Bounded cache of page responses keyed by endpoint, filter and page.
+ * Every entry is stamped with the ChangeTracker version of the tables it was read from, taken before the read,
+ * so any committed write to those tables (creation, evaluation, signing, deletion) invalidates exactly
+ * the entries depending on it and nothing else.
+ * */
+@Slf4j
+@Service
+public class PageCacheService {
+
+    private record PageKey(String endpoint, String filter, int page) {
+    }
+
+    private record CachedPage(String version, PageResponseDto<?> response, long loadedAtNanos) {
+    }
+
+    private final ChangeTracker changeTracker;
+    private final Bulkheads bulkheads;
+    private final PageCacheProperties properties;
+
+    private final LruCache<PageKey, CachedPage> pages;
+    private final Set<PageKey> prefetching = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Counter invalidated;
+    private final Counter prefetched;
+    private final Timer servedAge;
+
+    public PageCacheService(
+            ChangeTracker changeTracker,
+            Bulkheads bulkheads,
+            PageCacheProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.changeTracker = changeTracker;
+        this.bulkheads = bulkheads;
+        this.properties = properties;
+        this.pages = new LruCache<>(properties.getCapacity());
+
+        FunctionCounter.builder("apm.page_cache.hits", hits, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("apm.page_cache.misses", misses, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("apm.page_cache.hit_ratio", this, PageCacheService::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("apm.page_cache.size", pages, LruCache::size)
+                .register(meterRegistry);
+        this.invalidated = Counter.builder("apm.page_cache.invalidated")
+                .description("Entries found but outdated by a committed write")
+                .register(meterRegistry);
+        this.prefetched = Counter.builder("apm.page_cache.prefetched")
+                .register(meterRegistry);
+        this.servedAge = Timer.builder("apm.page_cache.age")
+                .description("Time since a served page was read from the database")
+                .register(meterRegistry);
+    }
+
+    /*
+     * The loader has to open its own transaction, it also runs on the read bulkhead for prefetching
+     * */
+    public <D> PageResponseDto<D> getPage(
+            String endpoint,
+            String filter,
+            int page,
+            int pageSize,
+            IntFunction<PageResponseDto<D>> loader,
+            Class<?>... entityTypes
+    ) {
+        if (!properties.isEnabled()) {
+            return loader.apply(page);
+        }
+
+        PageKey key = new PageKey(endpoint, filter, page);
+        String version = changeTracker.snapshot(entityTypes).etag();
+
+        PageResponseDto<D> response = cached(key, version).orElse(null);
+
+        if (response == null) {
+            misses.increment();
+            response = loader.apply(page);
+            pages.put(key, new CachedPage(version, response, System.nanoTime()));
+        }
+
+        if (properties.isPrefetch() && (long) response.getPage() * pageSize < response.getTotal()) {
+            prefetch(new PageKey(endpoint, filter, response.getPage() + 1), loader, entityTypes);
+        }
+
+        return response;
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <D> Optional<PageResponseDto<D>> cached(PageKey key, String version) {
+        Optional<CachedPage> entry = pages.get(key);
+
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (!entry.get().version().equals(version)) {
+            invalidated.increment();
+            pages.remove(key);
+            return Optional.empty();
+        }
+
+        hits.increment();
+        servedAge.record(System.nanoTime() - entry.get().loadedAtNanos(), TimeUnit.NANOSECONDS);
+        return Optional.of((PageResponseDto<D>) entry.get().response());
+    }
+
+    private <D> void prefetch(PageKey key, IntFunction<PageResponseDto<D>> loader, Class<?>... entityTypes) {
+        String version = changeTracker.snapshot(entityTypes).etag();
+
+        if (pages.get(key).filter(entry -> entry.version().equals(version)).isPresent() || !prefetching.add(key)) {
+            return;
+        }
+
+        try {
+            boolean submitted = bulkheads.submit(Workload.READ, () -> {
+                try {
+                    // stamped again, the version may have moved while the task was queued
+                    String current = changeTracker.snapshot(entityTypes).etag();
+                    pages.put(key, new CachedPage(current, loader.apply(key.page()), System.nanoTime()));
+                    prefetched.increment();
+                } catch (RuntimeException e) {
+                    log.debug("Prefetch of {} failed", key, e);
+                } finally {
+                    prefetching.remove(key);
+                }
+            });
+
+            if (!submitted) {
+                prefetching.remove(key);
+            }
+        } catch (BulkheadFullException e) {
+            // reads are saturated, prefetching would only compete with them
+            prefetching.remove(key);
+        }
+    }
+
+    private double hitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+}
@@ -0,0 +1,151 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.RateLimitProperties;
+import dev.sc.apm.exception.RateLimitExceededException;
+import dev.sc.apm.util.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Admission control for write endpoints. Every check is a CAS on the bucket of the caller,
+ * so rejected requests never reach the database.
+ *
+ * Callers are the issued api keys, or the remote address for any other key: a made up key
+ * does not get a fresh bucket. The bucket maps are bounded by maxTrackedKeys.
+ * */
+@Service
+public class RateLimitService {
+
+    private final RateLimitProperties properties;
+
+    private final TokenBucket globalBucket;
+    private final ConcurrentHashMap<String, TokenBucket> apiKeyBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> passportBuckets = new ConcurrentHashMap<>();
+
+    // shared by the callers and passports arriving while their map is full
+    private final TokenBucket apiKeyOverflow;
+    private final TokenBucket passportOverflow;
+
+    private final Counter rejectedGlobal;
+    private final Counter rejectedApiKey;
+    private final Counter rejectedPassport;
+
+    public RateLimitService(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.globalBucket = newBucket(properties.getGlobal(), System.nanoTime());
+        this.apiKeyOverflow = newBucket(properties.getPerApiKey(), System.nanoTime());
+        this.passportOverflow = newBucket(properties.getPerPassport(), System.nanoTime());
+
+        this.rejectedGlobal = rejectedCounter(meterRegistry, "global");
+        this.rejectedApiKey = rejectedCounter(meterRegistry, "api_key");
+        this.rejectedPassport = rejectedCounter(meterRegistry, "passport");
+
+        Gauge.builder("apm.rate_limit.global.available_permits", globalBucket, b -> b.availablePermits(System.nanoTime()))
+                .description("Permits left in the global bucket")
+                .register(meterRegistry);
+        Gauge.builder("apm.rate_limit.buckets", apiKeyBuckets, Map::size)
+                .description("Tracked non-full buckets")
+                .tag("scope", "api_key")
+                .register(meterRegistry);
+        Gauge.builder("apm.rate_limit.buckets", passportBuckets, Map::size)
+                .description("Tracked non-full buckets")
+                .tag("scope", "passport")
+                .register(meterRegistry);
+    }
+
+    /*
+     * The identity the caller is limited by
+     * */
+    public String callerOf(String apiKey, String remoteAddress) {
+        return apiKey != null && properties.getApiKeys().contains(apiKey) ? "key:" + apiKey : "addr:" + remoteAddress;
+    }
+
+    /*
+     * Takes a permit of the caller, see callerOf, and one of the service; either both or none
+     * */
+    public void acquireForApiKey(String caller) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        TokenBucket callerBucket = bucket(apiKeyBuckets, apiKeyOverflow, caller, properties.getPerApiKey(), now);
+        long wait = callerBucket.tryAcquire(now);
+        if (wait > 0) {
+            rejectedApiKey.increment();
+            throw new RateLimitExceededException("api key", retryAfter(wait), false);
+        }
+
+        wait = globalBucket.tryAcquire(now);
+        if (wait > 0) {
+            // the service is saturated, not the caller
+            callerBucket.release();
+            rejectedGlobal.increment();
+            throw new RateLimitExceededException("service", retryAfter(wait), true);
+        }
+    }
+
+    public void acquireForPassport(String passport) {
+        if (!properties.isEnabled() || passport == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        long wait = bucket(passportBuckets, passportOverflow, passport, properties.getPerPassport(), now).tryAcquire(now);
+        if (wait > 0) {
+            rejectedPassport.increment();
+            throw new RateLimitExceededException("passport", retryAfter(wait), false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${apm.rate-limit.cleanup-interval:PT1M}")
+    public void evictFullBuckets() {
+        long now = System.nanoTime();
+        apiKeyBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        passportBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private TokenBucket bucket(
+            ConcurrentHashMap<String, TokenBucket> buckets,
+            TokenBucket overflow,
+            String key,
+            RateLimitProperties.Limit limit,
+            long now
+    ) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        // the size is approximate under concurrent inserts, the bound is kept to within a few buckets
+        if (buckets.size() >= properties.getMaxTrackedKeys()) {
+            return overflow;
+        }
+
+        return buckets.computeIfAbsent(key, k -> newBucket(limit, now));
+    }
+
+    private static TokenBucket newBucket(RateLimitProperties.Limit limit, long now) {
+        return new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst(), now);
+    }
+
+    private static Duration retryAfter(long waitNanos) {
+        return Duration.ofSeconds(Math.max(1, (long) Math.ceil(waitNanos / 1_000_000_000d)));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("apm.rate_limit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
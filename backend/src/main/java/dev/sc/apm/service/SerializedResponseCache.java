@@ -0,0 +1,172 @@
+package dev.sc.apm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import dev.sc.apm.config.SerializedCacheProperties;
+import dev.sc.apm.dto.CreditAgreementDto;
+import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import dev.sc.apm.repository.ChangeTracker;
+import dev.sc.apm.util.cache.OffHeapByteCache;
+import dev.sc.apm.util.converter.SerializedJson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/*
+ * JSON of responses that can no longer change: signed agreements and decided applications.
+ * They are only dropped by eviction or when rows are deleted. Lookups by ids read the decided
+ * applications back from here instead of keeping a second copy.
+ * */
+@Slf4j
+@Service
+public class SerializedResponseCache {
+
+    private record Key(Kind kind, long id) {
+    }
+
+    private enum Kind {
+        SIGNED_AGREEMENT,
+        DECIDED_APPLICATION
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ChangeTracker changeTracker;
+    private final boolean enabled;
+
+    private final OffHeapByteCache<Key> responses;
+    private volatile long seenDeletions;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public SerializedResponseCache(
+            ObjectMapper objectMapper,
+            ChangeTracker changeTracker,
+            SerializedCacheProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.objectMapper = objectMapper;
+        this.changeTracker = changeTracker;
+        this.enabled = properties.isEnabled();
+        this.responses = new OffHeapByteCache<>(properties.getMaxSize().toBytes());
+        this.seenDeletions = changeTracker.deletions();
+
+        Gauge.builder("apm.serialized_cache.bytes", responses, OffHeapByteCache::usedBytes)
+                .register(meterRegistry);
+        Gauge.builder("apm.serialized_cache.size", responses, OffHeapByteCache::size)
+                .register(meterRegistry);
+        FunctionCounter.builder("apm.serialized_cache.evictions", responses, OffHeapByteCache::evictions)
+                .register(meterRegistry);
+        this.hits = Counter.builder("apm.serialized_cache.hits")
+                .register(meterRegistry);
+        this.misses = Counter.builder("apm.serialized_cache.misses")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Taken before reading the response to be cached, a row deleted in between must not be cached
+     * */
+    public long mark() {
+        return changeTracker.deletions();
+    }
+
+    // keyed by application id, it is what signing is addressed by
+    public Optional<SerializedJson> getSignedAgreement(long applicationId) {
+        return get(new Key(Kind.SIGNED_AGREEMENT, applicationId));
+    }
+
+    public void putAgreement(CreditAgreementDto agreement, long mark) {
+        if (agreement.getSigningStatus() == SigningStatus.SIGNED) {
+            put(new Key(Kind.SIGNED_AGREEMENT, agreement.getApplicationId()), agreement, mark);
+        }
+    }
+
+    public Optional<SerializedJson> getDecidedApplication(long applicationId) {
+        return get(new Key(Kind.DECIDED_APPLICATION, applicationId));
+    }
+
+    /*
+     * For responses that are not the application alone, e.g. lookups; an unreadable entry counts as a miss
+     * */
+    public Optional<CreditApplicationDto> getDecidedApplicationDto(long applicationId) {
+        return getDecidedApplication(applicationId).flatMap(json -> {
+            try {
+                return Optional.of(objectMapper.readValue(
+                        new ByteBufferBackedInputStream(json.body()),
+                        CreditApplicationDto.class
+                ));
+            } catch (IOException e) {
+                log.warn("Could not read cached credit application {}", applicationId, e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    public void putApplication(CreditApplicationDto application, long mark) {
+        if (application.getStatus() != CreditApplicationStatus.PENDING) {
+            put(new Key(Kind.DECIDED_APPLICATION, application.getId()), application, mark);
+        }
+    }
+
+    private Optional<SerializedJson> get(Key key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        dropIfDeleted();
+
+        Optional<SerializedJson> response = responses.get(key).map(SerializedJson::new);
+
+        if (response.isPresent()) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        return response;
+    }
+
+    private void put(Key key, Object response, long mark) {
+        if (!enabled) {
+            return;
+        }
+
+        byte[] serialized;
+        try {
+            serialized = objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} for caching", key, e);
+            return;
+        }
+
+        // checked and stored under the same monitor as the clearing in dropIfDeleted
+        synchronized (this) {
+            if (changeTracker.deletions() == mark) {
+                responses.put(key, serialized);
+            }
+        }
+    }
+
+    private void dropIfDeleted() {
+        if (changeTracker.deletions() == seenDeletions) {
+            return;
+        }
+
+        synchronized (this) {
+            long deletions = changeTracker.deletions();
+            if (deletions != seenDeletions) {
+                seenDeletions = deletions;
+                responses.clear();
+            }
+        }
+    }
+}
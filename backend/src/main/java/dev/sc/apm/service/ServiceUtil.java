@@ -1,9 +1,22 @@
 package dev.sc.apm.service;
 
 import dev.sc.apm.dto.PageResponseDto;
+import dev.sc.apm.exception.InvalidCursorException;
+import dev.sc.apm.exception.InvalidFieldSelectionException;
+import dev.sc.apm.exception.InvalidSortException;
+import dev.sc.apm.repository.CRUDRepository;
 import dev.sc.apm.repository.Page;
+import dev.sc.apm.repository.Projection;
+import dev.sc.apm.repository.Sorting;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -25,4 +38,101 @@ public class ServiceUtil {
                 content
         );
     }
+
+    /*
+     * Resolves a comma separated fields= list, or else a named view, to the columns to select.
+     * The id is always selected.
+     * */
+    public static <E> Projection<E> selectFields(Projection<E> projection, String view, String fields) {
+        List<String> names;
+
+        if (fields != null) {
+            names = Arrays.stream(fields.split(","))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .toList();
+
+            List<String> unknown = names.stream()
+                    .filter(name -> !projection.has(name))
+                    .toList();
+
+            if (!unknown.isEmpty()) {
+                throw new InvalidFieldSelectionException(unknown, projection.names());
+            }
+        } else {
+            names = projection.view(view)
+                    .orElseThrow(() -> new InvalidFieldSelectionException(view, projection.views()));
+        }
+
+        Set<String> selected = new HashSet<>(names);
+        selected.add("id");
+
+        return projection.select(selected);
+    }
+
+    public static <E> Sorting.Sort<E> selectSort(Sorting<E> sorting, String sort) {
+        return sorting.sort(sort)
+                .orElseThrow(() -> new InvalidSortException(sort, sorting.names()));
+    }
+
+    /*
+     * A numbered page in the given sort, with the cursor of its last row unless it is the last page
+     * */
+    public static <D, E> PageResponseDto<D> getSortedPageResponse(
+            Supplier<Page<E>> entityProvider,
+            Function<E, D> mapper,
+            Sorting.Sort<E> sort,
+            int pageSize
+    ) {
+        Page<E> page = entityProvider.get();
+        PageResponseDto<D> response = getPageResponse(() -> page, mapper);
+
+        long read = (long) (page.page() - 1) * pageSize + page.content().size();
+        if (!page.content().isEmpty() && read < page.total()) {
+            response.setNextCursor(sort.cursorOf(page.content().get(page.content().size() - 1)));
+        }
+
+        return response;
+    }
+
+    /*
+     * The page after a cursor (keyset paging): neither numbered nor counted, its cost does not grow with the depth
+     * */
+    public static <D, E> PageResponseDto<D> getPageResponseAfter(
+            CRUDRepository<E, ?> repository,
+            BiFunction<CriteriaBuilder, Root<E>, Predicate[]> predicateBuilder,
+            Sorting.Sort<E> sort,
+            String cursor,
+            int pageSize,
+            Function<E, D> mapper
+    ) {
+        Sorting.Cursor after;
+        try {
+            after = sort.cursor(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+
+        List<E> rows = repository.findAllBy(
+                (builder, root) -> {
+                    Predicate[] predicates = predicateBuilder.apply(builder, root);
+                    Predicate[] all = Arrays.copyOf(predicates, predicates.length + 1);
+                    all[predicates.length] = sort.after(builder, root, after);
+                    return all;
+                },
+                sort::order,
+                pageSize + 1
+        );
+
+        boolean hasMore = rows.size() > pageSize;
+        List<E> content = hasMore ? rows.subList(0, pageSize) : rows;
+
+        return new PageResponseDto<>(
+                0,
+                content.size(),
+                -1,
+                content.stream().map(mapper).toList(),
+                hasMore ? sort.cursorOf(content.get(content.size() - 1)) : null
+        );
+    }
 }
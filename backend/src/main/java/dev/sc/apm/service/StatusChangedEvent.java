@@ -0,0 +1,21 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+
+import java.time.LocalDateTime;
+
+/*
+ * Published inside the transaction making the change, delivered to subscribers once it commits.
+ * startedAt is when what the change ends began: the application's creation for a decision,
+ * the decision for a signing.
+ * */
+public record StatusChangedEvent(
+        long applicationId,
+        long clientId,
+        CreditApplicationStatus status,
+        SigningStatus signingStatus,
+        LocalDateTime occurredAt,
+        LocalDateTime startedAt
+) {
+}
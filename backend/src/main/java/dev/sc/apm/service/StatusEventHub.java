@@ -0,0 +1,331 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.EventStreamProperties;
+import dev.sc.apm.dto.StatusEventDto;
+import dev.sc.apm.entity.SigningStatus;
+import dev.sc.apm.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Fans committed status changes out to SSE subscribers.
+ * The committing thread only offers the event to the bounded queue of each matching subscriber,
+ * a small pool of sender threads does the writes, at most one drain per subscriber at a time.
+ * A subscriber whose queue is full is disconnected rather than slowing down the others,
+ * it can reconnect with Last-Event-ID and get the events still kept for replay. A replay that does not fit
+ * the queue disconnects it the same way, never leaving a silent gap.
+ * A write blocked on a client that stopped reading holds a sender thread, so one stuck for longer than
+ * sendTimeout is interrupted, which closes the connection.
+ * */
+@Slf4j
+@Service
+public class StatusEventHub {
+
+    private static final class Subscriber {
+        private final long id;
+        private final SseEmitter emitter;
+        private final Long applicationId;
+        private final Long clientId;
+        private final Queue<StatusEventDto> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile boolean evicted;
+        // 0 unless a write is in progress
+        private volatile long sendingSince;
+        // guarded by the subscriber, the thread draining it
+        private Thread sender;
+
+        private Subscriber(long id, SseEmitter emitter, Long applicationId, Long clientId, int bufferSize) {
+            this.id = id;
+            this.emitter = emitter;
+            this.applicationId = applicationId;
+            this.clientId = clientId;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean matches(StatusEventDto event) {
+            return (applicationId == null || applicationId == event.getApplicationId()) &&
+                    (clientId == null || clientId == event.getClientId());
+        }
+    }
+
+    private final EventStreamProperties properties;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final ExecutorService senders;
+
+    private final StatusEventDto[] recent;
+    private long sequence;
+
+    private final Counter published;
+    private final Counter evictions;
+    private final Counter stalls;
+
+    public StatusEventHub(EventStreamProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.recent = new StatusEventDto[properties.getReplaySize()];
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "status-events-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("apm.events.subscribers", subscribers, Map::size)
+                .register(meterRegistry);
+        this.published = Counter.builder("apm.events.published")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("apm.events.evicted")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        this.stalls = Counter.builder("apm.events.stalled")
+                .description("Subscribers disconnected because a write to them was blocked for longer than send-timeout")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Both filters are optional, without any every event is streamed
+     * */
+    public SseEmitter subscribe(Long applicationId, Long clientId, Long lastEventId) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new RateLimitExceededException("subscriber", Duration.ofSeconds(5), true);
+        }
+
+        SseEmitter emitter = newEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber;
+
+        /*
+         * Registered and replayed under the monitor events are numbered and fanned out under: every later
+         * event is offered live after the replay is queued, every earlier one is only replayed, so none is
+         * lost, doubled or reordered
+         * */
+        synchronized (this) {
+            subscriber = new Subscriber(
+                    subscriberIds.incrementAndGet(),
+                    emitter,
+                    applicationId,
+                    clientId,
+                    properties.getBufferSize()
+            );
+            subscribers.put(subscriber.id, subscriber);
+
+            if (lastEventId != null) {
+                for (StatusEventDto event : replaySince(lastEventId)) {
+                    if (subscriber.matches(event) && !subscriber.queue.offer(event)) {
+                        evict(subscriber);
+                        break;
+                    }
+                }
+            }
+        }
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber.id));
+        emitter.onTimeout(() -> subscribers.remove(subscriber.id));
+        emitter.onError(e -> subscribers.remove(subscriber.id));
+
+        schedule(subscriber);
+
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(StatusChangedEvent change) {
+        publish(StatusEventDto.builder()
+                .type(change.signingStatus() == SigningStatus.SIGNED ?
+                        StatusEventDto.Type.AGREEMENT_SIGNED : StatusEventDto.Type.APPLICATION_DECIDED)
+                .applicationId(change.applicationId())
+                .clientId(change.clientId())
+                .status(change.status())
+                .signingStatus(change.signingStatus())
+                .occurredAt(change.occurredAt())
+                .build());
+
+        published.increment();
+    }
+
+    /*
+     * Keeps idle connections from being closed by proxies and finds the ones closed by clients
+     * */
+    @Scheduled(fixedDelayString = "${apm.events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    /*
+     * A blocked write ends by the container's write timeout at the earliest, far too long to hold one of
+     * the few sender threads. Interrupting the sender closes the connection at its next write attempt.
+     * */
+    @Scheduled(fixedDelayString = "${apm.events.send-timeout:PT10S}")
+    public void disconnectStalled() {
+        long now = System.nanoTime();
+
+        for (Subscriber subscriber : subscribers.values()) {
+            long since = subscriber.sendingSince;
+            if (since == 0 || now - since < properties.getSendTimeout().toNanos()) {
+                continue;
+            }
+
+            if (subscribers.remove(subscriber.id) != null) {
+                log.debug("Disconnecting subscriber {}, a write is blocked for {} ms", subscriber.id, (now - since) / 1_000_000);
+                subscriber.evicted = true;
+                subscriber.queue.clear();
+                stalls.increment();
+
+                synchronized (subscriber) {
+                    if (subscriber.sender != null) {
+                        subscriber.sender.interrupt();
+                    }
+                }
+            }
+        }
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /*
+     * Numbered and offered under one monitor: listeners committing concurrently can not enqueue an event
+     * ahead of an earlier numbered one. Offers never block, a full queue evicts its subscriber.
+     * */
+    private synchronized void publish(StatusEventDto event) {
+        event.setSequence(++sequence);
+        recent[(int) (event.getSequence() % recent.length)] = event;
+
+        for (Subscriber subscriber : subscribers.values()) {
+            if (!subscriber.matches(event)) {
+                continue;
+            }
+
+            if (subscriber.queue.offer(event)) {
+                schedule(subscriber);
+            } else {
+                evict(subscriber);
+            }
+        }
+    }
+
+    private synchronized List<StatusEventDto> replaySince(long lastEventId) {
+        List<StatusEventDto> events = new ArrayList<>();
+        long from = Math.max(Math.max(lastEventId + 1, sequence - recent.length + 1), 1);
+
+        for (long next = from; next <= sequence; next++) {
+            events.add(recent[(int) (next % recent.length)]);
+        }
+
+        return events;
+    }
+
+    private void evict(Subscriber subscriber) {
+        // the emitter is completed by a sender, completing it here could wait for a write to the slow client
+        if (subscribers.remove(subscriber.id) != null) {
+            subscriber.evicted = true;
+            subscriber.queue.clear();
+            evictions.increment();
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        synchronized (subscriber) {
+            subscriber.sender = Thread.currentThread();
+        }
+
+        try {
+            if (subscriber.evicted) {
+                subscriber.emitter.complete();
+                return;
+            }
+
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                send(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+
+            StatusEventDto event;
+            while (!subscriber.evicted && (event = subscriber.queue.poll()) != null) {
+                send(subscriber, SseEmitter.event()
+                        .id(String.valueOf(event.getSequence()))
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client is gone, or the write was interrupted by disconnectStalled
+            log.debug("Dropping subscriber {}", subscriber.id, e);
+            subscribers.remove(subscriber.id);
+            subscriber.evicted = true;
+            return;
+        } finally {
+            // an interrupt meant for this subscriber must not hit the next drain of the thread
+            synchronized (subscriber) {
+                subscriber.sender = null;
+                Thread.interrupted();
+            }
+            subscriber.scheduled.set(false);
+        }
+
+        // an event offered, or an eviction, after the last poll found the drain still scheduled
+        if (subscriber.evicted || !subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private static void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendingSince = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendingSince = 0;
+        }
+    }
+
+    // overridden by tests to see what is written
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+}
@@ -0,0 +1,84 @@
+package dev.sc.apm.util.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/*
+ * LRU of byte arrays copied into direct buffers, bounded by the total number of bytes rather than entries.
+ * The payload stays outside the heap, so a large cache adds nothing to GC marking;
+ * an evicted buffer is released by its cleaner once no reader holds it anymore.
+ * */
+public class OffHeapByteCache<K> {
+
+    private final long maxBytes;
+    private final LinkedHashMap<K, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long evictions;
+
+    public OffHeapByteCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /*
+     * Returns a read-only view with its own position, safe to hand to a concurrent writer
+     * */
+    public synchronized Optional<ByteBuffer> get(K key) {
+        ByteBuffer buffer = entries.get(key);
+        return buffer == null ? Optional.empty() : Optional.of(buffer.asReadOnlyBuffer());
+    }
+
+    public void put(K key, byte[] bytes) {
+        if (bytes.length > maxBytes) {
+            return;
+        }
+
+        // allocated and filled outside the monitor, allocateDirect zeroes the memory
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+
+        synchronized (this) {
+            ByteBuffer previous = entries.put(key, buffer);
+            if (previous != null) {
+                usedBytes -= previous.capacity();
+            }
+            usedBytes += buffer.capacity();
+
+            Iterator<Map.Entry<K, ByteBuffer>> eldest = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && eldest.hasNext()) {
+                usedBytes -= eldest.next().getValue().capacity();
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+
+    public synchronized void remove(K key) {
+        ByteBuffer removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.capacity();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
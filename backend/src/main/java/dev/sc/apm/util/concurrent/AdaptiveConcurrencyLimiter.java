@@ -0,0 +1,108 @@
+package dev.sc.apm.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Gradient concurrency limit: the limit follows minRtt / currentRtt, so it shrinks as soon as latency
+ * rises above the no-load baseline and grows by a small queue allowance while latency stays flat.
+ * Admission is a CAS on the in-flight counter; limit updates are serialized but happen once per sample.
+ * */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final long minRttWindowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    // guarded by this
+    private long minRttNanos = Long.MAX_VALUE;
+    private long minRttResetAt;
+    private double shortRttNanos;
+
+    public AdaptiveConcurrencyLimiter(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double rttTolerance,
+            double smoothing,
+            long minRttWindowNanos
+    ) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 0 < minLimit <= initialLimit <= maxLimit");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.minRttWindowNanos = minRttWindowNanos;
+        this.minRttResetAt = System.nanoTime() + minRttWindowNanos;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /*
+     * Releases a slot without using the request as a latency sample, e.g. for requests handed off to async processing
+     * */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long rttNanos) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtRelease);
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        long now = System.nanoTime();
+
+        // the baseline is re-probed periodically, otherwise a lucky early sample pins the limit forever
+        if (now - minRttResetAt >= 0) {
+            minRttNanos = Long.MAX_VALUE;
+            minRttResetAt = now + minRttWindowNanos;
+        }
+
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos * 0.9 + rttNanos * 0.1;
+
+        double current = limit;
+
+        // an under-used limit says nothing about capacity, do not grow it
+        if (inFlightAtRelease < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * minRttNanos / shortRttNanos));
+        double queueAllowance = Math.sqrt(current);
+        double target = current * gradient + queueAllowance;
+
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - smoothing) + target * smoothing));
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double minRttMillis() {
+        return minRttNanos == Long.MAX_VALUE ? 0 : minRttNanos / 1_000_000d;
+    }
+}
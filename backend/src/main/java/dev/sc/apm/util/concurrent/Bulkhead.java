@@ -0,0 +1,160 @@
+package dev.sc.apm.util.concurrent;
+
+import dev.sc.apm.exception.BulkheadFullException;
+import dev.sc.apm.exception.DeadlineExceededException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * Fixed thread pool with a bounded queue dedicated to one workload. Once threads and queue are taken,
+ * new work is handled by the rejection policy instead of piling up on the callers of other workloads.
+ * */
+public class Bulkhead {
+
+    public enum RejectionPolicy {
+        /*
+         * fail with BulkheadFullException
+         * */
+        ABORT,
+        /*
+         * run on the submitting thread, throttling the producer
+         * */
+        CALLER_RUNS,
+        /*
+         * drop the task, only meaningful for fire-and-forget work that is picked up again later
+         * */
+        DISCARD
+    }
+
+    private final Workload workload;
+    private final RejectionPolicy rejectionPolicy;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(Workload workload, int threads, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        this.workload = workload;
+        this.rejectionPolicy = rejectionPolicy;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(
+                            runnable,
+                            "bulkhead-" + workload.name().toLowerCase() + "-" + threadNumber.incrementAndGet()
+                    );
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /*
+     * Runs the action on the bulkhead and waits for its result, exceptions of the action are rethrown as is.
+     * The deadline of the caller travels with the action and bounds the wait.
+     * */
+    public <T> T execute(Supplier<T> action) {
+        Deadline deadline = DeadlineContext.current();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> runInWorkload(deadline, action));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+                return action.get();
+            }
+            throw new BulkheadFullException(workload);
+        }
+
+        try {
+            return deadline == null ? future.get() : future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // the statement in flight is cancelled on the server, interrupting the thread alone would not stop it
+            deadline.cancel();
+            future.cancel(true);
+            throw new DeadlineExceededException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + workload + " bulkhead", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /*
+     * Fire-and-forget variant, returns false when the task was dropped
+     * */
+    public boolean submit(Runnable task) {
+        try {
+            executor.execute(() -> runInWorkload(null, () -> {
+                task.run();
+                return null;
+            }));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            switch (rejectionPolicy) {
+                case CALLER_RUNS -> {
+                    task.run();
+                    return true;
+                }
+                case DISCARD -> {
+                    return false;
+                }
+                default -> throw new BulkheadFullException(workload);
+            }
+        }
+    }
+
+    private <T> T runInWorkload(Deadline deadline, Supplier<T> action) {
+        // work that waited in the queue past its deadline is dropped without touching the database
+        if (deadline != null) {
+            deadline.checkNotExpired();
+        }
+
+        WorkloadContext.set(workload);
+        DeadlineContext.set(deadline);
+        try {
+            return action.get();
+        } finally {
+            WorkloadContext.clear();
+            DeadlineContext.clear();
+        }
+    }
+
+    public Workload workload() {
+        return workload;
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    public int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
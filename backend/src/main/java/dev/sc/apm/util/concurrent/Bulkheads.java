@@ -0,0 +1,35 @@
+package dev.sc.apm.util.concurrent;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class Bulkheads {
+
+    private final Map<Workload, Bulkhead> bulkheads;
+
+    public Bulkheads(Map<Workload, Bulkhead> bulkheads) {
+        for (Workload workload : Workload.values()) {
+            if (!bulkheads.containsKey(workload)) {
+                throw new IllegalArgumentException("No bulkhead for workload " + workload);
+            }
+        }
+        this.bulkheads = new EnumMap<>(bulkheads);
+    }
+
+    public <T> T execute(Workload workload, Supplier<T> action) {
+        return bulkheads.get(workload).execute(action);
+    }
+
+    public boolean submit(Workload workload, Runnable task) {
+        return bulkheads.get(workload).submit(task);
+    }
+
+    public Bulkhead get(Workload workload) {
+        return bulkheads.get(workload);
+    }
+
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+}
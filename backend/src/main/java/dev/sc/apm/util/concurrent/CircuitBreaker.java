@@ -0,0 +1,182 @@
+package dev.sc.apm.util.concurrent;
+
+import java.util.function.BiConsumer;
+
+/*
+ * Count-based circuit breaker. Opens when the share of failed or slow calls in the last windowSize calls
+ * crosses a threshold, lets halfOpenPermits probe calls through after openDuration and closes again
+ * only if all of them succeed in time.
+ * */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenPermits;
+    private final BiConsumer<State, State> onTransition;
+
+    private volatile State state = State.CLOSED;
+
+    // guarded by this
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int halfOpenStarted;
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            double slowCallRateThreshold,
+            long slowCallNanos,
+            long openNanos,
+            int halfOpenPermits,
+            BiConsumer<State, State> onTransition
+    ) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenPermits = halfOpenPermits;
+        this.onTransition = onTransition;
+        this.outcomes = new byte[windowSize];
+    }
+
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (halfOpenStarted >= halfOpenPermits) {
+                    return false;
+                }
+                halfOpenStarted++;
+            }
+
+            return true;
+        }
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallNanos ? SLOW : SUCCESS);
+    }
+
+    public synchronized void onFailure() {
+        record(FAILURE);
+    }
+
+    /*
+     * The call ended without saying anything about the guarded service, e.g. the caller ran out of time:
+     * nothing is recorded, a half-open permit is given back for another probe
+     * */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenStarted > halfOpenSucceeded) {
+            halfOpenStarted--;
+        }
+    }
+
+    /*
+     * true while calls are still refused, does not take a half-open permit
+     * */
+    public synchronized boolean isRejecting() {
+        return state == State.OPEN && System.nanoTime() - openedAt < openNanos;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    private void record(byte outcome) {
+        switch (state) {
+            case OPEN -> {
+                // late result of a call admitted before the breaker opened
+            }
+            case HALF_OPEN -> {
+                if (outcome != SUCCESS) {
+                    transitionTo(State.OPEN);
+                } else if (++halfOpenSucceeded >= halfOpenPermits) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                if (recorded == windowSize) {
+                    forget(outcomes[next]);
+                } else {
+                    recorded++;
+                }
+
+                outcomes[next] = outcome;
+                next = (next + 1) % windowSize;
+
+                if (outcome == FAILURE) {
+                    failures++;
+                } else if (outcome == SLOW) {
+                    slowCalls++;
+                }
+
+                if (
+                        recorded >= minimumCalls && (
+                                (double) failures / recorded >= failureRateThreshold ||
+                                        (double) slowCalls / recorded >= slowCallRateThreshold
+                        )
+                ) {
+                    transitionTo(State.OPEN);
+                }
+            }
+        }
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == FAILURE) {
+            failures--;
+        } else if (outcome == SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        halfOpenStarted = 0;
+        halfOpenSucceeded = 0;
+
+        if (target == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+
+        state = target;
+        onTransition.accept(previous, target);
+    }
+}
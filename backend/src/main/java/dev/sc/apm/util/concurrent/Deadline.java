@@ -0,0 +1,57 @@
+package dev.sc.apm.util.concurrent;
+
+import dev.sc.apm.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Time budget of one request. Whoever runs a statement on behalf of the request registers a canceller,
+ * so the side waiting for the result can abort the statement once the budget is gone.
+ * */
+public final class Deadline {
+
+    private final long expiresAtNanos;
+    private final AtomicReference<Runnable> canceller = new AtomicReference<>();
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, remainingNanos() / 1_000_000);
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    public void checkNotExpired() {
+        if (isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    public void onCancel(Runnable canceller) {
+        this.canceller.set(canceller);
+    }
+
+    public void clearCanceller(Runnable canceller) {
+        this.canceller.compareAndSet(canceller, null);
+    }
+
+    public void cancel() {
+        Runnable current = canceller.getAndSet(null);
+        if (current != null) {
+            current.run();
+        }
+    }
+}
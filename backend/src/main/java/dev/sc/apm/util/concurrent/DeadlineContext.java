@@ -0,0 +1,35 @@
+package dev.sc.apm.util.concurrent;
+
+/*
+ * Deadline of the request served by the current thread, null when the work is not bound to a request
+ * */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void checkNotExpired() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.checkNotExpired();
+        }
+    }
+
+    public static void set(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,78 @@
+package dev.sc.apm.util.concurrent;
+
+import dev.sc.apm.exception.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+ * Collapses concurrent calls for the same key into one execution. The registry is a ConcurrentHashMap,
+ * so lookups are lock-free and registration only contends on the bin of the key itself.
+ * Nothing is cached: once the leader finishes the key is released and the next call executes again.
+ * Followers wait for the leader no longer than the deadline of their own request.
+ * */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    public Call<V> execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, own);
+
+        if (running != null) {
+            return new Call<>(await(running), true);
+        }
+
+        try {
+            V value = supplier.get();
+            own.complete(value);
+            return new Call<>(value, false);
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, own);
+        }
+    }
+
+    public int inFlight() {
+        return calls.size();
+    }
+
+    private V await(CompletableFuture<V> running) {
+        Deadline deadline = DeadlineContext.current();
+        if (deadline == null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw unwrap(e.getCause(), e);
+            }
+        }
+
+        try {
+            return running.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause(), new CompletionException(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a call in flight", e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause, RuntimeException otherwise) {
+        return cause instanceof RuntimeException runtime ? runtime : otherwise;
+    }
+
+    /*
+     * shared is true when the value was produced by another caller's execution
+     * */
+    public record Call<V>(V value, boolean shared) {
+    }
+}
@@ -0,0 +1,16 @@
+package dev.sc.apm.util.concurrent;
+
+public enum Workload {
+    /*
+     * list and search endpoints
+     * */
+    READ,
+    /*
+     * create and sign
+     * */
+    WRITE,
+    /*
+     * scoring of credit applications running outside of a request
+     * */
+    EVALUATION
+}
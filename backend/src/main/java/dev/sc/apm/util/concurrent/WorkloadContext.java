@@ -0,0 +1,26 @@
+package dev.sc.apm.util.concurrent;
+
+/*
+ * Workload of the current thread. Bulkhead threads carry their own workload, everything else
+ * (schedulers, migrations, tests) is treated as WRITE.
+ * */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : Workload.WRITE;
+    }
+
+    static void set(Workload workload) {
+        CURRENT.set(workload);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,82 @@
+package dev.sc.apm.util.converter;
+
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/*
+ * Protobuf for the API DTOs through jackson-dataformat-protobuf, callers fetch the schemas from /api/v1/schema/protobuf.
+ * Not to be confused with Spring's ProtobufHttpMessageConverter, which needs protoc-generated messages.
+ * */
+public class JacksonProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    private static final String DTO_PACKAGE = "dev.sc.apm.dto";
+
+    private final ProtobufSchemas schemas;
+    private final ProtobufMapper mapper;
+
+    public JacksonProtobufHttpMessageConverter(ProtobufSchemas schemas) {
+        super(APPLICATION_PROTOBUF, MediaType.parseMediaType("application/protobuf"));
+        this.schemas = schemas;
+        this.mapper = schemas.mapper();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz.getPackageName().equals(DTO_PACKAGE);
+    }
+
+    /*
+     * Sparse pages carry maps of the selected fields, which have no fixed schema
+     * */
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return !hasMapContent(type) && super.canWrite(type, clazz, mediaType);
+    }
+
+    private static boolean hasMapContent(Type type) {
+        if (type == null) {
+            return false;
+        }
+        Class<?> content = ResolvableType.forType(type).getGeneric(0).resolve();
+        return content != null && Map.class.isAssignableFrom(content);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Type schemaType = type != null ? type : value.getClass();
+        try {
+            mapper.writer(schemas.schemaFor(schemaType)).writeValue(outputMessage.getBody(), value);
+        } catch (UncheckedIOException e) {
+            throw new HttpMessageNotWritableException("No protobuf schema for " + schemaType, e.getCause());
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return mapper.readerFor(mapper.constructType(type))
+                    .with(schemas.schemaFor(type))
+                    .readValue(inputMessage.getBody());
+        } catch (UncheckedIOException | IOException e) {
+            throw new HttpMessageNotReadableException("Could not read protobuf " + type, e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+}
@@ -0,0 +1,42 @@
+package dev.sc.apm.util.converter;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * .proto schemas generated from the DTO classes on first use, so they can never drift from the JSON shape
+ * */
+public class ProtobufSchemas {
+
+    private final ProtobufMapper mapper;
+    private final Map<JavaType, ProtobufSchema> schemas = new ConcurrentHashMap<>();
+
+    public ProtobufSchemas(ProtobufMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public ProtobufMapper mapper() {
+        return mapper;
+    }
+
+    public ProtobufSchema schemaFor(Type type) {
+        return schemaFor(mapper.constructType(type));
+    }
+
+    public ProtobufSchema schemaFor(JavaType type) {
+        return schemas.computeIfAbsent(type, key -> {
+            try {
+                return mapper.generateSchemaFor(key);
+            } catch (JsonMappingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
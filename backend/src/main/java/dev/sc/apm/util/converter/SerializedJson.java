@@ -0,0 +1,38 @@
+package dev.sc.apm.util.converter;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/*
+ * Response body that is already JSON, written as is by SerializedJsonHttpMessageConverter
+ * */
+public record SerializedJson(ByteBuffer body) {
+
+    /*
+     * Pre-serialized bodies are only JSON, anything preferring another representation goes the usual way
+     * */
+    public static boolean isAcceptedBy(String acceptHeader) {
+        if (acceptHeader == null || acceptHeader.isBlank()) {
+            return true;
+        }
+
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(acceptHeader);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+
+        double preferred = mediaTypes.stream()
+                .mapToDouble(MediaType::getQualityValue)
+                .max()
+                .orElse(0);
+
+        return mediaTypes.stream()
+                .filter(mediaType -> mediaType.getQualityValue() == preferred)
+                .anyMatch(mediaType -> mediaType.includes(MediaType.APPLICATION_JSON));
+    }
+}
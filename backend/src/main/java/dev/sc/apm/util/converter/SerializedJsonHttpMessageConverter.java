@@ -0,0 +1,48 @@
+package dev.sc.apm.util.converter;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+public class SerializedJsonHttpMessageConverter extends AbstractHttpMessageConverter<SerializedJson> {
+
+    public SerializedJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SerializedJson.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SerializedJson readInternal(Class<? extends SerializedJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Serialized JSON is write only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(SerializedJson serializedJson, MediaType contentType) {
+        return (long) serializedJson.body().remaining();
+    }
+
+    @Override
+    protected void writeInternal(SerializedJson serializedJson, HttpOutputMessage outputMessage) throws IOException {
+        ByteBuffer body = serializedJson.body().duplicate();
+        WritableByteChannel channel = Channels.newChannel(outputMessage.getBody());
+        while (body.hasRemaining()) {
+            channel.write(body);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package dev.sc.apm.util.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token bucket kept as a single "theoretical arrival time" (GCRA), so acquire is one CAS on an AtomicLong
+ * and the bucket refills implicitly with time. Times are System.nanoTime() values.
+ * */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /*
+     * Returns 0 when a permit was taken, otherwise the nanos to wait until one is available
+     * */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long excess = next - nowNanos - burstToleranceNanos;
+
+            if (excess > 0) {
+                return excess;
+            }
+
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /*
+     * Gives back a permit taken by tryAcquire, when the request is rejected by another limit after all
+     * */
+    public void release() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+
+    public double availablePermits(long nowNanos) {
+        long backlog = Math.max(theoreticalArrival.get() - nowNanos, 0);
+        return Math.max(0, (double) (burstToleranceNanos - backlog) / emissionIntervalNanos);
+    }
+
+    /*
+     * A full bucket carries no state, dropping it and creating a new one later is equivalent
+     * */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
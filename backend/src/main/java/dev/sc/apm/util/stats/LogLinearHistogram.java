@@ -0,0 +1,72 @@
+package dev.sc.apm.util.stats;
+
+/*
+ * Bucket layout of HDR-style histograms: values below 16 get a bucket each, above that every power of two
+ * is split into 16 buckets of equal width, so a bucket is at most 1/16 of its values wide. Values of 2^41
+ * and more fall into the last bucket. The counts live in the caller's arrays, recording allocates nothing.
+ * */
+public final class LogLinearHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+
+    public static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private LogLinearHistogram() {
+    }
+
+    public static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0);
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+
+        int sub = (int) (value >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /*
+     * Largest value of the bucket
+     * */
+    public static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+
+        return (SUB_BUCKETS + sub) * width + width - 1;
+    }
+
+    /*
+     * Upper bound of the bucket holding the value at the quantile (0 < quantile <= 1), -1 without values
+     * */
+    public static long valueAt(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+
+        if (total == 0) {
+            return -1;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+
+        return upperBound(counts.length - 1);
+    }
+}
@@ -0,0 +1,141 @@
+package dev.sc.apm.util.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Counters and histograms over a rolling window: a ring of time slots, each with LongAdder counters and
+ * log-linear histograms in AtomicLongArrays. Recording takes no lock and allocates nothing; reading merges
+ * the slots still inside the window.
+ *
+ * A slot is reused once the ring comes round to it: the first recorder to see it stale claims it,
+ * clears it and opens it for its time slot. Recorders arriving meanwhile spin until it is open, once per
+ * slot and for the few microseconds the clear takes, rather than count into a slot about to be cleared.
+ * */
+public final class RollingRecorder {
+
+    private static final long CLAIMED = Long.MIN_VALUE;
+
+    public record Snapshot(long spanMillis, long[] counters, long[][] histograms) {
+    }
+
+    private static final class Slot {
+        // index of the time slot the counts belong to, CLAIMED while cleared
+        final AtomicLong epoch = new AtomicLong(-1);
+        final LongAdder[] counters;
+        final AtomicLongArray[] histograms;
+
+        Slot(int counters, int histograms) {
+            this.counters = new LongAdder[counters];
+            for (int i = 0; i < counters; i++) {
+                this.counters[i] = new LongAdder();
+            }
+            this.histograms = new AtomicLongArray[histograms];
+            for (int i = 0; i < histograms; i++) {
+                this.histograms[i] = new AtomicLongArray(LogLinearHistogram.BUCKETS);
+            }
+        }
+
+        void clear() {
+            for (LongAdder counter : counters) {
+                counter.reset();
+            }
+            for (AtomicLongArray histogram : histograms) {
+                for (int i = 0; i < histogram.length(); i++) {
+                    histogram.set(i, 0);
+                }
+            }
+        }
+    }
+
+    private final long resolutionMillis;
+    private final Slot[] slots;
+    private final int counters;
+    private final int histograms;
+
+    public RollingRecorder(long resolutionMillis, int slots, int counters, int histograms) {
+        if (resolutionMillis <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("Resolution and slots must be positive: " + resolutionMillis + ", " + slots);
+        }
+
+        this.resolutionMillis = resolutionMillis;
+        this.counters = counters;
+        this.histograms = histograms;
+        this.slots = new Slot[slots];
+        for (int i = 0; i < slots; i++) {
+            this.slots[i] = new Slot(counters, histograms);
+        }
+    }
+
+    public long spanMillis() {
+        return resolutionMillis * slots.length;
+    }
+
+    public void increment(int counter, long nowMillis) {
+        Slot slot = slot(nowMillis);
+        if (slot != null) {
+            slot.counters[counter].increment();
+        }
+    }
+
+    public void record(int histogram, long value, long nowMillis) {
+        Slot slot = slot(nowMillis);
+        if (slot != null) {
+            slot.histograms[histogram].incrementAndGet(LogLinearHistogram.index(value));
+        }
+    }
+
+    /*
+     * Sums of the slots inside the window ending now; the span is the time they cover,
+     * the current slot counting only as far as it has run
+     * */
+    public Snapshot snapshot(long nowMillis) {
+        long current = nowMillis / resolutionMillis;
+        long[] counterSums = new long[counters];
+        long[][] histogramSums = new long[histograms][LogLinearHistogram.BUCKETS];
+
+        for (Slot slot : slots) {
+            long epoch = slot.epoch.get();
+            if (epoch == CLAIMED || epoch <= current - slots.length || epoch > current) {
+                continue;
+            }
+
+            for (int c = 0; c < counters; c++) {
+                counterSums[c] += slot.counters[c].sum();
+            }
+            for (int h = 0; h < histograms; h++) {
+                AtomicLongArray histogram = slot.histograms[h];
+                for (int i = 0; i < LogLinearHistogram.BUCKETS; i++) {
+                    histogramSums[h][i] += histogram.get(i);
+                }
+            }
+        }
+
+        long span = (slots.length - 1) * resolutionMillis + nowMillis % resolutionMillis + 1;
+        return new Snapshot(span, counterSums, histogramSums);
+    }
+
+    // null if the sample is older than the slot, its time slot is gone already
+    private Slot slot(long nowMillis) {
+        long target = nowMillis / resolutionMillis;
+        Slot slot = slots[(int) (target % slots.length)];
+
+        while (true) {
+            long epoch = slot.epoch.get();
+            if (epoch == target) {
+                return slot;
+            }
+
+            if (epoch == CLAIMED) {
+                Thread.onSpinWait();
+            } else if (epoch > target) {
+                return null;
+            } else if (slot.epoch.compareAndSet(epoch, CLAIMED)) {
+                slot.clear();
+                slot.epoch.set(target);
+                return slot;
+            }
+        }
+    }
+}
@@ -20,6 +20,9 @@ public class AMPServiceValidator {
     private final String PHONE_PATTERN;
     private final int PASSPORT_LENGTH;
     private final String PASSPORT_PATTERN;
+    private final String NAME_SEARCH_PATTERN;
+    private final String PHONE_SEARCH_PATTERN;
+    private final String PASSPORT_SEARCH_PATTERN;
 
     public AMPServiceValidator(
             int maxNameLength,
@@ -27,7 +30,10 @@ public class AMPServiceValidator {
             int phoneLength,
             String phonePattern,
             int passportLength,
-            String passportPattern
+            String passportPattern,
+            String nameSearchPattern,
+            String phoneSearchPattern,
+            String passportSearchPattern
     ) {
         MAX_NAME_LENGTH = maxNameLength;
         NAME_PATTERN = namePattern;
@@ -35,13 +41,22 @@ public class AMPServiceValidator {
         PHONE_PATTERN = phonePattern;
         PASSPORT_LENGTH = passportLength;
         PASSPORT_PATTERN = passportPattern;
+        NAME_SEARCH_PATTERN = nameSearchPattern;
+        PHONE_SEARCH_PATTERN = phoneSearchPattern;
+        PASSPORT_SEARCH_PATTERN = passportSearchPattern;
     }
 
     public Optional<GroupValidationException> validateFindClientRequestDto(FindClientsRequestDto dto) {
         List<ValidationException> exps = new ArrayList<>();
 
+        // search terms of non exact matches may be lower case or partial
+        boolean exact = dto.getMatch() == null || dto.getMatch() == FindClientsRequestDto.Match.EXACT;
+        String namePattern = exact ? NAME_PATTERN : NAME_SEARCH_PATTERN;
+        String phonePattern = exact ? PHONE_PATTERN : PHONE_SEARCH_PATTERN;
+        String passportPattern = exact ? PASSPORT_PATTERN : PASSPORT_SEARCH_PATTERN;
+
         if (dto.getFirstName() != null) {
-            Optional<ValidationException> nameValidation = validateName(dto.getFirstName());
+            Optional<ValidationException> nameValidation = validateName(dto.getFirstName(), namePattern);
             if (nameValidation.isPresent()) {
                 nameValidation.get().setExpName(ExceptionName.INVALID_FIRST_NAME);
                 exps.add(nameValidation.get());
@@ -49,7 +64,7 @@ public class AMPServiceValidator {
         }
 
         if (dto.getLastName() != null) {
-            Optional<ValidationException> nameValidation = validateName(dto.getLastName());
+            Optional<ValidationException> nameValidation = validateName(dto.getLastName(), namePattern);
             if (nameValidation.isPresent()) {
                 nameValidation.get().setExpName(ExceptionName.INVALID_LAST_NAME);
                 exps.add(nameValidation.get());
@@ -57,7 +72,7 @@ public class AMPServiceValidator {
         }
 
         if (dto.getMiddleName() != null) {
-            Optional<ValidationException> nameValidation = validateName(dto.getMiddleName());
+            Optional<ValidationException> nameValidation = validateName(dto.getMiddleName(), namePattern);
             if (nameValidation.isPresent()) {
                 nameValidation.get().setExpName(ExceptionName.INVALID_MIDDLE_NAME);
                 exps.add(nameValidation.get());
@@ -65,12 +80,12 @@ public class AMPServiceValidator {
         }
 
         if (dto.getPhone() != null) {
-            Optional<ValidationException> phoneValidation = validatePhone(dto.getPhone());
+            Optional<ValidationException> phoneValidation = validatePhone(dto.getPhone(), phonePattern);
             phoneValidation.ifPresent(exps::add);
         }
 
         if (dto.getPassport() != null) {
-            Optional<ValidationException> passportValidation = validatePassport(dto.getPassport());
+            Optional<ValidationException> passportValidation = validatePassport(dto.getPassport(), passportPattern);
             passportValidation.ifPresent(exps::add);
         }
 
@@ -82,6 +97,10 @@ public class AMPServiceValidator {
     }
 
     public Optional<ValidationException> validateName(String name) {
+        return validateName(name, NAME_PATTERN);
+    }
+
+    private Optional<ValidationException> validateName(String name, String namePattern) {
         String nameRule = "The name must not contain white space or/and numbers. " +
                 "Its length must be greater than 0 and less than " + MAX_NAME_LENGTH + "characters.";
 
@@ -89,7 +108,7 @@ public class AMPServiceValidator {
             return Optional.of(new ValidationException(name));
         }
 
-        boolean allCharactersAreValid = name.matches(NAME_PATTERN);
+        boolean allCharactersAreValid = name.matches(namePattern);
         if (!allCharactersAreValid) {
             return Optional.of(new ValidationException(nameRule));
         }
@@ -98,6 +117,10 @@ public class AMPServiceValidator {
     }
 
     public Optional<ValidationException> validatePhone(String phone) {
+        return validatePhone(phone, PHONE_PATTERN);
+    }
+
+    private Optional<ValidationException> validatePhone(String phone, String phonePattern) {
         String phoneRule = "The phone must contain only numbers, spaces, hyphens, plus signs, and parentheses. " +
                 "Its length must be equals " + PHONE_LENGTH + "characters.";
 
@@ -105,7 +128,7 @@ public class AMPServiceValidator {
             return Optional.of(new ValidationException(phoneRule, ExceptionName.INVALID_PHONE));
         }
 
-        boolean allCharactersAreValid = phone.matches(PHONE_PATTERN);
+        boolean allCharactersAreValid = phone.matches(phonePattern);
 
         if (!allCharactersAreValid) {
             return Optional.of(new ValidationException(phoneRule, ExceptionName.INVALID_PHONE));
@@ -115,6 +138,10 @@ public class AMPServiceValidator {
     }
 
     public Optional<ValidationException> validatePassport(String passport) {
+        return validatePassport(passport, PASSPORT_PATTERN);
+    }
+
+    private Optional<ValidationException> validatePassport(String passport, String passportPattern) {
         String passportRule = "The passport must contain only numbers. " +
                 "Its length must be equals " + PASSPORT_LENGTH + "characters.";
 
@@ -122,7 +149,7 @@ public class AMPServiceValidator {
             return Optional.of(new ValidationException(passportRule, ExceptionName.INVALID_PASSPORT));
         }
 
-        boolean allCharactersAreValid = Pattern.matches(PASSPORT_PATTERN, passport);
+        boolean allCharactersAreValid = Pattern.matches(passportPattern, passport);
 
         if (!allCharactersAreValid) {
             return Optional.of(new ValidationException(passportRule, ExceptionName.INVALID_PASSPORT));
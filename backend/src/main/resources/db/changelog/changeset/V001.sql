@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS idempotency_record
+(
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    request_hash    VARCHAR(64) NOT NULL, -- SHA-256, hex
+    response_body   TEXT        NOT NULL,
+    expires_at      timestamptz NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_record_expires_at ON idempotency_record (expires_at);
@@ -0,0 +1,3 @@
+ALTER TABLE credit_application ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE credit_agreement ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
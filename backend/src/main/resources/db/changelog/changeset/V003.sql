@@ -0,0 +1,38 @@
+--liquibase formatted sql
+
+--changeset apm:V003-change-log
+CREATE TABLE IF NOT EXISTS change_log
+(
+    id         BIGINT PRIMARY KEY GENERATED ALWAYS AS IDENTITY,
+    txid       xid8        NOT NULL DEFAULT pg_current_xact_id(),
+    table_name VARCHAR(32) NOT NULL,
+    row_id     BIGINT      NOT NULL,
+    operation  VARCHAR(6)  NOT NULL, -- INSERT, UPDATE, DELETE
+    changed_at timestamptz NOT NULL DEFAULT now()
+);
+
+-- feed reads are range scans after (txid, id) of the resume token
+CREATE INDEX IF NOT EXISTS idx_change_log_txid_id ON change_log (txid, id);
+
+--changeset apm:V003-log-change splitStatements:false
+CREATE OR REPLACE FUNCTION log_change() RETURNS trigger AS
+$$
+BEGIN
+    INSERT INTO change_log (table_name, row_id, operation)
+    VALUES (TG_TABLE_NAME, CASE WHEN TG_OP = 'DELETE' THEN OLD.id ELSE NEW.id END, TG_OP);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset apm:V003-change-log-triggers
+CREATE TRIGGER client_change_log
+    AFTER INSERT OR UPDATE OR DELETE ON client
+    FOR EACH ROW EXECUTE FUNCTION log_change();
+
+CREATE TRIGGER credit_application_change_log
+    AFTER INSERT OR UPDATE OR DELETE ON credit_application
+    FOR EACH ROW EXECUTE FUNCTION log_change();
+
+CREATE TRIGGER credit_agreement_change_log
+    AFTER INSERT OR UPDATE OR DELETE ON credit_agreement
+    FOR EACH ROW EXECUTE FUNCTION log_change();
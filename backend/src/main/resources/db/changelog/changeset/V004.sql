@@ -0,0 +1,21 @@
+--liquibase formatted sql
+
+--changeset apm:V004-pg-trgm
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+--changeset apm:V004-client-search-indexes runInTransaction:false
+-- built concurrently, client stays writable while the indexes are built
+
+-- IGNORE_CASE and PREFIX: lower(name) = 'x' / lower(name) LIKE 'x%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_first_name_lower ON client (lower(first_name) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_last_name_lower ON client (lower(last_name) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_middle_name_lower ON client (lower(middle_name) text_pattern_ops);
+
+-- PREFIX and FUZZY on the numbers: phone LIKE 'x%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_phone_prefix ON client (phone text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_passport_prefix ON client (passport text_pattern_ops);
+
+-- FUZZY: lower(name) % 'x'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_first_name_trgm ON client USING gin (lower(first_name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_last_name_trgm ON client USING gin (lower(last_name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_middle_name_trgm ON client USING gin (lower(middle_name) gin_trgm_ops);
@@ -0,0 +1,16 @@
+--liquibase formatted sql
+
+--changeset apm:V005-list-filter-indexes runInTransaction:false
+-- built concurrently, the tables stay writable while the indexes are built
+
+-- created_at ranges: applications are appended in created_at order, a block range index stays tiny
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_credit_application_created_at_brin ON credit_application USING brin (created_at);
+
+-- signed_at ranges: signed_at is set by later UPDATEs, not in append order, so a btree, ending with the id of the sort
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_credit_agreement_signed_at ON credit_agreement (signed_at, id);
+
+-- equality filters followed by the sort keys, the id ends every sort
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_credit_application_client_created_at ON credit_application (client_id, created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_credit_application_status_created_at ON credit_application (status, created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_credit_application_requested_amount ON credit_application (requested_amount, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_credit_agreement_status_signed_at ON credit_agreement (signing_status, signed_at, id);
@@ -0,0 +1,86 @@
+--liquibase formatted sql
+
+--changeset apm:V006-status-count
+-- exact row counts and approved amounts per status, kept by triggers in the writing transaction.
+-- Each key is spread over 16 stripes chosen by backend, so concurrent writers rarely wait on the same row;
+-- a read sums a fixed number of rows whatever the size of the tables.
+CREATE TABLE IF NOT EXISTS status_count
+(
+    table_name      VARCHAR(32)    NOT NULL,
+    status          VARCHAR(20)    NOT NULL,
+    stripe          SMALLINT       NOT NULL,
+    row_count       BIGINT         NOT NULL DEFAULT 0,
+    approved_amount NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (table_name, status, stripe)
+);
+
+--changeset apm:V006-count-status splitStatements:false
+CREATE OR REPLACE FUNCTION add_status_count(counted_table VARCHAR, counted_status VARCHAR, row_delta BIGINT, amount_delta NUMERIC)
+    RETURNS void AS
+$$
+BEGIN
+    INSERT INTO status_count AS c (table_name, status, stripe, row_count, approved_amount)
+    VALUES (counted_table, counted_status, pg_backend_pid() % 16, row_delta, amount_delta)
+    ON CONFLICT (table_name, status, stripe) DO UPDATE
+        SET row_count       = c.row_count + EXCLUDED.row_count,
+            approved_amount = c.approved_amount + EXCLUDED.approved_amount;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION count_credit_application() RETURNS trigger AS
+$$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM add_status_count(TG_TABLE_NAME, OLD.status, -1, -coalesce(OLD.approved_amount, 0));
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        PERFORM add_status_count(TG_TABLE_NAME, NEW.status, 1, coalesce(NEW.approved_amount, 0));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION count_credit_agreement() RETURNS trigger AS
+$$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM add_status_count(TG_TABLE_NAME, OLD.signing_status, -1, 0);
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        PERFORM add_status_count(TG_TABLE_NAME, NEW.signing_status, 1, 0);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset apm:V006-status-count-triggers
+-- the triggers lock the tables against writes until this changeset commits, the initial counts are exact
+CREATE TRIGGER credit_application_count
+    AFTER INSERT OR DELETE ON credit_application
+    FOR EACH ROW EXECUTE FUNCTION count_credit_application();
+
+CREATE TRIGGER credit_application_count_update
+    AFTER UPDATE OF status, approved_amount ON credit_application
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status OR OLD.approved_amount IS DISTINCT FROM NEW.approved_amount)
+    EXECUTE FUNCTION count_credit_application();
+
+CREATE TRIGGER credit_agreement_count
+    AFTER INSERT OR DELETE ON credit_agreement
+    FOR EACH ROW EXECUTE FUNCTION count_credit_agreement();
+
+CREATE TRIGGER credit_agreement_count_update
+    AFTER UPDATE OF signing_status ON credit_agreement
+    FOR EACH ROW
+    WHEN (OLD.signing_status IS DISTINCT FROM NEW.signing_status)
+    EXECUTE FUNCTION count_credit_agreement();
+
+INSERT INTO status_count (table_name, status, stripe, row_count, approved_amount)
+SELECT 'credit_application', status, 0, count(*), coalesce(sum(approved_amount), 0)
+FROM credit_application
+GROUP BY status;
+
+INSERT INTO status_count (table_name, status, stripe, row_count, approved_amount)
+SELECT 'credit_agreement', signing_status, 0, count(*), 0
+FROM credit_agreement
+GROUP BY signing_status;
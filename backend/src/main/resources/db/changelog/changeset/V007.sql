@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset apm:V007-daily-credit-stats
+-- figures by UTC day of creation of the applications, refreshed by DailyStatsService once the change log has moved.
+-- Same aggregate as DailyStatsRepository.DAILY_AGGREGATE, which LIVE computes over the tables.
+CREATE MATERIALIZED VIEW IF NOT EXISTS daily_credit_stats AS
+SELECT CAST(a.created_at AT TIME ZONE 'UTC' AS date)                           AS day,
+       count(*)                                                                 AS applications,
+       count(*) FILTER (WHERE a.status = 'APPROVED')                            AS approved,
+       count(*) FILTER (WHERE a.status = 'REJECTED')                            AS rejected,
+       coalesce(sum(a.approved_amount) FILTER (WHERE a.status = 'APPROVED'), 0) AS approved_amount,
+       coalesce(sum(a.approved_term) FILTER (WHERE a.status = 'APPROVED'), 0)   AS approved_term,
+       count(g.id) FILTER (WHERE g.signing_status = 'SIGNED')                   AS signed
+FROM credit_application a
+         LEFT JOIN credit_agreement g ON g.credit_application_id = a.id
+GROUP BY 1;
+
+-- REFRESH ... CONCURRENTLY needs a unique index, readers are not blocked while it runs
+CREATE UNIQUE INDEX IF NOT EXISTS idx_daily_credit_stats_day ON daily_credit_stats (day);
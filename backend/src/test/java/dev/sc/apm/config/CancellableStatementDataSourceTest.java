@@ -0,0 +1,101 @@
+package dev.sc.apm.config;
+
+import dev.sc.apm.util.concurrent.Deadline;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CancellableStatementDataSourceTest {
+
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    private CancellableStatementDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        dataSource = new CancellableStatementDataSource(target);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    // Test 1 the deadline is cancelled while a statement executes
+    // Expected: that statement is cancelled
+    @Test
+    public void statementInFlightIsCancelled() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statement.execute()).thenAnswer(invocation -> {
+            executing.countDown();
+            release.await();
+            return true;
+        });
+
+        Deadline deadline = Deadline.after(Duration.ofSeconds(10));
+        CompletableFuture<Boolean> executed = CompletableFuture.supplyAsync(() -> {
+            DeadlineContext.set(deadline);
+            try (PreparedStatement prepared = dataSource.getConnection().prepareStatement("SELECT 1")) {
+                return prepared.execute();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                DeadlineContext.clear();
+            }
+        });
+
+        assertTrue(executing.await(10, TimeUnit.SECONDS));
+        deadline.cancel();
+        release.countDown();
+
+        assertTrue(executed.get(10, TimeUnit.SECONDS));
+        verify(statement).cancel();
+    }
+
+    // Test 2 the deadline is cancelled after the statement executed
+    // Expected: nothing is cancelled
+    @Test
+    public void finishedStatementIsNotCancelled() throws SQLException {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(10));
+        DeadlineContext.set(deadline);
+
+        PreparedStatement prepared = dataSource.getConnection().prepareStatement("SELECT 1");
+        prepared.execute();
+        deadline.cancel();
+
+        verify(statement).execute();
+        verify(statement, never()).cancel();
+    }
+
+    // Test 3 a statement is handed out twice by the same proxy
+    // Expected: a statement equals only itself, as Hibernate expects of the statements it tracks
+    @Test
+    public void statementsKeepTheirIdentity() throws SQLException {
+        Connection proxy = dataSource.getConnection();
+        PreparedStatement first = proxy.prepareStatement("SELECT 1");
+        PreparedStatement second = proxy.prepareStatement("SELECT 1");
+
+        assertEquals(first, first);
+        assertNotEquals(first, second);
+        assertNotEquals(statement, first);
+    }
+}
@@ -7,6 +7,9 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.file.Path;
+import java.util.UUID;
+
 @Testcontainers
 public class TestContainerConfig {
     @Container
@@ -25,7 +28,12 @@ public class TestContainerConfig {
             TestPropertyValues.of(
                             "spring.datasource.url=" + postgresContainer.getJdbcUrl(),
                             "spring.datasource.username=" + postgresContainer.getUsername(),
-                            "spring.datasource.password=" + postgresContainer.getPassword()
+                            "spring.datasource.password=" + postgresContainer.getPassword(),
+                            // every cached test context gets its own in-process gRPC server instead of port 9090
+                            "grpc.server.port=-1",
+                            "grpc.server.in-process-name=apm-" + UUID.randomUUID(),
+                            // and its own search index, the index directory is locked by its writer
+                            "apm.search.directory=" + Path.of(System.getProperty("java.io.tmpdir"), "apm-search-" + UUID.randomUUID())
                     )
                     .applyTo(configurableApplicationContext.getEnvironment());
         }
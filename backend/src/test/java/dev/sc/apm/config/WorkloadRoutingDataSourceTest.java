@@ -0,0 +1,98 @@
+package dev.sc.apm.config;
+
+import dev.sc.apm.util.concurrent.Bulkhead;
+import dev.sc.apm.util.concurrent.Workload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class WorkloadRoutingDataSourceTest {
+
+    private final Map<Workload, DataSource> partitions = new EnumMap<>(Workload.class);
+    private final Map<Workload, Connection> connections = new EnumMap<>(Workload.class);
+    private final Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+    private WorkloadRoutingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        for (Workload workload : Workload.values()) {
+            DataSource partition = mock(DataSource.class);
+            Connection connection = mock(Connection.class);
+            when(partition.getConnection()).thenReturn(connection);
+
+            partitions.put(workload, partition);
+            connections.put(workload, connection);
+            bulkheads.put(workload, new Bulkhead(workload, 4, 4, Bulkhead.RejectionPolicy.ABORT));
+        }
+
+        dataSource = new WorkloadRoutingDataSource();
+        dataSource.setTargetDataSources(new HashMap<>(partitions));
+        dataSource.setDefaultTargetDataSource(partitions.get(Workload.WRITE));
+        dataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+
+    private Connection connect() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Test 1 a connection is asked for on each bulkhead and outside of them
+    // Expected: each workload gets a connection of its own partition, threads outside bulkheads the write one
+    @Test
+    public void connectionsComeFromThePartitionOfTheWorkload() {
+        for (Workload workload : Workload.values()) {
+            assertSame(connections.get(workload), bulkheads.get(workload).execute(this::connect));
+        }
+
+        assertSame(connections.get(Workload.WRITE), connect());
+    }
+
+    // Test 2 the read partition is exhausted, every read thread waits for a connection
+    // Expected: writes still get their connections, the read partition is not asked on their behalf
+    @Test
+    public void exhaustedReadPartitionDoesNotBlockWrites() throws Exception {
+        CountDownLatch waiting = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        when(partitions.get(Workload.READ).getConnection()).thenAnswer(invocation -> {
+            waiting.countDown();
+            release.await();
+            return connections.get(Workload.READ);
+        });
+
+        Bulkhead reads = bulkheads.get(Workload.READ);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(reads.submit(this::connect));
+        }
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(connections.get(Workload.WRITE), bulkheads.get(Workload.WRITE).execute(this::connect));
+        }
+
+        verify(partitions.get(Workload.READ), times(4)).getConnection();
+        verify(partitions.get(Workload.WRITE), times(10)).getConnection();
+
+        release.countDown();
+    }
+}
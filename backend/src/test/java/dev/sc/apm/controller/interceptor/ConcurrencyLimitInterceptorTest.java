@@ -0,0 +1,78 @@
+package dev.sc.apm.controller.interceptor;
+
+import dev.sc.apm.config.ConcurrencyLimitProperties;
+import dev.sc.apm.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+    private ConcurrencyLimitInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setRead(new ConcurrencyLimitProperties.Limit(1, 1, 10));
+
+        registry = new SimpleMeterRegistry();
+        interceptor = new ConcurrencyLimitInterceptor(properties, registry);
+    }
+
+    private MockHttpServletRequest start() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/credit-application/1");
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        return request;
+    }
+
+    private void complete(MockHttpServletRequest request, int status, Exception ex) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(status);
+        interceptor.afterCompletion(request, response, null, ex);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).tag("workload", "read").gauge().value();
+    }
+
+    // Test 1 requests answered with 304, 400, 503 or an exception
+    // Expected: each gives its slot back, none is a latency sample
+    @Test
+    public void unsuccessfulRequestsAreNotSampled() {
+        complete(start(), 304, null);
+        complete(start(), 400, null);
+        complete(start(), 503, null);
+        complete(start(), 200, new IllegalStateException("failed"));
+
+        assertEquals(0.0, gauge("apm.concurrency.in_flight"));
+        assertEquals(0.0, gauge("apm.concurrency.min_rtt"));
+    }
+
+    // Test 2 a request answered with 200
+    // Expected: its latency is sampled
+    @Test
+    public void successfulRequestsAreSampled() {
+        complete(start(), 200, null);
+
+        assertEquals(0.0, gauge("apm.concurrency.in_flight"));
+        assertTrue(gauge("apm.concurrency.min_rtt") > 0);
+    }
+
+    // Test 3 a second read arrives while the only slot is held
+    // Expected: rejected, admitted again once the first completes
+    @Test
+    public void slotIsReleasedOnCompletion() {
+        MockHttpServletRequest first = start();
+
+        assertThrows(RateLimitExceededException.class, this::start);
+
+        complete(first, 304, null);
+        complete(start(), 200, null);
+        assertEquals(0.0, gauge("apm.concurrency.in_flight"));
+    }
+}
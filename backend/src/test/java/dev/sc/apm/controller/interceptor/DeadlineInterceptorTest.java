@@ -0,0 +1,102 @@
+package dev.sc.apm.controller.interceptor;
+
+import dev.sc.apm.config.DeadlineProperties;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeadlineInterceptorTest {
+
+    private static final String LIST = "/api/v1/credit-application/list";
+    private static final String DETAIL = "/api/v1/credit-application/1";
+
+    private DeadlineProperties properties;
+    private DeadlineInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new DeadlineProperties();
+        properties.setDefaultTimeout(Duration.ofSeconds(10));
+        properties.setMaxTimeout(Duration.ofSeconds(60));
+        properties.getEndpoints().put("/api/v1/credit-application/list*", Duration.ofSeconds(3));
+
+        interceptor = new DeadlineInterceptor(properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    // the budget the request was given, in ms; the deadline is a few ms old when read
+    private long budget(String path, String header) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (header != null) {
+            request.addHeader(properties.getHeader(), header);
+        }
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        return DeadlineContext.current().remainingMillis();
+    }
+
+    private static void assertBudget(long expectedMillis, long actualMillis) {
+        assertTrue(actualMillis <= expectedMillis && actualMillis > expectedMillis - 1_000,
+                "expected about " + expectedMillis + " ms, got " + actualMillis);
+    }
+
+    // Test 1 no header
+    // Expected: the budget of the matching endpoint, the default elsewhere
+    @Test
+    public void endpointBudget() {
+        assertBudget(3_000, budget(LIST, null));
+        assertBudget(10_000, budget(DETAIL, null));
+    }
+
+    // Test 2 the header asks for less than the endpoint allows
+    // Expected: the shorter budget
+    @Test
+    public void headerShortensTheBudget() {
+        assertBudget(1_500, budget(LIST, "1500"));
+        assertBudget(2_000, budget(DETAIL, " 2000 "));
+    }
+
+    // Test 3 the header asks for more than the endpoint allows
+    // Expected: the endpoint budget, a client can not raise it
+    @Test
+    public void headerCanNotRaiseTheBudget() {
+        assertBudget(3_000, budget(LIST, "60000"));
+        assertBudget(10_000, budget(DETAIL, "30000"));
+    }
+
+    // Test 4 malformed, zero and negative headers
+    // Expected: malformed ones are ignored, others are at least one millisecond
+    @Test
+    public void malformedHeader() {
+        assertBudget(3_000, budget(LIST, "soon"));
+        assertBudget(3_000, budget(LIST, ""));
+        assertTrue(budget(LIST, "0") <= 1);
+        assertTrue(budget(LIST, "-5") <= 1);
+    }
+
+    // Test 5 deadlines are disabled; a request completes
+    // Expected: no deadline is bound; the completed request leaves none behind
+    @Test
+    public void disabledAndCleared() {
+        properties.setEnabled(false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", LIST);
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        assertNull(DeadlineContext.current());
+
+        properties.setEnabled(true);
+        budget(LIST, null);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertNull(DeadlineContext.current());
+    }
+}
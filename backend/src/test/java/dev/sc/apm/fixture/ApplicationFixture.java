@@ -0,0 +1,63 @@
+package dev.sc.apm.fixture;
+
+import dev.sc.apm.dto.CreditApplicantDto;
+import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.CreditApplicationRequestDto;
+import dev.sc.apm.entity.MaritalStatus;
+import dev.sc.apm.service.APMService;
+import dev.sc.apm.service.AnalyticService;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.when;
+
+/*
+ * Applications created through APMService as a client would create them, each by a new applicant.
+ * The decision is taken from the AnalyticService spy of the test, one fixture per test.
+ * */
+public class ApplicationFixture {
+
+    private final APMService apmService;
+    private final AnalyticService analyticService;
+    private final AtomicInteger passportNumber = new AtomicInteger(0);
+
+    public ApplicationFixture(APMService apmService, AnalyticService analyticService) {
+        this.apmService = apmService;
+        this.analyticService = analyticService;
+    }
+
+    public String nextPassport() {
+        return String.format("%010d", passportNumber.getAndIncrement());
+    }
+
+    public CreditApplicationRequestDto request(long amount) {
+        return CreditApplicationRequestDto.builder()
+                .applicant(CreditApplicantDto.builder()
+                        .firstName("Ivan")
+                        .lastName("Ivanov")
+                        .passport(nextPassport())
+                        .phone("+79991234567")
+                        .maritalStatus(MaritalStatus.MARRIED)
+                        .address("Address")
+                        .organizationName("Organization")
+                        .position("Position")
+                        .employmentPeriod(Duration.ofDays(365))
+                        .build())
+                .amount(BigDecimal.valueOf(amount))
+                .build();
+    }
+
+    public CreditApplicationDto create(boolean approved) {
+        return create(10_000, approved);
+    }
+
+    public CreditApplicationDto create(long amount, boolean approved) {
+        CreditApplicationRequestDto request = request(amount);
+
+        when(analyticService.approveCredit()).thenReturn(approved);
+
+        return apmService.createCreditApplication(request);
+    }
+}
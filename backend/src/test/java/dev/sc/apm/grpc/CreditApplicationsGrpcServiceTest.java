@@ -0,0 +1,256 @@
+package dev.sc.apm.grpc;
+
+import dev.sc.apm.config.TestContainerConfig;
+import dev.sc.apm.grpc.proto.BulkSubmissionResponse;
+import dev.sc.apm.grpc.proto.CreditApplicant;
+import dev.sc.apm.grpc.proto.CreditApplication;
+import dev.sc.apm.grpc.proto.CreditApplicationRequest;
+import dev.sc.apm.grpc.proto.CreditApplicationStatus;
+import dev.sc.apm.grpc.proto.CreditApplicationsGrpc;
+import dev.sc.apm.grpc.proto.ListRequest;
+import dev.sc.apm.grpc.proto.MaritalStatus;
+import dev.sc.apm.grpc.proto.SignCreditAgreementRequest;
+import dev.sc.apm.grpc.proto.SubmissionResult;
+import dev.sc.apm.repository.ClientRepository;
+import dev.sc.apm.repository.CreditAgreementRepository;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import dev.sc.apm.service.APMService;
+import dev.sc.apm.service.AnalyticService;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = TestContainerConfig.Initializer.class)
+public class CreditApplicationsGrpcServiceTest {
+
+    @SpyBean
+    private AnalyticService analyticService;
+    @SpyBean
+    private APMService apmService;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CreditApplicationRepository creditApplicationRepository;
+    @Autowired
+    private CreditAgreementRepository creditAgreementRepository;
+    @Value("${grpc.server.in-process-name}")
+    private String inProcessName;
+
+    private ManagedChannel channel;
+    private CreditApplicationsGrpc.CreditApplicationsBlockingStub blockingStub;
+    private CreditApplicationsGrpc.CreditApplicationsStub asyncStub;
+
+    private final static AtomicInteger passportNumber = new AtomicInteger(0);
+
+    private String getNextPassport() {
+        return String.format("%010d", passportNumber.getAndIncrement());
+    }
+
+    private CreditApplicationRequest request(String passport) {
+        return CreditApplicationRequest.newBuilder()
+                .setApplicant(CreditApplicant.newBuilder()
+                        .setFirstName("Ivan")
+                        .setLastName("Ivanov")
+                        .setMiddleName("Ivanovich")
+                        .setPassport(passport)
+                        .setMaritalStatus(MaritalStatus.MARRIED)
+                        .setAddress("Address")
+                        .setPhone("+79991234567")
+                        .setOrganizationName("Organization")
+                        .setPosition("Position")
+                        .setEmploymentPeriod("P365D")
+                        .build())
+                .setAmount("10000")
+                .build();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        clientRepository.clearAll();
+        creditApplicationRepository.clearAll();
+        creditAgreementRepository.clearAll();
+        passportNumber.set(0);
+
+        channel = InProcessChannelBuilder.forName(inProcessName).directExecutor().build();
+        blockingStub = CreditApplicationsGrpc.newBlockingStub(channel);
+        asyncStub = CreditApplicationsGrpc.newStub(channel);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // Test 1 Unary create, approved
+    // Expected: the application is created by APMService and mapped to the proto message
+    @Test
+    public void createCreditApplication() {
+        when(analyticService.approveCredit()).thenReturn(true);
+
+        CreditApplication actual = blockingStub.createCreditApplication(request(getNextPassport()));
+
+        assertTrue(actual.getId() > 0);
+        assertEquals(CreditApplicationStatus.APPROVED, actual.getStatus());
+        assertEquals("10000", actual.getRequestedAmount());
+        assertTrue(actual.hasApprovedAmount());
+        assertTrue(actual.hasCreditAgreementId());
+        assertTrue(creditApplicationRepository.findById(actual.getId()).isPresent());
+    }
+
+    // Test 2 Bulk submission with one invalid request
+    // Expected: the invalid request fails alone with INVALID_ARGUMENT, the others are created
+    @Test
+    public void submitCreditApplications() throws Exception {
+        when(analyticService.approveCredit()).thenReturn(true);
+
+        CompletableFuture<BulkSubmissionResponse> response = new CompletableFuture<>();
+        StreamObserver<CreditApplicationRequest> requests = asyncStub.submitCreditApplications(new StreamObserver<>() {
+            @Override
+            public void onNext(BulkSubmissionResponse value) {
+                response.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                response.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+
+        requests.onNext(request(getNextPassport()));
+        requests.onNext(request("123"));
+        requests.onNext(request(getNextPassport()));
+        requests.onCompleted();
+
+        BulkSubmissionResponse actual = response.get(30, TimeUnit.SECONDS);
+
+        assertEquals(2, actual.getAccepted());
+        assertEquals(1, actual.getFailed());
+        assertEquals(3, actual.getResultsCount());
+
+        SubmissionResult failed = actual.getResults(1);
+        assertEquals(1, failed.getIndex());
+        assertTrue(failed.hasError());
+        assertEquals(Status.Code.INVALID_ARGUMENT.name(), failed.getError().getCode());
+
+        assertTrue(actual.getResults(0).hasApplication());
+        assertTrue(actual.getResults(2).hasApplication());
+        assertEquals(2, creditApplicationRepository.count());
+    }
+
+    // Test 3 Server-streaming listing over several pages
+    // Expected: every application is streamed once, max_pages limits the stream to whole pages
+    @Test
+    public void listCreditApplications() {
+        when(analyticService.approveCredit()).thenReturn(true);
+
+        for (int i = 0; i < 12; i++) {
+            blockingStub.createCreditApplication(request(getNextPassport()));
+        }
+
+        List<Long> all = new ArrayList<>();
+        blockingStub.listCreditApplications(ListRequest.getDefaultInstance())
+                .forEachRemaining(application -> all.add(application.getId()));
+
+        assertEquals(12, all.size());
+        assertEquals(12, all.stream().distinct().count());
+
+        List<Long> firstPage = new ArrayList<>();
+        blockingStub.listCreditApplications(ListRequest.newBuilder().setFromPage(1).setMaxPages(1).build())
+                .forEachRemaining(application -> firstPage.add(application.getId()));
+
+        assertEquals(10, firstPage.size());
+    }
+
+    // Test 4 Signing an unknown application
+    // Expected: NOT_FOUND, like 404 on the REST endpoint
+    @Test
+    public void signUnknownCreditAgreement() {
+        StatusRuntimeException exception = assertThrows(
+                StatusRuntimeException.class,
+                () -> blockingStub.signCreditAgreement(SignCreditAgreementRequest.newBuilder().setApplicationId(1_000_000).build())
+        );
+
+        assertEquals(Status.Code.NOT_FOUND, exception.getStatus().getCode());
+    }
+
+    // Test 5 Listing for a client that asks for one page worth of messages, then for the rest
+    // Expected: the second page is loaded only once the client asks for more, then all 12 are streamed
+    @Test
+    public void listCreditApplicationsFollowsFlowControl() throws Exception {
+        when(analyticService.approveCredit()).thenReturn(true);
+
+        for (int i = 0; i < 12; i++) {
+            blockingStub.createCreditApplication(request(getNextPassport()));
+        }
+
+        List<Long> received = new CopyOnWriteArrayList<>();
+        CountDownLatch firstPage = new CountDownLatch(10);
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        AtomicReference<ClientCallStreamObserver<ListRequest>> call = new AtomicReference<>();
+
+        asyncStub.listCreditApplications(ListRequest.getDefaultInstance(), new ClientResponseObserver<ListRequest, CreditApplication>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<ListRequest> requestStream) {
+                call.set(requestStream);
+                requestStream.disableAutoRequestWithInitial(10);
+            }
+
+            @Override
+            public void onNext(CreditApplication value) {
+                received.add(value.getId());
+                firstPage.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.complete(null);
+            }
+        });
+
+        assertTrue(firstPage.await(30, TimeUnit.SECONDS));
+        verify(apmService, never()).getPageCreditApplications(2);
+        assertFalse(completed.isDone());
+
+        call.get().request(10);
+        completed.get(30, TimeUnit.SECONDS);
+
+        assertEquals(12, received.size());
+        assertEquals(12, received.stream().distinct().count());
+        verify(apmService, times(1)).getPageCreditApplications(2);
+        verify(apmService, never()).getPageCreditApplications(3);
+    }
+}
@@ -0,0 +1,178 @@
+package dev.sc.apm.grpc.interceptor;
+
+import dev.sc.apm.config.DeadlineProperties;
+import dev.sc.apm.util.concurrent.Deadline;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeadlineServerInterceptorTest {
+
+    private static final MethodDescriptor.Marshaller<String> STRING = new MethodDescriptor.Marshaller<>() {
+        @Override
+        public InputStream stream(String value) {
+            return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String parse(InputStream stream) {
+            try {
+                return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    };
+
+    private static final MethodDescriptor<String, String> UNARY = method("Unary", MethodDescriptor.MethodType.UNARY);
+    private static final MethodDescriptor<String, String> STREAM = method("Stream", MethodDescriptor.MethodType.SERVER_STREAMING);
+
+    private final List<Deadline> unitDeadlines = new ArrayList<>();
+    private Server server;
+    private ManagedChannel channel;
+
+    private static MethodDescriptor<String, String> method(String name, MethodDescriptor.MethodType type) {
+        return MethodDescriptor.<String, String>newBuilder()
+                .setType(type)
+                .setFullMethodName(MethodDescriptor.generateFullMethodName("test.Probe", name))
+                .setRequestMarshaller(STRING)
+                .setResponseMarshaller(STRING)
+                .build();
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        DeadlineProperties properties = new DeadlineProperties();
+        properties.setDefaultTimeout(Duration.ofSeconds(10));
+        properties.setMaxTimeout(Duration.ofSeconds(60));
+        properties.getEndpoints().put("/test.Probe/*", Duration.ofSeconds(3));
+
+        // each answer is the budget left in ms, "none" when no deadline is bound
+        ServerServiceDefinition service = ServerServiceDefinition.builder("test.Probe")
+                .addMethod(UNARY, ServerCalls.asyncUnaryCall((request, observer) -> {
+                    observer.onNext(budget());
+                    observer.onCompleted();
+                }))
+                .addMethod(STREAM, ServerCalls.asyncServerStreamingCall((request, observer) -> {
+                    observer.onNext(budget());
+                    for (int i = 0; i < 3; i++) {
+                        observer.onNext(DeadlineServerInterceptor.withinUnit(() -> {
+                            unitDeadlines.add(DeadlineContext.current());
+                            return budget();
+                        }));
+                    }
+                    observer.onCompleted();
+                }))
+                .build();
+
+        String name = UUID.randomUUID().toString();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(ServerInterceptors.intercept(service, new DeadlineServerInterceptor(properties)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static String budget() {
+        Deadline deadline = DeadlineContext.current();
+        return deadline == null ? "none" : String.valueOf(deadline.remainingMillis());
+    }
+
+    private String unary(CallOptions options) {
+        return ClientCalls.blockingUnaryCall(channel, UNARY, options, "");
+    }
+
+    private List<String> stream(CallOptions options) {
+        List<String> answers = new ArrayList<>();
+        ClientCalls.blockingServerStreamingCall(channel, STREAM, options, "").forEachRemaining(answers::add);
+        return answers;
+    }
+
+    private static void assertBudget(long expectedMillis, String actual) {
+        long actualMillis = Long.parseLong(actual);
+        assertTrue(actualMillis <= expectedMillis && actualMillis > expectedMillis - 1_000,
+                "expected about " + expectedMillis + " ms, got " + actual);
+    }
+
+    // Test 1 unary call with and without a caller deadline
+    // Expected: the endpoint budget, a shorter caller deadline shortens it, a longer one does not extend it
+    @Test
+    public void unaryBudget() {
+        assertBudget(3_000, unary(CallOptions.DEFAULT));
+        assertBudget(1_500, unary(CallOptions.DEFAULT.withDeadlineAfter(1_500, TimeUnit.MILLISECONDS)));
+        assertBudget(3_000, unary(CallOptions.DEFAULT.withDeadlineAfter(30, TimeUnit.SECONDS)));
+    }
+
+    // Test 2 server-streaming call sending three units
+    // Expected: no deadline for the call as a whole, every unit gets a deadline of its own with the full budget
+    @Test
+    public void streamingBudgetPerUnit() {
+        List<String> answers = stream(CallOptions.DEFAULT);
+
+        assertEquals(4, answers.size());
+        assertEquals("none", answers.get(0));
+        for (String unit : answers.subList(1, 4)) {
+            assertBudget(3_000, unit);
+        }
+
+        assertEquals(3, unitDeadlines.size());
+        assertEquals(3, unitDeadlines.stream().distinct().count());
+    }
+
+    // Test 3 server-streaming call with a caller deadline shorter than the endpoint budget
+    // Expected: every unit is capped by what is left of the caller deadline
+    @Test
+    public void streamingBudgetShortenedByCaller() {
+        List<String> answers = stream(CallOptions.DEFAULT.withDeadlineAfter(1_500, TimeUnit.MILLISECONDS));
+
+        for (String unit : answers.subList(1, 4)) {
+            assertBudget(1_500, unit);
+        }
+    }
+
+    // Test 4 units outside a streaming call
+    // Expected: run under the deadline already bound, none is created
+    @Test
+    public void withinUnitOutsideStreamingCall() {
+        assertEquals("none", DeadlineServerInterceptor.withinUnit(DeadlineServerInterceptorTest::budget));
+
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+        DeadlineContext.set(deadline);
+        try {
+            assertSame(deadline, DeadlineServerInterceptor.withinUnit(DeadlineContext::current));
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package dev.sc.apm.repository;
+
+import dev.sc.apm.config.TestContainerConfig;
+import dev.sc.apm.exception.DeadlineExceededException;
+import dev.sc.apm.util.concurrent.Bulkhead;
+import dev.sc.apm.util.concurrent.Deadline;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import dev.sc.apm.util.concurrent.Workload;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = TestContainerConfig.Initializer.class)
+public class SessionRepositoryTest {
+
+    @Autowired
+    private SessionFactory sessionFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProbeRepository repository;
+    private TransactionTemplate transactionTemplate;
+
+    /*
+     * Statements run through withDeadline like the repositories run theirs
+     * */
+    static class ProbeRepository extends SessionRepository {
+        ProbeRepository(SessionFactory sessionFactory) {
+            super(sessionFactory);
+        }
+
+        String statementTimeout() {
+            Session session = sessionFactory.getCurrentSession();
+            return withDeadline(session, () -> (String) session
+                    .createNativeQuery("SELECT current_setting('statement_timeout')", String.class)
+                    .getSingleResult());
+        }
+
+        void sleep(int seconds) {
+            Session session = sessionFactory.getCurrentSession();
+            withDeadline(session, () -> session
+                    .createNativeQuery("SELECT CAST(pg_sleep(:seconds) AS text)", String.class)
+                    .setParameter("seconds", seconds)
+                    .getSingleResult());
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        repository = new ProbeRepository(sessionFactory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    // Test 1 two statements of one transaction under a 10 s deadline
+    // Expected: the timeout is set by the first one only, the second finds it unchanged
+    @Test
+    public void timeoutsAreSetOncePerTransaction() {
+        DeadlineContext.set(Deadline.after(Duration.ofSeconds(10)));
+
+        String[] timeouts = transactionTemplate.execute(status -> {
+            String first = repository.statementTimeout();
+            sleepQuietly(50);
+            return new String[]{first, repository.statementTimeout()};
+        });
+
+        assertNotEquals("0", timeouts[0]);
+        assertEquals(timeouts[0], timeouts[1]);
+    }
+
+    // Test 2 the second statement runs after more than half of a 1 s budget is gone
+    // Expected: the timeout is set again, shorter
+    @Test
+    public void timeoutsAreRefreshedOnceTheBudgetHasShrunk() {
+        DeadlineContext.set(Deadline.after(Duration.ofSeconds(1)));
+
+        String[] timeouts = transactionTemplate.execute(status -> {
+            String first = repository.statementTimeout();
+            sleepQuietly(600);
+            return new String[]{first, repository.statementTimeout()};
+        });
+
+        assertTrue(millis(timeouts[1]) < millis(timeouts[0]), timeouts[0] + " -> " + timeouts[1]);
+    }
+
+    // Test 3 a transaction without a deadline after one with
+    // Expected: the timeouts ended with the transaction that set them
+    @Test
+    public void timeoutsEndWithTheTransaction() {
+        DeadlineContext.set(Deadline.after(Duration.ofSeconds(10)));
+        transactionTemplate.execute(status -> repository.statementTimeout());
+        DeadlineContext.clear();
+
+        assertEquals("0", transactionTemplate.execute(status -> repository.statementTimeout()));
+    }
+
+    // Test 4 a 30 s statement is run on a bulkhead under a 500 ms deadline
+    // Expected: the caller gets DeadlineExceededException, the backend statement is cancelled, not left running
+    @Test
+    public void statementIsCancelledWhenTheDeadlineExpires() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(Workload.READ, 1, 1, Bulkhead.RejectionPolicy.ABORT);
+        CountDownLatch ended = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        DeadlineContext.set(Deadline.after(Duration.ofMillis(500)));
+        try {
+            assertThrows(DeadlineExceededException.class, () -> bulkhead.execute(() -> {
+                try {
+                    return transactionTemplate.execute(status -> {
+                        repository.sleep(30);
+                        return null;
+                    });
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                    throw e;
+                } finally {
+                    ended.countDown();
+                }
+            }));
+        } finally {
+            DeadlineContext.clear();
+        }
+
+        try {
+            // far below the 30 s the statement would take
+            assertTrue(ended.await(10, TimeUnit.SECONDS));
+            assertEquals("57014", sqlState(failure.get()));
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    // Test 5 the deadline is cancelled between two statements of one transaction
+    // Expected: nothing is in flight, nothing is cancelled, the next statement on the connection runs to the end
+    @Test
+    public void cancelBetweenStatementsHitsNothing() {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(10));
+        DeadlineContext.set(deadline);
+
+        assertDoesNotThrow(() -> transactionTemplate.execute(status -> {
+            repository.statementTimeout();
+            deadline.cancel();
+            repository.sleep(1);
+            return null;
+        }));
+    }
+
+    // as Postgres shows it: 999ms, 10s
+    private static long millis(String timeout) {
+        return timeout.endsWith("ms") ?
+                Long.parseLong(timeout.substring(0, timeout.length() - 2)) :
+                Long.parseLong(timeout.substring(0, timeout.length() - 1)) * 1_000;
+    }
+
+    // query_canceled for a statement timeout as for Statement.cancel()
+    private static String sqlState(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return sqlException.getSQLState();
+            }
+        }
+        return null;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dev.sc.apm.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class SortingTest {
+
+    record Row(Long id, Integer rank) {
+    }
+
+    private final Sorting<Row> sorting = Sorting.<Row>builder(Row::id)
+            .key("rank", Integer::valueOf, Row::rank)
+            .build();
+
+    private final CriteriaBuilder builder = mock(CriteriaBuilder.class);
+    private final Root<Row> root = mock(Root.class);
+    private final Path<Long> id = mock(Path.class);
+    private final Path<Integer> rank = mock(Path.class);
+
+    private final Sorting.Cursor cursor = new Sorting.Cursor(5, 7L);
+
+    @BeforeEach
+    public void setUp() {
+        doReturn(id).when(root).get("id");
+        doReturn(rank).when(root).get("rank");
+    }
+
+    // Test 1 the page after (rank 5, id 7) sorted by rank ascending
+    // Expected: rank >= 5 AND (rank > 5 OR (rank = 5 AND id > 7)), the first term bounds the index scan
+    @Test
+    public void ascendingKeysetIsBoundedBelow() {
+        Predicate bound = mock(Predicate.class);
+        Predicate keyAfter = mock(Predicate.class);
+        Predicate keyEqual = mock(Predicate.class);
+        Predicate idAfter = mock(Predicate.class);
+        Predicate tie = mock(Predicate.class);
+        Predicate after = mock(Predicate.class);
+        Predicate expected = mock(Predicate.class);
+
+        when(builder.greaterThanOrEqualTo(rank, 5)).thenReturn(bound);
+        when(builder.greaterThan(rank, 5)).thenReturn(keyAfter);
+        when(builder.equal(rank, 5)).thenReturn(keyEqual);
+        when(builder.greaterThan(id, 7L)).thenReturn(idAfter);
+        when(builder.and(keyEqual, idAfter)).thenReturn(tie);
+        when(builder.or(keyAfter, tie)).thenReturn(after);
+        when(builder.and(bound, after)).thenReturn(expected);
+
+        assertSame(expected, sorting.sort("rank,asc").orElseThrow().after(builder, root, cursor));
+    }
+
+    // Test 2 the same cursor sorted by rank descending
+    // Expected: rank <= 5 AND (rank < 5 OR (rank = 5 AND id < 7))
+    @Test
+    public void descendingKeysetIsBoundedAbove() {
+        Predicate bound = mock(Predicate.class);
+        Predicate keyAfter = mock(Predicate.class);
+        Predicate keyEqual = mock(Predicate.class);
+        Predicate idAfter = mock(Predicate.class);
+        Predicate tie = mock(Predicate.class);
+        Predicate after = mock(Predicate.class);
+        Predicate expected = mock(Predicate.class);
+
+        when(builder.lessThanOrEqualTo(rank, 5)).thenReturn(bound);
+        when(builder.lessThan(rank, 5)).thenReturn(keyAfter);
+        when(builder.equal(rank, 5)).thenReturn(keyEqual);
+        when(builder.lessThan(id, 7L)).thenReturn(idAfter);
+        when(builder.and(keyEqual, idAfter)).thenReturn(tie);
+        when(builder.or(keyAfter, tie)).thenReturn(after);
+        when(builder.and(bound, after)).thenReturn(expected);
+
+        assertSame(expected, sorting.sort("rank,desc").orElseThrow().after(builder, root, cursor));
+    }
+
+    // Test 3 the page after id 7 sorted by the id alone
+    // Expected: id > 7, a single range predicate needs no extra bound
+    @Test
+    public void idKeysetIsTheRangeAlone() {
+        Predicate idAfter = mock(Predicate.class);
+        when(builder.greaterThan(id, 7L)).thenReturn(idAfter);
+
+        assertSame(idAfter, sorting.sort(null).orElseThrow().after(builder, root, cursor));
+        verify(builder, never()).or(any(Predicate.class), any(Predicate.class));
+    }
+}
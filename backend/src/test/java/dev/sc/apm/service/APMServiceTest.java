@@ -4,16 +4,23 @@ import dev.sc.apm.config.TestContainerConfig;
 import dev.sc.apm.dto.CreditAgreementDto;
 import dev.sc.apm.dto.CreditApplicantDto;
 import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.CreditApplicationFilterDto;
 import dev.sc.apm.dto.CreditApplicationRequestDto;
 import dev.sc.apm.entity.*;
 import dev.sc.apm.exception.ClientInfoMismatchException;
 import dev.sc.apm.exception.CreditApplicationNotFound;
+import dev.sc.apm.exception.InvalidCursorException;
+import dev.sc.apm.exception.InvalidSortException;
 import dev.sc.apm.exception.PendingStatusDuringSigningException;
 import dev.sc.apm.exception.RejectedStatusDuringSigningException;
+import dev.sc.apm.exception.TooManyLookupKeysException;
 import dev.sc.apm.mapper.CreditApplicationMapper;
+import dev.sc.apm.repository.ChangeTracker;
 import dev.sc.apm.repository.ClientRepository;
 import dev.sc.apm.repository.CreditAgreementRepository;
 import dev.sc.apm.repository.CreditApplicationRepository;
+import dev.sc.apm.repository.Pageable;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,8 +36,17 @@ import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -51,6 +67,12 @@ public class APMServiceTest {
     private AnalyticService analyticService;
     @Autowired
     private APMService apmService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ChangeTracker changeTracker;
+    @SpyBean
+    private StatusEventHub statusEventHub;
 
     private final static AtomicInteger passportNumber = new AtomicInteger(0);
 
@@ -1028,6 +1050,133 @@ public class APMServiceTest {
         assertThrows(ConstraintViolationException.class, () -> apmService.createCreditApplication(request));
     }
 
+    // Test 7 several concurrent applications from the same new applicant
+    // Expected: one client created, every application created for it
+    @Test
+    public void createCreditApplicationConcurrentlyByNewClient() throws Exception {
+        final int concurrentRequests = 8;
+
+        var request = CreditApplicationRequestDto.builder()
+                .applicant(CreditApplicantDto.builder()
+                        .firstName("Ivan")
+                        .lastName("Ivanov")
+                        .middleName("Ivanovich")
+                        .passport(getNextPassport())
+                        .phone(phone1)
+                        .maritalStatus(MaritalStatus.MARRIED)
+                        .address("Address")
+                        .organizationName("Organization")
+                        .position("Position")
+                        .employmentPeriod(Duration.ofDays(365))
+                        .build())
+                .amount(BigDecimal.valueOf(10_000))
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrentRequests);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<CreditApplicationDto>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrentRequests; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return apmService.createCreditApplication(request);
+                }));
+            }
+
+            start.countDown();
+
+            Set<Long> applicantIds = new HashSet<>();
+            for (Future<CreditApplicationDto> future : futures) {
+                applicantIds.add(future.get(30, TimeUnit.SECONDS).getApplicantId());
+            }
+
+            assertEquals(1, applicantIds.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, clientRepository.count());
+        assertEquals(concurrentRequests, creditApplicationRepository.count());
+        verify(clientRepository, times(1)).save(any());
+    }
+
+    // Test 8 analytics fails during evaluation
+    // Expected: application is created and left PENDING without agreement
+    @Test
+    public void createCreditApplicationWhenAnalyticsFails() {
+        var request = CreditApplicationRequestDto.builder()
+                .applicant(CreditApplicantDto.builder()
+                        .firstName("Ivan")
+                        .lastName("Ivanov")
+                        .middleName("Ivanovich")
+                        .passport(getNextPassport())
+                        .phone(phone1)
+                        .maritalStatus(MaritalStatus.MARRIED)
+                        .address("Address")
+                        .organizationName("Organization")
+                        .position("Position")
+                        .employmentPeriod(Duration.ofDays(365))
+                        .build())
+                .amount(BigDecimal.valueOf(10_000))
+                .build();
+
+        doThrow(new IllegalStateException("analytics is down"))
+                .when(analyticService).evaluateCreditApplication(any());
+
+        var actual = apmService.createCreditApplication(request);
+
+        assertEquals(CreditApplicationStatus.PENDING, actual.getStatus());
+        assertNull(actual.getApprovedAmount());
+
+        var stored = creditApplicationRepository.findById(actual.getId());
+        assertTrue(stored.isPresent());
+        assertEquals(CreditApplicationStatus.PENDING, stored.get().getStatus());
+        assertEquals(0, creditAgreementRepository.count());
+    }
+
+    // Test 9 application approved, then signed
+    // Expected: one decision and one signing event, both after commit
+    @Test
+    public void createAndSignCreditApplicationPublishesStatusEvents() {
+        var request = CreditApplicationRequestDto.builder()
+                .applicant(CreditApplicantDto.builder()
+                        .firstName("Ivan")
+                        .lastName("Ivanov")
+                        .middleName("Ivanovich")
+                        .passport(getNextPassport())
+                        .phone(phone1)
+                        .maritalStatus(MaritalStatus.MARRIED)
+                        .address("Address")
+                        .organizationName("Organization")
+                        .position("Position")
+                        .employmentPeriod(Duration.ofDays(365))
+                        .build())
+                .amount(BigDecimal.valueOf(10_000))
+                .build();
+
+        when(analyticService.approveCredit()).thenReturn(true);
+
+        var application = apmService.createCreditApplication(request);
+
+        verify(statusEventHub, times(1)).onStatusChanged(argThat(event ->
+                event.applicationId() == application.getId() &&
+                        event.clientId() == application.getApplicantId() &&
+                        event.status() == CreditApplicationStatus.APPROVED &&
+                        event.signingStatus() == SigningStatus.NOT_SIGNED
+        ));
+
+        apmService.signCreditAgreement(application.getId());
+        // signing twice changes nothing
+        apmService.signCreditAgreement(application.getId());
+
+        verify(statusEventHub, times(1)).onStatusChanged(argThat(event ->
+                event.applicationId() == application.getId() &&
+                        event.signingStatus() == SigningStatus.SIGNED
+        ));
+        verify(statusEventHub, times(2)).onStatusChanged(any());
+    }
+
     /*
      * Tests for APMService.signCreditAgreement
      * Aspects of testing:
@@ -1257,6 +1406,256 @@ public class APMServiceTest {
         assertThrows(CreditApplicationNotFound.class, () -> apmService.signCreditAgreement(id));
     }
 
+    // Test 4 several concurrent signings of the same agreement, all of them read it NOT_SIGNED
+    // Expected: version conflicts are retried, every call returns the agreement signed once
+    @Test
+    public void signCreditAgreementConcurrently() throws Exception {
+        final int concurrentRequests = 8;
+
+        var client = Client.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .passport(getNextPassport())
+                .phone(phone1)
+                .maritalStatus(MaritalStatus.MARRIED)
+                .address("Address")
+                .organizationName("Organization")
+                .position("Position")
+                .employmentPeriod(Duration.ofDays(200))
+                .build();
+
+        client = clientRepository.save(client);
+
+        var clientApplication = CreditApplication.builder()
+                .client(client)
+                .requestedAmount(BigDecimal.valueOf(10_000))
+                .status(CreditApplicationStatus.APPROVED)
+                .approvedAmount(amountApproved(BigDecimal.valueOf(10_000)))
+                .approvedTerm(30)
+                .creditAgreement(null)
+                .build();
+
+        clientApplication = creditApplicationRepository.save(clientApplication);
+
+        creditAgreementRepository.save(CreditAgreement.builder()
+                .application(clientApplication)
+                .signedAt(null)
+                .signingStatus(SigningStatus.NOT_SIGNED)
+                .build());
+
+        // hold the first attempts after they changed the agreement and before they commit
+        CyclicBarrier firstAttempts = new CyclicBarrier(concurrentRequests);
+        AtomicInteger mapped = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (mapped.getAndIncrement() < concurrentRequests) {
+                firstAttempts.await(30, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(creditApplicationMapper).fromCreditAgreement(any());
+
+        double retriesBefore = meterRegistry.counter("apm.conflict_retry.retries", "operation", "signing").count();
+
+        final long id = clientApplication.getId();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrentRequests);
+
+        try {
+            List<Future<CreditAgreementDto>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrentRequests; i++) {
+                futures.add(executor.submit(() -> apmService.signCreditAgreement(id)));
+            }
+
+            Set<LocalDateTime> signedAt = new HashSet<>();
+            for (Future<CreditAgreementDto> future : futures) {
+                var actual = future.get(30, TimeUnit.SECONDS);
+                assertEquals(SigningStatus.SIGNED, actual.getSigningStatus());
+                signedAt.add(actual.getSignedAt());
+            }
+
+            assertEquals(1, signedAt.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double retries = meterRegistry.counter("apm.conflict_retry.retries", "operation", "signing").count() - retriesBefore;
+        assertEquals(concurrentRequests - 1, retries);
+    }
+
+    /*
+     * Tests for APMService.getCreditApplication(...) and the change tracking behind its ETag
+     * Aspects of testing:
+     * 1. Application existing: exists, not exists;
+     * 2. Validators: unchanged by reads, changed by committed writes;
+     * */
+
+    // Test 1.1 get existing application
+    // Expected: return application
+    @Test
+    public void getCreditApplicationExisting() {
+        var request = CreditApplicationRequestDto.builder()
+                .applicant(CreditApplicantDto.builder()
+                        .firstName("Ivan")
+                        .lastName("Ivanov")
+                        .middleName("Ivanovich")
+                        .passport(getNextPassport())
+                        .phone(phone1)
+                        .maritalStatus(MaritalStatus.MARRIED)
+                        .address("Address")
+                        .organizationName("Organization")
+                        .position("Position")
+                        .employmentPeriod(Duration.ofDays(365))
+                        .build())
+                .amount(BigDecimal.valueOf(10_000))
+                .build();
+
+        when(analyticService.approveCredit()).thenReturn(true);
+
+        var expected = apmService.createCreditApplication(request);
+        var actual = apmService.getCreditApplication(expected.getId());
+
+        assertEquals(expected, actual);
+    }
+
+    // Test 1.2 get not existing application
+    // Expected: throw CreditApplicationNotFound
+    @Test
+    public void getCreditApplicationNotExisting() {
+        final long id = 101010101010101010L;
+        assertThrows(CreditApplicationNotFound.class, () -> apmService.getCreditApplication(id));
+    }
+
+    // Test 2.1 reads between two snapshots
+    // Expected: same ETag
+    @Test
+    public void changeTrackerSnapshotUnchangedByReads() {
+        var before = changeTracker.snapshot(CreditApplication.class, CreditAgreement.class);
+
+        apmService.getPageCreditApplications(1);
+        apmService.getPageCreditAgreements(1);
+
+        var after = changeTracker.snapshot(CreditApplication.class, CreditAgreement.class);
+
+        assertEquals(before, after);
+    }
+
+    // Test 2.2 application created between two snapshots
+    // Expected: different ETag, Last-Modified not older
+    @Test
+    public void changeTrackerSnapshotChangedByCommittedWrite() {
+        var request = CreditApplicationRequestDto.builder()
+                .applicant(CreditApplicantDto.builder()
+                        .firstName("Ivan")
+                        .lastName("Ivanov")
+                        .middleName("Ivanovich")
+                        .passport(getNextPassport())
+                        .phone(phone1)
+                        .maritalStatus(MaritalStatus.MARRIED)
+                        .address("Address")
+                        .organizationName("Organization")
+                        .position("Position")
+                        .employmentPeriod(Duration.ofDays(365))
+                        .build())
+                .amount(BigDecimal.valueOf(10_000))
+                .build();
+
+        when(analyticService.approveCredit()).thenReturn(false);
+
+        var before = changeTracker.snapshot(CreditApplication.class);
+
+        apmService.createCreditApplication(request);
+
+        var after = changeTracker.snapshot(CreditApplication.class);
+
+        assertNotEquals(before.etag(), after.etag());
+        assertTrue(after.lastModified() >= before.lastModified());
+    }
+
+    /*
+     * Tests for APMService.getCreditApplications(...)
+     *
+     * Aspects of testing:
+     * 1. Ids: existing, missing, duplicated;
+     * 2. Status cache: decided applications, pending applications;
+     * 3. Invalid input data: too many ids;
+     * */
+
+    private CreditApplicationDto createApplication(boolean approved) {
+        var request = CreditApplicationRequestDto.builder()
+                .applicant(CreditApplicantDto.builder()
+                        .firstName("Ivan")
+                        .lastName("Ivanov")
+                        .passport(getNextPassport())
+                        .phone(phone1)
+                        .maritalStatus(MaritalStatus.MARRIED)
+                        .address("Address")
+                        .organizationName("Organization")
+                        .position("Position")
+                        .employmentPeriod(Duration.ofDays(365))
+                        .build())
+                .amount(BigDecimal.valueOf(10_000))
+                .build();
+
+        when(analyticService.approveCredit()).thenReturn(approved);
+
+        return apmService.createCreditApplication(request);
+    }
+
+    // Test 1.1 existing, missing and duplicated ids
+    // Expected: applications in the order of the ids, each once, missing ids listed
+    @Test
+    public void getCreditApplicationsByIds() {
+        var first = createApplication(true);
+        var second = createApplication(false);
+        final long missingId = 101010101010101010L;
+
+        var actual = apmService.getCreditApplications(List.of(second.getId(), missingId, first.getId(), second.getId()));
+
+        assertEquals(List.of(second, first), actual.getContent());
+        assertEquals(List.of(String.valueOf(missingId)), actual.getMissing());
+    }
+
+    // Test 2.1 decided applications requested twice
+    // Expected: second request served from the serialized response cache without querying
+    @Test
+    public void getCreditApplicationsServedFromCache() {
+        var approved = createApplication(true);
+        var rejected = createApplication(false);
+
+        var first = apmService.getCreditApplications(List.of(approved.getId(), rejected.getId()));
+        var second = apmService.getCreditApplications(List.of(approved.getId(), rejected.getId()));
+
+        assertEquals(first, second);
+        verify(creditApplicationRepository, times(1)).findAllByIds(any(), anyInt());
+    }
+
+    // Test 2.2 decided applications cached, then all rows deleted
+    // Expected: the cache is dropped, the ids are reported missing
+    @Test
+    public void getCreditApplicationsCacheDroppedByDeletion() {
+        var approved = createApplication(true);
+
+        apmService.getCreditApplications(List.of(approved.getId()));
+
+        creditAgreementRepository.clearAll();
+        creditApplicationRepository.clearAll();
+
+        var actual = apmService.getCreditApplications(List.of(approved.getId()));
+
+        assertTrue(actual.getContent().isEmpty());
+        assertEquals(List.of(String.valueOf(approved.getId())), actual.getMissing());
+    }
+
+    // Test 3.1 more ids than allowed
+    // Expected: throw TooManyLookupKeysException
+    @Test
+    public void getCreditApplicationsTooManyIds() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(TooManyLookupKeysException.class, () -> apmService.getCreditApplications(ids));
+    }
+
     /*
      * Tests for APMService.getPageCreditApplications(...)
      * Aspects of testing:
@@ -1265,6 +1664,7 @@ public class APMServiceTest {
      * 3. final page number: less than requested, equals requested
      * 4. Invalid input data:
      *    - page number is negative or zero
+     * 5. Filters, sorts and keyset paging: matching rows, order, unknown sort, cursor pages, malformed cursor
      * */
 
     // Test 1.1 get page consisted from several applications, page size equals standard, page number equals requested
@@ -1481,6 +1881,310 @@ public class APMServiceTest {
         assertThrows(ConstraintViolationException.class, () -> apmService.getPageCreditApplications(pageNumber));
     }
 
+    // Test 3.1 same page requested twice, no writes in between
+    // Expected: second request served from the page cache without querying
+    @Test
+    public void getPageCreditApplicationsServedFromCache() {
+        var client = clientRepository.save(Client.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .passport(getNextPassport())
+                .phone(phone1)
+                .maritalStatus(MaritalStatus.MARRIED)
+                .address("Address")
+                .organizationName("Organization")
+                .position("Position")
+                .employmentPeriod(Duration.ofDays(200))
+                .build());
+
+        for (int i = 0; i < 3; i++) {
+            creditApplicationRepository.save(CreditApplication.builder()
+                    .client(client)
+                    .requestedAmount(BigDecimal.valueOf(10_000))
+                    .status(CreditApplicationStatus.PENDING)
+                    .build());
+        }
+
+        var first = apmService.getPageCreditApplications(1);
+        var second = apmService.getPageCreditApplications(1);
+
+        assertEquals(first, second);
+        verify(creditApplicationRepository, times(1)).findAllBy(any(Pageable.class), any(BiFunction.class), any(BiFunction.class));
+    }
+
+    // Test 3.2 application stored between two requests of the same page
+    // Expected: cached page is invalidated, second request returns the new application
+    @Test
+    public void getPageCreditApplicationsInvalidatedByWrite() {
+        var client = clientRepository.save(Client.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .passport(getNextPassport())
+                .phone(phone1)
+                .maritalStatus(MaritalStatus.MARRIED)
+                .address("Address")
+                .organizationName("Organization")
+                .position("Position")
+                .employmentPeriod(Duration.ofDays(200))
+                .build());
+
+        creditApplicationRepository.save(CreditApplication.builder()
+                .client(client)
+                .requestedAmount(BigDecimal.valueOf(10_000))
+                .status(CreditApplicationStatus.PENDING)
+                .build());
+
+        var first = apmService.getPageCreditApplications(1);
+
+        var added = creditApplicationRepository.save(CreditApplication.builder()
+                .client(client)
+                .requestedAmount(BigDecimal.valueOf(20_000))
+                .status(CreditApplicationStatus.PENDING)
+                .build());
+
+        var second = apmService.getPageCreditApplications(1);
+
+        assertEquals(1, first.getTotal());
+        assertEquals(2, second.getTotal());
+        assertTrue(second.getContent().stream().anyMatch(application -> application.getId() == added.getId()));
+    }
+
+    // Test 4.1 selected fields of an application without agreement
+    // Expected: the id and the requested columns, the agreement is left joined and null
+    @Test
+    public void getPageCreditApplicationFields() {
+        var client = clientRepository.save(Client.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .passport(getNextPassport())
+                .phone(phone1)
+                .maritalStatus(MaritalStatus.MARRIED)
+                .address("Address")
+                .organizationName("Organization")
+                .position("Position")
+                .employmentPeriod(Duration.ofDays(200))
+                .build());
+
+        var stored = creditApplicationRepository.save(CreditApplication.builder()
+                .client(client)
+                .requestedAmount(BigDecimal.valueOf(10_000))
+                .status(CreditApplicationStatus.PENDING)
+                .build());
+
+        var actual = apmService.getPageCreditApplications(1, new CreditApplicationFilterDto(), null, null, "creditAgreementId,status,applicantId");
+
+        assertEquals(1, actual.getTotal());
+
+        var row = actual.getContent().get(0);
+        assertEquals(List.of("id", "applicantId", "status", "creditAgreementId"), List.copyOf(row.keySet()));
+        assertEquals(stored.getId(), row.get("id"));
+        assertEquals(client.getId(), row.get("applicantId"));
+        assertEquals(CreditApplicationStatus.PENDING, row.get("status"));
+        assertNull(row.get("creditAgreementId"));
+    }
+
+    // Test 4.2 summary view and full page requested
+    // Expected: cached separately, the summary has no approval columns
+    @Test
+    public void getPageCreditApplicationSummaries() {
+        var client = clientRepository.save(Client.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .passport(getNextPassport())
+                .phone(phone1)
+                .maritalStatus(MaritalStatus.MARRIED)
+                .address("Address")
+                .organizationName("Organization")
+                .position("Position")
+                .employmentPeriod(Duration.ofDays(200))
+                .build());
+
+        creditApplicationRepository.save(CreditApplication.builder()
+                .client(client)
+                .requestedAmount(BigDecimal.valueOf(10_000))
+                .status(CreditApplicationStatus.PENDING)
+                .build());
+
+        var full = apmService.getPageCreditApplications(1);
+        var summary = apmService.getPageCreditApplications(1, new CreditApplicationFilterDto(), null, "summary", null);
+
+        assertEquals(full.getTotal(), summary.getTotal());
+        assertEquals(
+                List.of("id", "applicantId", "requestedAmount", "status", "createdAt"),
+                List.copyOf(summary.getContent().get(0).keySet())
+        );
+        assertEquals(full.getContent().get(0).getId(), summary.getContent().get(0).get("id"));
+    }
+
+    private Client saveClient() {
+        return clientRepository.save(Client.builder()
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .passport(getNextPassport())
+                .phone(phone1)
+                .maritalStatus(MaritalStatus.MARRIED)
+                .address("Address")
+                .organizationName("Organization")
+                .position("Position")
+                .employmentPeriod(Duration.ofDays(200))
+                .build());
+    }
+
+    private CreditApplication saveApplication(Client client, long amount, CreditApplicationStatus status) {
+        return creditApplicationRepository.save(CreditApplication.builder()
+                .client(client)
+                .requestedAmount(BigDecimal.valueOf(amount))
+                .status(status)
+                .build());
+    }
+
+    // Test 5.1 filter by status, client and requested amount range
+    // Expected: only the matching applications, counted
+    @Test
+    public void getPageCreditApplicationsFiltered() {
+        var client = saveClient();
+        var other = saveClient();
+
+        var matching = saveApplication(client, 20_000, CreditApplicationStatus.APPROVED);
+        saveApplication(client, 50_000, CreditApplicationStatus.APPROVED);
+        saveApplication(client, 20_000, CreditApplicationStatus.REJECTED);
+        saveApplication(other, 20_000, CreditApplicationStatus.APPROVED);
+
+        var filter = CreditApplicationFilterDto.builder()
+                .status(CreditApplicationStatus.APPROVED)
+                .clientId(client.getId())
+                .minAmount(BigDecimal.valueOf(10_000))
+                .maxAmount(BigDecimal.valueOf(30_000))
+                .build();
+
+        var actual = apmService.getPageCreditApplications(1, filter, null, null);
+
+        assertEquals(1, actual.getTotal());
+        assertEquals(matching.getId(), actual.getContent().get(0).getId());
+        assertNull(actual.getNextCursor());
+    }
+
+    // Test 5.2 created range and a descending sort by requested amount
+    // Expected: applications of the range only, the largest first
+    @Test
+    public void getPageCreditApplicationsCreatedRangeSortedByAmount() throws InterruptedException {
+        var client = saveClient();
+
+        saveApplication(client, 40_000, CreditApplicationStatus.PENDING);
+        Thread.sleep(5);
+        var from = LocalDateTime.now();
+        Thread.sleep(5);
+
+        var small = saveApplication(client, 10_000, CreditApplicationStatus.PENDING);
+        var large = saveApplication(client, 30_000, CreditApplicationStatus.PENDING);
+
+        Thread.sleep(5);
+        var to = LocalDateTime.now();
+        Thread.sleep(5);
+        saveApplication(client, 50_000, CreditApplicationStatus.PENDING);
+
+        var filter = CreditApplicationFilterDto.builder()
+                .createdFrom(from)
+                .createdTo(to)
+                .build();
+
+        var actual = apmService.getPageCreditApplications(1, filter, "requestedAmount,desc", null);
+
+        assertEquals(
+                List.of(large.getId(), small.getId()),
+                actual.getContent().stream().map(CreditApplicationDto::getId).toList()
+        );
+    }
+
+    // Test 5.3 sort by a key that is not whitelisted, and by a known key in an unknown direction
+    // Expected: throw InvalidSortException
+    @Test
+    public void getPageCreditApplicationsUnknownSort() {
+        var filter = new CreditApplicationFilterDto();
+
+        assertThrows(InvalidSortException.class, () -> apmService.getPageCreditApplications(1, filter, "status", null));
+        assertThrows(InvalidSortException.class, () -> apmService.getPageCreditApplications(1, filter, "createdAt,up", null));
+    }
+
+    // Test 5.4 first page by number, the next one by its cursor
+    // Expected: the cursor page holds the rows the second numbered page would, without a further cursor
+    @Test
+    public void getPageCreditApplicationsAfterCursor() {
+        final int totalApplications = 15;
+        final int standardPageSize = 10;
+
+        var client = saveClient();
+
+        for (int i = 0; i < totalApplications; i++) {
+            // pairs with the same amount, the id breaks the ties
+            saveApplication(client, 10_000 + 1_000 * (i / 2), CreditApplicationStatus.PENDING);
+        }
+
+        var filter = new CreditApplicationFilterDto();
+        var first = apmService.getPageCreditApplications(1, filter, "requestedAmount,desc", null);
+        var second = apmService.getPageCreditApplications(2, filter, "requestedAmount,desc", null);
+
+        assertEquals(standardPageSize, first.getContent().size());
+        assertNotNull(first.getNextCursor());
+        assertNull(second.getNextCursor());
+
+        var after = apmService.getPageCreditApplications(1, filter, "requestedAmount,desc", first.getNextCursor());
+
+        assertEquals(0, after.getPage());
+        assertEquals(-1, after.getTotal());
+        assertNull(after.getNextCursor());
+        assertEquals(
+                second.getContent().stream().map(CreditApplicationDto::getId).toList(),
+                after.getContent().stream().map(CreditApplicationDto::getId).toList()
+        );
+    }
+
+    // Test 5.5 malformed cursor and a cursor of another sort
+    // Expected: throw InvalidCursorException
+    @Test
+    public void getPageCreditApplicationsInvalidCursor() {
+        var client = saveClient();
+        for (int i = 0; i < 11; i++) {
+            saveApplication(client, 10_000, CreditApplicationStatus.PENDING);
+        }
+
+        var filter = new CreditApplicationFilterDto();
+        var cursor = apmService.getPageCreditApplications(1, filter, null, null).getNextCursor();
+
+        assertThrows(InvalidCursorException.class, () -> apmService.getPageCreditApplications(1, filter, null, "not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> apmService.getPageCreditApplications(1, filter, "createdAt", cursor));
+    }
+
+    // Test 5.6 selected fields with a status filter and a descending sort by requested amount
+    // Expected: the filter and sort apply as on the full page, cached apart from the unfiltered fields page
+    @Test
+    public void getPageCreditApplicationFieldsFilteredAndSorted() {
+        var client = saveClient();
+
+        var small = saveApplication(client, 10_000, CreditApplicationStatus.APPROVED);
+        var large = saveApplication(client, 30_000, CreditApplicationStatus.APPROVED);
+        saveApplication(client, 20_000, CreditApplicationStatus.REJECTED);
+
+        var all = apmService.getPageCreditApplications(1, new CreditApplicationFilterDto(), null, null, "status");
+
+        var filter = CreditApplicationFilterDto.builder()
+                .status(CreditApplicationStatus.APPROVED)
+                .build();
+
+        var actual = apmService.getPageCreditApplications(1, filter, "requestedAmount,desc", null, "status");
+
+        assertEquals(3, all.getTotal());
+        assertEquals(2, actual.getTotal());
+        assertEquals(
+                List.of(large.getId(), small.getId()),
+                actual.getContent().stream().map(row -> row.get("id")).toList()
+        );
+        assertThrows(
+                InvalidSortException.class,
+                () -> apmService.getPageCreditApplications(1, filter, "status", null, "status")
+        );
+    }
+
     /*
      * Tests for APMService.getPageCreditAgreements(...)
      * Aspects of testing:
@@ -0,0 +1,100 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.entity.CreditApplicationStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApplicationColumnsTest {
+
+    private ApplicationColumns columns;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        columns = new ApplicationColumns();
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // Test 1 applications bucketed by requested amount
+    // Expected: counts, approvals, approved cents and terms summed per bucket, values beyond the range in the edge buckets
+    @Test
+    public void sliceByRequestedAmount() {
+        approved(1, 5_000_00, 4_500_00, 30, 0);
+        rejected(2, 7_000_00, 0);
+        approved(3, 15_000_00, 13_500_00, 60, 0);
+        approved(4, 1_000_000_00, 900_000_00, 90, 0);
+
+        var slices = columns.slice(ApplicationColumns.Filter.ALL, ApplicationColumns.Dimension.REQUESTED_AMOUNT,
+                0, 10_000, 3, pool);
+
+        assertArrayEquals(new long[]{2, 1, 1}, slices.count());
+        assertArrayEquals(new long[]{1, 1, 1}, slices.approved());
+        assertArrayEquals(new long[]{4_500_00, 13_500_00, 900_000_00}, slices.approvedCents());
+        assertArrayEquals(new long[]{30, 60, 90}, slices.approvedTerm());
+    }
+
+    // Test 2 filter by creation day and requested amount
+    // Expected: days from inclusive and to exclusive, amounts inclusive on both ends
+    @Test
+    public void sliceFiltered() {
+        approved(1, 5_000_00, 4_500_00, 30, 10);
+        approved(2, 5_000_00, 4_500_00, 30, 11);
+        approved(3, 5_000_00, 4_500_00, 30, 12);
+        approved(4, 9_000_00, 8_100_00, 30, 11);
+
+        var filter = new ApplicationColumns.Filter(11, 12, 0, 5_000_00);
+        var slices = columns.slice(filter, ApplicationColumns.Dimension.APPROVED_TERM, 0, 30, 2, pool);
+
+        assertEquals(1, Arrays.stream(slices.count()).sum());
+        assertEquals(1, slices.count()[1]);
+    }
+
+    // Test 3 same application appended twice
+    // Expected: the second append is ignored
+    @Test
+    public void appendIsIdempotent() {
+        assertTrue(approved(1, 5_000_00, 4_500_00, 30, 0));
+        assertFalse(approved(1, 5_000_00, 4_500_00, 30, 0));
+
+        assertEquals(1, columns.size());
+    }
+
+    // Test 4 rows over several chunks, scanned in parallel
+    // Expected: the same sums as a sequential count
+    @Test
+    public void sliceOverSeveralChunks() {
+        final int rows = 300_000;
+        long[] expected = new long[10];
+
+        for (int i = 1; i <= rows; i++) {
+            int employmentDays = i % 1_000;
+            columns.append(i, 10_000_00, CreditApplicationStatus.APPROVED, 9_000_00, 30, 0, employmentDays, i);
+            expected[Math.min(employmentDays / 100, 9)]++;
+        }
+
+        var slices = columns.slice(ApplicationColumns.Filter.ALL, ApplicationColumns.Dimension.EMPLOYMENT_PERIOD,
+                0, 100, 10, pool);
+
+        assertArrayEquals(expected, slices.count());
+        assertEquals(rows * 9_000_00L, Arrays.stream(slices.approvedCents()).sum());
+    }
+
+    private boolean approved(long id, long requestedCents, long approvedCents, int term, int day) {
+        return columns.append(id, requestedCents, CreditApplicationStatus.APPROVED, approvedCents, term, day, 365, id);
+    }
+
+    private void rejected(long id, long requestedCents, int day) {
+        columns.append(id, requestedCents, CreditApplicationStatus.REJECTED, 0, 0, day, 365, id);
+    }
+}
@@ -0,0 +1,111 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.TestContainerConfig;
+import dev.sc.apm.dto.ApplicationSlicesDto;
+import dev.sc.apm.fixture.ApplicationFixture;
+import dev.sc.apm.repository.ClientRepository;
+import dev.sc.apm.repository.CreditAgreementRepository;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ContextConfiguration;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = TestContainerConfig.Initializer.class)
+public class ApplicationSliceServiceTest {
+
+    @SpyBean
+    private AnalyticService analyticService;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CreditApplicationRepository creditApplicationRepository;
+    @Autowired
+    private CreditAgreementRepository creditAgreementRepository;
+    @Autowired
+    private APMService apmService;
+    @Autowired
+    private ApplicationSliceService applicationSliceService;
+
+    private ApplicationFixture applications;
+
+    @BeforeEach
+    public void clear() {
+        clientRepository.clearAll();
+        creditApplicationRepository.clearAll();
+        creditAgreementRepository.clearAll();
+        applications = new ApplicationFixture(apmService, analyticService);
+    }
+
+    /*
+     * Tests for ApplicationSliceService.reload(), append() and slice(...)
+     *
+     * Aspects of testing:
+     * 1. Loaded applications: bucketed by amount, decided after the load;
+     * 2. Invalid input data: non positive width or buckets;
+     * */
+
+    // Test 1.1 applications of two amounts decided, store reloaded
+    // Expected: one slice per amount, approvals and approved amounts summed
+    @Test
+    public void sliceLoadedApplications() {
+        var first = applications.create(10_000, true);
+        applications.create(10_000, false);
+        var large = applications.create(30_000, true);
+
+        applicationSliceService.reload().join();
+
+        ApplicationSlicesDto actual = applicationSliceService.slice(
+                ApplicationColumns.Dimension.REQUESTED_AMOUNT, 0, 20_000, 2, null, null, null, null);
+
+        assertEquals(3, actual.getScanned());
+        assertEquals(3, actual.getMatched());
+
+        var small = actual.getSlices().get(0);
+        assertEquals(0, small.getFrom());
+        assertEquals(20_000, small.getTo());
+        assertEquals(2, small.getApplications());
+        assertEquals(1, small.getApproved());
+        assertEquals(0.5, small.getApprovalRate(), 1e-9);
+        assertEquals(0, first.getApprovedAmount().compareTo(small.getApprovedAmount()));
+
+        var big = actual.getSlices().get(1);
+        assertEquals(1, big.getApplications());
+        assertEquals(0, large.getApprovedAmount().compareTo(big.getApprovedAmount()));
+        assertEquals((double) large.getApprovedTerm(), big.getAverageTerm(), 1e-9);
+    }
+
+    // Test 1.2 application decided after the load
+    // Expected: appended on the next run, once
+    @Test
+    public void sliceAppendedApplication() {
+        applicationSliceService.reload().join();
+        applications.create(10_000, true);
+
+        applicationSliceService.append();
+        applicationSliceService.append();
+
+        var actual = applicationSliceService.slice(
+                ApplicationColumns.Dimension.APPROVED_TERM, 0, 400, 1, null, null, null, null);
+
+        assertEquals(1, actual.getScanned());
+        assertEquals(1, actual.getSlices().get(0).getApproved());
+    }
+
+    // Test 2.1 zero width, zero buckets
+    // Expected: throw ConstraintViolationException
+    @Test
+    public void sliceInvalidBuckets() {
+        assertThrows(ConstraintViolationException.class, () -> applicationSliceService.slice(
+                ApplicationColumns.Dimension.REQUESTED_AMOUNT, 0, 0, 10, null, null, null, null));
+        assertThrows(ConstraintViolationException.class, () -> applicationSliceService.slice(
+                ApplicationColumns.Dimension.REQUESTED_AMOUNT, 0, 1_000, 0, null, null, null, null));
+    }
+}
@@ -0,0 +1,181 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.TestContainerConfig;
+import dev.sc.apm.dto.ChangeDto;
+import dev.sc.apm.dto.ChangeFeedDto;
+import dev.sc.apm.exception.InvalidChangeTokenException;
+import dev.sc.apm.fixture.ApplicationFixture;
+import dev.sc.apm.repository.ClientRepository;
+import dev.sc.apm.repository.CreditAgreementRepository;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = TestContainerConfig.Initializer.class)
+public class ChangeFeedServiceTest {
+
+    @SpyBean
+    private AnalyticService analyticService;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CreditApplicationRepository creditApplicationRepository;
+    @Autowired
+    private CreditAgreementRepository creditAgreementRepository;
+    @Autowired
+    private APMService apmService;
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    private ApplicationFixture applications;
+
+    private String head;
+
+    @BeforeEach
+    public void clear() {
+        clientRepository.clearAll();
+        creditApplicationRepository.clearAll();
+        creditAgreementRepository.clearAll();
+        applications = new ApplicationFixture(apmService, analyticService);
+
+        // the deletions above are changes too, every test starts after them
+        head = changeFeedService.getHead().getNextToken();
+    }
+
+    /*
+     * Tests for ChangeFeedService.getChanges(...)
+     *
+     * Aspects of testing:
+     * 1. Changes: inserted and updated rows, deleted rows;
+     * 2. Paging: one page, several pages, resuming at the end of the log;
+     * 3. Invalid input data: malformed token, non positive limit;
+     * */
+
+    // Test 1.1 application created after the token
+    // Expected: the client and the application, each once, with their current state
+    @Test
+    public void getChangesOfCreatedApplication() {
+        var application = applications.create(true);
+
+        var actual = changeFeedService.getChanges(head, 100);
+
+        assertFalse(actual.isHasMore());
+        assertEquals(
+                Set.of(ChangeDto.Table.CLIENT, ChangeDto.Table.CREDIT_APPLICATION),
+                actual.getChanges().stream().map(ChangeDto::getTable).collect(Collectors.toSet())
+        );
+        assertEquals(2, actual.getChanges().size());
+
+        var applicationChange = actual.getChanges().stream()
+                .filter(change -> change.getTable() == ChangeDto.Table.CREDIT_APPLICATION)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(application.getId(), applicationChange.getId());
+        assertEquals(application, applicationChange.getApplication());
+
+        var clientChange = actual.getChanges().stream()
+                .filter(change -> change.getTable() == ChangeDto.Table.CLIENT)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(application.getApplicantId(), clientChange.getId());
+        assertNotNull(clientChange.getClient());
+    }
+
+    // Test 1.2 rows deleted after the token
+    // Expected: DELETE changes without row state
+    @Test
+    public void getChangesOfDeletedRows() {
+        applications.create(true);
+        applications.create(false);
+        String afterInserts = changeFeedService.getChanges(head, 100).getNextToken();
+
+        clientRepository.clearAll();
+
+        var actual = changeFeedService.getChanges(afterInserts, 100);
+
+        // clients and, by cascade, their applications
+        assertEquals(4, actual.getChanges().size());
+        actual.getChanges().forEach(change -> {
+            assertEquals(ChangeDto.Operation.DELETE, change.getOperation());
+            assertNull(change.getClient());
+            assertNull(change.getApplication());
+            assertNull(change.getAgreement());
+        });
+    }
+
+    // Test 2.1 changes read one entry per page
+    // Expected: following nextToken serves the same rows as one page
+    @Test
+    public void getChangesPageByPage() {
+        applications.create(true);
+        applications.create(true);
+        applications.create(false);
+
+        Set<String> expected = keys(changeFeedService.getChanges(head, 100));
+
+        Set<String> actual = new HashSet<>();
+        String token = head;
+        int pages = 0;
+        ChangeFeedDto page;
+        do {
+            page = changeFeedService.getChanges(token, 1);
+            actual.addAll(keys(page));
+            token = page.getNextToken();
+            pages++;
+        } while (page.isHasMore());
+
+        assertEquals(expected, actual);
+        // one entry per page, a row changed twice spans two pages
+        assertTrue(pages >= expected.size());
+    }
+
+    // Test 2.2 resume at the end of the log
+    // Expected: no changes, the token is kept
+    @Test
+    public void getChangesAtEndOfLog() {
+        applications.create(true);
+        String end = changeFeedService.getChanges(head, 100).getNextToken();
+
+        var actual = changeFeedService.getChanges(end, 100);
+
+        assertTrue(actual.getChanges().isEmpty());
+        assertFalse(actual.isHasMore());
+        assertEquals(end, actual.getNextToken());
+        assertEquals(end, changeFeedService.getHead().getNextToken());
+    }
+
+    // Test 3.1 malformed token
+    // Expected: InvalidChangeTokenException
+    @Test
+    public void getChangesWithMalformedToken() {
+        assertThrows(InvalidChangeTokenException.class, () -> changeFeedService.getChanges("not a token", 100));
+        assertThrows(InvalidChangeTokenException.class, () -> changeFeedService.getChanges("MTIz", 100));
+    }
+
+    // Test 3.2 non positive limit
+    // Expected: ConstraintViolationException
+    @Test
+    public void getChangesWithInvalidLimit() {
+        assertThrows(ConstraintViolationException.class, () -> changeFeedService.getChanges(head, 0));
+        assertThrows(ConstraintViolationException.class, () -> changeFeedService.getChanges(head, -1));
+    }
+
+    private static Set<String> keys(ChangeFeedDto page) {
+        Set<String> keys = new HashSet<>();
+        page.getChanges().forEach(change -> keys.add(change.getTable() + ":" + change.getId()));
+        return keys;
+    }
+}
@@ -0,0 +1,142 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.TestContainerConfig;
+import dev.sc.apm.dto.ClientDto;
+import dev.sc.apm.entity.Client;
+import dev.sc.apm.entity.MaritalStatus;
+import dev.sc.apm.mapper.ClientMapper;
+import dev.sc.apm.repository.ClientRepository;
+import dev.sc.apm.repository.CreditAgreementRepository;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = TestContainerConfig.Initializer.class)
+public class ClientSearchServiceTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CreditApplicationRepository creditApplicationRepository;
+    @Autowired
+    private CreditAgreementRepository creditAgreementRepository;
+    @Autowired
+    private ClientMapper clientMapper;
+    @Autowired
+    private ClientSearchService clientSearchService;
+
+    private final static AtomicInteger passportNumber = new AtomicInteger(0);
+
+    private String getNextPassport() {
+        return String.format("%010d", passportNumber.getAndIncrement());
+    }
+
+    @BeforeEach
+    public void clear() {
+        clientRepository.clearAll();
+        creditApplicationRepository.clearAll();
+        creditAgreementRepository.clearAll();
+        passportNumber.set(0);
+
+        clientSearchService.rebuild().join();
+    }
+
+    /*
+     * Tests for ClientSearchService.search(...)
+     *
+     * Aspects of testing:
+     * 1. Fields: names, organization, passport, phone;
+     * 2. Matching: exact, prefix, misspelled, several terms;
+     * 3. Incremental updates: created, changed, deleted clients;
+     * 4. Invalid input data: blank text, non positive limit;
+     * */
+
+    // Test 1.1 clients indexed by a rebuild
+    // Expected: found by name, organization, passport prefix and phone digits
+    @Test
+    public void searchRebuiltIndex() {
+        ClientDto ivanov = saveClient("Ivan", "Ivanov", "Sberbank", "+79991234567");
+        ClientDto petrov = saveClient("Petr", "Petrov", "Gazprom", "89997654321");
+
+        clientSearchService.rebuild().join();
+
+        assertEquals(List.of(ivanov), clientSearchService.search("ivanov", 10).getContent());
+        assertEquals(List.of(petrov), clientSearchService.search("GAZ", 10).getContent());
+        assertEquals(List.of(petrov), clientSearchService.search(petrov.getPassport(), 10).getContent());
+        assertEquals(List.of(ivanov), clientSearchService.search("+7999123", 10).getContent());
+        assertTrue(clientSearchService.search("Sidorov", 10).getContent().isEmpty());
+    }
+
+    // Test 2.1 misspelled and partial terms
+    // Expected: every term has to match, exact matches first
+    @Test
+    public void searchMisspelledAndPartialTerms() {
+        ClientDto ivanova = saveClient("Anna", "Ivanova", "Sberbank", "+79991234567");
+        ClientDto ivanov = saveClient("Ivan", "Ivanov", "Sberbank", "+79991234568");
+        saveClient("Ivan", "Petrov", "Gazprom", "+79991234569");
+
+        clientSearchService.refresh();
+
+        assertEquals(List.of(ivanov, ivanova), clientSearchService.search("Ivanov", 10).getContent());
+        assertEquals(List.of(ivanov), clientSearchService.search("Ivanof Sber", 10).getContent());
+        assertEquals(List.of(ivanova), clientSearchService.search("an ivan", 10).getContent());
+    }
+
+    // Test 3.1 clients created, changed and deleted after the rebuild
+    // Expected: searchable after a refresh, with their current names
+    @Test
+    public void searchFollowsChanges() {
+        ClientDto created = saveClient("Ivan", "Ivanov", "Sberbank", "+79991234567");
+
+        clientSearchService.refresh();
+        assertEquals(List.of(created), clientSearchService.search("Ivanov", 10).getContent());
+
+        Client client = clientRepository.findById(created.getId()).orElseThrow();
+        client.setLastName("Smirnov");
+        ClientDto changed = clientMapper.fromClient(clientRepository.save(client));
+
+        clientSearchService.refresh();
+        assertTrue(clientSearchService.search("Ivanov", 10).getContent().isEmpty());
+        assertEquals(List.of(changed), clientSearchService.search("Smirnov", 10).getContent());
+
+        clientRepository.clearAll();
+
+        clientSearchService.refresh();
+        assertTrue(clientSearchService.search("Smirnov", 10).getContent().isEmpty());
+    }
+
+    // Test 4.1 blank text, non positive limit
+    // Expected: throw ConstraintViolationException
+    @Test
+    public void searchWithInvalidInput() {
+        assertThrows(ConstraintViolationException.class, () -> clientSearchService.search(" ", 10));
+        assertThrows(ConstraintViolationException.class, () -> clientSearchService.search("Ivanov", 0));
+    }
+
+    private ClientDto saveClient(String firstName, String lastName, String organizationName, String phone) {
+        var client = clientRepository.save(Client.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .passport(getNextPassport())
+                .phone(phone)
+                .maritalStatus(MaritalStatus.MARRIED)
+                .address("Moscow")
+                .organizationName(organizationName)
+                .position("Manager")
+                .employmentPeriod(Duration.ofDays(400))
+                .build());
+
+        return clientMapper.fromClient(client);
+    }
+}
@@ -2,13 +2,17 @@ package dev.sc.apm.service;
 
 import dev.sc.apm.config.TestContainerConfig;
 import dev.sc.apm.dto.ClientDto;
+import dev.sc.apm.dto.ClientLookupRequestDto;
 import dev.sc.apm.dto.FindClientsRequestDto;
+import dev.sc.apm.dto.LookupResponseDto;
 import dev.sc.apm.dto.PageResponseDto;
 import dev.sc.apm.entity.Client;
 import dev.sc.apm.entity.CreditApplication;
 import dev.sc.apm.entity.CreditApplicationStatus;
 import dev.sc.apm.entity.MaritalStatus;
 import dev.sc.apm.exception.GroupValidationException;
+import dev.sc.apm.exception.InvalidFieldSelectionException;
+import dev.sc.apm.exception.TooManyLookupKeysException;
 import dev.sc.apm.exception.ValidationException;
 import dev.sc.apm.exception.ExceptionName;
 import dev.sc.apm.mapper.ClientMapper;
@@ -29,6 +33,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -783,4 +788,192 @@ public class ClientServiceTest {
 
         assertEquals(expected, actual);
     }
+
+    /*
+     * Test ClientService.findClients(...) with a field selection
+     * */
+
+    // Test 4.1 summary view
+    // Expected: only the summary columns, in declaration order, with the stored values
+    @Test
+    public void findClientSummaries() {
+        List<ClientDto> storedClientDtos = generateClients(3);
+
+        PageResponseDto<Map<String, Object>> actual = clientService.findClients(1, new FindClientsRequestDto(), "summary", null);
+
+        assertEquals(3, actual.getTotal());
+        assertEquals(3, actual.getContent().size());
+
+        for (Map<String, Object> row : actual.getContent()) {
+            assertEquals(List.of("id", "firstName", "lastName", "middleName", "passport", "phone"), List.copyOf(row.keySet()));
+
+            ClientDto stored = storedClientDtos.stream()
+                    .filter(client -> row.get("id").equals(client.getId()))
+                    .findFirst()
+                    .orElseThrow();
+
+            assertEquals(stored.getPassport(), row.get("passport"));
+            assertEquals(stored.getPhone(), row.get("phone"));
+        }
+    }
+
+    // Test 4.2 fields filtered by passport
+    // Expected: the id and the requested columns of the matching client only
+    @Test
+    public void findClientFieldsByPassport() {
+        List<ClientDto> storedClientDtos = generateClients(3);
+        ClientDto expected = storedClientDtos.get(1);
+
+        PageResponseDto<Map<String, Object>> actual = clientService.findClients(
+                1,
+                FindClientsRequestDto.builder().passport(expected.getPassport()).build(),
+                null,
+                "employmentPeriod, maritalStatus"
+        );
+
+        assertEquals(1, actual.getTotal());
+        assertEquals(
+                Map.of(
+                        "id", expected.getId(),
+                        "maritalStatus", expected.getMaritalStatus(),
+                        "employmentPeriod", expected.getEmploymentPeriod()
+                ),
+                actual.getContent().get(0)
+        );
+    }
+
+    // Test 4.3 unknown field
+    // Expected: throw InvalidFieldSelectionException
+    @Test
+    public void findClientFieldsUnknownField() {
+        assertThrows(
+                InvalidFieldSelectionException.class,
+                () -> clientService.findClients(1, new FindClientsRequestDto(), null, "id,creditApplications")
+        );
+    }
+
+    /*
+     * Test ClientService.lookupClients(...)
+     * */
+
+    // Test 5.1 lookup by ids and passports
+    // Expected: ids first, then passports, a client matched twice served once, unknown keys listed as missing
+    @Test
+    public void lookupClientsByIdsAndPassports() {
+        List<ClientDto> storedClientDtos = generateClients(3);
+        ClientDto first = storedClientDtos.get(0);
+        ClientDto second = storedClientDtos.get(1);
+        ClientDto third = storedClientDtos.get(2);
+
+        LookupResponseDto<ClientDto> actual = clientService.lookupClients(ClientLookupRequestDto.builder()
+                .ids(List.of(second.getId(), 101010101010101010L))
+                .passports(List.of(third.getPassport(), second.getPassport(), "9999999999"))
+                .build());
+
+        assertEquals(List.of(second, third), actual.getContent());
+        assertEquals(List.of("101010101010101010", "9999999999"), actual.getMissing());
+        assertFalse(actual.getContent().contains(first));
+    }
+
+    // Test 5.2 more keys than allowed
+    // Expected: throw TooManyLookupKeysException
+    @Test
+    public void lookupClientsTooManyKeys() {
+        List<String> passports = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            passports.add(String.format("%010d", i));
+        }
+
+        assertThrows(
+                TooManyLookupKeysException.class,
+                () -> clientService.lookupClients(ClientLookupRequestDto.builder().passports(passports).build())
+        );
+    }
+
+    /*
+     * Test ClientService.findClients(...) with a match mode
+     * Aspect of testing:
+     * 1. Match: ignore case, prefix, fuzzy
+     * 2. Order: most similar first for fuzzy matches
+     * 3. invalid input data: invalid search term
+     * */
+
+    // Test 6.1 lower case last name
+    // Expected: matched with IGNORE_CASE, rejected as an exact name
+    @Test
+    public void findClientsIgnoringCase() {
+        List<ClientDto> storedClientDtos = generateClients(3);
+
+        var actual = clientService.findClients(1, FindClientsRequestDto.builder()
+                .lastName("iVaNoV")
+                .match(FindClientsRequestDto.Match.IGNORE_CASE)
+                .build());
+
+        assertEquals(storedClientDtos, actual.getContent());
+        assertThrows(
+                GroupValidationException.class,
+                () -> clientService.findClients(1, FindClientsRequestDto.builder().lastName("iVaNoV").build())
+        );
+    }
+
+    // Test 6.2 prefixes of last name and passport
+    // Expected: clients whose passport starts with the prefix, in id order
+    @Test
+    public void findClientsByPrefix() {
+        List<ClientDto> storedClientDtos = generateClients(12);
+
+        var actual = clientService.findClients(1, FindClientsRequestDto.builder()
+                .lastName("iva")
+                .passport("000000000")
+                .match(FindClientsRequestDto.Match.PREFIX)
+                .build());
+
+        assertEquals(10, actual.getTotal());
+        assertEquals(storedClientDtos.subList(0, 10), actual.getContent());
+    }
+
+    // Test 6.3 misspelled last name
+    // Expected: similar last names only, most similar first
+    @Test
+    public void findClientsFuzzyOrderedByRelevance() {
+        ClientDto petrova = saveClient("Petrova");
+        ClientDto petrov = saveClient("Petrov");
+        saveClient("Sidorov");
+
+        var actual = clientService.findClients(1, FindClientsRequestDto.builder()
+                .lastName("Petrof")
+                .match(FindClientsRequestDto.Match.FUZZY)
+                .build());
+
+        assertEquals(List.of(petrov, petrova), actual.getContent());
+    }
+
+    // Test 6.4 search term with digits
+    // Expected: throw GroupValidationException
+    @Test
+    public void findClientsByPrefixWithInvalidTerm() {
+        assertThrows(
+                GroupValidationException.class,
+                () -> clientService.findClients(1, FindClientsRequestDto.builder()
+                        .firstName("iv4n")
+                        .match(FindClientsRequestDto.Match.PREFIX)
+                        .build())
+        );
+    }
+
+    private ClientDto saveClient(String lastName) {
+        var client = clientRepository.save(Client.builder()
+                .firstName("Ivan")
+                .lastName(lastName)
+                .passport(getNextPassport())
+                .phone(phone1)
+                .maritalStatus(MaritalStatus.MARRIED)
+                .address("Moscow")
+                .organizationName("Sberbank")
+                .position("Manager")
+                .employmentPeriod(Duration.ofDays(400))
+                .build());
+
+        return clientMapper.fromClient(client);
+    }
 }
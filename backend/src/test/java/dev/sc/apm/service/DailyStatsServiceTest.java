@@ -0,0 +1,139 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.TestContainerConfig;
+import dev.sc.apm.dto.DailyStatsDto;
+import dev.sc.apm.exception.InvalidDateRangeException;
+import dev.sc.apm.fixture.ApplicationFixture;
+import dev.sc.apm.repository.ClientRepository;
+import dev.sc.apm.repository.CreditAgreementRepository;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import dev.sc.apm.repository.DailyStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = TestContainerConfig.Initializer.class)
+public class DailyStatsServiceTest {
+
+    @SpyBean
+    private AnalyticService analyticService;
+    @SpyBean
+    private DailyStatsRepository dailyStatsRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CreditApplicationRepository creditApplicationRepository;
+    @Autowired
+    private CreditAgreementRepository creditAgreementRepository;
+    @Autowired
+    private APMService apmService;
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    private ApplicationFixture applications;
+
+    // around today, whatever the time zone of the test run
+    private final LocalDate from = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+    private final LocalDate to = LocalDate.now(ZoneOffset.UTC).plusDays(2);
+
+    @BeforeEach
+    public void clear() {
+        clientRepository.clearAll();
+        creditApplicationRepository.clearAll();
+        creditAgreementRepository.clearAll();
+        applications = new ApplicationFixture(apmService, analyticService);
+    }
+
+    /*
+     * Tests for DailyStatsService.refresh() and DailyStatsService.getDaily(...)
+     *
+     * Aspects of testing:
+     * 1. Figures: equal to the live aggregate after a refresh, rates and average term;
+     * 2. Refresh: skipped while the change log has not moved;
+     * 3. Invalid input data: empty or reversed range, range longer than allowed;
+     * */
+
+    // Test 1.1 applications decided, some agreements signed, view refreshed
+    // Expected: the view serves what the aggregate over the tables computes
+    @Test
+    public void getDailyEqualsLiveAggregate() {
+        for (int i = 0; i < 6; i++) {
+            var application = applications.create(i % 3 != 0);
+            if (i % 2 == 0 && application.getApprovedAmount() != null) {
+                apmService.signCreditAgreement(application.getId());
+            }
+        }
+
+        dailyStatsService.refresh();
+
+        var live = dailyStatsRepository.computeBetween(from, to);
+        var actual = dailyStatsService.getDaily(from, to);
+
+        assertEquals(live.size(), actual.size());
+        for (int i = 0; i < live.size(); i++) {
+            assertEquals(live.get(i).day(), actual.get(i).getDay());
+            assertEquals(live.get(i).applications(), actual.get(i).getApplications());
+            assertEquals(live.get(i).approved(), actual.get(i).getApproved());
+            assertEquals(live.get(i).rejected(), actual.get(i).getRejected());
+            assertEquals(0, live.get(i).approvedAmount().compareTo(actual.get(i).getApprovedAmount()));
+            assertEquals(live.get(i).signed(), actual.get(i).getSigned());
+        }
+        assertEquals(6, actual.stream().mapToLong(DailyStatsDto::getApplications).sum());
+    }
+
+    // Test 1.2 two approved applications, one rejected, one agreement signed
+    // Expected: approval rate 2/3, signing conversion 1/2, average of the approved terms
+    @Test
+    public void getDailyRates() {
+        var first = applications.create(true);
+        var second = applications.create(true);
+        applications.create(false);
+        apmService.signCreditAgreement(first.getId());
+
+        dailyStatsService.refresh();
+
+        List<DailyStatsDto> actual = dailyStatsService.getDaily(from, to);
+
+        assertEquals(1, actual.size());
+        var day = actual.get(0);
+        assertEquals(3, day.getApplications());
+        assertEquals(0, day.getPending());
+        assertEquals(2.0 / 3, day.getApprovalRate(), 1e-9);
+        assertEquals(0.5, day.getSigningConversion(), 1e-9);
+        assertEquals((first.getApprovedTerm() + second.getApprovedTerm()) / 2.0, day.getAverageTerm(), 1e-9);
+        assertEquals(0, first.getApprovedAmount().add(second.getApprovedAmount()).compareTo(day.getApprovedAmount()));
+    }
+
+    // Test 2.1 refresh requested again without changes in between
+    // Expected: the view is not refreshed again
+    @Test
+    public void refreshSkippedWithoutChanges() {
+        applications.create(true);
+        dailyStatsService.refresh();
+
+        clearInvocations(dailyStatsRepository);
+        dailyStatsService.refresh();
+
+        verify(dailyStatsRepository, never()).refresh();
+    }
+
+    // Test 3.1 to before from, to equal to from, more days than allowed
+    // Expected: throw InvalidDateRangeException
+    @Test
+    public void getDailyInvalidRange() {
+        assertThrows(InvalidDateRangeException.class, () -> dailyStatsService.getDaily(to, from));
+        assertThrows(InvalidDateRangeException.class, () -> dailyStatsService.getDaily(from, from));
+        assertThrows(InvalidDateRangeException.class, () -> dailyStatsService.getDaily(from.minusYears(2), to));
+    }
+}
@@ -0,0 +1,165 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.TestContainerConfig;
+import dev.sc.apm.dto.DashboardSummaryDto;
+import dev.sc.apm.entity.CreditAgreement;
+import dev.sc.apm.entity.CreditApplication;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import dev.sc.apm.fixture.ApplicationFixture;
+import dev.sc.apm.repository.ClientRepository;
+import dev.sc.apm.repository.CreditAgreementRepository;
+import dev.sc.apm.repository.CreditApplicationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = TestContainerConfig.Initializer.class)
+public class DashboardServiceTest {
+
+    @SpyBean
+    private AnalyticService analyticService;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CreditApplicationRepository creditApplicationRepository;
+    @Autowired
+    private CreditAgreementRepository creditAgreementRepository;
+    @Autowired
+    private APMService apmService;
+    @Autowired
+    private DashboardService dashboardService;
+
+    private ApplicationFixture applications;
+
+    @BeforeEach
+    public void clear() {
+        clientRepository.clearAll();
+        creditApplicationRepository.clearAll();
+        creditAgreementRepository.clearAll();
+        applications = new ApplicationFixture(apmService, analyticService);
+    }
+
+    /*
+     * Tests for DashboardService.getSummary()
+     *
+     * Aspects of testing:
+     * 1. Counted rows: none, decided applications, signed agreements;
+     * 2. Exactness: after deletions, against COUNT / SUM over the tables;
+     * */
+
+    // Test 1.1 no applications
+    // Expected: every status present with zero counts
+    @Test
+    public void getSummaryOfEmptyTables() {
+        var actual = dashboardService.getSummary();
+
+        assertEquals(0, actual.getApplications());
+        assertEquals(0, actual.getAgreements());
+        assertEquals(0, BigDecimal.ZERO.compareTo(actual.getApprovedAmount()));
+        assertEquals(CreditApplicationStatus.values().length, actual.getApplicationsByStatus().size());
+        assertEquals(SigningStatus.values().length, actual.getAgreementsBySigningStatus().size());
+    }
+
+    // Test 1.2 one approved and two rejected applications
+    // Expected: counts by status, the approved amount of the approved one, its agreement not signed
+    @Test
+    public void getSummaryOfDecidedApplications() {
+        var approved = applications.create(true);
+        applications.create(false);
+        applications.create(false);
+
+        var actual = dashboardService.getSummary();
+
+        assertEquals(3, actual.getApplications());
+        assertEquals(1, actual.getApplicationsByStatus().get(CreditApplicationStatus.APPROVED).getCount());
+        assertEquals(2, actual.getApplicationsByStatus().get(CreditApplicationStatus.REJECTED).getCount());
+        assertEquals(0, actual.getApplicationsByStatus().get(CreditApplicationStatus.PENDING).getCount());
+        assertEquals(0, approved.getApprovedAmount().compareTo(actual.getApprovedAmount()));
+
+        assertEquals(1, actual.getAgreements());
+        assertEquals(1L, actual.getAgreementsBySigningStatus().get(SigningStatus.NOT_SIGNED));
+        assertEquals(0L, actual.getAgreementsBySigningStatus().get(SigningStatus.SIGNED));
+    }
+
+    // Test 1.3 agreement signed
+    // Expected: moved from NOT_SIGNED to SIGNED, the total unchanged
+    @Test
+    public void getSummaryAfterSigning() {
+        var approved = applications.create(true);
+
+        apmService.signCreditAgreement(approved.getId());
+
+        var actual = dashboardService.getSummary();
+
+        assertEquals(1, actual.getAgreements());
+        assertEquals(0L, actual.getAgreementsBySigningStatus().get(SigningStatus.NOT_SIGNED));
+        assertEquals(1L, actual.getAgreementsBySigningStatus().get(SigningStatus.SIGNED));
+    }
+
+    // Test 2.1 clients deleted, their applications and agreements by cascade
+    // Expected: zero counts again
+    @Test
+    public void getSummaryAfterDeletion() {
+        applications.create(true);
+        applications.create(false);
+
+        clientRepository.clearAll();
+
+        var actual = dashboardService.getSummary();
+
+        assertEquals(0, actual.getApplications());
+        assertEquals(0, actual.getAgreements());
+        assertEquals(0, BigDecimal.ZERO.compareTo(actual.getApprovedAmount()));
+    }
+
+    // Test 2.2 several decided applications, some signed
+    // Expected: the counts and the amount equal COUNT / SUM over the tables
+    @Test
+    public void getSummaryMatchesTables() {
+        for (int i = 0; i < 10; i++) {
+            var application = applications.create(i % 3 != 0);
+            if (i % 2 == 0 && application.getStatus() == CreditApplicationStatus.APPROVED) {
+                apmService.signCreditAgreement(application.getId());
+            }
+        }
+
+        var actual = dashboardService.getSummary();
+
+        var applications = creditApplicationRepository.findAll();
+        var agreements = creditAgreementRepository.findAll();
+
+        assertEquals(applications.size(), actual.getApplications());
+        for (CreditApplicationStatus status : CreditApplicationStatus.values()) {
+            assertEquals(
+                    applications.stream().filter(application -> application.getStatus() == status).count(),
+                    actual.getApplicationsByStatus().get(status).getCount()
+            );
+        }
+        assertEquals(
+                0,
+                applications.stream()
+                        .map(CreditApplication::getApprovedAmount)
+                        .filter(Objects::nonNull)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add)
+                        .compareTo(actual.getApprovedAmount())
+        );
+
+        assertEquals(agreements.size(), actual.getAgreements());
+        for (SigningStatus status : SigningStatus.values()) {
+            assertEquals(
+                    agreements.stream().map(CreditAgreement::getSigningStatus).filter(status::equals).count(),
+                    actual.getAgreementsBySigningStatus().get(status)
+            );
+        }
+    }
+}
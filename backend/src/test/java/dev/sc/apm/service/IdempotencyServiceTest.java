@@ -0,0 +1,205 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.TestContainerConfig;
+import dev.sc.apm.dto.CreditApplicantDto;
+import dev.sc.apm.dto.CreditApplicationDto;
+import dev.sc.apm.dto.CreditApplicationRequestDto;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.IdempotencyRecord;
+import dev.sc.apm.exception.DeadlineExceededException;
+import dev.sc.apm.exception.IdempotencyKeyReuseException;
+import dev.sc.apm.repository.IdempotencyRecordRepository;
+import dev.sc.apm.util.concurrent.Deadline;
+import dev.sc.apm.util.concurrent.DeadlineContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ContextConfiguration(initializers = TestContainerConfig.Initializer.class)
+public class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final AtomicInteger executions = new AtomicInteger();
+    // responses stay cached in memory across tests, each test uses fresh keys
+    private String key;
+
+    @BeforeEach
+    public void clear() {
+        idempotencyRecordRepository.clearAll();
+        executions.set(0);
+        key = "k-" + UUID.randomUUID();
+    }
+
+    private static CreditApplicationRequestDto request(String passport, long amount) {
+        return CreditApplicationRequestDto.builder()
+                .applicant(CreditApplicantDto.builder()
+                        .firstName("Ivan")
+                        .lastName("Ivanov")
+                        .passport(passport)
+                        .build())
+                .amount(BigDecimal.valueOf(amount))
+                .build();
+    }
+
+    // stands for the creation of an application, every execution gets a new id
+    private Supplier<CreditApplicationDto> action() {
+        return () -> CreditApplicationDto.builder()
+                .id(executions.incrementAndGet())
+                .status(CreditApplicationStatus.PENDING)
+                .build();
+    }
+
+    // Test 1 the same caller sends the same key and payload twice
+    // Expected: executed once, the retry gets the stored response
+    @Test
+    public void retryIsReplayed() {
+        CreditApplicationDto first = idempotencyService.execute("key:partner-a", key, request("0000000001", 1000), action());
+        CreditApplicationDto retry = idempotencyService.execute("key:partner-a", key, request("0000000001", 1000), action());
+
+        assertEquals(1, executions.get());
+        assertEquals(first, retry);
+    }
+
+    // Test 2 the key is reused with another payload
+    // Expected: IdempotencyKeyReuseException, nothing executed
+    @Test
+    public void conflictingPayloadIsRejected() {
+        idempotencyService.execute("key:partner-a", key, request("0000000001", 1000), action());
+
+        assertThrows(IdempotencyKeyReuseException.class, () ->
+                idempotencyService.execute("key:partner-a", key, request("0000000001", 2000), action()));
+        assertEquals(1, executions.get());
+    }
+
+    // Test 3 two callers happen to use the same key
+    // Expected: each gets its own execution, even with different payloads
+    @Test
+    public void keysAreScopedPerCaller() {
+        CreditApplicationDto a = idempotencyService.execute("key:partner-a", key, request("0000000001", 1000), action());
+        CreditApplicationDto b = idempotencyService.execute("key:partner-b", key, request("0000000002", 2000), action());
+
+        assertEquals(2, executions.get());
+        assertNotEquals(a.getId(), b.getId());
+    }
+
+    // Test 4 8 concurrent requests with the same key while the first is still running
+    // Expected: executed once, every request gets its response
+    @Test
+    public void concurrentDuplicatesExecuteOnce() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<CreditApplicationDto> slow = () -> {
+            running.countDown();
+            await(release);
+            return action().get();
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CreditApplicationDto>> responses = new ArrayList<>();
+            responses.add(executor.submit(() ->
+                    idempotencyService.execute("key:partner-a", key, request("0000000001", 1000), slow)));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 7; i++) {
+                responses.add(executor.submit(() ->
+                        idempotencyService.execute("key:partner-a", key, request("0000000001", 1000), slow)));
+            }
+            release.countDown();
+
+            for (Future<CreditApplicationDto> response : responses) {
+                assertEquals(1, response.get(10, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+    }
+
+    // Test 5 a duplicate with a 50 ms deadline arrives while the first request hangs
+    // Expected: the duplicate gives up with DeadlineExceededException instead of waiting for the first
+    @Test
+    public void waitForTheFirstRequestIsBoundedByTheDeadline() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CreditApplicationDto> first = executor.submit(() ->
+                    idempotencyService.execute("key:partner-a", key, request("0000000001", 1000), () -> {
+                        running.countDown();
+                        await(release);
+                        return action().get();
+                    }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            DeadlineContext.set(Deadline.after(Duration.ofMillis(50)));
+            try {
+                assertThrows(DeadlineExceededException.class, () ->
+                        idempotencyService.execute("key:partner-a", key, request("0000000001", 1000), action()));
+            } finally {
+                DeadlineContext.clear();
+            }
+
+            release.countDown();
+            assertEquals(1, first.get(10, TimeUnit.SECONDS).getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Test 6 one expired and one live record are stored
+    // Expected: the purge deletes the expired one only
+    @Test
+    public void purgeDeletesExpiredRecords() {
+        idempotencyRecordRepository.insertIfAbsent(record("expired", LocalDateTime.now().minusMinutes(1)));
+        idempotencyRecordRepository.insertIfAbsent(record("live", LocalDateTime.now().plusHours(1)));
+
+        idempotencyService.purgeExpired();
+
+        assertTrue(idempotencyRecordRepository.findById("expired").isEmpty());
+        assertTrue(idempotencyRecordRepository.findById("live").isPresent());
+    }
+
+    private static IdempotencyRecord record(String key, LocalDateTime expiresAt) {
+        return IdempotencyRecord.builder()
+                .idempotencyKey(key)
+                .requestHash("0".repeat(64))
+                .responseBody("{}")
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.RateLimitProperties;
+import dev.sc.apm.exception.ExceptionName;
+import dev.sc.apm.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitServiceTest {
+
+    private static RateLimitProperties properties(int perKeyBurst, int globalBurst, int maxTrackedKeys) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setApiKeys(Set.of("partner-a", "partner-b"));
+        // refills are negligible within a test
+        properties.setPerApiKey(new RateLimitProperties.Limit(0.001, perKeyBurst));
+        properties.setGlobal(new RateLimitProperties.Limit(0.001, globalBurst));
+        properties.setPerPassport(new RateLimitProperties.Limit(0.001, perKeyBurst));
+        properties.setMaxTrackedKeys(maxTrackedKeys);
+        return properties;
+    }
+
+    private static ExceptionName rejection(Runnable call) {
+        return assertThrows(RateLimitExceededException.class, call::run).getExpName();
+    }
+
+    // Test 1 an issued key, an unknown key and no key from the same address
+    // Expected: the issued key is its own caller, unknown keys fall back to the address
+    @Test
+    public void onlyIssuedKeysIdentifyACaller() {
+        RateLimitService service = new RateLimitService(properties(2, 100, 100), new SimpleMeterRegistry());
+
+        assertEquals("key:partner-a", service.callerOf("partner-a", "10.0.0.1"));
+        assertEquals("addr:10.0.0.1", service.callerOf("made-up", "10.0.0.1"));
+        assertEquals("addr:10.0.0.1", service.callerOf(null, "10.0.0.1"));
+    }
+
+    // Test 2 a caller rotates made up keys
+    // Expected: every key lands in the bucket of its address, the third request is rejected
+    @Test
+    public void rotatingUnknownKeysDoesNotBypassTheLimit() {
+        RateLimitService service = new RateLimitService(properties(2, 100, 100), new SimpleMeterRegistry());
+
+        service.acquireForApiKey(service.callerOf("key-1", "10.0.0.1"));
+        service.acquireForApiKey(service.callerOf("key-2", "10.0.0.1"));
+
+        assertEquals(ExceptionName.RATE_LIMIT_EXCEEDED,
+                rejection(() -> service.acquireForApiKey(service.callerOf("key-3", "10.0.0.1"))));
+        service.acquireForApiKey(service.callerOf("partner-a", "10.0.0.1"));
+    }
+
+    // Test 3 the global bucket is empty
+    // Expected: rejected as overloaded, the caller's bucket is given its permit back each time
+    @Test
+    public void globalRejectionKeepsTheCallerPermit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimitService service = new RateLimitService(properties(2, 1, 100), registry);
+
+        service.acquireForApiKey("key:partner-a");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(ExceptionName.SERVICE_OVERLOADED, rejection(() -> service.acquireForApiKey("key:partner-b")));
+        }
+
+        // a bucket with nothing taken is full and evicted, only partner-a still has a bucket
+        service.evictFullBuckets();
+        assertEquals(1.0, registry.get("apm.rate_limit.buckets").tag("scope", "api_key").gauge().value());
+    }
+
+    // Test 4 more callers than maxTrackedKeys
+    // Expected: the callers beyond the bound share one bucket, the tracked ones keep theirs
+    @Test
+    public void trackedCallersAreBounded() {
+        RateLimitService service = new RateLimitService(properties(2, 100, 2), new SimpleMeterRegistry());
+
+        service.acquireForApiKey("addr:10.0.0.1");
+        service.acquireForApiKey("addr:10.0.0.2");
+
+        service.acquireForApiKey("addr:10.0.0.3");
+        service.acquireForApiKey("addr:10.0.0.4");
+        assertEquals(ExceptionName.RATE_LIMIT_EXCEEDED, rejection(() -> service.acquireForApiKey("addr:10.0.0.5")));
+
+        service.acquireForApiKey("addr:10.0.0.1");
+    }
+}
@@ -0,0 +1,273 @@
+package dev.sc.apm.service;
+
+import dev.sc.apm.config.EventStreamProperties;
+import dev.sc.apm.entity.CreditApplicationStatus;
+import dev.sc.apm.entity.SigningStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatusEventHubTest {
+
+    /*
+     * Records the id of every event written, a send can be held until the gate opens
+     * */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<Long> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await();
+                } catch (InterruptedException e) {
+                    // what an interrupted blocking write on the connection ends with
+                    throw new IOException("interrupted", e);
+                }
+            }
+
+            String text = builder.build().iterator().next().getData().toString();
+            if (text.startsWith("id:")) {
+                sent.add(Long.parseLong(text.substring(3, text.indexOf('\n'))));
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    private EventStreamProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private StatusEventHub hub;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new EventStreamProperties();
+        properties.setBufferSize(2);
+        properties.setReplaySize(1_024);
+        properties.setSenderThreads(2);
+        properties.setSendTimeout(Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (hub != null) {
+            hub.shutdown();
+        }
+    }
+
+    private void startHub() {
+        hub = new StatusEventHub(properties, meterRegistry) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(Long applicationId, Long clientId, Long lastEventId) {
+        return (RecordingEmitter) hub.subscribe(applicationId, clientId, lastEventId);
+    }
+
+    private void publish(long applicationId, long clientId) {
+        hub.onStatusChanged(new StatusChangedEvent(
+                applicationId,
+                clientId,
+                CreditApplicationStatus.APPROVED,
+                SigningStatus.NOT_SIGNED,
+                LocalDateTime.now(),
+                LocalDateTime.now()
+        ));
+    }
+
+    // the next count event ids written to the emitter, then checks nothing else follows
+    private static List<Long> receive(RecordingEmitter emitter, int count) throws InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Long id = emitter.sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(id, "received only " + ids);
+            ids.add(id);
+        }
+        assertNull(emitter.sent.poll(100, TimeUnit.MILLISECONDS));
+        return ids;
+    }
+
+    // Test 1 subscribers without filter, by application and by client, two events
+    // Expected: every subscriber gets exactly the events matching its filters
+    @Test
+    public void fanOutByFilter() throws InterruptedException {
+        startHub();
+
+        RecordingEmitter all = subscribe(null, null, null);
+        RecordingEmitter byApplication = subscribe(1L, null, null);
+        RecordingEmitter byClient = subscribe(null, 20L, null);
+
+        publish(1, 10);
+        publish(2, 20);
+
+        assertEquals(List.of(1L, 2L), receive(all, 2));
+        assertEquals(List.of(1L), receive(byApplication, 1));
+        assertEquals(List.of(2L), receive(byClient, 1));
+        assertEquals(2, meterRegistry.counter("apm.events.published").count());
+    }
+
+    // Test 2 a subscriber blocked in a write while more events arrive than its buffer holds
+    // Expected: it alone is evicted and completed once the write returns, the other one gets every event
+    @Test
+    public void slowSubscriberEvicted() throws InterruptedException {
+        startHub();
+
+        RecordingEmitter slow = subscribe(null, null, null);
+        CountDownLatch gate = new CountDownLatch(1);
+        slow.gate = gate;
+        RecordingEmitter fast = subscribe(null, null, null);
+
+        publish(1, 10);
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        assertEquals(1L, fast.sent.poll(5, TimeUnit.SECONDS));
+
+        // one at a time, the fast subscriber's buffer is as small as the slow one's
+        for (long id = 2; id <= 4; id++) {
+            publish(1, 10);
+            assertEquals(id, fast.sent.poll(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, hub.subscribers());
+        assertEquals(1, meterRegistry.counter("apm.events.evicted").count());
+
+        gate.countDown();
+
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1L), List.copyOf(slow.sent));
+    }
+
+    // Test 3 the only sender thread blocked in a write for longer than the send timeout
+    // Expected: the write is interrupted and the subscriber dropped, the sender serves the others again
+    @Test
+    public void stalledSenderInterrupted() throws InterruptedException {
+        properties.setSenderThreads(1);
+        startHub();
+
+        RecordingEmitter stalled = subscribe(1L, null, null);
+        stalled.gate = new CountDownLatch(1);
+        RecordingEmitter other = subscribe(2L, null, null);
+
+        publish(1, 10);
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(properties.getSendTimeout().toMillis() * 2);
+        hub.disconnectStalled();
+
+        publish(2, 20);
+
+        assertEquals(List.of(2L), receive(other, 1));
+        assertTrue(stalled.sent.isEmpty());
+        assertEquals(1, hub.subscribers());
+        assertEquals(1, meterRegistry.counter("apm.events.stalled").count());
+    }
+
+    // Test 4 reconnect with Last-Event-ID after three events, then a live one
+    // Expected: the two missed events replayed, then the live one
+    @Test
+    public void replaySinceLastEventId() throws InterruptedException {
+        startHub();
+
+        for (int i = 0; i < 3; i++) {
+            publish(1, 10);
+        }
+
+        RecordingEmitter reconnected = subscribe(null, null, 1L);
+        // the replay fills the buffer of two
+        assertEquals(List.of(2L, 3L), receive(reconnected, 2));
+        publish(1, 10);
+
+        assertEquals(List.of(4L), receive(reconnected, 1));
+    }
+
+    // Test 5 reconnect from the start while events are being published
+    // Expected: every event exactly once and in order, whether replayed or offered live
+    @Test
+    public void replayRacingPublish() throws Exception {
+        properties.setBufferSize(1_024);
+        startHub();
+
+        Thread publisher = new Thread(() -> {
+            for (int i = 0; i < 500; i++) {
+                publish(1, 10);
+            }
+        });
+
+        publisher.start();
+        RecordingEmitter reconnected = subscribe(null, null, 0L);
+        publisher.join();
+
+        assertEquals(LongStream.rangeClosed(1, 500).boxed().toList(), receive(reconnected, 500));
+    }
+
+    // Test 6 reconnect from the start after more events than the buffer holds
+    // Expected: the subscriber is evicted and completed at once, no partial replay is written
+    @Test
+    public void replayOverflowEvicts() throws InterruptedException {
+        startHub();
+
+        for (int i = 0; i < 3; i++) {
+            publish(1, 10);
+        }
+
+        RecordingEmitter reconnected = subscribe(null, null, 0L);
+
+        assertTrue(reconnected.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(reconnected.sent.isEmpty());
+        assertEquals(0, hub.subscribers());
+        assertEquals(1, meterRegistry.counter("apm.events.evicted").count());
+    }
+
+    // Test 7 two listeners publishing at the same time
+    // Expected: a subscriber gets every event in the order of its id
+    @Test
+    public void concurrentPublishersKeepOrder() throws Exception {
+        properties.setBufferSize(1_024);
+        startHub();
+
+        RecordingEmitter subscriber = subscribe(null, null, null);
+
+        Thread[] publishers = new Thread[2];
+        for (int i = 0; i < publishers.length; i++) {
+            publishers[i] = new Thread(() -> {
+                for (int j = 0; j < 250; j++) {
+                    publish(1, 10);
+                }
+            });
+            publishers[i].start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        assertEquals(LongStream.rangeClosed(1, 500).boxed().toList(), receive(subscriber, 500));
+    }
+}
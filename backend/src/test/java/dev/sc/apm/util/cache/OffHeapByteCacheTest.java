@@ -0,0 +1,64 @@
+package dev.sc.apm.util.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapByteCacheTest {
+
+    private static byte[] bytes(int size) {
+        return new byte[size];
+    }
+
+    // Test 1 stored bytes are read back
+    // Expected: same content, read-only direct view, reading does not move the stored position
+    @Test
+    public void storesBytesOffHeap() {
+        OffHeapByteCache<String> cache = new OffHeapByteCache<>(1024);
+        cache.put("a", "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+        ByteBuffer first = cache.get("a").orElseThrow();
+        assertTrue(first.isDirect());
+        assertTrue(first.isReadOnly());
+
+        byte[] read = new byte[first.remaining()];
+        first.get(read);
+        assertEquals("{\"id\":1}", new String(read, StandardCharsets.UTF_8));
+
+        assertEquals(8, cache.get("a").orElseThrow().remaining());
+    }
+
+    // Test 2 total size exceeds the limit
+    // Expected: least recently used entries are evicted until it fits
+    @Test
+    public void evictsBySize() {
+        OffHeapByteCache<String> cache = new OffHeapByteCache<>(100);
+        cache.put("a", bytes(40));
+        cache.put("b", bytes(40));
+        cache.get("a");
+        cache.put("c", bytes(40));
+
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+        assertEquals(80, cache.usedBytes());
+        assertEquals(1, cache.evictions());
+    }
+
+    // Test 3 entry larger than the whole cache, entry replaced
+    // Expected: oversized entry is not stored, replaced entry is accounted once
+    @Test
+    public void ignoresOversizedAndAccountsReplacement() {
+        OffHeapByteCache<String> cache = new OffHeapByteCache<>(100);
+        cache.put("big", bytes(101));
+        cache.put("a", bytes(30));
+        cache.put("a", bytes(50));
+
+        assertTrue(cache.get("big").isEmpty());
+        assertEquals(1, cache.size());
+        assertEquals(50, cache.usedBytes());
+    }
+}
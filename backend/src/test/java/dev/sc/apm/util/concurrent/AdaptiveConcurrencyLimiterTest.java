@@ -0,0 +1,101 @@
+package dev.sc.apm.util.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // the baseline is not re-probed within a test
+    private static AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter(initial, 2, 20, 1.5, 0.2, TimeUnit.HOURS.toNanos(1));
+    }
+
+    // takes every slot the limit allows and completes them all with the given latency
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+
+    // Test 1 the limit is used up, latency stays at the baseline
+    // Expected: the limit grows every round until the maximum
+    @Test
+    public void flatLatencyGrowsTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        int previous = limiter.limit();
+        for (int round = 0; round < 3; round++) {
+            saturate(limiter, 10 * MS);
+            assertTrue(limiter.limit() > previous, "round " + round + ": " + limiter.limit());
+            previous = limiter.limit();
+        }
+
+        for (int round = 0; round < 10; round++) {
+            saturate(limiter, 10 * MS);
+        }
+        assertEquals(20, limiter.limit());
+        assertEquals(10.0, limiter.minRttMillis());
+    }
+
+    // Test 2 after a baseline of 10 ms latency rises to 40 ms
+    // Expected: the limit shrinks below where it started and never below the minimum
+    @Test
+    public void risingLatencyShrinksTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        saturate(limiter, 10 * MS);
+        int baseline = limiter.limit();
+
+        for (int round = 0; round < 30; round++) {
+            saturate(limiter, 40 * MS);
+            assertTrue(limiter.limit() >= 2);
+        }
+
+        assertTrue(limiter.limit() < baseline / 2, "limit " + limiter.limit());
+        assertEquals(10.0, limiter.minRttMillis());
+    }
+
+    // Test 3 one request at a time under a limit of 10
+    // Expected: the limit stays, an unused limit says nothing about capacity
+    @Test
+    public void underusedLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(10 * MS);
+        }
+
+        assertEquals(10, limiter.limit());
+    }
+
+    // Test 4 slots are taken up to the limit and released without samples
+    // Expected: the next request is rejected at the limit, every slot comes back, limit and baseline untouched
+    @Test
+    public void releaseWithoutSample() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(4, limiter.inFlight());
+
+        for (int i = 0; i < 4; i++) {
+            limiter.release();
+        }
+
+        assertEquals(0, limiter.inFlight());
+        assertEquals(4, limiter.limit());
+        assertEquals(0.0, limiter.minRttMillis());
+        assertTrue(limiter.tryAcquire());
+    }
+}
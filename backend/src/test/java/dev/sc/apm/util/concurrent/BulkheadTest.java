@@ -0,0 +1,119 @@
+package dev.sc.apm.util.concurrent;
+
+import dev.sc.apm.exception.BulkheadFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadTest {
+
+    private Bulkhead reads;
+    private Bulkhead writes;
+
+    @BeforeEach
+    public void setUp() {
+        reads = new Bulkhead(Workload.READ, 4, 4, Bulkhead.RejectionPolicy.ABORT);
+        writes = new Bulkhead(Workload.WRITE, 4, 4, Bulkhead.RejectionPolicy.ABORT);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reads.shutdown();
+        writes.shutdown();
+    }
+
+    // Test 1 read bulkhead is saturated(all threads busy, queue full)
+    // Expected: next read is rejected at once, writes are still served
+    @Test
+    public void saturatedReadsAreRejectedAndDoNotBlockWrites() {
+        CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(reads.submit(() -> awaitQuietly(release)));
+        }
+
+        assertThrows(BulkheadFullException.class, () -> reads.execute(() -> 1));
+        assertEquals(Workload.WRITE, writes.execute(WorkloadContext::current));
+
+        release.countDown();
+    }
+
+    // Test 2 32 clients keep the read bulkhead flooded with reads that block until released
+    // Expected: every write completes while not a single read has finished, the surplus reads are shed
+    @Test
+    public void writesCompleteWhileReadsAreFlooded() throws Exception {
+        final int readers = 32;
+        final int writeCount = 200;
+
+        CountDownLatch releaseReads = new CountDownLatch(1);
+        CountDownLatch readsRunning = new CountDownLatch(4);
+        CountDownLatch readShed = new CountDownLatch(1);
+        LongAdder shedReads = new LongAdder();
+        LongAdder finishedReads = new LongAdder();
+
+        ExecutorService clients = Executors.newFixedThreadPool(readers);
+        try {
+            for (int i = 0; i < readers; i++) {
+                clients.submit(() -> {
+                    while (releaseReads.getCount() > 0) {
+                        try {
+                            reads.execute(() -> {
+                                readsRunning.countDown();
+                                awaitQuietly(releaseReads);
+                                finishedReads.increment();
+                                return null;
+                            });
+                        } catch (BulkheadFullException e) {
+                            shedReads.increment();
+                            readShed.countDown();
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+
+            // every read thread is blocked and the queue is full, the clients keep it that way
+            assertTrue(readsRunning.await(10, TimeUnit.SECONDS));
+            assertTrue(readShed.await(10, TimeUnit.SECONDS));
+
+            int completedWrites = 0;
+            for (int i = 0; i < writeCount; i++) {
+                writes.execute(() -> sleepQuietly(1));
+                completedWrites++;
+            }
+
+            assertEquals(writeCount, completedWrites);
+            assertEquals(0, finishedReads.sum());
+            assertTrue(shedReads.sum() > 0);
+        } finally {
+            releaseReads.countDown();
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Object sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,141 @@
+package dev.sc.apm.util.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private final List<CircuitBreaker.State> transitions = new ArrayList<>();
+
+    private CircuitBreaker breaker(long openMillis) {
+        return new CircuitBreaker(
+                10,
+                4,
+                0.5,
+                0.5,
+                TimeUnit.MILLISECONDS.toNanos(100),
+                TimeUnit.MILLISECONDS.toNanos(openMillis),
+                2,
+                (from, to) -> transitions.add(to)
+        );
+    }
+
+    // Test 1 half of the calls fail
+    // Expected: breaker opens and rejects calls
+    @Test
+    public void opensOnFailureRate() {
+        CircuitBreaker breaker = breaker(60_000);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(0);
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertTrue(breaker.isRejecting());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(List.of(CircuitBreaker.State.OPEN), transitions);
+    }
+
+    // Test 2 calls succeed but are slow
+    // Expected: breaker opens
+    @Test
+    public void opensOnSlowCalls() {
+        CircuitBreaker breaker = breaker(60_000);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(150));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    // Test 3 open duration elapsed and probes succeed
+    // Expected: only half-open permits are let through, then breaker closes
+    @Test
+    public void closesAfterSuccessfulProbes() throws InterruptedException {
+        CircuitBreaker breaker = breaker(50);
+
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        Thread.sleep(80);
+
+        assertFalse(breaker.isRejecting());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onSuccess(0);
+        breaker.onSuccess(0);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(
+                List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED),
+                transitions
+        );
+    }
+
+    // Test 4 a probe fails
+    // Expected: breaker opens again
+    @Test
+    public void reopensOnFailedProbe() throws InterruptedException {
+        CircuitBreaker breaker = breaker(50);
+
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+
+        Thread.sleep(80);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    // Test 5 failures that are ignored, then a half-open probe that is ignored
+    // Expected: the breaker stays closed; the probe's permit is given back and another probe gets through
+    @Test
+    public void ignoredCallsAreNotRecorded() throws InterruptedException {
+        CircuitBreaker breaker = breaker(50);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onIgnored();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        Thread.sleep(80);
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onIgnored();
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onSuccess(0);
+        breaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+}
@@ -0,0 +1,77 @@
+package dev.sc.apm.util.concurrent;
+
+import dev.sc.apm.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeadlineTest {
+
+    // Test 1 a deadline with budget left and one without
+    // Expected: only the spent one is expired and fails the check
+    @Test
+    public void expiry() {
+        Deadline live = Deadline.after(Duration.ofHours(1));
+        Deadline spent = Deadline.after(Duration.ZERO);
+
+        assertFalse(live.isExpired());
+        assertDoesNotThrow(live::checkNotExpired);
+        assertTrue(live.remainingMillis() > 0);
+
+        assertTrue(spent.isExpired());
+        assertThrows(DeadlineExceededException.class, spent::checkNotExpired);
+        assertEquals(0, spent.remainingMillis());
+    }
+
+    // Test 2 the deadline is cancelled twice while a canceller is registered
+    // Expected: the canceller runs once
+    @Test
+    public void cancellerRunsOnce() {
+        Deadline deadline = Deadline.after(Duration.ofHours(1));
+        AtomicInteger cancelled = new AtomicInteger();
+
+        deadline.onCancel(cancelled::incrementAndGet);
+        deadline.cancel();
+        deadline.cancel();
+
+        assertEquals(1, cancelled.get());
+    }
+
+    // Test 3 the statement finished and cleared its canceller before the cancel
+    // Expected: nothing is cancelled; clearing someone else's canceller leaves it in place
+    @Test
+    public void clearedCancellerIsNotRun() {
+        Deadline deadline = Deadline.after(Duration.ofHours(1));
+        AtomicInteger cancelled = new AtomicInteger();
+        Runnable first = cancelled::incrementAndGet;
+        Runnable second = cancelled::incrementAndGet;
+
+        deadline.onCancel(first);
+        deadline.clearCanceller(first);
+        deadline.cancel();
+        assertEquals(0, cancelled.get());
+
+        deadline.onCancel(second);
+        deadline.clearCanceller(first);
+        deadline.cancel();
+        assertEquals(1, cancelled.get());
+    }
+
+    // Test 4 a deadline is bound to the thread and cleared
+    // Expected: the context checks it while bound, passes without one
+    @Test
+    public void context() {
+        DeadlineContext.set(Deadline.after(Duration.ZERO));
+        try {
+            assertThrows(DeadlineExceededException.class, DeadlineContext::checkNotExpired);
+        } finally {
+            DeadlineContext.clear();
+        }
+
+        assertNull(DeadlineContext.current());
+        assertDoesNotThrow(DeadlineContext::checkNotExpired);
+    }
+}
@@ -0,0 +1,34 @@
+package dev.sc.apm.util.converter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializedJsonTest {
+
+    // Test 1 no Accept, any type, JSON
+    // Expected: JSON is accepted
+    @Test
+    public void jsonAccepted() {
+        assertTrue(SerializedJson.isAcceptedBy(null));
+        assertTrue(SerializedJson.isAcceptedBy("*/*"));
+        assertTrue(SerializedJson.isAcceptedBy("application/json"));
+        assertTrue(SerializedJson.isAcceptedBy("application/cbor;q=0.5, application/json"));
+    }
+
+    // Test 2 binary format preferred or only binary accepted
+    // Expected: JSON is not served
+    @Test
+    public void binaryPreferred() {
+        assertFalse(SerializedJson.isAcceptedBy("application/cbor"));
+        assertFalse(SerializedJson.isAcceptedBy("application/x-protobuf, */*;q=0.1"));
+        assertFalse(SerializedJson.isAcceptedBy("application/x-jackson-smile"));
+    }
+
+    // Test 3 malformed Accept
+    // Expected: JSON is not served from cache, the regular negotiation reports the error
+    @Test
+    public void malformedAccept() {
+        assertFalse(SerializedJson.isAcceptedBy("not a media type"));
+    }
+}
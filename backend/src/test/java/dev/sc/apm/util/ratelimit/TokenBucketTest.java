@@ -0,0 +1,52 @@
+package dev.sc.apm.util.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    // Test 1 a burst of 3 at 1 permit per second is taken at once
+    // Expected: the fourth permit waits a second, one permit is back a second later
+    @Test
+    public void burstThenRefill() {
+        TokenBucket bucket = new TokenBucket(1, 3, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        assertEquals(SECOND, bucket.tryAcquire(0));
+
+        assertEquals(0, bucket.tryAcquire(SECOND));
+        assertTrue(bucket.tryAcquire(SECOND) > 0);
+    }
+
+    // Test 2 the bucket is drained and asked again
+    // Expected: available permits never go below zero
+    @Test
+    public void availablePermitsAreNotNegative() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertEquals(0.0, bucket.availablePermits(0));
+        assertEquals(1.0, bucket.availablePermits(SECOND));
+    }
+
+    // Test 3 a permit is taken and released
+    // Expected: the bucket is full again
+    @Test
+    public void releaseGivesThePermitBack() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertFalse(bucket.isFull(0));
+
+        bucket.release();
+        assertTrue(bucket.isFull(0));
+        assertEquals(0, bucket.tryAcquire(0));
+    }
+}
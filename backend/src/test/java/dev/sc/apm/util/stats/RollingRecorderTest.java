@@ -0,0 +1,114 @@
+package dev.sc.apm.util.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollingRecorderTest {
+
+    // Test 1 every value from 0 to 2^20 is indexed
+    // Expected: the value lies in its bucket, bounds grow with the index, a bucket is at most 1/16 of its values wide
+    @Test
+    public void bucketsHoldTheirValuesWithBoundedError() {
+        int previous = 0;
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = LogLinearHistogram.index(value);
+            long upper = LogLinearHistogram.upperBound(index);
+            long lower = index == 0 ? 0 : LogLinearHistogram.upperBound(index - 1) + 1;
+
+            assertTrue(index >= previous);
+            assertTrue(lower <= value && value <= upper, "value " + value + " in bucket " + index);
+            assertTrue(upper - lower <= Math.max(0, value / 16), "bucket " + index + " too wide");
+            previous = index;
+        }
+
+        assertEquals(LogLinearHistogram.BUCKETS - 1, LogLinearHistogram.index(Long.MAX_VALUE));
+        assertEquals(0, LogLinearHistogram.index(-5));
+    }
+
+    // Test 2 values 1..1000 are recorded in one slot
+    // Expected: p50 and p99 within 1/16 above 500 and 990, the counters are exact
+    @Test
+    public void percentilesOfASlot() {
+        RollingRecorder recorder = new RollingRecorder(1_000, 60, 1, 1);
+        for (int value = 1; value <= 1000; value++) {
+            recorder.increment(0, 5_000);
+            recorder.record(0, value, 5_000);
+        }
+
+        RollingRecorder.Snapshot snapshot = recorder.snapshot(5_500);
+        long p50 = LogLinearHistogram.valueAt(snapshot.histograms()[0], 0.5);
+        long p99 = LogLinearHistogram.valueAt(snapshot.histograms()[0], 0.99);
+
+        assertEquals(1000, snapshot.counters()[0]);
+        assertTrue(p50 >= 500 && p50 <= 500 + 500 / 16, "p50 " + p50);
+        assertTrue(p99 >= 990 && p99 <= 990 + 990 / 16, "p99 " + p99);
+        assertEquals(-1, LogLinearHistogram.valueAt(new long[LogLinearHistogram.BUCKETS], 0.5));
+    }
+
+    // Test 3 counts in three seconds of a 10 x 1s window, read as time passes
+    // Expected: slots older than the window are left out, a reused slot starts from zero
+    @Test
+    public void slotsExpireAndAreReused() {
+        RollingRecorder recorder = new RollingRecorder(1_000, 10, 1, 0);
+        recorder.increment(0, 0);
+        recorder.increment(0, 1_000);
+        recorder.increment(0, 1_000);
+        recorder.increment(0, 2_500);
+
+        assertEquals(4, recorder.snapshot(2_999).counters()[0]);
+        assertEquals(3, recorder.snapshot(10_000).counters()[0]);
+        assertEquals(1, recorder.snapshot(11_000).counters()[0]);
+        assertEquals(0, recorder.snapshot(60_000).counters()[0]);
+
+        // second 10 shares the slot of second 0
+        recorder.increment(0, 10_200);
+        assertEquals(4, recorder.snapshot(10_500).counters()[0]);
+        assertEquals(10_000 - 1_000 + 501, recorder.snapshot(10_500).spanMillis());
+    }
+
+    // Test 4 8 threads count 100 000 times each within one slot
+    // Expected: no increment is lost
+    @Test
+    public void concurrentIncrementsAreNotLost() throws Exception {
+        RollingRecorder recorder = new RollingRecorder(60_000, 10, 1, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100_000; i++) {
+                        recorder.increment(0, 30_000);
+                        recorder.record(0, i, 30_000);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        RollingRecorder.Snapshot snapshot = recorder.snapshot(30_000);
+        long recorded = 0;
+        for (long count : snapshot.histograms()[0]) {
+            recorded += count;
+        }
+
+        assertEquals(800_000, snapshot.counters()[0]);
+        assertEquals(800_000, recorded);
+    }
+}